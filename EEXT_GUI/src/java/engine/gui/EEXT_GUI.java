@@ -15,6 +15,8 @@ import org.joml.Vector2dc;
 import org.joml.Vector2i;
 import org.joml.Vector2ic;
 
+import java.util.Set;
+
 public class EEXT_GUI extends Extension
 {
     public static final EEXT_GUI INSTANCE = new EEXT_GUI();
@@ -27,6 +29,7 @@ public class EEXT_GUI extends Extension
     private Theme   theme;
     private boolean liveThemeUpdates = true;
     private double  themeUpdateTime  = 0.0;
+    private boolean themeChanged     = false;
     
     private UIContainer rootContainer;
     
@@ -80,6 +83,31 @@ public class EEXT_GUI extends Extension
         FontFamily.register("fonts", "OpenSans");
     }
     
+    /**
+     * Checks the theme file for changes once a second. Loading the theme and rebuilding the elements creates fonts and
+     * textures, so that is left to {@link #beforeDraw}.
+     *
+     * @param elapsedTime The time in seconds since the last frame.
+     */
+    @Override
+    public void update(double elapsedTime)
+    {
+        if (this.liveThemeUpdates)
+        {
+            if ((this.themeUpdateTime += elapsedTime) >= 1.0)
+            {
+                this.themeUpdateTime = 0.0;
+                if (this.theme.fileChanged()) this.themeChanged = true;
+            }
+        }
+    }
+    
+    @Override
+    public Set<String> writes()
+    {
+        return Set.of("gui");
+    }
+    
     /**
      * This is called once per frame before the {@link Engine#draw} method is called.
      *
@@ -90,17 +118,17 @@ public class EEXT_GUI extends Extension
     {
         Engine.profiler().startSection("Theme Update");
         {
-            if (this.liveThemeUpdates)
+            if (this.themeChanged)
             {
-                if ((this.themeUpdateTime += elapsedTime) >= 1.0)
-                {
-                    this.themeUpdateTime = 0.0;
-                    if (this.theme.shouldReload())
-                    {
-                        this.redrawScreen = true;
-                        this.rootContainer.rebuildThemeFromFileChange();
-                    }
-                }
+                this.themeChanged = false;
+                this.theme.reload();
+                this.redrawScreen = true;
+                this.rootContainer.rebuildThemeFromFileChange();
+            }
+            if (this.theme.imagesLoaded())
+            {
+                this.redrawScreen = true;
+                this.rootContainer.rebuildThemeFromFileChange();
             }
         }
         Engine.profiler().endSection();
@@ -115,6 +143,8 @@ public class EEXT_GUI extends Extension
             UIElement prevTopElement = this.topElement;
             this.topElement = null;
             
+            // Solved here instead of in update, after the user tick and the theme rebuild, so that elements that were
+            // added, removed, moved or laid out again this frame are hit tested where they are now.
             boolean blockingWindow = false;
             for (UIElement element : this.rootContainer.elements())
             {
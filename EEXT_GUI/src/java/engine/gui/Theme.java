@@ -7,6 +7,7 @@ import engine.font.Font;
 import engine.font.Weight;
 import engine.gui.util.Rect;
 import engine.render.Texture;
+import engine.render.TextureLoader;
 import rutils.Logger;
 
 import java.io.FileReader;
@@ -37,7 +38,9 @@ public class Theme
     private final HashMap<String, Integer>                  elementFontSizes = new HashMap<>();
     private final HashMap<String, HashMap<String, String>>  elementMiscData  = new HashMap<>();
     
-    private final HashMap<String, Texture> loadedImages = new HashMap<>();
+    private final HashMap<String, TextureLoader.Handle> loadedImages = new HashMap<>();
+    
+    private boolean imagesLoaded;
     
     public Theme()
     {
@@ -155,6 +158,18 @@ public class Theme
     }
     
     public boolean shouldReload()
+    {
+        if (fileChanged()) reload();
+        return false;
+    }
+    
+    /**
+     * Checks if the theme file was modified since it was last loaded or checked. This only reads the file's modified time,
+     * so it can be called off the render thread.
+     *
+     * @return If the theme file changed.
+     */
+    public boolean fileChanged()
     {
         if (this.themeResourcePath != null)
         {
@@ -164,7 +179,7 @@ public class Theme
                 if (lastModified != this.themeResourceLastModified)
                 {
                     this.themeResourceLastModified = lastModified;
-                    reload();
+                    return true;
                 }
             }
             catch (IOException ignored) { }
@@ -370,31 +385,32 @@ public class Theme
                 IData data = dataMap.get(imageKey);
                 if (data.changed)
                 {
-                    Texture image;
-                    if (this.loadedImages.containsKey(data.path))
+                    TextureLoader.Handle handle = this.loadedImages.get(data.path);
+                    if (handle != null)
                     {
                         Theme.LOGGER.finest("Image already loaded: " + data.path);
-                        
-                        image = this.loadedImages.get(data.path);
                     }
                     else
                     {
                         Theme.LOGGER.finest("Loading image: " + data.path);
                         
-                        image = Texture.loadImage(data.path);
-                        if (image.width() == 0) image = null;
-                        if (image != null) this.loadedImages.put(data.path, image);
+                        handle = TextureLoader.load(data.path);
+                        this.loadedImages.put(data.path, handle);
                     }
-                    if (image != null)
-                    {
-                        if (data.rect != null)
+                    
+                    // Images are decoded and uploaded in the background, so they are added to the element when they are ready.
+                    HashMap<String, Texture> images = this.elementImages.get(elementKey);
+                    Rect                     rect   = data.rect;
+                    handle.future().thenAccept(image -> {
+                        if (rect != null)
                         {
-                            Theme.LOGGER.finest("Creating sub texture: " + data.rect);
+                            Theme.LOGGER.finest("Creating sub texture: " + rect);
                             
-                            image = image.subTexture(data.rect.x(), data.rect.y(), data.rect.width(), data.rect.height());
+                            image = image.subTexture(rect.x(), rect.y(), rect.width(), rect.height());
                         }
-                        this.elementImages.get(elementKey).put(imageKey, image);
-                    }
+                        images.put(imageKey, image);
+                        this.imagesLoaded = true;
+                    });
                 }
             }
         }
@@ -418,6 +434,13 @@ public class Theme
         }
     }
     
+    public boolean imagesLoaded()
+    {
+        boolean imagesLoaded = this.imagesLoaded;
+        this.imagesLoaded = false;
+        return imagesLoaded;
+    }
+    
     public Colorc getColor(String[] objectIDs, String[] elementIDs, String colorID)
     {
         for (String combinedElementID : buildAllCombinedIDs(objectIDs, elementIDs))
@@ -12,13 +12,11 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.*;
 import org.lwjgl.PointerBuffer;
-import org.lwjgl.glfw.GLFWGamepadState;
 import org.lwjgl.system.APIUtil;
 import org.lwjgl.system.Callback;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 import rutils.Logger;
-import rutils.group.Pair;
 import rutils.group.Triple;
 import rutils.profiler.Profiler;
 import rutils.profiler.Section;
@@ -28,12 +26,17 @@ import java.lang.Math;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import static org.lwjgl.glfw.GLFW.*;
+import static engine.render.OpenGL.glBindFramebuffer;
+import static engine.render.OpenGL.glViewport;
 import static org.lwjgl.opengl.GL43.*;
 import static org.lwjgl.stb.STBEasyFont.*;
 import static org.lwjgl.stb.STBImageWrite.stbi_write_png;
@@ -50,9 +53,25 @@ public class Engine
     
     protected static final HashMap<String, Extension> extensions = new LinkedHashMap<>();
     
+    protected static final List<Extension> updatingExtensions = new ArrayList<>();
+    
     protected static long frameRate;
     protected static long frameCount;
     
+    protected static long   tickRate;
+    protected static long   tickCount;
+    protected static double tickAlpha;
+    
+    /**
+     * The most fixed updates that are run in one frame. If the loop falls further behind than this, the extra time is dropped.
+     */
+    protected static final int MAX_TICKS = 8;
+    
+    /**
+     * The time in nanoseconds at the end of a frame wait that is spun instead of parked, since a parked thread can wake up late.
+     */
+    protected static final long SPIN_TIME = 1_000_000L;
+    
     protected static final Vector2i screenSize = new Vector2i();
     protected static final Vector2i pixelSize  = new Vector2i();
     protected static final Vector2i viewPos    = new Vector2i();
@@ -75,13 +94,7 @@ public class Engine
     protected static Mouse    mouse;
     protected static Keyboard keyboard;
     
-    protected static final Map<Integer, Joystick> joysticks = new LinkedHashMap<>();
-    
-    // -------------------- Joystick Callback Emulation -------------------- //
-    private static final float[][] JOYSTICK_AXIS_STATES   = new float[GLFW_JOYSTICK_LAST][];
-    private static final byte[][]  JOYSTICK_BUTTON_STATES = new byte[GLFW_JOYSTICK_LAST][];
-    private static final byte[][]  JOYSTICK_HAT_STATES    = new byte[GLFW_JOYSTICK_LAST][];
-    // -------------------- Joystick Callback Emulation -------------------- //
+    protected static final Map<Integer, Joystick> joysticks = new ConcurrentSkipListMap<>();
     
     protected static Renderer renderer;
     
@@ -215,6 +228,7 @@ public class Engine
                         extInstance = ext.getConstructor().newInstance();
                     }
                     Engine.extensions.put(name, extInstance);
+                    if (ext.getMethod("update", double.class).getDeclaringClass() != Extension.class) Engine.updatingExtensions.add(extInstance);
                     Engine.LOGGER.info("Loaded: %s", name);
                 }
                 catch (ReflectiveOperationException ignored) { }
@@ -256,6 +270,7 @@ public class Engine
                 new Thread(() -> {
                     try
                     {
+                        Engine.renderThread = Thread.currentThread();
                         Engine.window.makeCurrent();
                         org.lwjgl.opengl.GL.createCapabilities();
                         
@@ -272,6 +287,8 @@ public class Engine
                         
                         int totalFrames = 0;
                         
+                        long accumulator = 0;
+                        
                         while (Engine.running)
                         {
                             t = nanoseconds();
@@ -282,7 +299,24 @@ public class Engine
                                 lastFrame = t;
                                 
                                 Engine.profiler.startFrame();
+                                GLShader.resetUniformTotals();
+                                GLState.resetCounts();
+                                Renderer.textCache().resetCounts();
+                                Font.atlas().resetCounts();
+                                EventPool.resetCounts();
+                                TextureLoader.resetCounts();
                                 {
+                                    long tasksStart = nanoseconds();
+                                    try (Section tasks = Engine.profiler.startSection("Tasks"))
+                                    {
+                                        Engine.renderTasks.run(Engine.taskBudget);
+                                    }
+                                    
+                                    try (Section uploads = Engine.profiler.startSection("Texture Uploads"))
+                                    {
+                                        TextureLoader.upload(Math.max(Engine.taskBudget - (nanoseconds() - tasksStart), 0));
+                                    }
+                                    
                                     try (Section events = Engine.profiler.startSection("Events"))
                                     {
                                         try (Section mouse = Engine.profiler.startSection("Mouse"))
@@ -338,6 +372,11 @@ public class Engine
                                                 Engine.profilerMode = 4;
                                                 notification("Profile Mode: Real-Time");
                                             }
+                                            if (Engine.keyboard.down(Keyboard.Key.F9) && Modifier.testExclusive(Modifier.CONTROL, Modifier.ALT, Modifier.SHIFT))
+                                            {
+                                                Engine.renderer.batching(!Engine.renderer.batching());
+                                                notification(Engine.renderer.batching() ? "Renderer Batching: On" : "Renderer Batching: Off");
+                                            }
                                             if (Engine.keyboard.down(Keyboard.Key.F10) && Modifier.testExclusive(Modifier.CONTROL, Modifier.ALT, Modifier.SHIFT))
                                             {
                                                 Engine.renderer.debug(!Engine.renderer.debug());
@@ -357,7 +396,7 @@ public class Engine
                                             {
                                                 for (int i = 1; i < 9; i++)
                                                 {
-                                                    if (Engine.keyboard.down(Keyboard.Key.get("K" + i)) && Engine.profilerData.size() > i)
+                                                    if (Engine.keyboard.down(Keyboard.Key.KEYS[Keyboard.Key.K1.ordinal() + i - 1]) && Engine.profilerData.size() > i)
                                                     {
                                                         String name = Engine.profilerData.get(i).name;
                                                         if (name.contains(".")) name = name.substring(name.lastIndexOf(".") + 1);
@@ -379,6 +418,31 @@ public class Engine
                                         }
                                     }
                                     
+                                    try (Section extensionUpdate = Engine.profiler.startSection("Extension Update"))
+                                    {
+                                        if (!Engine.paused)
+                                        {
+                                            Engine.LOGGER.finer("Extension Update");
+                                            updateExtensions(dt / 1_000_000_000D);
+                                        }
+                                    }
+                                    
+                                    try (Section update = Engine.profiler.startSection("Update"))
+                                    {
+                                        if (Engine.tickRate > 0 && !Engine.paused)
+                                        {
+                                            Engine.LOGGER.finer("User Update");
+                                            accumulator = Math.min(accumulator + dt, Engine.MAX_TICKS * Engine.tickRate);
+                                            while (accumulator >= Engine.tickRate)
+                                            {
+                                                Engine.logic.update(Engine.tickRate / 1_000_000_000D);
+                                                accumulator -= Engine.tickRate;
+                                                Engine.tickCount++;
+                                            }
+                                            Engine.tickAlpha = (double) accumulator / (double) Engine.tickRate;
+                                        }
+                                    }
+                                    
                                     try (Section draw = Engine.profiler.startSection("Draw"))
                                     {
                                         if (!Engine.paused)
@@ -414,6 +478,11 @@ public class Engine
                                                 Engine.renderer.pop();
                                             }
                                             
+                                            try (Section replay = Engine.profiler.startSection("Command Buffers"))
+                                            {
+                                                Engine.renderer.replay();
+                                            }
+                                            
                                             try (Section extensionPostDraw = Engine.profiler.startSection("Extension Post Draw"))
                                             {
                                                 Engine.LOGGER.finer("Extension Post Draw");
@@ -488,6 +557,12 @@ public class Engine
                                         if (Engine.debug)
                                         {
                                             drawDebugText(0, 0, "Frame: " + Engine.frameCount);
+                                            drawDebugText(0, stb_easy_font_height(" "), "Uniforms: " + GLShader.totalIssuedUniforms() + " issued, " + GLShader.totalSkippedUniforms() + " skipped");
+                                            drawDebugText(0, stb_easy_font_height(" \n "), "State: " + GLState.changeCount() + " changed, " + GLState.avoidedCount() + " avoided");
+                                            drawDebugText(0, stb_easy_font_height(" \n \n "), "Text: " + Renderer.textCache().hits() + " cached, " + Renderer.textCache().misses() + " laid out");
+                                            drawDebugText(0, stb_easy_font_height(" \n \n \n "), "Glyphs: " + Font.atlas().hits() + " hits, " + Font.atlas().misses() + " misses, " + Font.atlas().evictions() + " evicted");
+                                            drawDebugText(0, stb_easy_font_height(" \n \n \n \n "), "Events: " + EventPool.reused() + " reused, " + EventPool.created() + " allocated, " + EventPool.retained() + " retained");
+                                            if (Engine.renderer.batching()) drawDebugText(0, stb_easy_font_height(" \n \n \n \n \n "), "Batches: " + Engine.renderer.batchCount());
                                         }
                                         if (Engine.profilerData != null && Engine.profilerData.size() > 0)
                                         {
@@ -638,6 +713,8 @@ public class Engine
     
                                 totalFrames = 0;
                             }
+                            
+                            if (Engine.frameRate > 0) waitUntil(lastFrame + Engine.frameRate);
                         }
                     }
                     catch (Exception e)
@@ -646,6 +723,9 @@ public class Engine
                     }
                     finally
                     {
+                        Engine.renderTasks.cancel("Render thread stopped");
+                        TextureLoader.destroy();
+                        
                         Engine.window.unmakeCurrent();
                         org.lwjgl.opengl.GL.destroy();
                         org.lwjgl.opengl.GL.setCapabilities(null);
@@ -660,94 +740,16 @@ public class Engine
                 {
                     while (Engine.running)
                     {
-                        glfwPollEvents();
+                        // Tasks from other threads post an empty event to wake this up, the timeout keeps the joysticks polled.
+                        glfwWaitEventsTimeout(0.001);
                         
-                        // -------------------- Joystick Callback Emulation -------------------- //
-                        {
-                            for (int jid = GLFW_JOYSTICK_1; jid < GLFW_JOYSTICK_LAST; jid++)
-                            {
-                                int n;
-                                
-                                if (glfwJoystickPresent(jid))
-                                {
-                                    FloatBuffer axes    = null;
-                                    ByteBuffer  buttons = null;
-                                    ByteBuffer  hats    = glfwGetJoystickHats(jid);
-                                    
-                                    if (!glfwJoystickIsGamepad(jid))
-                                    {
-                                        axes    = glfwGetJoystickAxes(jid);
-                                        buttons = glfwGetJoystickButtons(jid);
-                                    }
-                                    else
-                                    {
-                                        try (MemoryStack stack = MemoryStack.stackPush())
-                                        {
-                                            GLFWGamepadState state = GLFWGamepadState.mallocStack(stack);
-                                            
-                                            if (glfwGetGamepadState(jid, state))
-                                            {
-                                                axes    = state.axes();
-                                                buttons = state.buttons();
-                                            }
-                                        }
-                                    }
-                                    
-                                    if (axes != null)
-                                    {
-                                        n = axes.remaining();
-                                        if (Engine.JOYSTICK_AXIS_STATES[jid].length != n) Engine.JOYSTICK_AXIS_STATES[jid] = new float[n];
-                                        for (int axis = 0; axis < n; axis++)
-                                        {
-                                            float newValue = axes.get(axis);
-                                            if (Float.compare(Engine.JOYSTICK_AXIS_STATES[jid][axis], newValue) != 0)
-                                            {
-                                                Engine.JOYSTICK_AXIS_STATES[jid][axis] = newValue;
-                                                if (!glfwJoystickPresent(jid)) break;
-                                                joystickAxisCallback(jid, axis, Engine.JOYSTICK_AXIS_STATES[jid][axis]);
-                                            }
-                                        }
-                                    }
-                                    if (buttons != null)
-                                    {
-                                        n = buttons.remaining();
-                                        if (Engine.JOYSTICK_BUTTON_STATES[jid].length != n) Engine.JOYSTICK_BUTTON_STATES[jid] = new byte[n];
-                                        for (int button = 0; button < n; button++)
-                                        {
-                                            byte newValue = buttons.get(button);
-                                            if (Float.compare(Engine.JOYSTICK_BUTTON_STATES[jid][button], newValue) != 0)
-                                            {
-                                                Engine.JOYSTICK_BUTTON_STATES[jid][button] = newValue;
-                                                if (!glfwJoystickPresent(jid)) break;
-                                                joystickButtonCallback(jid, button, Engine.JOYSTICK_BUTTON_STATES[jid][button]);
-                                            }
-                                        }
-                                    }
-                                    if (hats != null)
-                                    {
-                                        n = hats.remaining();
-                                        if (Engine.JOYSTICK_HAT_STATES[jid].length != n) Engine.JOYSTICK_HAT_STATES[jid] = new byte[n];
-                                        for (int hat = 0; hat < n; hat++)
-                                        {
-                                            byte newValue = hats.get(hat);
-                                            if (Float.compare(Engine.JOYSTICK_HAT_STATES[jid][hat], newValue) != 0)
-                                            {
-                                                Engine.JOYSTICK_HAT_STATES[jid][hat] = newValue;
-                                                if (!glfwJoystickPresent(jid)) break;
-                                                joystickHatCallback(jid, hat, Engine.JOYSTICK_HAT_STATES[jid][hat]);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                        // -------------------- Joystick Callback Emulation -------------------- //
+                        for (Joystick joystick : Engine.joysticks.values()) joystick.pollState();
                         
                         runTasks();
-                        
-                        Thread.yield();
                     }
                     latch.await();
+                    
+                    Engine.mainTasks.cancel("Main loop stopped");
                 }
             }
         }
@@ -841,43 +843,6 @@ public class Engine
     
         for (int jid = GLFW_JOYSTICK_1; jid < GLFW_JOYSTICK_LAST; jid++)
         {
-            // -------------------- Joystick Callback Emulation -------------------- //
-            {
-                if (glfwJoystickIsGamepad(jid))
-                {
-                    try (MemoryStack stack = MemoryStack.stackPush())
-                    {
-                        GLFWGamepadState state = GLFWGamepadState.mallocStack(stack);
-                        
-                        if (glfwGetGamepadState(jid, state))
-                        {
-                            FloatBuffer axes = state.axes();
-                            Engine.JOYSTICK_AXIS_STATES[jid] = new float[axes.remaining()];
-                            
-                            ByteBuffer buttons = state.buttons();
-                            Engine.JOYSTICK_BUTTON_STATES[jid] = new byte[buttons.remaining()];
-                        }
-                        else
-                        {
-                            Engine.JOYSTICK_AXIS_STATES[jid]   = new float[0];
-                            Engine.JOYSTICK_BUTTON_STATES[jid] = new byte[0];
-                        }
-                    }
-                }
-                else
-                {
-                    FloatBuffer axes = glfwGetJoystickAxes(jid);
-                    Engine.JOYSTICK_AXIS_STATES[jid] = axes != null ? new float[axes.remaining()] : new float[0];
-                    
-                    ByteBuffer buttons = glfwGetJoystickButtons(jid);
-                    Engine.JOYSTICK_BUTTON_STATES[jid] = buttons != null ? new byte[buttons.remaining()] : new byte[0];
-                }
-                
-                ByteBuffer hats = glfwGetJoystickHats(jid);
-                Engine.JOYSTICK_HAT_STATES[jid] = hats != null ? new byte[hats.remaining()] : new byte[0];
-            }
-            // -------------------- Joystick Callback Emulation -------------------- //
-            
             if (glfwJoystickPresent(jid))
             {
                 boolean isGamepad = glfwJoystickIsGamepad(jid);
@@ -1001,6 +966,101 @@ public class Engine
         Engine.frameRate = frameRate > 0 ? 1_000_000_000L / (long) frameRate : 0L;
     }
     
+    /**
+     * @return The number of times per second that {@link #update} is called, or zero if it is not called.
+     */
+    public static int tickRate()
+    {
+        return Engine.tickRate > 0 ? (int) (1_000_000_000L / Engine.tickRate) : 0;
+    }
+    
+    /**
+     * Sets the number of times per second that {@link #update} is called. The updates run on the render thread before
+     * {@link #draw}, as many times as needed to keep up with the time that passed, so the simulation does not depend on
+     * the frame rate. Use zero to never call {@link #update}.
+     *
+     * @param tickRate The new tick rate.
+     */
+    public static void tickRate(int tickRate)
+    {
+        Engine.tickRate = tickRate > 0 ? 1_000_000_000L / (long) tickRate : 0L;
+    }
+    
+    /**
+     * @return The number of times that {@link #update} has been called.
+     */
+    public static long tickCount()
+    {
+        return Engine.tickCount;
+    }
+    
+    /**
+     * Gets how far the current frame is between the last update and the next one. This is used in {@link #draw} to
+     * interpolate between the previous and current state of the simulation, so that movement is smooth when the frame rate
+     * and tick rate are different.
+     *
+     * @return A value from 0.0 to 1.0.
+     */
+    public static double tickAlpha()
+    {
+        return Engine.tickAlpha;
+    }
+    
+    /**
+     * Calls {@link Extension#update} on every enabled extension that overrides it. Each extension is started on the common
+     * fork-join pool once every earlier extension that shares state with it is done, so extensions that do not share state
+     * are updated in parallel. Returns after every extension is updated.
+     *
+     * @param elapsedTime The time in seconds since the last frame.
+     */
+    private static void updateExtensions(double elapsedTime)
+    {
+        int n = Engine.updatingExtensions.size();
+        if (n == 0) return;
+        
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
+        for (int i = 0; i < n; i++)
+        {
+            Extension extension = Engine.updatingExtensions.get(i);
+            if (!extension.enabled())
+            {
+                futures[i] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+            
+            List<CompletableFuture<?>> dependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++)
+            {
+                Extension other = Engine.updatingExtensions.get(j);
+                if (other.enabled() && sharesState(extension, other)) dependencies.add(futures[j]);
+            }
+            
+            Runnable update = () -> extension.update(elapsedTime);
+            futures[i] = dependencies.isEmpty() ?
+                         CompletableFuture.runAsync(update, ForkJoinPool.commonPool()) :
+                         CompletableFuture.allOf(dependencies.toArray(CompletableFuture<?>[]::new)).thenRunAsync(update, ForkJoinPool.commonPool());
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+    
+    private static boolean sharesState(Extension a, Extension b)
+    {
+        return !Collections.disjoint(a.writes(), b.writes()) || !Collections.disjoint(a.writes(), b.reads()) || !Collections.disjoint(a.reads(), b.writes());
+    }
+    
+    /**
+     * Waits until the engine time reaches a value. The thread is parked for most of the wait and only spins for the last
+     * {@link #SPIN_TIME} nanoseconds.
+     *
+     * @param time The time in nanoseconds since the engine started.
+     */
+    private static void waitUntil(long time)
+    {
+        long remaining;
+        while ((remaining = time - nanoseconds()) > Engine.SPIN_TIME) LockSupport.parkNanos(remaining - Engine.SPIN_TIME);
+        while (time - nanoseconds() > 0) Thread.onSpinWait();
+    }
+    
     /**
      * @return The current frame that engine is on.
      */
@@ -1145,39 +1205,63 @@ public class Engine
     // -- Task Stuff --
     // ----------------
     
-    protected static final Deque<Pair<Runnable, Boolean>>          runTasks          = new ArrayDeque<>();
-    protected static final Deque<Runnable>                         waitRunTasks      = new ArrayDeque<>();
-    protected static final BlockingQueue<Pair<Integer, Exception>> waitRunResults    = new SynchronousQueue<>();
-    protected static final Deque<Supplier<Object>>                 waitReturnTasks   = new ArrayDeque<>();
-    protected static final BlockingQueue<Pair<Object, Exception>>  waitReturnResults = new SynchronousQueue<>();
+    protected static final TaskQueue mainTasks   = new TaskQueue("main");
+    protected static final TaskQueue renderTasks = new TaskQueue("render");
+    
+    protected static long taskBudget = 2_000_000L;
+    
+    protected static Thread renderThread;
     
     /**
      * Runs a task on the TaskDelegator's thread. Non-blocking.
+     * <p>
+     * If this is called on the TaskDelegator's thread, the task is run right away and its exception is thrown to the caller.
      *
      * @param task          The task to complete.
-     * @param passException If the TaskDelegator should pass the exception to the calling thread. If false the exception if effectively ignored.
+     * @param passException If the exception should only be passed to the returned future. If false the exception is also logged.
+     * @return A future that is completed after the task is run.
      */
-    public static void runTask(@NotNull Runnable task, boolean passException)
+    public static CompletableFuture<Void> runTask(@NotNull Runnable task, boolean passException)
     {
         Engine.LOGGER.finest("Passing task to TaskDelegator, passException=%s", passException);
         
         if (Thread.currentThread().getName().equals("main"))
         {
             task.run();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         
-        Engine.runTasks.offer(new Pair<>(task, passException));
+        Supplier<Void> supplier = () -> {
+            try
+            {
+                task.run();
+            }
+            catch (RuntimeException e)
+            {
+                if (!passException)
+                {
+                    Engine.LOGGER.severe("An exception occurred while trying to run task.");
+                    Engine.LOGGER.severe(e);
+                }
+                throw e;
+            }
+            return null;
+        };
+        
+        CompletableFuture<Void> future = Engine.mainTasks.offer(supplier);
+        glfwPostEmptyEvent();
+        return future;
     }
     
     /**
      * Runs a task on the TaskDelegator's thread. Non-blocking.
      *
      * @param task The task to complete.
+     * @return A future that is completed after the task is run.
      */
-    public static void runTask(@NotNull Runnable task)
+    public static CompletableFuture<Void> runTask(@NotNull Runnable task)
     {
-        runTask(task, false);
+        return runTask(task, false);
     }
     
     /**
@@ -1195,12 +1279,19 @@ public class Engine
             return;
         }
         
-        Engine.waitRunTasks.offer(task);
+        CompletableFuture<Object> future = Engine.mainTasks.offer(() -> {
+            task.run();
+            return null;
+        });
+        glfwPostEmptyEvent();
         
         try
         {
-            Pair<Integer, Exception> result = Engine.waitRunResults.take();
-            if (result.a != 0) throw new RuntimeException(result.b);
+            future.get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
         }
         catch (InterruptedException e)
         {
@@ -1215,20 +1306,22 @@ public class Engine
      * @param <T>  The type of the supplier.
      * @return The supplied object or null if the thread was interrupted
      */
-    @SuppressWarnings("unchecked")
     public static <T> @Nullable T waitReturnTask(@NotNull Supplier<T> task)
     {
         Engine.LOGGER.finest("Passing task to TaskDelegator and waiting for return");
         
         if (Thread.currentThread().getName().equals("main")) return task.get();
         
-        Engine.waitReturnTasks.offer((Supplier<Object>) task);
+        CompletableFuture<T> future = Engine.mainTasks.offer(task);
+        glfwPostEmptyEvent();
         
         try
         {
-            Pair<Object, Exception> result = Engine.waitReturnResults.take();
-            if (result.b != null) throw new RuntimeException(result.b);
-            return (T) result.a;
+            return future.get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
         }
         catch (InterruptedException e)
         {
@@ -1237,63 +1330,76 @@ public class Engine
         return null;
     }
     
-    private static void runTasks()
+    /**
+     * Runs a task on the render thread, which owns the OpenGL context. Non-blocking.
+     * <p>
+     * Render tasks are run at the start of each frame until the {@link #taskBudget() task budget} is used up, and the rest
+     * wait for the next frame. If this is called on the render thread, the task is run right away.
+     *
+     * @param task The task to complete.
+     * @return A future that is completed after the task is run.
+     */
+    public static CompletableFuture<Void> renderTask(@NotNull Runnable task)
     {
-        while (!Engine.runTasks.isEmpty())
-        {
-            Pair<Runnable, Boolean> task = Engine.runTasks.poll();
-            try
-            {
-                task.a.run();
-            }
-            catch (Exception e)
-            {
-                if (task.b)
-                {
-                    throw new RuntimeException(e);
-                }
-                else
-                {
-                    Engine.LOGGER.severe("An exception occurred while trying to run task.");
-                    Engine.LOGGER.severe(e);
-                }
-            }
-        }
+        return renderTask(() -> {
+            task.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Runs a supplier on the render thread, which owns the OpenGL context. Non-blocking.
+     * <p>
+     * Render tasks are run at the start of each frame until the {@link #taskBudget() task budget} is used up, and the rest
+     * wait for the next frame. If this is called on the render thread, the supplier is run right away.
+     *
+     * @param task The supplier to run.
+     * @param <T>  The type of the supplier.
+     * @return A future that is completed with the supplied object.
+     */
+    public static <T> CompletableFuture<T> renderTask(@NotNull Supplier<T> task)
+    {
+        Engine.LOGGER.finest("Passing task to render thread");
         
-        while (!Engine.waitRunTasks.isEmpty())
+        if (Thread.currentThread() == Engine.renderThread)
         {
-            Runnable task = Engine.waitRunTasks.poll();
-            
-            int       result = 0;
-            Exception except = null;
             try
             {
-                task.run();
+                return CompletableFuture.completedFuture(task.get());
             }
-            catch (Exception e)
+            catch (RuntimeException e)
             {
-                result = 1;
-                except = e;
+                return CompletableFuture.failedFuture(e);
             }
-            Engine.waitRunResults.offer(new Pair<>(result, except));
         }
+        return Engine.renderTasks.offer(task);
+    }
+    
+    /**
+     * @return The time in seconds that the render thread spends running render tasks and uploading textures each frame.
+     */
+    public static double taskBudget()
+    {
+        return Engine.taskBudget / 1_000_000_000D;
+    }
+    
+    /**
+     * Sets the time in seconds that the render thread spends running render tasks each frame. The time that is left over is
+     * spent uploading textures from the {@link TextureLoader}. If they are waiting, at least one task is run and one slice
+     * of a texture is uploaded each frame.
+     *
+     * @param taskBudget The new task budget in seconds.
+     */
+    public static void taskBudget(double taskBudget)
+    {
+        Engine.LOGGER.finest("Setting Task Budget:", taskBudget);
         
-        while (!Engine.waitReturnTasks.isEmpty())
-        {
-            Supplier<Object> task = waitReturnTasks.poll();
-            
-            Object    result = null;
-            Exception except = null;
-            try
-            {
-                result = task.get();
-            }
-            catch (Exception e)
-            {
-                except = e;
-            }
-            Engine.waitReturnResults.offer(new Pair<>(result, except));
-        }
+        Engine.taskBudget = (long) (taskBudget * 1_000_000_000L);
+    }
+    
+    private static void runTasks()
+    {
+        Engine.mainTasks.run(-1);
     }
     
     // --------------------
@@ -1346,27 +1452,6 @@ public class Engine
         }
     }
     
-    private static void joystickAxisCallback(int jid, int axis, float value)
-    {
-        Joystick joystick = Engine.joysticks.get(jid);
-        
-        joystick.axisStateChanges.offer(new Pair<>(axis, value));
-    }
-    
-    private static void joystickButtonCallback(int jid, int button, int action)
-    {
-        Joystick joystick = Engine.joysticks.get(jid);
-        
-        joystick.buttonStateChanges.offer(new Pair<>(button, action));
-    }
-    
-    private static void joystickHatCallback(int jid, int hat, int action)
-    {
-        Joystick joystick = Engine.joysticks.get(jid);
-        
-        joystick.hatStateChanges.offer(new Pair<>(hat, action));
-    }
-    
     private static void windowCloseCallback(long handle)
     {
         Engine.window._close = true;
@@ -1421,7 +1506,7 @@ public class Engine
     
     private static void mouseEnteredCallback(long handle, boolean entered)
     {
-        Engine.mouse._entered = entered;
+        Engine.mouse.onEntered(entered);
     }
     
     private static void mousePosCallback(long handle, double x, double y)
@@ -1429,31 +1514,31 @@ public class Engine
         x = (x - Engine.viewPos.x) * (double) Engine.screenSize.x / (double) Engine.viewSize.x;
         y = (y - Engine.viewPos.y) * (double) Engine.screenSize.y / (double) Engine.viewSize.y;
         
-        Engine.mouse._pos.set(x, y);
+        Engine.mouse.onMoved(x, y);
     }
     
     private static void scrollCallback(long handle, double dx, double dy)
     {
-        Engine.mouse._scroll.add(dx, dy);
+        Engine.mouse.onScrolled(dx, dy);
     }
     
     private static void mouseButtonCallback(long handle, int button, int action, int mods)
     {
-        Engine.mouse.buttonStateChanges.offer(new Pair<>(Mouse.Button.get(button), action));
+        Engine.mouse.onButton(button, action);
         
         Modifier.updateMods(mods);
     }
     
     private static void keyCallback(long handle, int key, int scancode, int action, int mods)
     {
-        Engine.keyboard.keyStateChanges.offer(new Pair<>(Keyboard.Key.get(key, scancode), action));
+        Engine.keyboard.onKey(key, scancode, action);
         
         Modifier.updateMods(mods);
     }
     
     private static void charCallback(long handle, int codePoint)
     {
-        Engine.keyboard._charChanges.offer(Character.toString(codePoint));
+        Engine.keyboard.onChar(codePoint);
     }
     
     // ---------------------
@@ -2192,6 +2277,22 @@ public class Engine
         return Engine.noise.noise(coord);
     }
     
+    /**
+     * See {@link Noise#noise(double[], double, double, double, int, int)}
+     */
+    public static double[] noise(double[] out, double x, double y, double step, int width, int height)
+    {
+        return Engine.noise.noise(out, x, y, step, width, height);
+    }
+    
+    /**
+     * See {@link Noise#noise(double[], double, double, double, double, int, int, int)}
+     */
+    public static double[] noise(double[] out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        return Engine.noise.noise(out, x, y, z, step, width, height, depth);
+    }
+    
     // ----------------------
     // -- Layer Methods --
     // ----------------------
@@ -2347,6 +2448,30 @@ public class Engine
         Engine.renderer.toggleDebug();
     }
     
+    /**
+     * See {@link Renderer#batching()}
+     */
+    public static boolean rendererBatching()
+    {
+        return Engine.renderer.batching();
+    }
+    
+    /**
+     * See {@link Renderer#batching(boolean)}
+     */
+    public static void rendererBatching(boolean batching)
+    {
+        Engine.renderer.batching(batching);
+    }
+    
+    /**
+     * See {@link Renderer#toggleBatching()}
+     */
+    public static void rendererToggleBatching()
+    {
+        Engine.renderer.toggleBatching();
+    }
+    
     /**
      * See {@link Renderer#fill()}
      */
@@ -2784,6 +2909,24 @@ public class Engine
         Engine.profiler.endSection();
     }
     
+    /**
+     * See {@link Renderer#submit(CommandBuffer)}
+     */
+    public static void submit(@NotNull CommandBuffer buffer)
+    {
+        Engine.renderer.submit(buffer);
+    }
+    
+    /**
+     * See {@link Renderer#replay()}
+     */
+    public static void replay()
+    {
+        Engine.profiler.startSection("replay");
+        Engine.renderer.replay();
+        Engine.profiler.endSection();
+    }
+    
     /**
      * See {@link Renderer#clear()}
      */
@@ -3295,6 +3438,35 @@ public class Engine
         Engine.profiler.endSection();
     }
     
+    /**
+     * See {@link Renderer#pixelBuffer()}
+     */
+    public static PixelBuffer pixelBuffer()
+    {
+        return Engine.renderer.pixelBuffer();
+    }
+    
+    /**
+     * See {@link Renderer#loadPixelBuffer()}
+     */
+    public static PixelBuffer loadPixelBuffer()
+    {
+        Engine.profiler.startSection("loadPixelBuffer");
+        PixelBuffer buffer = Engine.renderer.loadPixelBuffer();
+        Engine.profiler.endSection();
+        return buffer;
+    }
+    
+    /**
+     * See {@link Renderer#updatePixelBuffer()}
+     */
+    public static void updatePixelBuffer()
+    {
+        Engine.profiler.startSection("updatePixelBuffer");
+        Engine.renderer.updatePixelBuffer();
+        Engine.profiler.endSection();
+    }
+    
     // --------------------
     // -- Instance Stuff --
     // --------------------
@@ -3322,6 +3494,14 @@ public class Engine
      */
     public void setup() { }
     
+    /**
+     * This method is called at a fixed rate set with {@link #tickRate(int)}, before {@link #draw} in the same frame. It may
+     * be called more than once per frame, or not at all.
+     *
+     * @param elapsedTime The time in seconds between updates. This is always the same.
+     */
+    public void update(double elapsedTime) { }
+    
     /**
      * This method is called once per frame.
      *
@@ -1,5 +1,8 @@
 package engine;
 
+import java.util.Collections;
+import java.util.Set;
+
 @SuppressWarnings({"unused", "EmptyMethod"})
 public abstract class Extension
 {
@@ -39,6 +42,33 @@ public abstract class Extension
      */
     public abstract void afterSetup();
     
+    /**
+     * This is called once per frame before {@link #beforeDraw} on a worker thread, not the render thread, so it must not
+     * touch GL or the profiler.
+     * <p>
+     * Extensions are updated at the same time unless one of them {@link #writes} state that the other {@link #reads} or
+     * writes, in which case they are updated in the order that they were loaded.
+     *
+     * @param elapsedTime The time in seconds since the last frame.
+     */
+    public void update(double elapsedTime) { }
+    
+    /**
+     * @return The names of the shared state that {@link #update} reads.
+     */
+    public Set<String> reads()
+    {
+        return Collections.emptySet();
+    }
+    
+    /**
+     * @return The names of the shared state that {@link #update} changes.
+     */
+    public Set<String> writes()
+    {
+        return Collections.emptySet();
+    }
+    
     /**
      * This is called once per frame before the {@link Engine#draw} method is called.
      *
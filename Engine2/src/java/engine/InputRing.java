@@ -0,0 +1,146 @@
+package engine;
+
+import rutils.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded queue of input changes that is written by one thread and read by one other thread, without locks or
+ * allocation.
+ * <p>
+ * Each change is a pair of ints, such as a key and its action, packed into one {@code long}. The GLFW callbacks on the
+ * main thread {@link #offer(int, int) offer} changes and the render thread {@link #poll() polls} them when it posts the
+ * events of the device. If the render thread falls so far behind that the queue is full, new changes are dropped.
+ */
+final class InputRing
+{
+    private static final Logger LOGGER = new Logger();
+    
+    static final int DEFAULT_CAPACITY = 1024;
+    
+    private static final VarHandle HEAD, TAIL;
+    
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(InputRing.class, "head", long.class);
+            TAIL = lookup.findVarHandle(InputRing.class, "tail", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private final long[] buffer;
+    private final int    mask;
+    
+    // Written only by the consumer.
+    @SuppressWarnings("unused")
+    private volatile long head;
+    private          int  a, b;
+    
+    // Written only by the producer.
+    @SuppressWarnings("unused")
+    private volatile long tail;
+    private          int  dropped;
+    
+    /**
+     * Creates a new ring.
+     *
+     * @param capacity The most changes that can be waiting. Rounded up to a power of two.
+     */
+    InputRing(int capacity)
+    {
+        if (capacity <= 0) throw new RuntimeException("Capacity must be positive: " + capacity);
+        
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        
+        this.buffer = new long[size];
+        this.mask   = size - 1;
+    }
+    
+    InputRing()
+    {
+        this(InputRing.DEFAULT_CAPACITY);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "InputRing{" + "size=" + size() + '/' + this.buffer.length + ", dropped=" + this.dropped + '}';
+    }
+    
+    /**
+     * @return The number of changes that are waiting.
+     */
+    int size()
+    {
+        return (int) ((long) InputRing.TAIL.getAcquire(this) - (long) InputRing.HEAD.getAcquire(this));
+    }
+    
+    /**
+     * @return The number of changes that were dropped because the ring was full.
+     */
+    int dropped()
+    {
+        return this.dropped;
+    }
+    
+    /**
+     * Adds a change. Must only be called by the producer thread.
+     *
+     * @param a The first value of the change.
+     * @param b The second value of the change.
+     * @return false if the ring was full and the change was dropped.
+     */
+    boolean offer(int a, int b)
+    {
+        long tail = (long) InputRing.TAIL.getOpaque(this);
+        if (tail - (long) InputRing.HEAD.getAcquire(this) >= this.buffer.length)
+        {
+            if (this.dropped++ == 0) InputRing.LOGGER.warning("Input ring is full, dropping changes");
+            return false;
+        }
+        this.buffer[(int) tail & this.mask] = ((long) a << 32) | (b & 0xFFFFFFFFL);
+        InputRing.TAIL.setRelease(this, tail + 1);
+        return true;
+    }
+    
+    /**
+     * Removes the oldest change. Its values can then be read with {@link #a()} and {@link #b()}. Must only be called by
+     * the consumer thread.
+     *
+     * @return false if there were no changes.
+     */
+    boolean poll()
+    {
+        long head = (long) InputRing.HEAD.getOpaque(this);
+        if (head == (long) InputRing.TAIL.getAcquire(this)) return false;
+        long value = this.buffer[(int) head & this.mask];
+        this.a = (int) (value >>> 32);
+        this.b = (int) value;
+        InputRing.HEAD.setRelease(this, head + 1);
+        return true;
+    }
+    
+    /**
+     * @return The first value of the last polled change.
+     */
+    int a()
+    {
+        return this.a;
+    }
+    
+    /**
+     * @return The second value of the last polled change.
+     */
+    int b()
+    {
+        return this.b;
+    }
+}
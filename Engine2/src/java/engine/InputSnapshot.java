@@ -0,0 +1,112 @@
+package engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The full state of an input device, written by one thread and copied by another thread without locks.
+ * <p>
+ * The writer changes its copy of the state between {@link #begin()} and {@link #end()}, which make the sequence number odd
+ * and then even again. The reader copies the state into its own buffer with {@link #read()} and copies it again if the
+ * sequence number was odd or changed while it was copying, so it never sees a state that is half written.
+ */
+final class InputSnapshot
+{
+    private static final VarHandle SEQUENCE;
+    
+    static
+    {
+        try
+        {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(InputSnapshot.class, "sequence", int.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private final double[] back, front;
+    
+    @SuppressWarnings("unused")
+    private volatile int sequence;
+    
+    /**
+     * Creates a new snapshot with all values set to zero.
+     *
+     * @param size The number of values in the state.
+     */
+    InputSnapshot(int size)
+    {
+        this.back  = new double[size];
+        this.front = new double[size];
+    }
+    
+    /**
+     * @return The number of values in the state.
+     */
+    int size()
+    {
+        return this.back.length;
+    }
+    
+    /**
+     * Starts changing the state. Must only be called by the writer thread.
+     */
+    void begin()
+    {
+        InputSnapshot.SEQUENCE.setOpaque(this, (int) InputSnapshot.SEQUENCE.getOpaque(this) + 1);
+        VarHandle.storeStoreFence();
+    }
+    
+    /**
+     * Finishes changing the state, so that the reader can see it. Must only be called by the writer thread.
+     */
+    void end()
+    {
+        InputSnapshot.SEQUENCE.setRelease(this, (int) InputSnapshot.SEQUENCE.getOpaque(this) + 1);
+    }
+    
+    /**
+     * Gets a value of the writer's copy of the state. Must only be called by the writer thread.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     */
+    double get(int index)
+    {
+        return this.back[index];
+    }
+    
+    /**
+     * Sets a value of the writer's copy of the state. Must only be called by the writer thread, between {@link #begin()}
+     * and {@link #end()}.
+     *
+     * @param index The index of the value.
+     * @param value The value.
+     */
+    void set(int index, double value)
+    {
+        this.back[index] = value;
+    }
+    
+    /**
+     * Copies the last finished state. Must only be called by the reader thread.
+     *
+     * @return The reader's copy of the state. It is only changed by the next call to this method.
+     */
+    double[] read()
+    {
+        while (true)
+        {
+            int sequence = (int) InputSnapshot.SEQUENCE.getAcquire(this);
+            if ((sequence & 1) == 0)
+            {
+                System.arraycopy(this.back, 0, this.front, 0, this.back.length);
+                VarHandle.loadLoadFence();
+                if (sequence == (int) InputSnapshot.SEQUENCE.getOpaque(this)) return this.front;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -2,16 +2,15 @@ package engine;
 
 import engine.event.*;
 import org.jetbrains.annotations.Nullable;
+import org.lwjgl.glfw.GLFWGamepadState;
+import org.lwjgl.system.MemoryStack;
 import rutils.Logger;
-import rutils.group.Pair;
 
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.lwjgl.glfw.GLFW.*;
 
@@ -26,9 +25,17 @@ public class Joystick extends InputDevice
     protected final String name;
     protected final String guid;
     
-    protected final Queue<Pair<Integer, Float>>   axisStateChanges   = new ConcurrentLinkedQueue<>();
-    protected final Queue<Pair<Integer, Integer>> buttonStateChanges = new ConcurrentLinkedQueue<>();
-    protected final Queue<Pair<Integer, Integer>> hatStateChanges    = new ConcurrentLinkedQueue<>();
+    // -------------------- Callback Objects -------------------- //
+    
+    // The last index of the axis state is set to 1 once the axes were read.
+    protected final InputSnapshot axisState;
+    protected final InputRing     buttonChanges = new InputRing();
+    protected final InputRing     hatChanges    = new InputRing();
+    
+    // Only used by the main thread, to find the buttons and hats that changed.
+    protected final byte[] _buttons, _hats;
+    
+    // -------------------- Internal Objects -------------------- //
     
     protected final Map<Integer, AxisInput> axisMap;
     protected final Map<Integer, Input>     buttonMap;
@@ -55,6 +62,10 @@ public class Joystick extends InputDevice
         ByteBuffer hats = Objects.requireNonNull(glfwGetJoystickHats(this.jid), "Joystick is not connected.");
         for (int i = 0, n = hats.remaining(); i < n; i++) this.hatMap.put(i, new Input());
         
+        this.axisState = new InputSnapshot((gamepad ? GLFW_GAMEPAD_AXIS_LAST + 1 : axes.remaining()) + 1);
+        this._buttons  = new byte[gamepad ? GLFW_GAMEPAD_BUTTON_LAST + 1 : buttons.remaining()];
+        this._hats     = new byte[hats.remaining()];
+        
         Joystick.LOGGER.finer("Created", this);
     }
     
@@ -106,6 +117,76 @@ public class Joystick extends InputDevice
         return this.guid;
     }
     
+    /**
+     * Reads the state of the joystick and hands the changes to the render
+     * thread. This method is called by the main thread after the GLFW events
+     * are polled, because GLFW does not have callbacks for joystick input.
+     */
+    protected void pollState()
+    {
+        if (!glfwJoystickPresent(this.jid)) return;
+        
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            FloatBuffer axes;
+            ByteBuffer  buttons;
+            ByteBuffer  hats = glfwGetJoystickHats(this.jid);
+            
+            if (!this.gamepad)
+            {
+                axes    = glfwGetJoystickAxes(this.jid);
+                buttons = glfwGetJoystickButtons(this.jid);
+            }
+            else
+            {
+                GLFWGamepadState state = GLFWGamepadState.mallocStack(stack);
+                
+                if (!glfwGetGamepadState(this.jid, state)) return;
+                
+                axes    = state.axes();
+                buttons = state.buttons();
+            }
+            
+            if (axes != null)
+            {
+                int     n       = Math.min(axes.remaining(), this.axisState.size() - 1);
+                boolean changed = this.axisState.get(this.axisState.size() - 1) == 0;
+                for (int axis = 0; axis < n && !changed; axis++) changed = Double.compare(this.axisState.get(axis), axes.get(axis)) != 0;
+                if (changed)
+                {
+                    this.axisState.begin();
+                    for (int axis = 0; axis < n; axis++) this.axisState.set(axis, axes.get(axis));
+                    this.axisState.set(this.axisState.size() - 1, 1);
+                    this.axisState.end();
+                }
+            }
+            if (buttons != null)
+            {
+                for (int button = 0, n = Math.min(buttons.remaining(), this._buttons.length); button < n; button++)
+                {
+                    byte newValue = buttons.get(button);
+                    if (this._buttons[button] != newValue)
+                    {
+                        this._buttons[button] = newValue;
+                        this.buttonChanges.offer(button, newValue);
+                    }
+                }
+            }
+            if (hats != null)
+            {
+                for (int hat = 0, n = Math.min(hats.remaining(), this._hats.length); hat < n; hat++)
+                {
+                    byte newValue = hats.get(hat);
+                    if (this._hats[hat] != newValue)
+                    {
+                        this._hats[hat] = newValue;
+                        this.hatChanges.offer(hat, newValue);
+                    }
+                }
+            }
+        }
+    }
+    
     /**
      * This method is called by the window it is attached to. This is where
      * events should be posted to when something has changed.
@@ -117,28 +198,28 @@ public class Joystick extends InputDevice
     @SuppressWarnings("ConstantConditions")
     protected void postEvents(long time, long deltaT)
     {
-        Pair<Integer, Float> axisStateChange;
-        while ((axisStateChange = this.axisStateChanges.poll()) != null)
+        double[] axes = this.axisState.read();
+        if (axes[axes.length - 1] != 0)
         {
-            int axis = axisStateChange.getA();
-            
-            AxisInput axisObj = this.axisMap.get(axis);
-            
-            axisObj._value = axisStateChange.getB();
-            if (Double.compare(axisObj.value, axisObj._value) != 0)
+            for (int axis = 0, n = Math.min(axes.length - 1, this.axisMap.size()); axis < n; axis++)
             {
-                double delta = axisObj._value - axisObj.value;
-                axisObj.value = axisObj._value;
-                postAxisEvent(axis, axisObj.value, delta);
+                AxisInput axisObj = this.axisMap.get(axis);
+                
+                axisObj._value = axes[axis];
+                if (Double.compare(axisObj.value, axisObj._value) != 0)
+                {
+                    double delta = axisObj._value - axisObj.value;
+                    axisObj.value = axisObj._value;
+                    postAxisEvent(axis, axisObj.value, delta);
+                }
             }
         }
         
-        Pair<Integer, Integer> buttonStateChange;
-        while ((buttonStateChange = this.buttonStateChanges.poll()) != null)
+        while (this.buttonChanges.poll())
         {
-            Input buttonObj = this.buttonMap.get(buttonStateChange.getA());
+            Input buttonObj = this.buttonMap.get(this.buttonChanges.a());
             
-            buttonObj._state = buttonStateChange.getB();
+            if (buttonObj != null) buttonObj._state = this.buttonChanges.b();
         }
         
         for (int button : this.buttonMap.keySet())
@@ -179,14 +260,14 @@ public class Joystick extends InputDevice
             }
         }
         
-        Pair<Integer, Integer> hatStateChange;
-        while ((hatStateChange = this.hatStateChanges.poll()) != null)
+        while (this.hatChanges.poll())
         {
-            int hat = hatStateChange.getA();
+            int hat = this.hatChanges.a();
             
             Input hatObj = this.hatMap.get(hat);
+            if (hatObj == null) continue;
             
-            hatObj._state = hatStateChange.getB();
+            hatObj._state = this.hatChanges.b();
             if (hatObj.state != hatObj._state)
             {
                 hatObj.state = hatObj._state;
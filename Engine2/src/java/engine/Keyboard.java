@@ -2,13 +2,6 @@ package engine;
 
 import engine.event.*;
 import rutils.Logger;
-import rutils.group.Pair;
-
-import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.lwjgl.glfw.GLFW.*;
 
@@ -18,18 +11,22 @@ public class Keyboard extends InputDevice
     
     // -------------------- Callback Objects -------------------- //
     
-    protected final Queue<String> _charChanges = new ConcurrentLinkedQueue<>();
+    protected final InputRing charChanges = new InputRing();
     
     // -------------------- Internal Objects -------------------- //
     
-    protected final Queue<Pair<Key, Integer>> keyStateChanges = new ConcurrentLinkedQueue<>();
+    protected final InputRing keyChanges = new InputRing();
+    
+    protected final Input[] inputs = new Input[Key.KEYS.length];
     
-    protected final Map<Key, Input> keyMap;
+    // Packed bitsets indexed by Key ordinal. Only keys in one of these are visited each frame.
+    protected final long[] changed = new long[(Key.KEYS.length + 63) >>> 6];
+    protected final long[] stated  = new long[(Key.KEYS.length + 63) >>> 6];
+    protected final long[] held    = new long[(Key.KEYS.length + 63) >>> 6];
     
     protected Keyboard()
     {
-        this.keyMap = new EnumMap<>(Key.class);
-        for (Key key : Key.values()) this.keyMap.put(key, new Input());
+        for (int i = 0; i < this.inputs.length; i++) this.inputs[i] = new Input();
     }
     
     @Override
@@ -61,6 +58,22 @@ public class Keyboard extends InputDevice
         return Engine.waitReturnTask(() -> glfwGetInputMode(window.handle, GLFW_STICKY_KEYS) == GLFW_TRUE);
     }
     
+    /**
+     * Called on the main thread when a character is typed.
+     */
+    void onChar(int codePoint)
+    {
+        this.charChanges.offer(codePoint, 0);
+    }
+    
+    /**
+     * Called on the main thread when a key is pressed, repeated or released.
+     */
+    void onKey(int key, int scancode, int action)
+    {
+        this.keyChanges.offer(Key.get(key, scancode).ordinal(), action);
+    }
+    
     /**
      * This method is called by the window it is attached to. This is where
      * events should be posted to when something has changed.
@@ -72,77 +85,96 @@ public class Keyboard extends InputDevice
     @SuppressWarnings("ConstantConditions")
     protected void postEvents(long time, long deltaT)
     {
-        String charChange;
-        while ((charChange = this._charChanges.poll()) != null)
+        while (this.charChanges.poll())
         {
-            EventBus.post(EventKeyboardTyped.create(charChange));
+            EventBus.post(EventKeyboardTyped.create(Character.toString(this.charChanges.a())));
         }
         
-        Pair<Key, Integer> keyStateChange;
-        while ((keyStateChange = this.keyStateChanges.poll()) != null)
+        while (this.keyChanges.poll())
         {
-            Input keyObj = this.keyMap.get(keyStateChange.getA());
+            int index = this.keyChanges.a();
             
-            keyObj._state = keyStateChange.getB();
+            this.inputs[index]._state = this.keyChanges.b();
+            this.changed[index >>> 6] |= 1L << index;
         }
         
-        for (Key key : this.keyMap.keySet())
+        // Keys that changed this frame, had a state last frame or are held. Every other key is up and has nothing to post.
+        for (int i = 0; i < this.changed.length; i++)
         {
-            Input input = this.keyMap.get(key);
+            long active = this.changed[i] | this.stated[i] | this.held[i];
+            this.changed[i] = 0;
             
-            input.state  = input._state;
-            input._state = -1;
-            switch (input.state)
+            while (active != 0)
             {
-                case GLFW_PRESS -> {
-                    input.held     = true;
-                    input.holdTime = time + InputDevice.holdFrequency;
-                    EventBus.post(EventKeyboardKeyDown.create(key));
-                }
-                case GLFW_RELEASE -> {
-                    input.held     = false;
-                    input.holdTime = Long.MAX_VALUE;
-                    EventBus.post(EventKeyboardKeyUp.create(key));
-                    
-                    if (time - input.pressTime < InputDevice.doublePressedDelay)
-                    {
-                        input.pressTime = 0;
-                        EventBus.post(EventKeyboardKeyPressed.create(key, true));
+                int index = (i << 6) + Long.numberOfTrailingZeros(active);
+                active &= active - 1;
+                
+                Key   key   = Key.KEYS[index];
+                Input input = this.inputs[index];
+                long  bit   = 1L << index;
+                
+                input.state  = input._state;
+                input._state = -1;
+                switch (input.state)
+                {
+                    case GLFW_PRESS -> {
+                        this.held[i] |= bit;
+                        input.holdTime = time + InputDevice.holdFrequency;
+                        EventBus.post(EventKeyboardKeyDown.create(key));
                     }
-                    else
-                    {
-                        input.pressTime = time;
-                        EventBus.post(EventKeyboardKeyPressed.create(key, false));
+                    case GLFW_RELEASE -> {
+                        this.held[i] &= ~bit;
+                        input.holdTime = Long.MAX_VALUE;
+                        EventBus.post(EventKeyboardKeyUp.create(key));
+                        
+                        if (time - input.pressTime < InputDevice.doublePressedDelay)
+                        {
+                            input.pressTime = 0;
+                            EventBus.post(EventKeyboardKeyPressed.create(key, true));
+                        }
+                        else
+                        {
+                            input.pressTime = time;
+                            EventBus.post(EventKeyboardKeyPressed.create(key, false));
+                        }
                     }
+                    case GLFW_REPEAT -> EventBus.post(EventKeyboardKeyRepeated.create(key));
+                }
+                if (input.state != -1)
+                {
+                    this.stated[i] |= bit;
+                }
+                else
+                {
+                    this.stated[i] &= ~bit;
+                }
+                if ((this.held[i] & bit) != 0 && time - input.holdTime >= InputDevice.holdFrequency)
+                {
+                    input.holdTime += InputDevice.holdFrequency;
+                    EventBus.post(EventKeyboardKeyHeld.create(key));
                 }
-                case GLFW_REPEAT -> EventBus.post(EventKeyboardKeyRepeated.create(key));
-            }
-            if (input.held && time - input.holdTime >= InputDevice.holdFrequency)
-            {
-                input.holdTime += InputDevice.holdFrequency;
-                EventBus.post(EventKeyboardKeyHeld.create(key));
             }
         }
     }
     
     public boolean down(Key key)
     {
-        return this.keyMap.get(key).state == GLFW_PRESS;
+        return this.inputs[key.ordinal()].state == GLFW_PRESS;
     }
     
     public boolean up(Key key, Modifier... modifiers)
     {
-        return this.keyMap.get(key).state == GLFW_RELEASE && Modifier.testExclusive(modifiers);
+        return this.inputs[key.ordinal()].state == GLFW_RELEASE && Modifier.testExclusive(modifiers);
     }
     
     public boolean repeat(Key key, Modifier... modifiers)
     {
-        return this.keyMap.get(key).state == GLFW_REPEAT && Modifier.testExclusive(modifiers);
+        return this.inputs[key.ordinal()].state == GLFW_REPEAT && Modifier.testExclusive(modifiers);
     }
     
     public boolean held(Key key, Modifier... modifiers)
     {
-        return this.keyMap.get(key).held && Modifier.testExclusive(modifiers);
+        return (this.held[key.ordinal() >>> 6] & (1L << key.ordinal())) != 0 && Modifier.testExclusive(modifiers);
     }
     
     public enum Key
@@ -282,8 +314,10 @@ public class Keyboard extends InputDevice
         
         ;
         
-        private static final HashMap<Integer, Key> KEY_MAP      = new HashMap<>();
-        private static final HashMap<Integer, Key> SCANCODE_MAP = new HashMap<>();
+        static final Key[] KEYS = values();
+        
+        private static final Key[] KEY_MAP = new Key[GLFW_KEY_LAST + 1];
+        private static final Key[] SCANCODE_MAP;
         
         final int ref, scancode;
         
@@ -308,17 +342,21 @@ public class Keyboard extends InputDevice
         public static Key get(int key, int scancode)
         {
             Key k;
-            if ((k = Key.KEY_MAP.get(key)) != null) return k;
-            if ((k = Key.SCANCODE_MAP.get(scancode)) != null) return k;
+            if (key >= 0 && key < Key.KEY_MAP.length && (k = Key.KEY_MAP[key]) != null) return k;
+            if (scancode >= 0 && scancode < Key.SCANCODE_MAP.length && (k = Key.SCANCODE_MAP[scancode]) != null) return k;
             return Key.UNKNOWN;
         }
         
         static
         {
-            for (Key key : values())
+            int maxScancode = -1;
+            for (Key key : Key.KEYS) maxScancode = Math.max(maxScancode, key.scancode);
+            
+            SCANCODE_MAP = new Key[maxScancode + 1];
+            for (Key key : Key.KEYS)
             {
-                Key.KEY_MAP.put(key.ref, key);
-                if (key.scancode >= 0) Key.SCANCODE_MAP.put(key.scancode, key);
+                if (key.ref >= 0) Key.KEY_MAP[key.ref] = key;
+                if (key.scancode >= 0) Key.SCANCODE_MAP[key.scancode] = key;
             }
         }
     }
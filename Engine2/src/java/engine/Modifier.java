@@ -14,7 +14,7 @@ public enum Modifier
     ANY(0xFFFFFFFF),
     ;
     
-    private static int activeMods = 0;
+    private static volatile int activeMods = 0;
     
     public static int activeMods()
     {
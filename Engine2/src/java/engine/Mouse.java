@@ -6,13 +6,6 @@ import org.joml.Vector2d;
 import org.joml.Vector2dc;
 import org.lwjgl.system.Platform;
 import rutils.Logger;
-import rutils.group.Pair;
-
-import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.lwjgl.glfw.GLFW.*;
 
@@ -24,26 +17,37 @@ public class Mouse extends InputDevice
     
     // -------------------- Callback Objects -------------------- //
     
-    protected boolean entered, _entered;
+    protected boolean entered;
     
-    protected final Vector2d pos  = new Vector2d();
-    protected final Vector2d _pos = new Vector2d();
+    protected final Vector2d pos = new Vector2d();
     
     protected final Vector2d rel = new Vector2d();
     
-    protected final Vector2d scroll  = new Vector2d();
-    protected final Vector2d _scroll = new Vector2d();
+    protected final Vector2d scroll      = new Vector2d();
+    protected final Vector2d totalScroll = new Vector2d();
+    
+    protected int warps;
     
     // -------------------- Internal Objects -------------------- //
     
-    protected final Queue<Pair<Button, Integer>> buttonStateChanges = new ConcurrentLinkedQueue<>();
+    protected static final int ENTERED  = 0;
+    protected static final int X        = 1;
+    protected static final int Y        = 2;
+    protected static final int SCROLL_X = 3;
+    protected static final int SCROLL_Y = 4;
+    protected static final int WARPS    = 5;
+    
+    protected final InputSnapshot state         = new InputSnapshot(6);
+    protected final InputRing     buttonChanges = new InputRing();
     
-    protected final Map<Button, ButtonInput> buttonMap;
+    protected final ButtonInput[] inputs = new ButtonInput[Mouse.Button.BUTTONS.length];
+    
+    // Bitsets indexed by Button ordinal. Only buttons in one of these are visited each frame.
+    protected long changed, stated, held;
     
     Mouse()
     {
-        this.buttonMap = new EnumMap<>(Button.class);
-        for (Button button : Mouse.Button.values()) this.buttonMap.put(button, new ButtonInput());
+        for (int i = 0; i < this.inputs.length; i++) this.inputs[i] = new ButtonInput();
     }
     
     @Override
@@ -60,7 +64,7 @@ public class Mouse extends InputDevice
     public void show()
     {
         Engine.runTask(() -> {
-            if (glfwGetInputMode(Engine.window.handle, GLFW_CURSOR) == GLFW_CURSOR_DISABLED) this._pos.set(this.pos.set(Engine.window.size).mul(0.5));
+            if (glfwGetInputMode(Engine.window.handle, GLFW_CURSOR) == GLFW_CURSOR_DISABLED) warp(Engine.window.width() * 0.5, Engine.window.height() * 0.5);
             glfwSetInputMode(Engine.window.handle, GLFW_CURSOR, GLFW_CURSOR_NORMAL);
         });
     }
@@ -99,9 +103,10 @@ public class Mouse extends InputDevice
      */
     public void capture()
     {
-        this._pos.set(this.pos.set(Engine.window.width() * 0.5, Engine.window.height() * 0.5));
         Engine.runTask(() -> {
-            glfwSetCursorPos(Engine.window.handle, this._pos.x, this._pos.y);
+            double x = Engine.window.width() * 0.5, y = Engine.window.height() * 0.5;
+            glfwSetCursorPos(Engine.window.handle, x, y);
+            warp(x, y);
             glfwSetInputMode(Engine.window.handle, GLFW_CURSOR, GLFW_CURSOR_DISABLED);
         });
     }
@@ -362,6 +367,60 @@ public class Mouse extends InputDevice
         return this.scroll.y;
     }
     
+    // -------------------- Callbacks -------------------- //
+    
+    /**
+     * Called on the main thread when the cursor enters or leaves the window.
+     */
+    void onEntered(boolean entered)
+    {
+        this.state.begin();
+        this.state.set(Mouse.ENTERED, entered ? 1 : 0);
+        this.state.end();
+    }
+    
+    /**
+     * Called on the main thread when the cursor moves, with the position in screen pixels.
+     */
+    void onMoved(double x, double y)
+    {
+        this.state.begin();
+        this.state.set(Mouse.X, x);
+        this.state.set(Mouse.Y, y);
+        this.state.end();
+    }
+    
+    /**
+     * Called on the main thread when the mouse wheel, or touch-pad, is scrolled.
+     */
+    void onScrolled(double dx, double dy)
+    {
+        this.state.begin();
+        this.state.set(Mouse.SCROLL_X, this.state.get(Mouse.SCROLL_X) + dx);
+        this.state.set(Mouse.SCROLL_Y, this.state.get(Mouse.SCROLL_Y) + dy);
+        this.state.end();
+    }
+    
+    /**
+     * Called on the main thread when a button is pressed or released.
+     */
+    void onButton(int button, int action)
+    {
+        this.buttonChanges.offer(Mouse.Button.get(button).ordinal(), action);
+    }
+    
+    /**
+     * Called on the main thread when the cursor is moved by the engine. No move event is posted for the new position.
+     */
+    private void warp(double x, double y)
+    {
+        this.state.begin();
+        this.state.set(Mouse.X, x);
+        this.state.set(Mouse.Y, y);
+        this.state.set(Mouse.WARPS, this.state.get(Mouse.WARPS) + 1);
+        this.state.end();
+    }
+    
     /**
      * This method is called by the window it is attached to. This is where
      * events should be posted to when something has changed.
@@ -373,60 +432,78 @@ public class Mouse extends InputDevice
     @SuppressWarnings("ConstantConditions")
     protected void postEvents(long time, long deltaT)
     {
+        double[] state = this.state.read();
+        
         boolean entered = false;
-        if (this.entered != this._entered)
+        if (this.entered != (state[Mouse.ENTERED] != 0))
         {
-            this.entered = this._entered;
+            this.entered = state[Mouse.ENTERED] != 0;
             EventBus.post(EventMouseEntered.create(this.entered));
             if (this.entered)
             {
                 entered = true;
                 
-                this.pos.set(this._pos);
+                this.pos.set(state[Mouse.X], state[Mouse.Y]);
             }
         }
         
+        // The cursor was moved by show() or capture(), so the new position is not a move.
+        if (this.warps != (int) state[Mouse.WARPS])
+        {
+            this.warps = (int) state[Mouse.WARPS];
+            this.pos.set(state[Mouse.X], state[Mouse.Y]);
+        }
+        
         this.rel.set(0);
-        if (Double.compare(this.pos.x, this._pos.x) != 0 || Double.compare(this.pos.y, this._pos.y) != 0 || entered)
+        if (Double.compare(this.pos.x, state[Mouse.X]) != 0 || Double.compare(this.pos.y, state[Mouse.Y]) != 0 || entered)
         {
-            this._pos.sub(this.pos, this.rel);
-            this.pos.set(this._pos);
+            this.rel.set(state[Mouse.X] - this.pos.x, state[Mouse.Y] - this.pos.y);
+            this.pos.set(state[Mouse.X], state[Mouse.Y]);
             EventBus.post(EventMouseMoved.create(this.pos, this.rel));
         }
         
         this.scroll.set(0);
-        if (Double.compare(this.scroll.x, this._scroll.x) != 0 || Double.compare(this.scroll.y, this._scroll.y) != 0)
+        if (Double.compare(this.totalScroll.x, state[Mouse.SCROLL_X]) != 0 || Double.compare(this.totalScroll.y, state[Mouse.SCROLL_Y]) != 0)
         {
-            this.scroll.set(this._scroll);
-            this._scroll.set(0);
+            this.scroll.set(state[Mouse.SCROLL_X] - this.totalScroll.x, state[Mouse.SCROLL_Y] - this.totalScroll.y);
+            this.totalScroll.set(state[Mouse.SCROLL_X], state[Mouse.SCROLL_Y]);
             EventBus.post(EventMouseScrolled.create(this.scroll));
         }
         
-        Pair<Button, Integer> buttonStateChange;
-        while ((buttonStateChange = this.buttonStateChanges.poll()) != null)
+        while (this.buttonChanges.poll())
         {
-            Mouse.ButtonInput buttonObj = this.buttonMap.get(buttonStateChange.getA());
+            int index = this.buttonChanges.a();
             
-            buttonObj._state = buttonStateChange.getB();
+            this.inputs[index]._state = this.buttonChanges.b();
+            this.changed |= 1L << index;
         }
         
-        for (Button button : this.buttonMap.keySet())
+        // Buttons that changed this frame, had a state last frame or are held. Every other button has nothing to post.
+        long active = this.changed | this.stated | this.held;
+        this.changed = 0;
+        
+        while (active != 0)
         {
-            ButtonInput input = this.buttonMap.get(button);
+            int index = Long.numberOfTrailingZeros(active);
+            active &= active - 1;
+            
+            Button      button = Mouse.Button.BUTTONS[index];
+            ButtonInput input  = this.inputs[index];
+            long        bit    = 1L << index;
             
             input.state  = input._state;
             input._state = -1;
             switch (input.state)
             {
                 case GLFW_PRESS -> {
-                    input.held     = true;
+                    this.held |= bit;
                     input.holdTime = time + InputDevice.holdFrequency;
                     EventBus.post(EventMouseButtonDown.create(button, this.pos));
                     
                     input.click.set(this.pos);
                 }
                 case GLFW_RELEASE -> {
-                    input.held     = false;
+                    this.held &= ~bit;
                     input.holdTime = Long.MAX_VALUE;
                     EventBus.post(EventMouseButtonUp.create(button, this.pos));
                     
@@ -447,7 +524,15 @@ public class Mouse extends InputDevice
                 }
                 case GLFW_REPEAT -> EventBus.post(EventMouseButtonRepeated.create(button, this.pos));
             }
-            if (input.held)
+            if (input.state != -1)
+            {
+                this.stated |= bit;
+            }
+            else
+            {
+                this.stated &= ~bit;
+            }
+            if ((this.held & bit) != 0)
             {
                 if (time - input.holdTime >= InputDevice.holdFrequency)
                 {
@@ -461,22 +546,22 @@ public class Mouse extends InputDevice
     
     public boolean down(Button button, Modifier... modifiers)
     {
-        return this.buttonMap.get(button).state == GLFW_PRESS && Modifier.testExclusive(modifiers);
+        return this.inputs[button.ordinal()].state == GLFW_PRESS && Modifier.testExclusive(modifiers);
     }
     
     public boolean up(Button button, Modifier... modifiers)
     {
-        return this.buttonMap.get(button).state == GLFW_RELEASE && Modifier.testExclusive(modifiers);
+        return this.inputs[button.ordinal()].state == GLFW_RELEASE && Modifier.testExclusive(modifiers);
     }
     
     public boolean repeat(Button button, Modifier... modifiers)
     {
-        return this.buttonMap.get(button).state == GLFW_REPEAT && Modifier.testExclusive(modifiers);
+        return this.inputs[button.ordinal()].state == GLFW_REPEAT && Modifier.testExclusive(modifiers);
     }
     
     public boolean held(Button button, Modifier... modifiers)
     {
-        return this.buttonMap.get(button).held && Modifier.testExclusive(modifiers);
+        return (this.held & (1L << button.ordinal())) != 0 && Modifier.testExclusive(modifiers);
     }
     
     static final class ButtonInput extends Input
@@ -501,7 +586,9 @@ public class Mouse extends InputDevice
         
         ;
         
-        private static final HashMap<Integer, Button> BUTTON_MAP = new HashMap<>();
+        static final Button[] BUTTONS = values();
+        
+        private static final Button[] BUTTON_MAP = new Button[GLFW_MOUSE_BUTTON_LAST + 1];
         
         final int ref;
         
@@ -515,14 +602,14 @@ public class Mouse extends InputDevice
          */
         public static Button get(int ref)
         {
-            return Mouse.Button.BUTTON_MAP.getOrDefault(ref, Mouse.Button.NONE);
+            return ref >= 0 && ref < Mouse.Button.BUTTON_MAP.length ? Mouse.Button.BUTTON_MAP[ref] : Mouse.Button.NONE;
         }
         
         static
         {
-            for (Button button : values())
+            for (Button button : Mouse.Button.BUTTONS)
             {
-                Mouse.Button.BUTTON_MAP.put(button.ref, button);
+                if (button.ref >= 0) Mouse.Button.BUTTON_MAP[button.ref] = button;
             }
         }
     }
@@ -0,0 +1,153 @@
+package engine;
+
+import rutils.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A queue of tasks that any thread can add to without locking and that one thread runs.
+ * <p>
+ * Each task is linked into the queue with a single atomic swap of the tail, so producers never wait for each other or
+ * for the consumer. The consumer runs the tasks in the order that they were added and completes the future that was
+ * returned when the task was added.
+ */
+final class TaskQueue
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private static final VarHandle TAIL, NEXT;
+    
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(TaskQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private final String name;
+    
+    // Only used by the consumer.
+    private Node head;
+    
+    @SuppressWarnings({"unused", "FieldMayBeFinal"})
+    private volatile Node tail;
+    
+    TaskQueue(String name)
+    {
+        this.name = name;
+        this.head = this.tail = new Node(null, null);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "TaskQueue{" + "name='" + this.name + '\'' + '}';
+    }
+    
+    /**
+     * Adds a task to the queue. Can be called from any thread.
+     *
+     * @param task The task.
+     * @param <T>  The type of the result.
+     * @return A future that is completed with the result of the task after it runs.
+     */
+    <T> CompletableFuture<T> offer(Supplier<T> task)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Node                 node   = new Node(task, future);
+        Node                 prev   = (Node) TaskQueue.TAIL.getAndSet(this, node);
+        TaskQueue.NEXT.setRelease(prev, node);
+        return future;
+    }
+    
+    /**
+     * @return If there are no tasks waiting. Must only be called by the consumer.
+     */
+    boolean isEmpty()
+    {
+        return TaskQueue.NEXT.getAcquire(this.head) == null;
+    }
+    
+    /**
+     * Runs the tasks that are waiting until the queue is empty or the budget is used up. At least one task is run if one
+     * is waiting, so the queue always makes progress. Must only be called by the consumer.
+     *
+     * @param budget The time in nanoseconds to stop starting new tasks after, or a negative number for no limit.
+     * @return The number of tasks that were run.
+     */
+    @SuppressWarnings("unchecked")
+    int run(long budget)
+    {
+        long start = System.nanoTime();
+        int  count = 0;
+        
+        Node next;
+        while ((next = (Node) TaskQueue.NEXT.getAcquire(this.head)) != null)
+        {
+            this.head = next;
+            
+            Supplier<Object>          task   = (Supplier<Object>) next.task;
+            CompletableFuture<Object> future = (CompletableFuture<Object>) next.future;
+            next.task   = null;
+            next.future = null;
+            
+            try
+            {
+                future.complete(task.get());
+            }
+            catch (Throwable throwable)
+            {
+                future.completeExceptionally(throwable);
+            }
+            count++;
+            
+            if (budget >= 0 && System.nanoTime() - start >= budget) break;
+        }
+        return count;
+    }
+    
+    /**
+     * Completes every waiting task exceptionally without running it. Must only be called by the consumer.
+     *
+     * @param reason The reason that the tasks are not run.
+     */
+    void cancel(String reason)
+    {
+        Node next;
+        while ((next = (Node) TaskQueue.NEXT.getAcquire(this.head)) != null)
+        {
+            this.head = next;
+            
+            TaskQueue.LOGGER.finer("%s: Cancelling task, %s", this, reason);
+            
+            next.future.completeExceptionally(new RuntimeException(reason));
+            next.task   = null;
+            next.future = null;
+        }
+    }
+    
+    private static final class Node
+    {
+        private Supplier<?>          task;
+        private CompletableFuture<?> future;
+        
+        @SuppressWarnings("unused")
+        private volatile Node next;
+        
+        private Node(Supplier<?> task, CompletableFuture<?> future)
+        {
+            this.task   = task;
+            this.future = future;
+        }
+    }
+}
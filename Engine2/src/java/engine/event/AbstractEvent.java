@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static engine.Engine.seconds;
 
@@ -18,12 +19,24 @@ abstract class AbstractEvent implements Event
 {
     private static final Map<Class<? extends Event>, Set<Method>> METHOD_CACHE = new ConcurrentHashMap<>();
     
-    private final double time;
+    private final EventPool<?> pool;
+    
+    private double time;
     
     private Priority phase = null;
     
+    private volatile boolean retained;
+    
+    private final AtomicInteger references = new AtomicInteger(1);
+    
     AbstractEvent()
     {
+        this(null);
+    }
+    
+    AbstractEvent(EventPool<?> pool)
+    {
+        this.pool = pool;
         this.time = seconds();
     }
     
@@ -86,4 +99,44 @@ abstract class AbstractEvent implements Event
         if (prev >= value.ordinal()) throw new IllegalArgumentException("Attempted to set event phase to " + value + " when already " + this.phase);
         this.phase = value;
     }
+    
+    @Override
+    public Event retain()
+    {
+        this.retained = true;
+        return this;
+    }
+    
+    boolean retained()
+    {
+        return this.retained;
+    }
+    
+    /**
+     * Gets the event ready to be posted again after it is taken from its pool.
+     */
+    void reset()
+    {
+        this.time     = seconds();
+        this.phase    = null;
+        this.retained = false;
+        this.references.set(1);
+    }
+    
+    /**
+     * Keeps the event from going back to its pool until {@link #release()} is called again, for {@link EventLane}s that
+     * handle the event after it is posted.
+     */
+    void hold()
+    {
+        this.references.incrementAndGet();
+    }
+    
+    /**
+     * Gives the event back to its pool, if it has one and nothing is holding it.
+     */
+    void release()
+    {
+        if (this.pool != null && this.references.decrementAndGet() == 0) this.pool.release(this);
+    }
 }
@@ -4,11 +4,16 @@ import engine.Gamepad;
 
 abstract class AbstractEventGamepadButton extends AbstractEventJoystickButton implements EventGamepadButton
 {
-    private final Gamepad.Button button;
+    private Gamepad.Button button;
     
-    AbstractEventGamepadButton(Gamepad gamepad, Gamepad.Button button)
+    AbstractEventGamepadButton(EventPool<?> pool)
     {
-        super(gamepad, button.id());
+        super(pool);
+    }
+    
+    void set(Gamepad gamepad, Gamepad.Button button)
+    {
+        set(gamepad, button.id());
     
         this.button = button;
     }
@@ -1,6 +1,12 @@
 package engine.event;
 
+/**
+ * Input events are created every frame, so they are taken from an {@link EventPool} and reused after they are posted.
+ */
 abstract class AbstractEventInputDevice extends AbstractEvent implements EventInputDevice
 {
-
+    AbstractEventInputDevice(EventPool<?> pool)
+    {
+        super(pool);
+    }
 }
@@ -4,9 +4,14 @@ import engine.Joystick;
 
 abstract class AbstractEventJoystick extends AbstractEventInputDevice implements EventJoystick
 {
-    private final Joystick joystick;
+    private Joystick joystick;
     
-    AbstractEventJoystick(Joystick joystick)
+    AbstractEventJoystick(EventPool<?> pool)
+    {
+        super(pool);
+    }
+    
+    void set(Joystick joystick)
     {
         this.joystick = joystick;
     }
@@ -4,11 +4,16 @@ import engine.Joystick;
 
 abstract class AbstractEventJoystickButton extends AbstractEventJoystick implements EventJoystickButton
 {
-    private final int button;
+    private int button;
     
-    AbstractEventJoystickButton(Joystick joystick, int button)
+    AbstractEventJoystickButton(EventPool<?> pool)
     {
-        super(joystick);
+        super(pool);
+    }
+    
+    void set(Joystick joystick, int button)
+    {
+        set(joystick);
         
         this.button = button;
     }
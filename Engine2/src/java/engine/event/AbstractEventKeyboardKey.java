@@ -4,12 +4,15 @@ import engine.Keyboard;
 
 abstract class AbstractEventKeyboardKey extends AbstractEventInputDevice implements EventKeyboardKey
 {
-    private final Keyboard.Key key;
+    private Keyboard.Key key;
     
-    AbstractEventKeyboardKey(Keyboard.Key key)
+    AbstractEventKeyboardKey(EventPool<?> pool)
     {
-        super();
+        super(pool);
+    }
         
+    void set(Keyboard.Key key)
+    {
         this.key = key;
     }
     
@@ -6,15 +6,18 @@ import org.joml.Vector2dc;
 
 abstract class AbstractEventMouseButton extends AbstractEventInputDevice implements EventMouseButton
 {
-    private final Mouse.Button button;
-    private final Vector2d     pos;
+    private final Vector2d     pos = new Vector2d();
+    private       Mouse.Button button;
     
-    AbstractEventMouseButton(Mouse.Button button, Vector2dc pos)
+    AbstractEventMouseButton(EventPool<?> pool)
     {
-        super();
+        super(pool);
+    }
         
+    void set(Mouse.Button button, Vector2dc pos)
+    {
         this.button = button;
-        this.pos    = new Vector2d(pos);
+        this.pos.set(pos);
     }
     
     @Override
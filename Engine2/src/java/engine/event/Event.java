@@ -12,4 +12,15 @@ public interface Event
     Priority getPhase();
     
     void setPhase(@NotNull Priority value);
+    
+    /**
+     * Keeps the event from being reused after it is posted. Listeners that keep a reference to an event after they return
+     * must call this, because input events are {@link EventPool pooled}.
+     *
+     * @return This instance.
+     */
+    default Event retain()
+    {
+        return this;
+    }
 }
@@ -7,7 +7,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.*;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
@@ -16,14 +16,34 @@ import java.util.concurrent.ConcurrentHashMap;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
+/**
+ * Dispatches events to the methods that are annotated with {@link Subscribe}.
+ * <p>
+ * When a target is registered, each listener method is turned into an {@link IEventListener} that calls it directly. The
+ * implementation is generated with {@link LambdaMetafactory} once per method, so posting an event does not go through
+ * reflection.
+ * <p>
+ * The listeners of each event class are kept in a flat array, sorted by {@link Priority}. The arrays are never changed
+ * after they are made. Registering or unregistering a target makes new arrays, so posting only reads an array and does
+ * not need to lock.
+ * <p>
+ * Listeners are called on the thread that posts the event, unless they subscribe with a {@link Subscribe#lane() lane}.
+ * Then the event is added to the queue of that {@link EventLane} and the listener is called on the lane's thread, so a
+ * slow listener does not hold up the thread that posted it.
+ */
 public class EventBus
 {
     private static final Logger LOGGER = new Logger();
     
-    private static final Map<Integer, IEventListener>                       wrappedCache       = new HashMap<>();
-    private static final Map<Object, List<IEventListener>>                  objectListeners    = new ConcurrentHashMap<>();
-    private static final Map<Class<?>, Set<IEventListener>>                 eventListeners     = new ConcurrentHashMap<>();
-    private static final Map<Priority, Map<Class<?>, List<IEventListener>>> classListenersMaps = new ConcurrentHashMap<>();
+    private static final IEventListener[] NO_LISTENERS = new IEventListener[0];
+    
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Event.class);
+    
+    private static final Map<Method, MethodHandle>                      factories          = new ConcurrentHashMap<>();
+    private static final Map<Object, List<Registration>>                objectListeners    = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, IEventListener[]>                eventListeners     = new ConcurrentHashMap<>();
+    private static final Map<Priority, Map<Class<?>, IEventListener[]>> classListenersMaps = new EnumMap<>(Priority.class);
+    private static final Map<String, EventLane>                         lanes              = new ConcurrentHashMap<>();
     
     private static boolean shutdown = false;
     
@@ -37,8 +57,10 @@ public class EventBus
     public static void start()
     {
         EventBus.LOGGER.fine("EventBus starting.");
-    
+        
         EventBus.shutdown = false;
+        
+        for (EventLane lane : EventBus.lanes.values()) lane.start();
     }
     
     public static void shutdown()
@@ -46,68 +68,167 @@ public class EventBus
         EventBus.LOGGER.fine("EventBus stopping.");
         
         EventBus.shutdown = true;
+        
+        for (EventLane lane : EventBus.lanes.values()) lane.shutdown();
     }
     
-    public static void register(final Object target)
+    /**
+     * Creates a lane. This must be called before a listener that uses the lane is registered, otherwise the lane is created
+     * with {@link EventLane#DEFAULT_CAPACITY} and {@link EventLane#DEFAULT_POLICY}.
+     *
+     * @param name     The name of the lane.
+     * @param capacity The most events that can be waiting in the queue.
+     * @param policy   What happens when an event is posted while the queue is full.
+     * @return The lane.
+     */
+    public static EventLane lane(String name, int capacity, EventLane.Policy policy)
     {
-        if (EventBus.objectListeners.containsKey(target)) return;
-        
-        if (target.getClass() == Class.class)
+        synchronized (EventBus.lanes)
         {
-            registerClass((Class<?>) target);
+            if (EventBus.lanes.containsKey(name)) throw new RuntimeException("Event lane already exists: " + name);
+            
+            EventBus.LOGGER.fine("Creating event lane '%s' with capacity=%s and policy=%s", name, capacity, policy);
+            
+            EventLane lane = new EventLane(name, capacity, policy);
+            EventBus.lanes.put(name, lane);
+            return lane;
         }
-        else
+    }
+    
+    /**
+     * Gets a lane, creating it with {@link EventLane#DEFAULT_CAPACITY} and {@link EventLane#DEFAULT_POLICY} if it does not exist.
+     *
+     * @param name The name of the lane.
+     * @return The lane.
+     */
+    public static EventLane lane(String name)
+    {
+        synchronized (EventBus.lanes)
         {
-            registerObject(target);
+            EventLane lane = EventBus.lanes.get(name);
+            return lane != null ? lane : lane(name, EventLane.DEFAULT_CAPACITY, EventLane.DEFAULT_POLICY);
+        }
+    }
+    
+    /**
+     * @return The lanes that were created.
+     */
+    public static Collection<EventLane> lanes()
+    {
+        return Collections.unmodifiableCollection(EventBus.lanes.values());
+    }
+    
+    public static void register(final Object target)
+    {
+        synchronized (EventBus.classListenersMaps)
+        {
+            if (EventBus.objectListeners.containsKey(target)) return;
+            
+            if (target.getClass() == Class.class)
+            {
+                registerClass((Class<?>) target);
+            }
+            else
+            {
+                registerObject(target);
+            }
         }
     }
     
     public static void unregister(final Object target)
     {
-        List<IEventListener> toRemove = EventBus.objectListeners.remove(target);
-        
-        if (toRemove == null) return;
-        for (Map<Class<?>, List<IEventListener>> classListenersMap : EventBus.classListenersMaps.values())
+        synchronized (EventBus.classListenersMaps)
         {
-            for (List<IEventListener> classListeners : classListenersMap.values())
+            List<Registration> toRemove = EventBus.objectListeners.remove(target);
+            
+            if (toRemove == null) return;
+            for (Registration registration : toRemove)
             {
-                classListeners.removeAll(toRemove);
+                Map<Class<?>, IEventListener[]> classListenersMap = EventBus.classListenersMaps.get(registration.priority);
+                
+                IEventListener[] classListeners = classListenersMap.get(registration.eventType);
+                if (classListeners == null) continue;
+                
+                IEventListener[] newListeners = remove(classListeners, registration.listener);
+                if (newListeners.length > 0)
+                {
+                    classListenersMap.put(registration.eventType, newListeners);
+                }
+                else
+                {
+                    classListenersMap.remove(registration.eventType);
+                }
             }
+            
+            EventBus.eventListeners.clear();
         }
     }
     
+    /**
+     * Posts an event to its listeners. Pooled events are given back to their pool when this returns, unless a listener
+     * {@link Event#retain() retained} it.
+     *
+     * @param event The event.
+     */
     public static void post(Event event)
     {
-        if (EventBus.shutdown) return;
+        if (EventBus.shutdown)
+        {
+            release(event);
+            return;
+        }
         
         EventBus.LOGGER.finest("Posting", event);
         
-        Set<IEventListener> listeners = EventBus.eventListeners.computeIfAbsent(event.getClass(), EventBus::computeListeners);
+        IEventListener[] listeners = EventBus.eventListeners.get(event.getClass());
+        if (listeners == null) listeners = computeListeners(event.getClass());
         
-        int index = 0;
-        try
+        for (int i = 0, n = listeners.length; i < n; i++)
         {
-            for (IEventListener listener : listeners)
+            try
+            {
+                listeners[i].invoke(event);
+            }
+            catch (Throwable throwable)
             {
-                if (Objects.equals(listener.getClass(), Priority.class)) continue;
-                listener.invoke(event);
-                index++;
+                logException(listeners, i, throwable);
             }
         }
-        catch (Throwable throwable)
+        
+        release(event);
+    }
+    
+    static void release(Event event)
+    {
+        if (event instanceof AbstractEvent) ((AbstractEvent) event).release();
+    }
+    
+    private static void logException(IEventListener[] listeners, int index, Throwable throwable)
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Exception caught during firing event: ").append(throwable.getMessage()).append('\n');
+        builder.append("\tIndex: ").append(index).append('\n');
+        builder.append("\tListeners:\n");
+        for (int i = 0; i < listeners.length; i++) builder.append("\t\t").append(i).append(": ").append(describe(listeners[i])).append('\n');
+        final StringWriter sw = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(sw));
+        builder.append(sw.getBuffer());
+        EventBus.LOGGER.severe(builder.toString());
+    }
+    
+    static String describe(IEventListener listener)
+    {
+        for (List<Registration> registrations : EventBus.objectListeners.values())
         {
-            StringBuilder builder = new StringBuilder();
-            builder.append("Exception caught during firing event: ").append(throwable.getMessage()).append('\n');
-            builder.append("\tIndex: ").append(index).append('\n');
-            builder.append("\tListeners:\n");
-            index = 0;
-            for (IEventListener listener : listeners) builder.append("\t\t").append(index++).append(": ").append(listener).append('\n');
-            final StringWriter sw = new StringWriter();
-            throwable.printStackTrace(new PrintWriter(sw));
-            builder.append(sw.getBuffer());
-            EventBus.LOGGER.severe(builder.toString());
-            throw throwable;
+            for (Registration registration : registrations)
+            {
+                if (registration.listener == listener || registration.listener instanceof LaneListener && ((LaneListener) registration.listener).listener == listener)
+                {
+                    return registration.toString();
+                }
+            }
         }
+        return listener.toString();
     }
     
     private static void registerClass(final Class<?> clazz)
@@ -151,65 +272,127 @@ public class EventBus
                                                "but takes an argument that is not an Event subtype : " + eventType);
         }
         
-        addToListeners(target, eventType, wrapMethod(target, method), method.getAnnotation(Subscribe.class).priority());
+        Subscribe subscribe = method.getAnnotation(Subscribe.class);
+        
+        IEventListener listener = createListener(target, method);
+        if (!subscribe.lane().isEmpty()) listener = new LaneListener(lane(subscribe.lane()), listener);
+        
+        addToListeners(target, method, eventType, listener, subscribe.priority());
     }
     
-    private static void addToListeners(final Object target, final Class<?> eventType, final IEventListener listener, final Priority priority)
+    private static void addToListeners(final Object target, final Method method, final Class<?> eventType, final IEventListener listener, final Priority priority)
     {
-        EventBus.LOGGER.finer("Adding listener '%s' of '%s' to target '%s' with priority=%s", listener, eventType.getSimpleName(), target, priority);
+        EventBus.LOGGER.finer("Adding listener '%s' of '%s' to target '%s' with priority=%s", method.getName(), eventType.getSimpleName(), target, priority);
         
-        List<IEventListener> objectListeners = EventBus.objectListeners.computeIfAbsent(target, c -> Collections.synchronizedList(new ArrayList<>()));
-        objectListeners.add(listener);
+        List<Registration> objectListeners = EventBus.objectListeners.computeIfAbsent(target, c -> new ArrayList<>());
+        objectListeners.add(new Registration(target, method, eventType, priority, listener));
         
-        Map<Class<?>, List<IEventListener>> classListenersMap = EventBus.classListenersMaps.get(priority);
+        Map<Class<?>, IEventListener[]> classListenersMap = EventBus.classListenersMaps.get(priority);
+        
+        IEventListener[] classListeners = classListenersMap.getOrDefault(eventType, EventBus.NO_LISTENERS);
+        IEventListener[] newListeners   = Arrays.copyOf(classListeners, classListeners.length + 1);
+        newListeners[classListeners.length] = listener;
+        classListenersMap.put(eventType, newListeners);
         
         EventBus.eventListeners.clear();
+    }
+    
+    /**
+     * Creates a listener that calls the method directly. The class that implements the listener is generated once per
+     * method and is given the target when it is created. If the class cannot be generated, the listener calls the method
+     * through a {@link MethodHandle} instead.
+     */
+    private static IEventListener createListener(final Object target, final Method method)
+    {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        try
+        {
+            MethodHandle factory = EventBus.factories.computeIfAbsent(method, EventBus::createFactory);
+            if (factory != null) return (IEventListener) (isStatic ? factory.invoke() : factory.invoke(target));
+        }
+        catch (Throwable throwable)
+        {
+            EventBus.LOGGER.warning("Could not create listener for method '%s': %s", method, throwable);
+        }
         
-        List<IEventListener> classListeners = classListenersMap.computeIfAbsent(eventType, c -> Collections.synchronizedList(new ArrayList<>()));
-        classListeners.add(listener);
+        try
+        {
+            MethodHandle handle = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup()).unreflect(method);
+            if (!isStatic) handle = handle.bindTo(target);
+            return new HandleListener(handle.asType(EventBus.INVOKE_TYPE));
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new RuntimeException("Could not access listener method: " + method, e);
+        }
     }
     
-    private static IEventListener wrapMethod(final Object target, final Method method)
+    private static MethodHandle createFactory(final Method method)
     {
-        int hash = Objects.hash(target, method.getName(), Arrays.hashCode(method.getParameterTypes()));
-        return EventBus.wrappedCache.computeIfAbsent(hash, h -> event -> {
-            try
-            {
-                method.invoke(target.getClass() == Class.class ? null : target, event);
-            }
-            catch (IllegalAccessException | InvocationTargetException e)
-            {
-                EventBus.LOGGER.severe("Could not access listener method.");
-                EventBus.LOGGER.severe(e);
-            }
-        });
+        try
+        {
+            Class<?>             declaringClass = method.getDeclaringClass();
+            MethodHandles.Lookup lookup         = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+            MethodHandle         handle         = lookup.unreflect(method);
+            
+            MethodType factoryType = Modifier.isStatic(method.getModifiers()) ?
+                                     MethodType.methodType(IEventListener.class) :
+                                     MethodType.methodType(IEventListener.class, declaringClass);
+            
+            CallSite site = LambdaMetafactory.metafactory(lookup, "invoke", factoryType, EventBus.INVOKE_TYPE, handle,
+                                                          MethodType.methodType(void.class, method.getParameterTypes()[0]));
+            return site.getTarget();
+        }
+        catch (IllegalAccessException | LambdaConversionException | IllegalArgumentException e)
+        {
+            EventBus.LOGGER.finer("Could not generate listener class for method '%s': %s", method, e);
+            return null;
+        }
     }
     
-    private static Set<IEventListener> computeListeners(final Class<?> eventClass)
+    private static IEventListener[] computeListeners(final Class<?> eventClass)
     {
-        Set<Class<?>> classes  = ClassUtil.getTypes(eventClass, clz -> Modifier.isInterface(clz.getModifiers()));
-        Class<?>[]    classArr = classes.toArray(new Class<?>[0]);
-        
-        Set<IEventListener> listeners = new LinkedHashSet<>();
-        for (Priority priority : Priority.values())
+        synchronized (EventBus.classListenersMaps)
         {
-            Map<Class<?>, List<IEventListener>> classListenersMap = EventBus.classListenersMaps.get(priority);
+            IEventListener[] cached = EventBus.eventListeners.get(eventClass);
+            if (cached != null) return cached;
+            
+            Set<Class<?>> classes  = ClassUtil.getTypes(eventClass, clz -> Modifier.isInterface(clz.getModifiers()));
+            Class<?>[]    classArr = classes.toArray(new Class<?>[0]);
             
-            boolean toAdd = true;
-            for (int i = classArr.length - 1; i >= 0; i--)
+            IEventListener[] listeners = EventBus.NO_LISTENERS;
+            for (Priority priority : Priority.values())
             {
-                List<IEventListener> eventListeners = classListenersMap.get(classArr[i]);
+                Map<Class<?>, IEventListener[]> classListenersMap = EventBus.classListenersMaps.get(priority);
                 
-                if (eventListeners != null)
+                for (int i = classArr.length - 1; i >= 0; i--)
                 {
-                    if (toAdd)
+                    IEventListener[] eventListeners = classListenersMap.get(classArr[i]);
+                    
+                    if (eventListeners != null)
                     {
-                        listeners.add(priority);
-                        toAdd = false;
+                        int count = listeners.length;
+                        listeners = Arrays.copyOf(listeners, count + eventListeners.length);
+                        System.arraycopy(eventListeners, 0, listeners, count, eventListeners.length);
                     }
-                    listeners.addAll(eventListeners);
                 }
             }
+            EventBus.eventListeners.put(eventClass, listeners);
+            return listeners;
+        }
+    }
+    
+    private static IEventListener[] remove(final IEventListener[] listeners, final IEventListener listener)
+    {
+        for (int i = 0; i < listeners.length; i++)
+        {
+            if (listeners[i] == listener)
+            {
+                IEventListener[] newListeners = new IEventListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                return newListeners;
+            }
         }
         return listeners;
     }
@@ -219,5 +402,81 @@ public class EventBus
     public @interface Subscribe
     {
         Priority priority() default Priority.NORMAL;
+        
+        /**
+         * The name of the {@link EventLane} that the listener is called on, or empty to call it on the thread that posts the event.
+         * Listeners that draw or change render state must not use a lane.
+         */
+        String lane() default "";
+    }
+    
+    private static final class Registration
+    {
+        private final Object         target;
+        private final Method         method;
+        private final Class<?>       eventType;
+        private final Priority       priority;
+        private final IEventListener listener;
+        
+        private Registration(Object target, Method method, Class<?> eventType, Priority priority, IEventListener listener)
+        {
+            this.target    = target;
+            this.method    = method;
+            this.eventType = eventType;
+            this.priority  = priority;
+            this.listener  = listener;
+        }
+        
+        @Override
+        public String toString()
+        {
+            String lane = this.listener instanceof LaneListener ? ", lane=" + ((LaneListener) this.listener).lane.name() : "";
+            return "Listener{" + "target=" + this.target + ", method=" + this.method.getName() + ", event=" + this.eventType.getSimpleName() + ", priority=" + this.priority + lane + '}';
+        }
+    }
+    
+    private static final class LaneListener implements IEventListener
+    {
+        private final EventLane      lane;
+        private final IEventListener listener;
+        
+        private LaneListener(EventLane lane, IEventListener listener)
+        {
+            this.lane     = lane;
+            this.listener = listener;
+        }
+        
+        @Override
+        public void invoke(Event event)
+        {
+            this.lane.post(event, this.listener);
+        }
+    }
+    
+    private static final class HandleListener implements IEventListener
+    {
+        private final MethodHandle handle;
+        
+        private HandleListener(MethodHandle handle)
+        {
+            this.handle = handle;
+        }
+        
+        @Override
+        public void invoke(Event event)
+        {
+            try
+            {
+                this.handle.invokeExact(event);
+            }
+            catch (RuntimeException | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable throwable)
+            {
+                throw new RuntimeException(throwable);
+            }
+        }
     }
 }
@@ -15,17 +15,15 @@ public interface EventGamepadAxis extends EventJoystickAxis, EventGamepad
     
     final class _EventGamepadAxis extends AbstractEventJoystick implements EventGamepadAxis
     {
-        private final Gamepad.Axis axis;
-        private final double       value;
-        private final double       delta;
+        private static final EventPool<_EventGamepadAxis> POOL = new EventPool<>(_EventGamepadAxis::new);
         
-        private _EventGamepadAxis(Gamepad gamepad, Gamepad.Axis axis, double value, double delta)
+        private Gamepad.Axis axis;
+        private double       value;
+        private double       delta;
+        
+        private _EventGamepadAxis()
         {
-            super(gamepad);
-            
-            this.axis  = axis;
-            this.value = value;
-            this.delta = delta;
+            super(_EventGamepadAxis.POOL);
         }
     
         @Override
@@ -55,6 +53,11 @@ public interface EventGamepadAxis extends EventJoystickAxis, EventGamepad
     
     static EventGamepadAxis create(Gamepad joystick, Gamepad.Axis axis, double value, double delta)
     {
-        return new _EventGamepadAxis(joystick, axis, value, delta);
+        _EventGamepadAxis event = _EventGamepadAxis.POOL.acquire();
+        event.set(joystick);
+        event.axis  = axis;
+        event.value = value;
+        event.delta = delta;
+        return event;
     }
 }
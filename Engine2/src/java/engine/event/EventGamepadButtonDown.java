@@ -6,14 +6,18 @@ public interface EventGamepadButtonDown extends EventInputDeviceInputDown, Event
 {
     final class _EventGamepadButtonDown extends AbstractEventGamepadButton implements EventGamepadButtonDown
     {
-        private _EventGamepadButtonDown(Gamepad gamepad, Gamepad.Button button)
+        private static final EventPool<_EventGamepadButtonDown> POOL = new EventPool<>(_EventGamepadButtonDown::new);
+        
+        private _EventGamepadButtonDown()
         {
-            super(gamepad, button);
+            super(_EventGamepadButtonDown.POOL);
         }
     }
     
     static EventGamepadButtonDown create(Gamepad gamepad, Gamepad.Button button)
     {
-        return new _EventGamepadButtonDown(gamepad, button);
+        _EventGamepadButtonDown event = _EventGamepadButtonDown.POOL.acquire();
+        event.set(gamepad, button);
+        return event;
     }
 }
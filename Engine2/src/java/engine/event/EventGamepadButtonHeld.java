@@ -6,14 +6,18 @@ public interface EventGamepadButtonHeld extends EventInputDeviceInputHeld, Event
 {
     final class _EventGamepadButtonHeld extends AbstractEventGamepadButton implements EventGamepadButtonHeld
     {
-        private _EventGamepadButtonHeld(Gamepad gamepad, Gamepad.Button button)
+        private static final EventPool<_EventGamepadButtonHeld> POOL = new EventPool<>(_EventGamepadButtonHeld::new);
+        
+        private _EventGamepadButtonHeld()
         {
-            super(gamepad, button);
+            super(_EventGamepadButtonHeld.POOL);
         }
     }
     
     static EventGamepadButtonHeld create(Gamepad gamepad, Gamepad.Button button)
     {
-        return new _EventGamepadButtonHeld(gamepad, button);
+        _EventGamepadButtonHeld event = _EventGamepadButtonHeld.POOL.acquire();
+        event.set(gamepad, button);
+        return event;
     }
 }
@@ -6,13 +6,13 @@ public interface EventGamepadButtonPressed extends EventInputDeviceInputPressed,
 {
     final class _EventJoystickButtonPressed extends AbstractEventGamepadButton implements EventGamepadButtonPressed
     {
-        private final boolean doublePressed;
+        private static final EventPool<_EventJoystickButtonPressed> POOL = new EventPool<>(_EventJoystickButtonPressed::new);
     
-        private _EventJoystickButtonPressed(Gamepad gamepad, Gamepad.Button button, boolean doublePressed)
+        private boolean doublePressed;
+        
+        private _EventJoystickButtonPressed()
         {
-            super(gamepad, button);
-            
-            this.doublePressed = doublePressed;
+            super(_EventJoystickButtonPressed.POOL);
         }
         
         @Override
@@ -24,6 +24,9 @@ public interface EventGamepadButtonPressed extends EventInputDeviceInputPressed,
     
     static EventGamepadButtonPressed create(Gamepad gamepad, Gamepad.Button button, boolean doublePressed)
     {
-        return new _EventJoystickButtonPressed(gamepad, button, doublePressed);
+        _EventJoystickButtonPressed event = _EventJoystickButtonPressed.POOL.acquire();
+        event.set(gamepad, button);
+        event.doublePressed = doublePressed;
+        return event;
     }
 }
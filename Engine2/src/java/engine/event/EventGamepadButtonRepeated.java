@@ -6,14 +6,18 @@ public interface EventGamepadButtonRepeated extends EventInputDeviceInputRepeate
 {
     final class _EventGamepadButtonRepeated extends AbstractEventGamepadButton implements EventGamepadButtonRepeated
     {
-        private _EventGamepadButtonRepeated(Gamepad gamepad, Gamepad.Button button)
+        private static final EventPool<_EventGamepadButtonRepeated> POOL = new EventPool<>(_EventGamepadButtonRepeated::new);
+        
+        private _EventGamepadButtonRepeated()
         {
-            super(gamepad, button);
+            super(_EventGamepadButtonRepeated.POOL);
         }
     }
     
     static EventGamepadButtonRepeated create(Gamepad gamepad, Gamepad.Button button)
     {
-        return new _EventGamepadButtonRepeated(gamepad, button);
+        _EventGamepadButtonRepeated event = _EventGamepadButtonRepeated.POOL.acquire();
+        event.set(gamepad, button);
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventGamepadButtonUp extends EventInputDeviceInputUp, EventJoys
 {
     final class _EventGamepadButtonUp extends AbstractEventGamepadButton implements EventGamepadButtonUp
     {
-        private _EventGamepadButtonUp(Gamepad gamepad, Gamepad.Button button)
+        private static final EventPool<_EventGamepadButtonUp> POOL = new EventPool<>(_EventGamepadButtonUp::new);
+        
+        private _EventGamepadButtonUp()
         {
-            super(gamepad, button);
+            super(_EventGamepadButtonUp.POOL);
         }
     }
     
     static EventGamepadButtonUp create(Gamepad gamepad, Gamepad.Button button)
     {
-        return new _EventGamepadButtonUp(gamepad, button);
+        _EventGamepadButtonUp event = _EventGamepadButtonUp.POOL.acquire();
+        event.set(gamepad, button);
+        return event;
     }
 }
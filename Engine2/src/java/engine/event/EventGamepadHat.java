@@ -7,15 +7,14 @@ public interface EventGamepadHat extends EventJoystickHat, EventGamepad
 {
     final class _EventGamepadHat extends AbstractEventJoystick implements EventGamepadHat
     {
-        private final int          hat;
-        private final Joystick.Hat state;
+        private static final EventPool<_EventGamepadHat> POOL = new EventPool<>(_EventGamepadHat::new);
         
-        private _EventGamepadHat(Gamepad gamepad, int hat, Joystick.Hat state)
+        private int          hat;
+        private Joystick.Hat state;
+        
+        private _EventGamepadHat()
         {
-            super(gamepad);
-            
-            this.hat   = hat;
-            this.state = state;
+            super(_EventGamepadHat.POOL);
         }
         
         @Override
@@ -33,6 +32,10 @@ public interface EventGamepadHat extends EventJoystickHat, EventGamepad
     
     static EventGamepadHat create(Gamepad gamepad, int hat, Joystick.Hat state)
     {
-        return new _EventGamepadHat(gamepad, hat, state);
+        _EventGamepadHat event = _EventGamepadHat.POOL.acquire();
+        event.set(gamepad);
+        event.hat   = hat;
+        event.state = state;
+        return event;
     }
 }
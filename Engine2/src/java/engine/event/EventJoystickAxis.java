@@ -15,17 +15,15 @@ public interface EventJoystickAxis extends EventJoystick
     
     final class _EventJoystickAxis extends AbstractEventJoystick implements EventJoystickAxis
     {
-        private final int    axis;
-        private final double value;
-        private final double delta;
+        private static final EventPool<_EventJoystickAxis> POOL = new EventPool<>(_EventJoystickAxis::new);
     
-        private _EventJoystickAxis(Joystick joystick, int axis, double value, double delta)
+        private int    axis;
+        private double value;
+        private double delta;
+        
+        private _EventJoystickAxis()
         {
-            super(joystick);
-    
-            this.axis  = axis;
-            this.value = value;
-            this.delta = delta;
+            super(_EventJoystickAxis.POOL);
         }
     
         @Override
@@ -49,6 +47,11 @@ public interface EventJoystickAxis extends EventJoystick
     
     static EventJoystickAxis create(Joystick joystick, int axis, double value, double delta)
     {
-        return new _EventJoystickAxis(joystick, axis, value, delta);
+        _EventJoystickAxis event = _EventJoystickAxis.POOL.acquire();
+        event.set(joystick);
+        event.axis  = axis;
+        event.value = value;
+        event.delta = delta;
+        return event;
     }
 }
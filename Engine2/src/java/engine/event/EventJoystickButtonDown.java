@@ -6,14 +6,18 @@ public interface EventJoystickButtonDown extends EventInputDeviceInputDown, Even
 {
     final class _EventJoystickButtonDown extends AbstractEventJoystickButton implements EventJoystickButtonDown
     {
-        private _EventJoystickButtonDown(Joystick joystick, int button)
+        private static final EventPool<_EventJoystickButtonDown> POOL = new EventPool<>(_EventJoystickButtonDown::new);
+        
+        private _EventJoystickButtonDown()
         {
-            super(joystick, button);
+            super(_EventJoystickButtonDown.POOL);
         }
     }
     
     static EventJoystickButtonDown create(Joystick joystick, int button)
     {
-        return new _EventJoystickButtonDown(joystick, button);
+        _EventJoystickButtonDown event = _EventJoystickButtonDown.POOL.acquire();
+        event.set(joystick, button);
+        return event;
     }
 }
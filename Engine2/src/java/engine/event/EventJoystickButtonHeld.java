@@ -6,14 +6,18 @@ public interface EventJoystickButtonHeld extends EventInputDeviceInputHeld, Even
 {
     final class _EventJoystickButtonHeld extends AbstractEventJoystickButton implements EventJoystickButtonHeld
     {
-        private _EventJoystickButtonHeld(Joystick joystick, int button)
+        private static final EventPool<_EventJoystickButtonHeld> POOL = new EventPool<>(_EventJoystickButtonHeld::new);
+        
+        private _EventJoystickButtonHeld()
         {
-            super(joystick, button);
+            super(_EventJoystickButtonHeld.POOL);
         }
     }
     
     static EventJoystickButtonHeld create(Joystick joystick, int button)
     {
-        return new _EventJoystickButtonHeld(joystick, button);
+        _EventJoystickButtonHeld event = _EventJoystickButtonHeld.POOL.acquire();
+        event.set(joystick, button);
+        return event;
     }
 }
@@ -6,13 +6,13 @@ public interface EventJoystickButtonPressed extends EventInputDeviceInputPressed
 {
     final class _EventJoystickButtonPressed extends AbstractEventJoystickButton implements EventJoystickButtonPressed
     {
-        private final boolean doublePressed;
+        private static final EventPool<_EventJoystickButtonPressed> POOL = new EventPool<>(_EventJoystickButtonPressed::new);
     
-        private _EventJoystickButtonPressed(Joystick joystick, int button, boolean doublePressed)
+        private boolean doublePressed;
+        
+        private _EventJoystickButtonPressed()
         {
-            super(joystick, button);
-            
-            this.doublePressed = doublePressed;
+            super(_EventJoystickButtonPressed.POOL);
         }
         
         @Override
@@ -24,6 +24,9 @@ public interface EventJoystickButtonPressed extends EventInputDeviceInputPressed
     
     static EventJoystickButtonPressed create(Joystick joystick, int button, boolean doublePressed)
     {
-        return new _EventJoystickButtonPressed(joystick, button, doublePressed);
+        _EventJoystickButtonPressed event = _EventJoystickButtonPressed.POOL.acquire();
+        event.set(joystick, button);
+        event.doublePressed = doublePressed;
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventJoystickButtonRepeated extends EventInputDeviceInputRepeat
 {
     final class _EventJoystickButtonRepeated extends AbstractEventJoystickButton implements EventJoystickButtonRepeated
     {
-        private _EventJoystickButtonRepeated(Joystick joystick, int button)
+        private static final EventPool<_EventJoystickButtonRepeated> POOL = new EventPool<>(_EventJoystickButtonRepeated::new);
+        
+        private _EventJoystickButtonRepeated()
         {
-            super(joystick, button);
+            super(_EventJoystickButtonRepeated.POOL);
         }
     }
     
     static EventJoystickButtonRepeated create(Joystick joystick, int button)
     {
-        return new _EventJoystickButtonRepeated(joystick, button);
+        _EventJoystickButtonRepeated event = _EventJoystickButtonRepeated.POOL.acquire();
+        event.set(joystick, button);
+        return event;
     }
 }
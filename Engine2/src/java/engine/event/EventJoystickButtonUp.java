@@ -6,14 +6,18 @@ public interface EventJoystickButtonUp extends EventInputDeviceInputUp, EventJoy
 {
     final class _EventJoystickButtonUp extends AbstractEventJoystickButton implements EventJoystickButtonUp
     {
-        private _EventJoystickButtonUp(Joystick joystick, int button)
+        private static final EventPool<_EventJoystickButtonUp> POOL = new EventPool<>(_EventJoystickButtonUp::new);
+        
+        private _EventJoystickButtonUp()
         {
-            super(joystick, button);
+            super(_EventJoystickButtonUp.POOL);
         }
     }
     
     static EventJoystickButtonUp create(Joystick joystick, int button)
     {
-        return new _EventJoystickButtonUp(joystick, button);
+        _EventJoystickButtonUp event = _EventJoystickButtonUp.POOL.acquire();
+        event.set(joystick, button);
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventJoystickConnected extends EventJoystick
 {
     final class _EventJoystickConnected extends AbstractEventJoystick implements EventJoystickConnected
     {
-        private _EventJoystickConnected(Joystick joystick)
+        private static final EventPool<_EventJoystickConnected> POOL = new EventPool<>(_EventJoystickConnected::new);
+        
+        private _EventJoystickConnected()
         {
-            super(joystick);
+            super(_EventJoystickConnected.POOL);
         }
     }
     
     static EventJoystickConnected create(Joystick joystick)
     {
-        return new _EventJoystickConnected(joystick);
+        _EventJoystickConnected event = _EventJoystickConnected.POOL.acquire();
+        event.set(joystick);
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventJoystickDisconnected extends EventJoystick
 {
     final class _EventJoystickDisconnected extends AbstractEventJoystick implements EventJoystickDisconnected
     {
-        private _EventJoystickDisconnected(Joystick joystick)
+        private static final EventPool<_EventJoystickDisconnected> POOL = new EventPool<>(_EventJoystickDisconnected::new);
+        
+        private _EventJoystickDisconnected()
         {
-            super(joystick);
+            super(_EventJoystickDisconnected.POOL);
         }
     }
     
     static EventJoystickDisconnected create(Joystick joystick)
     {
-        return new _EventJoystickDisconnected(joystick);
+        _EventJoystickDisconnected event = _EventJoystickDisconnected.POOL.acquire();
+        event.set(joystick);
+        return event;
     }
 }
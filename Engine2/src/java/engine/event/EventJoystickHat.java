@@ -12,15 +12,14 @@ public interface EventJoystickHat extends EventJoystick
     
     final class _EventJoystickHat extends AbstractEventJoystick implements EventJoystickHat
     {
-        private final int          hat;
-        private final Joystick.Hat state;
+        private static final EventPool<_EventJoystickHat> POOL = new EventPool<>(_EventJoystickHat::new);
     
-        private _EventJoystickHat(Joystick joystick, int hat, Joystick.Hat state)
+        private int          hat;
+        private Joystick.Hat state;
+        
+        private _EventJoystickHat()
         {
-            super(joystick);
-    
-            this.hat   = hat;
-            this.state = state;
+            super(_EventJoystickHat.POOL);
         }
     
         @Override
@@ -38,6 +37,10 @@ public interface EventJoystickHat extends EventJoystick
     
     static EventJoystickHat create(Joystick joystick, int hat, Joystick.Hat state)
     {
-        return new _EventJoystickHat(joystick, hat, state);
+        _EventJoystickHat event = _EventJoystickHat.POOL.acquire();
+        event.set(joystick);
+        event.hat   = hat;
+        event.state = state;
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventKeyboardKeyDown extends EventInputDeviceInputDown, EventKe
 {
     final class _EventKeyboardKeyDown extends AbstractEventKeyboardKey implements EventKeyboardKeyDown
     {
-        private _EventKeyboardKeyDown(Keyboard.Key key)
+        private static final EventPool<_EventKeyboardKeyDown> POOL = new EventPool<>(_EventKeyboardKeyDown::new);
+        
+        private _EventKeyboardKeyDown()
         {
-            super(key);
+            super(_EventKeyboardKeyDown.POOL);
         }
     }
     
     static EventKeyboardKeyDown create(Keyboard.Key key)
     {
-        return new _EventKeyboardKeyDown(key);
+        _EventKeyboardKeyDown event = _EventKeyboardKeyDown.POOL.acquire();
+        event.set(key);
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventKeyboardKeyHeld extends EventInputDeviceInputHeld, EventKe
 {
     final class _EventKeyboardKeyHeld extends AbstractEventKeyboardKey implements EventKeyboardKeyHeld
     {
-        private _EventKeyboardKeyHeld(Keyboard.Key key)
+        private static final EventPool<_EventKeyboardKeyHeld> POOL = new EventPool<>(_EventKeyboardKeyHeld::new);
+        
+        private _EventKeyboardKeyHeld()
         {
-            super(key);
+            super(_EventKeyboardKeyHeld.POOL);
         }
     }
     
     static EventKeyboardKeyHeld create(Keyboard.Key key)
     {
-        return new _EventKeyboardKeyHeld(key);
+        _EventKeyboardKeyHeld event = _EventKeyboardKeyHeld.POOL.acquire();
+        event.set(key);
+        return event;
     }
 }
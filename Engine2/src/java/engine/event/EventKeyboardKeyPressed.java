@@ -6,13 +6,13 @@ public interface EventKeyboardKeyPressed extends EventInputDeviceInputPressed, E
 {
     final class _EventKeyboardKeyPressed extends AbstractEventKeyboardKey implements EventKeyboardKeyPressed
     {
-        private final boolean doublePressed;
+        private static final EventPool<_EventKeyboardKeyPressed> POOL = new EventPool<>(_EventKeyboardKeyPressed::new);
     
-        private _EventKeyboardKeyPressed(Keyboard.Key key, boolean doublePressed)
+        private boolean doublePressed;
+        
+        private _EventKeyboardKeyPressed()
         {
-            super(key);
-    
-            this.doublePressed = doublePressed;
+            super(_EventKeyboardKeyPressed.POOL);
         }
     
         @Override
@@ -24,6 +24,9 @@ public interface EventKeyboardKeyPressed extends EventInputDeviceInputPressed, E
     
     static EventKeyboardKeyPressed create(Keyboard.Key key, boolean doublePressed)
     {
-        return new _EventKeyboardKeyPressed(key, doublePressed);
+        _EventKeyboardKeyPressed event = _EventKeyboardKeyPressed.POOL.acquire();
+        event.set(key);
+        event.doublePressed = doublePressed;
+        return event;
     }
 }
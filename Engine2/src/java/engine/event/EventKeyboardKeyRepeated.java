@@ -6,14 +6,18 @@ public interface EventKeyboardKeyRepeated extends EventInputDeviceInputRepeated,
 {
     final class _EventKeyboardKeyRepeated extends AbstractEventKeyboardKey implements EventKeyboardKeyRepeated
     {
-        private _EventKeyboardKeyRepeated(Keyboard.Key key)
+        private static final EventPool<_EventKeyboardKeyRepeated> POOL = new EventPool<>(_EventKeyboardKeyRepeated::new);
+        
+        private _EventKeyboardKeyRepeated()
         {
-            super(key);
+            super(_EventKeyboardKeyRepeated.POOL);
         }
     }
     
     static EventKeyboardKeyRepeated create(Keyboard.Key key)
     {
-        return new _EventKeyboardKeyRepeated(key);
+        _EventKeyboardKeyRepeated event = _EventKeyboardKeyRepeated.POOL.acquire();
+        event.set(key);
+        return event;
     }
 }
@@ -6,14 +6,18 @@ public interface EventKeyboardKeyUp extends EventInputDeviceInputUp, EventKeyboa
 {
     final class _EventKeyboardKeyUp extends AbstractEventKeyboardKey implements EventKeyboardKeyUp
     {
-        private _EventKeyboardKeyUp(Keyboard.Key key)
+        private static final EventPool<_EventKeyboardKeyUp> POOL = new EventPool<>(_EventKeyboardKeyUp::new);
+        
+        private _EventKeyboardKeyUp()
         {
-            super(key);
+            super(_EventKeyboardKeyUp.POOL);
         }
     }
     
     static EventKeyboardKeyUp create(Keyboard.Key key)
     {
-        return new _EventKeyboardKeyUp(key);
+        _EventKeyboardKeyUp event = _EventKeyboardKeyUp.POOL.acquire();
+        event.set(key);
+        return event;
     }
 }
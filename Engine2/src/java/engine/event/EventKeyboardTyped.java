@@ -7,13 +7,13 @@ public interface EventKeyboardTyped extends EventKeyboard
     
     final class _EventKeyboardTyped extends AbstractEventInputDevice implements EventKeyboardTyped
     {
-        private final String typed;
+        private static final EventPool<_EventKeyboardTyped> POOL = new EventPool<>(_EventKeyboardTyped::new);
     
-        private _EventKeyboardTyped(String typed)
+        private String typed;
+        
+        private _EventKeyboardTyped()
         {
-            super();
-    
-            this.typed = typed;
+            super(_EventKeyboardTyped.POOL);
         }
     
         @Override
@@ -25,6 +25,8 @@ public interface EventKeyboardTyped extends EventKeyboard
     
     static EventKeyboardTyped create(String typed)
     {
-        return new _EventKeyboardTyped(typed);
+        _EventKeyboardTyped event = _EventKeyboardTyped.POOL.acquire();
+        event.typed = typed;
+        return event;
     }
 }
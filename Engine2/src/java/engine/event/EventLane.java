@@ -0,0 +1,453 @@
+package engine.event;
+
+import rutils.Logger;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A background thread that delivers events to the listeners that subscribed with {@link EventBus.Subscribe#lane()}.
+ * <p>
+ * Each lane has one thread and a bounded queue, so the events of a lane are handled in the order that they were posted.
+ * When the queue is full, the lane's {@link Policy} decides if the posting thread waits or if an event is dropped.
+ * <p>
+ * The lane starts when an event is first posted to it or when {@link EventBus#start()} is called. Events posted after
+ * {@link EventBus#shutdown()} are dropped until the bus is started again.
+ * <p>
+ * Pooled events are held until every lane is done with them, so listeners on a lane do not need to
+ * {@link Event#retain() retain} them.
+ */
+@SuppressWarnings("unused")
+public class EventLane
+{
+    private static final Logger LOGGER = new Logger();
+    
+    public static final int    DEFAULT_CAPACITY = 1024;
+    public static final Policy DEFAULT_POLICY   = Policy.DROP_OLDEST;
+    
+    private final String name;
+    private final int    capacity;
+    private final Policy policy;
+    
+    private final ReentrantLock lock     = new ReentrantLock();
+    private final Condition     notEmpty = this.lock.newCondition();
+    private final Condition     notFull  = this.lock.newCondition();
+    
+    private final Event[]          events;
+    private final IEventListener[] listeners;
+    private final long[]           postTimes;
+    private       int              head, size;
+    
+    private Thread  thread;
+    private boolean running, shutdown;
+    
+    private int  maxDepth;
+    private long delivered, dropped;
+    private long waitTime, handleTime, maxHandleTime;
+    
+    EventLane(String name, int capacity, Policy policy)
+    {
+        if (capacity <= 0) throw new RuntimeException("Capacity must be positive: " + capacity);
+        
+        this.name     = name;
+        this.capacity = capacity;
+        this.policy   = policy;
+        
+        this.events    = new Event[capacity];
+        this.listeners = new IEventListener[capacity];
+        this.postTimes = new long[capacity];
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "EventLane{" + "name='" + this.name + '\'' + ", depth=" + depth() + '/' + this.capacity + ", policy=" + this.policy + '}';
+    }
+    
+    /**
+     * @return The name of the lane.
+     */
+    public String name()
+    {
+        return this.name;
+    }
+    
+    /**
+     * @return The most events that can be waiting in the queue.
+     */
+    public int capacity()
+    {
+        return this.capacity;
+    }
+    
+    /**
+     * @return What happens when an event is posted while the queue is full.
+     */
+    public Policy policy()
+    {
+        return this.policy;
+    }
+    
+    /**
+     * @return The number of events that are waiting in the queue.
+     */
+    public int depth()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.size;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The most events that were waiting in the queue at once since the last call to {@link #resetCounts()}.
+     */
+    public int maxDepth()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.maxDepth;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The number of events that were handled since the last call to {@link #resetCounts()}.
+     */
+    public long delivered()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.delivered;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The number of events that were dropped because the queue was full since the last call to {@link #resetCounts()}.
+     */
+    public long dropped()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.dropped;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The average time in nanoseconds between an event being posted and its listener being called since the last call to {@link #resetCounts()}.
+     */
+    public double averageWaitTime()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.delivered > 0 ? (double) this.waitTime / this.delivered : 0.0;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The average time in nanoseconds that a listener took to handle an event since the last call to {@link #resetCounts()}.
+     */
+    public double averageHandleTime()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.delivered > 0 ? (double) this.handleTime / this.delivered : 0.0;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The longest time in nanoseconds that a listener took to handle an event since the last call to {@link #resetCounts()}.
+     */
+    public long maxHandleTime()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.maxHandleTime;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * Resets the counts and times.
+     */
+    public void resetCounts()
+    {
+        this.lock.lock();
+        try
+        {
+            this.maxDepth      = this.size;
+            this.delivered     = 0;
+            this.dropped       = 0;
+            this.waitTime      = 0;
+            this.handleTime    = 0;
+            this.maxHandleTime = 0;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * Starts the thread of the lane if it is not running.
+     */
+    void start()
+    {
+        this.lock.lock();
+        try
+        {
+            this.shutdown = false;
+            
+            if (this.running) return;
+            
+            EventLane.LOGGER.fine("%s: Starting", this);
+            
+            this.running = true;
+            this.thread  = new Thread(this::run, "EventLane-" + this.name);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+    
+    /**
+     * Stops the thread of the lane after it handles the events that are in the queue. Events that are posted after this
+     * are dropped until the lane is started again.
+     */
+    void shutdown()
+    {
+        Thread thread;
+        this.lock.lock();
+        try
+        {
+            this.shutdown = true;
+            
+            if (!this.running) return;
+            
+            EventLane.LOGGER.fine("%s: Stopping", this);
+            
+            this.running = false;
+            this.notEmpty.signalAll();
+            this.notFull.signalAll();
+            
+            thread      = this.thread;
+            this.thread = null;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+        try
+        {
+            thread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Adds an event to the queue. Pooled events are held until the listener is done with them.
+     * <p>
+     * The event is dropped if the lane was shut down. A listener on this lane that posts to it while the queue is full
+     * cannot wait for room, because it is the only thread that makes room, so a {@link Policy#BLOCK} lane drops the
+     * newest event instead.
+     *
+     * @param event    The event.
+     * @param listener The listener that the event is delivered to.
+     */
+    void post(Event event, IEventListener listener)
+    {
+        hold(event);
+        
+        Event dropped = null;
+        
+        this.lock.lock();
+        try
+        {
+            if (this.shutdown)
+            {
+                dropped = event;
+            }
+            else if (!this.running)
+            {
+                start();
+            }
+            
+            if (dropped == null && this.size == this.capacity)
+            {
+                switch (this.policy)
+                {
+                    case BLOCK -> {
+                        // The lane's own thread would wait for itself.
+                        if (Thread.currentThread() != this.thread)
+                        {
+                            while (this.size == this.capacity && this.running) this.notFull.awaitUninterruptibly();
+                        }
+                        if (this.size == this.capacity)
+                        {
+                            this.dropped++;
+                            dropped = event;
+                        }
+                    }
+                    case DROP_NEWEST -> {
+                        this.dropped++;
+                        dropped = event;
+                    }
+                    case DROP_OLDEST -> {
+                        this.dropped++;
+                        dropped = this.events[this.head];
+                        
+                        this.events[this.head]    = null;
+                        this.listeners[this.head] = null;
+                        this.head                 = (this.head + 1) % this.capacity;
+                        this.size--;
+                    }
+                }
+            }
+            if (dropped != event)
+            {
+                int tail = (this.head + this.size) % this.capacity;
+                this.events[tail]    = event;
+                this.listeners[tail] = listener;
+                this.postTimes[tail] = System.nanoTime();
+                this.size++;
+                
+                this.maxDepth = Math.max(this.maxDepth, this.size);
+                
+                this.notEmpty.signal();
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+        
+        if (dropped != null) EventBus.release(dropped);
+    }
+    
+    private void run()
+    {
+        Event          event;
+        IEventListener listener;
+        long           postTime;
+        while (true)
+        {
+            this.lock.lock();
+            try
+            {
+                while (this.size == 0 && this.running) this.notEmpty.awaitUninterruptibly();
+                if (this.size == 0) return;
+                
+                event    = this.events[this.head];
+                listener = this.listeners[this.head];
+                postTime = this.postTimes[this.head];
+                
+                this.events[this.head]    = null;
+                this.listeners[this.head] = null;
+                this.head                 = (this.head + 1) % this.capacity;
+                this.size--;
+                
+                this.notFull.signal();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            
+            long start = System.nanoTime();
+            try
+            {
+                listener.invoke(event);
+            }
+            catch (Throwable throwable)
+            {
+                final StringWriter sw = new StringWriter();
+                throwable.printStackTrace(new PrintWriter(sw));
+                EventLane.LOGGER.severe("%s: Exception caught during firing event: %s\n\tListener: %s\n%s", this, throwable.getMessage(), EventBus.describe(listener), sw.getBuffer());
+            }
+            long end = System.nanoTime();
+            
+            EventBus.release(event);
+            
+            this.lock.lock();
+            try
+            {
+                this.delivered++;
+                this.waitTime += start - postTime;
+                this.handleTime += end - start;
+                this.maxHandleTime = Math.max(this.maxHandleTime, end - start);
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+    }
+    
+    private static void hold(Event event)
+    {
+        if (event instanceof AbstractEvent) ((AbstractEvent) event).hold();
+    }
+    
+    /**
+     * What a lane does when an event is posted while its queue is full.
+     */
+    public enum Policy
+    {
+        /**
+         * The posting thread waits until there is room in the queue. Events that the lane posts to itself are dropped
+         * instead, like {@link #DROP_NEWEST}.
+         */
+        BLOCK,
+        
+        /**
+         * The event that was posted is dropped.
+         */
+        DROP_NEWEST,
+        
+        /**
+         * The event that has waited the longest is dropped to make room.
+         */
+        DROP_OLDEST
+    }
+}
@@ -7,14 +7,18 @@ public interface EventMouseButtonDown extends EventInputDeviceInputDown, EventMo
 {
     final class _EventMouseButtonDown extends AbstractEventMouseButton implements EventMouseButtonDown
     {
-        private _EventMouseButtonDown(Mouse.Button button, Vector2dc pos)
+        private static final EventPool<_EventMouseButtonDown> POOL = new EventPool<>(_EventMouseButtonDown::new);
+        
+        private _EventMouseButtonDown()
         {
-            super(button, pos);
+            super(_EventMouseButtonDown.POOL);
         }
     }
     
     static EventMouseButtonDown create(Mouse.Button button, Vector2dc pos)
     {
-        return new _EventMouseButtonDown(button, pos);
+        _EventMouseButtonDown event = _EventMouseButtonDown.POOL.acquire();
+        event.set(button, pos);
+        return event;
     }
 }
@@ -34,15 +34,14 @@ public interface EventMouseButtonDragged extends EventMouseButton
     
     final class _EventMouseButtonDragged extends AbstractEventMouseButton implements EventMouseButtonDragged
     {
-        private final Vector2d rel;
-        private final Vector2d dragStart;
+        private static final EventPool<_EventMouseButtonDragged> POOL = new EventPool<>(_EventMouseButtonDragged::new);
         
-        private _EventMouseButtonDragged(Mouse.Button button, Vector2dc pos, Vector2dc rel, Vector2dc dragStart)
+        private final Vector2d rel       = new Vector2d();
+        private final Vector2d dragStart = new Vector2d();
+        
+        private _EventMouseButtonDragged()
         {
-            super(button, pos);
-            
-            this.rel       = new Vector2d(rel);
-            this.dragStart = new Vector2d(dragStart);
+            super(_EventMouseButtonDragged.POOL);
         }
         
         @Override
@@ -60,6 +59,10 @@ public interface EventMouseButtonDragged extends EventMouseButton
     
     static EventMouseButtonDragged create(Mouse.Button button, Vector2dc pos, Vector2dc rel, Vector2dc dragStart)
     {
-        return new _EventMouseButtonDragged(button, pos, rel, dragStart);
+        _EventMouseButtonDragged event = _EventMouseButtonDragged.POOL.acquire();
+        event.set(button, pos);
+        event.rel.set(rel);
+        event.dragStart.set(dragStart);
+        return event;
     }
 }
@@ -7,14 +7,18 @@ public interface EventMouseButtonHeld extends EventInputDeviceInputHeld, EventMo
 {
     final class _EventMouseButtonHeld extends AbstractEventMouseButton implements EventMouseButtonHeld
     {
-        private _EventMouseButtonHeld(Mouse.Button button, Vector2dc pos)
+        private static final EventPool<_EventMouseButtonHeld> POOL = new EventPool<>(_EventMouseButtonHeld::new);
+        
+        private _EventMouseButtonHeld()
         {
-            super(button, pos);
+            super(_EventMouseButtonHeld.POOL);
         }
     }
     
     static EventMouseButtonHeld create(Mouse.Button button, Vector2dc pos)
     {
-        return new _EventMouseButtonHeld(button, pos);
+        _EventMouseButtonHeld event = _EventMouseButtonHeld.POOL.acquire();
+        event.set(button, pos);
+        return event;
     }
 }
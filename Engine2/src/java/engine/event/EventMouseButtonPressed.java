@@ -7,13 +7,13 @@ public interface EventMouseButtonPressed extends EventInputDeviceInputPressed, E
 {
     final class _EventMouseButtonPressed extends AbstractEventMouseButton implements EventMouseButtonPressed
     {
-        private final boolean doublePressed;
+        private static final EventPool<_EventMouseButtonPressed> POOL = new EventPool<>(_EventMouseButtonPressed::new);
         
-        private _EventMouseButtonPressed(Mouse.Button button, Vector2dc pos, boolean doublePressed)
+        private boolean doublePressed;
+        
+        private _EventMouseButtonPressed()
         {
-            super(button, pos);
-            
-            this.doublePressed = doublePressed;
+            super(_EventMouseButtonPressed.POOL);
         }
         
         @Override
@@ -25,6 +25,9 @@ public interface EventMouseButtonPressed extends EventInputDeviceInputPressed, E
     
     static EventMouseButtonPressed create(Mouse.Button button, Vector2dc pos, boolean doublePressed)
     {
-        return new _EventMouseButtonPressed(button, pos, doublePressed);
+        _EventMouseButtonPressed event = _EventMouseButtonPressed.POOL.acquire();
+        event.set(button, pos);
+        event.doublePressed = doublePressed;
+        return event;
     }
 }
@@ -7,14 +7,18 @@ public interface EventMouseButtonRepeated extends EventInputDeviceInputRepeated,
 {
     final class _EventMouseButtonRepeated extends AbstractEventMouseButton implements EventMouseButtonRepeated
     {
-        private _EventMouseButtonRepeated(Mouse.Button button, Vector2dc pos)
+        private static final EventPool<_EventMouseButtonRepeated> POOL = new EventPool<>(_EventMouseButtonRepeated::new);
+        
+        private _EventMouseButtonRepeated()
         {
-            super(button, pos);
+            super(_EventMouseButtonRepeated.POOL);
         }
     }
     
     static EventMouseButtonRepeated create(Mouse.Button button, Vector2dc pos)
     {
-        return new _EventMouseButtonRepeated(button, pos);
+        _EventMouseButtonRepeated event = _EventMouseButtonRepeated.POOL.acquire();
+        event.set(button, pos);
+        return event;
     }
 }
@@ -7,14 +7,18 @@ public interface EventMouseButtonUp extends EventInputDeviceInputUp, EventMouseB
 {
     final class _EventMouseButtonUp extends AbstractEventMouseButton implements EventMouseButtonUp
     {
-        private _EventMouseButtonUp(Mouse.Button button, Vector2dc pos)
+        private static final EventPool<_EventMouseButtonUp> POOL = new EventPool<>(_EventMouseButtonUp::new);
+        
+        private _EventMouseButtonUp()
         {
-            super(button, pos);
+            super(_EventMouseButtonUp.POOL);
         }
     }
     
     static EventMouseButtonUp create(Mouse.Button button, Vector2dc pos)
     {
-        return new _EventMouseButtonUp(button, pos);
+        _EventMouseButtonUp event = _EventMouseButtonUp.POOL.acquire();
+        event.set(button, pos);
+        return event;
     }
 }
@@ -7,13 +7,13 @@ public interface EventMouseEntered extends EventMouse
     
     final class _EventMouseEntered extends AbstractEventInputDevice implements EventMouseEntered
     {
-        private final boolean entered;
+        private static final EventPool<_EventMouseEntered> POOL = new EventPool<>(_EventMouseEntered::new);
         
-        private _EventMouseEntered(boolean entered)
+        private boolean entered;
+        
+        private _EventMouseEntered()
         {
-            super();
-            
-            this.entered = entered;
+            super(_EventMouseEntered.POOL);
         }
         
         @Override
@@ -25,6 +25,8 @@ public interface EventMouseEntered extends EventMouse
     
     static EventMouseEntered create(boolean entered)
     {
-        return new _EventMouseEntered(entered);
+        _EventMouseEntered event = _EventMouseEntered.POOL.acquire();
+        event.entered = entered;
+        return event;
     }
 }
@@ -33,15 +33,14 @@ public interface EventMouseMoved extends EventMouse
     
     final class _EventMouseMoved extends AbstractEventInputDevice implements EventMouseMoved
     {
-        private final Vector2d pos;
-        private final Vector2d rel;
+        private static final EventPool<_EventMouseMoved> POOL = new EventPool<>(_EventMouseMoved::new);
         
-        private _EventMouseMoved(Vector2dc pos, Vector2dc rel)
+        private final Vector2d pos = new Vector2d();
+        private final Vector2d rel = new Vector2d();
+        
+        private _EventMouseMoved()
         {
-            super();
-            
-            this.pos = new Vector2d(pos);
-            this.rel = new Vector2d(rel);
+            super(_EventMouseMoved.POOL);
         }
         
         @Override
@@ -59,6 +58,9 @@ public interface EventMouseMoved extends EventMouse
     
     static EventMouseMoved create(Vector2dc pos, Vector2dc rel)
     {
-        return new _EventMouseMoved(pos, rel);
+        _EventMouseMoved event = _EventMouseMoved.POOL.acquire();
+        event.pos.set(pos);
+        event.rel.set(rel);
+        return event;
     }
 }
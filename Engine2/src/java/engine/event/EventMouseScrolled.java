@@ -20,13 +20,13 @@ public interface EventMouseScrolled extends EventMouse
     
     final class _EventMouseScrolled extends AbstractEventInputDevice implements EventMouseScrolled
     {
-        private final Vector2d scroll;
+        private static final EventPool<_EventMouseScrolled> POOL = new EventPool<>(_EventMouseScrolled::new);
         
-        private _EventMouseScrolled(Vector2dc scroll)
+        private final Vector2d scroll = new Vector2d();
+        
+        private _EventMouseScrolled()
         {
-            super();
-            
-            this.scroll = new Vector2d(scroll);
+            super(_EventMouseScrolled.POOL);
         }
         
         @Override
@@ -38,6 +38,8 @@ public interface EventMouseScrolled extends EventMouse
     
     static EventMouseScrolled create(Vector2dc pos)
     {
-        return new _EventMouseScrolled(pos);
+        _EventMouseScrolled event = _EventMouseScrolled.POOL.acquire();
+        event.scroll.set(pos);
+        return event;
     }
 }
@@ -0,0 +1,134 @@
+package engine.event;
+
+import rutils.Logger;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps event objects that were already posted so that they can be used again for the next event of the same type.
+ * <p>
+ * Pooled events are given back to their pool after {@link EventBus#post(Event)} returns. A listener that keeps a reference
+ * to an event after it returns must call {@link Event#retain()}, or the event will be changed the next time an event of
+ * its type is created. Retained events are never reused.
+ * <p>
+ * When pooling is disabled, every event is a new object, the same as events that are not pooled.
+ *
+ * @param <T> The type of event in the pool.
+ */
+@SuppressWarnings("unused")
+public final class EventPool<T extends AbstractEvent>
+{
+    private static final Logger LOGGER = new Logger();
+    
+    public static final int CAPACITY = 64;
+    
+    private static boolean enabled = true;
+    
+    // Pools of different event types lock different monitors, so the shared counts are adders.
+    private static final LongAdder created  = new LongAdder();
+    private static final LongAdder reused   = new LongAdder();
+    private static final LongAdder retained = new LongAdder();
+    
+    private final Supplier<T>     factory;
+    private final AbstractEvent[] events = new AbstractEvent[EventPool.CAPACITY];
+    private       int             count;
+    
+    EventPool(Supplier<T> factory)
+    {
+        this.factory = factory;
+    }
+    
+    /**
+     * @return true if events are reused after they are posted.
+     */
+    public static boolean enabled()
+    {
+        return EventPool.enabled;
+    }
+    
+    /**
+     * Sets if events are reused after they are posted.
+     *
+     * @param enabled true to reuse events.
+     */
+    public static void enabled(boolean enabled)
+    {
+        EventPool.LOGGER.fine("Event pooling %s", enabled ? "enabled" : "disabled");
+        
+        EventPool.enabled = enabled;
+    }
+    
+    /**
+     * @return The number of event objects that were allocated since the last call to {@link #resetCounts()}.
+     */
+    public static int created()
+    {
+        return EventPool.created.intValue();
+    }
+    
+    /**
+     * @return The number of events that reused a pooled object since the last call to {@link #resetCounts()}.
+     */
+    public static int reused()
+    {
+        return EventPool.reused.intValue();
+    }
+    
+    /**
+     * @return The number of events that were retained by a listener since the last call to {@link #resetCounts()}.
+     */
+    public static int retained()
+    {
+        return EventPool.retained.intValue();
+    }
+    
+    /**
+     * Resets the allocation counts.
+     */
+    public static void resetCounts()
+    {
+        EventPool.created.reset();
+        EventPool.reused.reset();
+        EventPool.retained.reset();
+    }
+    
+    /**
+     * Gets an event from the pool, or creates a new one if the pool is empty. The time of the event is set to now.
+     *
+     * @return The event.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized T acquire()
+    {
+        T event;
+        if (this.count > 0)
+        {
+            event = (T) this.events[--this.count];
+            this.events[this.count] = null;
+            EventPool.reused.increment();
+        }
+        else
+        {
+            event = this.factory.get();
+            EventPool.created.increment();
+        }
+        event.reset();
+        return event;
+    }
+    
+    /**
+     * Gives an event back to the pool. The event is dropped if it was retained, pooling is disabled or the pool is full.
+     *
+     * @param event The event.
+     */
+    synchronized void release(AbstractEvent event)
+    {
+        if (event.retained())
+        {
+            EventPool.retained.increment();
+            return;
+        }
+        if (EventPool.enabled && this.count < this.events.length) this.events[this.count++] = event;
+    }
+}
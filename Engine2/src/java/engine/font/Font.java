@@ -1,13 +1,8 @@
 package engine.font;
 
 import engine.render.Texture;
-import org.lwjgl.BufferUtils;
-import org.lwjgl.stb.STBTTAlignedQuad;
 import org.lwjgl.stb.STBTTFontinfo;
-import org.lwjgl.stb.STBTTPackContext;
-import org.lwjgl.stb.STBTTPackedchar;
 import org.lwjgl.system.MemoryStack;
-import org.lwjgl.system.MemoryUtil;
 import rutils.Logger;
 
 import java.nio.ByteBuffer;
@@ -26,11 +21,20 @@ public class Font
     
     private static final HashMap<String, Font> CACHE = new HashMap<>();
     
+    private static GlyphAtlas atlas, sdfAtlas;
+    private static int        nextIndex;
+    
     public static final String  DEFAULT_NAME    = "BetterPixels";
     public static final Weight  DEFAULT_WEIGHT  = Weight.REGULAR;
     public static final boolean DEFAULT_ITALICS = false;
     public static final int     DEFAULT_SIZE    = 24;
     
+    /**
+     * The number of characters in the Basic Multilingual Plane. Every {@code char} has an entry in the metrics table,
+     * which is filled in the first time that a character is used.
+     */
+    public static final int CHAR_COUNT = 0x10000;
+    
     static
     {
         register("fonts/BetterPixels-Regular.ttf", Font.DEFAULT_NAME, Font.DEFAULT_WEIGHT, Font.DEFAULT_ITALICS, true);
@@ -44,7 +48,10 @@ public class Font
     private final boolean italicized;
     private final boolean kerning;
     
+    private boolean sdf;
+    
     private final String id;
+    private final int    index;
     
     private final STBTTFontinfo info;
     private final ByteBuffer    fileData;
@@ -53,7 +60,7 @@ public class Font
     private final int descentUnscaled;
     private final int lineGapUnscaled;
     
-    private final HashMap<Integer, CharData> charData;
+    private final CharData[]                 charData;
     private final HashMap<Integer, SizeData> sizeData;
     
     private Font(String filePath, String name, Weight weight, boolean italicized, boolean kerning)
@@ -63,7 +70,8 @@ public class Font
         this.italicized = italicized;
         this.kerning    = kerning;
         
-        this.id = getID(this.name, this.weight, this.italicized);
+        this.id    = getID(this.name, this.weight, this.italicized);
+        this.index = Font.nextIndex++;
         
         this.info     = STBTTFontinfo.create();
         this.fileData = resourceToByteBuffer(filePath);
@@ -82,25 +90,10 @@ public class Font
             this.ascentUnscaled  = ascent.get(0);
             this.descentUnscaled = descent.get(0);
             this.lineGapUnscaled = lineGap.get(0);
-            
-            IntBuffer advanceWidth    = stack.mallocInt(1);
-            IntBuffer leftSideBearing = stack.mallocInt(1);
-            
-            IntBuffer x0 = stack.mallocInt(1);
-            IntBuffer y0 = stack.mallocInt(1);
-            IntBuffer x1 = stack.mallocInt(1);
-            IntBuffer y1 = stack.mallocInt(1);
-            
-            this.charData = new HashMap<>();
-            for (int i = 0; i < 0xFFFF; i++)
-            {
-                this.charData.put(i, new CharData(i, advanceWidth, leftSideBearing, x0, y0, x1, y1));
-            }
         }
         
+        this.charData = new CharData[Font.CHAR_COUNT];
         this.sizeData = new HashMap<>();
-        
-        getSizeData(Font.DEFAULT_SIZE);
     }
     
     @Override
@@ -156,6 +149,46 @@ public class Font
         return this.kerning;
     }
     
+    /**
+     * @return true if the font is rendered from signed distance fields.
+     */
+    public boolean sdf()
+    {
+        return this.sdf;
+    }
+    
+    /**
+     * Sets if the font is rendered from signed distance fields instead of from bitmaps.
+     * <p>
+     * Bitmap glyphs are rasterized for each size that they are drawn at and match the font's hinting exactly. Signed
+     * distance field glyphs are rasterized once and scaled to every size, so text that changes size often does not fill
+     * the atlas. Pixel fonts should stay as bitmaps.
+     *
+     * @param sdf If the font is rendered from signed distance fields.
+     */
+    public void sdf(boolean sdf)
+    {
+        Font.LOGGER.finest("Setting SDF for font \"%s\": %s", this, sdf);
+        
+        this.sdf = sdf;
+    }
+    
+    /**
+     * Toggles if the font is rendered from signed distance fields.
+     */
+    public void toggleSDF()
+    {
+        sdf(!this.sdf);
+    }
+    
+    /**
+     * @return The glyph atlas that this font is rendered from, which depends on {@link #sdf()}.
+     */
+    public GlyphAtlas glyphAtlas()
+    {
+        return this.sdf ? Font.sdfAtlas() : Font.atlas();
+    }
+    
     /**
      * @return Gets the scale of the size data.
      */
@@ -189,11 +222,26 @@ public class Font
     }
     
     /**
-     * @return Gets the texture map of the size data.
+     * Gets the texture that the glyphs are rasterized into. All fonts and sizes share the same {@link GlyphAtlas}, so
+     * the texture is the same for every size.
+     *
+     * @return The texture of the glyph atlas.
      */
     public Texture texture(int size)
     {
-        return getSizeData(size).texture;
+        return glyphAtlas().texture();
+    }
+    
+    /**
+     * Gets a glyph from the glyph atlas, rasterizing it if it was not used before.
+     *
+     * @param character The character.
+     * @param size      The size in pixels.
+     * @return The glyph.
+     */
+    public GlyphAtlas.Glyph glyph(int character, int size)
+    {
+        return glyphAtlas().glyph(this, size, character);
     }
     
     /**
@@ -215,11 +263,15 @@ public class Font
      * Gets a read-only class with the metrics for a specific character
      *
      * @param character The character.
-     * @return The character data.
+     * @return The character data, or null if the character is outside of the Basic Multilingual Plane.
      */
     public CharData getCharData(int character)
     {
-        return this.charData.get(character);
+        if (character < 0 || character >= Font.CHAR_COUNT) return null;
+        
+        CharData charData = this.charData[character];
+        if (charData == null) this.charData[character] = charData = new CharData(character);
+        return charData;
     }
     
     /**
@@ -233,31 +285,37 @@ public class Font
     {
         Font.LOGGER.finest("Getting text width for text \"%s\" with font \"%s\" of size \"%s\"", text, this, size);
         
-        SizeData sizeData = getSizeData(size);
-        
-        double width = 0;
-        
-        String[] lines = text.split("\n");
-        if (lines.length == 1)
+        int width = 0;
+        for (int start = 0, end, n = text.length(); start <= n; start = end + 1)
         {
-            CharData currChar, prevChar = null;
-            for (int i = 0, n = text.length(); i < n; i++)
-            {
-                currChar = getCharData(text.charAt(i));
-                width += currChar.advanceWidthUnscaled + getKernAdvance(prevChar, currChar);
-                
-                prevChar = currChar;
-            }
-            return width * sizeData.scale;
+            end = text.indexOf('\n', start);
+            if (end < 0) end = n;
+            width = Math.max(width, getTextWidthUnscaled(text, start, end));
         }
-        else
+        return width * getSizeData(size).scale;
+    }
+    
+    /**
+     * Calculates the width in unscaled font units of a range of characters, including the kerning between them. Line breaks are not handled.
+     *
+     * @param text  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return The width in font units of the characters.
+     */
+    public int getTextWidthUnscaled(CharSequence text, int start, int end)
+    {
+        int width = 0;
+        
+        CharData currChar, prevChar = null;
+        for (int i = start; i < end; i++)
         {
-            for (String line : lines)
-            {
-                width = Math.max(width, getTextWidth(line, size));
-            }
-            return width;
+            currChar = getCharData(text.charAt(i));
+            width += currChar.advanceWidthUnscaled + getKernAdvance(prevChar, currChar);
+            
+            prevChar = currChar;
         }
+        return width;
     }
     
     /**
@@ -271,8 +329,27 @@ public class Font
     {
         Font.LOGGER.finest("Getting text height for text \"%s\" with font \"%s\" of size \"%s\"", text, this, size);
         
-        String[] lines = text.split("\n");
-        return lines.length * size;
+        return getLineCount(text) * size;
+    }
+    
+    /**
+     * Counts the lines in the string. Empty lines at the end of the string are not counted.
+     *
+     * @param text The text.
+     * @return The number of lines.
+     */
+    public static int getLineCount(String text)
+    {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == '\n') end--;
+        if (end == 0) return text.isEmpty() ? 1 : 0;
+        
+        int lines = 1;
+        for (int i = 0; i < end; i++)
+        {
+            if (text.charAt(i) == '\n') lines++;
+        }
+        return lines;
     }
     
     /**
@@ -288,23 +365,9 @@ public class Font
     {
         Font.LOGGER.finest("Rendering \"%s\" with \"%s\"", charData, sizeData);
         
-        try (MemoryStack stack = MemoryStack.stackPush())
-        {
-            STBTTAlignedQuad q = STBTTAlignedQuad.mallocStack(stack);
-            
-            stbtt_GetPackedQuad(sizeData.charData, sizeData.texture.width(), sizeData.texture.height(), charData.character, x, y, q, false);
-            
-            quad.put(q.x0());
-            quad.put(q.y0());
-            quad.put(q.x1());
-            quad.put(q.y1());
-            quad.put(q.s0());
-            quad.put(q.t0());
-            quad.put(q.s1());
-            quad.put(q.t1());
-            
-            quad.clear();
-        }
+        float[] q = new float[8];
+        sizeData.charQuad(charData.character, x.get(0), y.get(0), q, 0);
+        quad.put(q).clear();
     }
     
     /**
@@ -329,10 +392,48 @@ public class Font
     {
         Font.LOGGER.fine("Destroying Font: %s", this);
         
-        this.sizeData.forEach((i, sizeData) -> sizeData.texture.destroy());
         this.sizeData.clear();
     }
     
+    /**
+     * @return The font data that stb_truetype uses.
+     */
+    STBTTFontinfo info()
+    {
+        return this.info;
+    }
+    
+    /**
+     * @return A number that is unique to this font.
+     */
+    int index()
+    {
+        return this.index;
+    }
+    
+    /**
+     * Gets the glyph atlas that is shared by all fonts. It is created the first time that it is used.
+     *
+     * @return The glyph atlas.
+     */
+    public static GlyphAtlas atlas()
+    {
+        if (Font.atlas == null) Font.atlas = new GlyphAtlas(false);
+        return Font.atlas;
+    }
+    
+    /**
+     * Gets the signed distance field glyph atlas that is shared by all fonts. Each glyph of a font is stored once and
+     * used for every size. It is created the first time that it is used.
+     *
+     * @return The signed distance field glyph atlas.
+     */
+    public static GlyphAtlas sdfAtlas()
+    {
+        if (Font.sdfAtlas == null) Font.sdfAtlas = new GlyphAtlas(true);
+        return Font.sdfAtlas;
+    }
+    
     /**
      * Registers a font to be used. All fonts needs to be registered before they can be used. Font instances are owned by this class.
      * <p>
@@ -482,10 +583,6 @@ public class Font
         public final float descent;
         public final float lineGap;
         
-        private final STBTTPackedchar.Buffer charData;
-        
-        private final Texture texture;
-        
         private SizeData(int size)
         {
             this.size  = size;
@@ -494,40 +591,24 @@ public class Font
             this.ascent  = Font.this.ascentUnscaled * this.scale;
             this.descent = Font.this.descentUnscaled * this.scale;
             this.lineGap = Font.this.lineGapUnscaled * this.scale;
-            
-            this.charData = STBTTPackedchar.create(0xFFFF);
-            
-            int width  = 0;
-            int height = 0;
-            
-            ByteBuffer buffer = null;
-            
-            boolean success = false;
-            
-            int textureSize = 32;
-            int samples     = 2;
-            while (!success && textureSize < 1000)
-            {
-                width  = this.size * textureSize;
-                height = this.size * (textureSize >> 1);
-                
-                buffer = BufferUtils.createByteBuffer(width * height);
-                
-                this.charData.position(32);
-                try (STBTTPackContext pc = STBTTPackContext.malloc())
-                {
-                    stbtt_PackBegin(pc, buffer, width, height, 0, 2, MemoryUtil.NULL);
-                    stbtt_PackSetOversampling(pc, samples, samples);
-                    success = stbtt_PackFontRange(pc, Font.this.fileData, 0, this.size, this.charData.position(), this.charData);
-                    stbtt_PackEnd(pc);
-                }
-                this.charData.clear();
-                buffer.clear();
-                
-                textureSize <<= 1;
-            }
-    
-            this.texture = new Texture(width, height, 1, buffer);
+        }
+        
+        /**
+         * Gets the quad to render a character at a particular location. The glyph is rasterized into the font's
+         * {@link GlyphAtlas} if it was not used before.
+         * <p>
+         * The values are stored as {@code x0, y0, x1, y1, u0, v0, u1, v1}.
+         *
+         * @param character The character to render.
+         * @param x         The x coordinate of the origin of the character
+         * @param y         The y coordinate of the origin of the character
+         * @param quad      The array that the quad is stored in.
+         * @param offset    The index in the array of the first value.
+         */
+        public void charQuad(int character, float x, float y, float[] quad, int offset)
+        {
+            GlyphAtlas atlas = glyphAtlas();
+            atlas.glyph(Font.this, this.size, character).quad(x, y, atlas.scale(this.size), quad, offset);
         }
         
         @Override
@@ -550,22 +631,33 @@ public class Font
         public final int x1Unscaled;
         public final int y1Unscaled;
         
-        private CharData(int character, IntBuffer advanceWidth, IntBuffer leftSideBearing, IntBuffer x0, IntBuffer y0, IntBuffer x1, IntBuffer y1)
+        private CharData(int character)
         {
             this.character = (char) character;
             this.index     = stbtt_FindGlyphIndex(Font.this.info, this.character);
             
-            stbtt_GetGlyphHMetrics(Font.this.info, this.index, advanceWidth, leftSideBearing);
-            
-            this.advanceWidthUnscaled    = advanceWidth.get(0);
-            this.leftSideBearingUnscaled = leftSideBearing.get(0);
-            
-            stbtt_GetGlyphBox(Font.this.info, this.index, x0, y0, x1, y1);
-            
-            this.x0Unscaled = x0.get(0);
-            this.y0Unscaled = y0.get(0);
-            this.x1Unscaled = x1.get(0);
-            this.y1Unscaled = y1.get(0);
+            try (MemoryStack stack = MemoryStack.stackPush())
+            {
+                IntBuffer advanceWidth    = stack.mallocInt(1);
+                IntBuffer leftSideBearing = stack.mallocInt(1);
+                
+                stbtt_GetGlyphHMetrics(Font.this.info, this.index, advanceWidth, leftSideBearing);
+                
+                this.advanceWidthUnscaled    = advanceWidth.get(0);
+                this.leftSideBearingUnscaled = leftSideBearing.get(0);
+                
+                IntBuffer x0 = stack.mallocInt(1);
+                IntBuffer y0 = stack.mallocInt(1);
+                IntBuffer x1 = stack.mallocInt(1);
+                IntBuffer y1 = stack.mallocInt(1);
+                
+                stbtt_GetGlyphBox(Font.this.info, this.index, x0, y0, x1, y1);
+                
+                this.x0Unscaled = x0.get(0);
+                this.y0Unscaled = y0.get(0);
+                this.x1Unscaled = x1.get(0);
+                this.y1Unscaled = y1.get(0);
+            }
         }
         
         public double advanceWidth(int size)
@@ -0,0 +1,628 @@
+package engine.font;
+
+import engine.render.GL;
+import engine.render.Texture;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import rutils.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.lwjgl.stb.STBTruetype.*;
+
+/**
+ * A texture that glyphs of every font and size are rasterized into when they are first used.
+ * <p>
+ * Glyphs are placed with a {@link SkylinePacker}. When a glyph does not fit, the atlas is doubled in size until it
+ * reaches its maximum size. After that, the glyphs that were used least recently are evicted and the rest are packed
+ * again. Either way, every glyph can move, so {@link #generation()} is incremented and anything that stored texture
+ * coordinates must look its glyphs up again.
+ * <p>
+ * A copy of the pixels is kept in memory. New glyphs are drawn into the copy and the rows that changed are uploaded when
+ * {@link #texture()} is called.
+ * <p>
+ * A signed distance field atlas stores each glyph once, at {@link #SDF_SIZE}, no matter what size it is requested at.
+ * The texture stores the distance to the edge of the glyph instead of its coverage and is sampled linearly, so one glyph
+ * can be drawn at any size by scaling its quad by {@link #scale(int)}.
+ */
+@SuppressWarnings("unused")
+public class GlyphAtlas
+{
+    private static final Logger LOGGER = new Logger();
+    
+    public static final int INITIAL_SIZE = 512;
+    public static final int MAX_SIZE     = 4096;
+    
+    /**
+     * The size in pixels that signed distance field glyphs are rasterized at.
+     */
+    public static final int SDF_SIZE = 48;
+    
+    /**
+     * The number of pixels around a signed distance field glyph that the distance is stored for.
+     */
+    public static final int SDF_PADDING = 6;
+    
+    private static final int PADDING = 1;
+    
+    private final int     maxSize;
+    private final boolean sdf;
+    
+    private int           width, height;
+    private ByteBuffer    pixels;
+    private Texture       texture;
+    private SkylinePacker packer;
+    
+    private int dirtyMin, dirtyMax;
+    
+    private Glyph[] table;
+    private Glyph[] glyphs;
+    private int     glyphCount;
+    
+    private long tick;
+    private int  generation;
+    
+    private int hits, misses, evictions;
+    
+    /**
+     * Creates a new empty atlas.
+     *
+     * @param size    The starting width and height of the texture.
+     * @param maxSize The largest width and height that the texture can grow to.
+     * @param sdf     If glyphs are stored as signed distance fields.
+     */
+    public GlyphAtlas(int size, int maxSize, boolean sdf)
+    {
+        if (size <= 0 || size > maxSize) throw new RuntimeException(String.format("Invalid atlas size: %s [max=%s]", size, maxSize));
+        
+        this.maxSize = maxSize;
+        this.sdf     = sdf;
+        
+        this.table  = new Glyph[64];
+        this.glyphs = new Glyph[64];
+        
+        resize(size, size);
+        
+        GlyphAtlas.LOGGER.fine("%s: Created", this);
+    }
+    
+    /**
+     * Creates a new empty atlas with the default sizes.
+     *
+     * @param sdf If glyphs are stored as signed distance fields.
+     */
+    public GlyphAtlas(boolean sdf)
+    {
+        this(GlyphAtlas.INITIAL_SIZE, GlyphAtlas.MAX_SIZE, sdf);
+    }
+    
+    /**
+     * Creates a new empty bitmap atlas with the default sizes.
+     */
+    public GlyphAtlas()
+    {
+        this(false);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "GlyphAtlas{" + (this.sdf ? "sdf, " : "") + this.width + "x" + this.height + ", glyphs=" + this.glyphCount + ", generation=" + this.generation + '}';
+    }
+    
+    /**
+     * @return true if glyphs are stored as signed distance fields.
+     */
+    public boolean sdf()
+    {
+        return this.sdf;
+    }
+    
+    /**
+     * Gets the amount that the quads of the atlas's glyphs must be scaled by to be drawn at a size.
+     *
+     * @param size The size in pixels.
+     * @return The scale of the glyph quads.
+     */
+    public float scale(int size)
+    {
+        return this.sdf ? (float) size / GlyphAtlas.SDF_SIZE : 1F;
+    }
+    
+    /**
+     * @return The width of the texture.
+     */
+    public int width()
+    {
+        return this.width;
+    }
+    
+    /**
+     * @return The height of the texture.
+     */
+    public int height()
+    {
+        return this.height;
+    }
+    
+    /**
+     * @return The number of glyphs in the atlas.
+     */
+    public int glyphCount()
+    {
+        return this.glyphCount;
+    }
+    
+    /**
+     * @return The fraction of the texture that is covered by glyphs.
+     */
+    public double occupancy()
+    {
+        return this.packer.occupancy();
+    }
+    
+    /**
+     * @return A number that changes every time glyphs are moved or evicted.
+     */
+    public int generation()
+    {
+        return this.generation;
+    }
+    
+    /**
+     * @return The number of glyph lookups that found the glyph in the atlas since the last call to {@link #resetCounts()}.
+     */
+    public int hits()
+    {
+        return this.hits;
+    }
+    
+    /**
+     * @return The number of glyphs that were rasterized since the last call to {@link #resetCounts()}.
+     */
+    public int misses()
+    {
+        return this.misses;
+    }
+    
+    /**
+     * @return The number of glyphs that were evicted since the last call to {@link #resetCounts()}.
+     */
+    public int evictions()
+    {
+        return this.evictions;
+    }
+    
+    /**
+     * Resets the hit, miss and eviction counts.
+     */
+    public void resetCounts()
+    {
+        this.hits      = 0;
+        this.misses    = 0;
+        this.evictions = 0;
+    }
+    
+    /**
+     * Uploads the rows that changed since the last call and returns the texture.
+     * <p>
+     * The texture is replaced when the atlas grows, so it must not be kept.
+     *
+     * @return The texture.
+     */
+    public Texture texture()
+    {
+        if (this.dirtyMin < this.dirtyMax)
+        {
+            GlyphAtlas.LOGGER.finest("%s: Uploading rows [%s, %s)", this, this.dirtyMin, this.dirtyMax);
+            
+            int rows = this.dirtyMax - this.dirtyMin;
+            this.texture.bind().set(0, this.dirtyMin, this.width, rows, this.pixels.slice(this.dirtyMin * this.width, rows * this.width));
+            
+            this.dirtyMin = Integer.MAX_VALUE;
+            this.dirtyMax = 0;
+        }
+        return this.texture;
+    }
+    
+    /**
+     * Starts a new use of the atlas. Glyphs that are looked up or touched after this are the most recently used, and
+     * will not be evicted until the next call.
+     * <p>
+     * This should be called before a string of text is laid out or drawn.
+     */
+    public void advance()
+    {
+        this.tick++;
+    }
+    
+    /**
+     * Marks a glyph as used so that it is not evicted before glyphs that have not been used for longer.
+     *
+     * @param glyph The glyph.
+     */
+    public void touch(Glyph glyph)
+    {
+        glyph.lastUsed = this.tick;
+    }
+    
+    /**
+     * Gets a glyph from the atlas, rasterizing it if it is not in the atlas.
+     * <p>
+     * Signed distance field glyphs are the same for every size, so the size is ignored.
+     *
+     * @param font      The font.
+     * @param size      The size in pixels.
+     * @param codepoint The character.
+     * @return The glyph.
+     */
+    public Glyph glyph(Font font, int size, int codepoint)
+    {
+        if (this.sdf) size = GlyphAtlas.SDF_SIZE;
+        
+        long key = key(font, size, codepoint);
+        
+        int mask = this.table.length - 1;
+        for (int i = hash(key) & mask; this.table[i] != null; i = (i + 1) & mask)
+        {
+            if (this.table[i].key == key)
+            {
+                this.hits++;
+                this.table[i].lastUsed = this.tick;
+                return this.table[i];
+            }
+        }
+        this.misses++;
+        
+        Glyph glyph = rasterize(font, size, codepoint, key);
+        glyph.lastUsed = this.tick;
+        add(glyph);
+        return glyph;
+    }
+    
+    /**
+     * Frees the texture and the copy of the pixels.
+     */
+    public void destroy()
+    {
+        GlyphAtlas.LOGGER.fine("%s: Destroying", this);
+        
+        this.texture.destroy();
+        MemoryUtil.memFree(this.pixels);
+        
+        Arrays.fill(this.table, null);
+        Arrays.fill(this.glyphs, null);
+        this.glyphCount = 0;
+    }
+    
+    private Glyph rasterize(Font font, int size, int codepoint, long key)
+    {
+        GlyphAtlas.LOGGER.finest("Rasterizing '%s' with font \"%s\" of size \"%s\"", codepoint, font, size);
+        
+        float scale = font.getSizeData(size).scale;
+        int   index = stbtt_FindGlyphIndex(font.info(), codepoint);
+        
+        Glyph glyph;
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            if (this.sdf)
+            {
+                IntBuffer width  = stack.mallocInt(1);
+                IntBuffer height = stack.mallocInt(1);
+                IntBuffer xOff   = stack.mallocInt(1);
+                IntBuffer yOff   = stack.mallocInt(1);
+                
+                // Distances are scaled so that the edge is at 128 and the outside of the padding is at 0.
+                ByteBuffer bitmap = stbtt_GetGlyphSDF(font.info(), scale, index, GlyphAtlas.SDF_PADDING, (byte) 128, 128F / GlyphAtlas.SDF_PADDING, width, height, xOff, yOff);
+                
+                glyph = new Glyph(key, codepoint, xOff.get(0), yOff.get(0), bitmap != null ? width.get(0) : 0, bitmap != null ? height.get(0) : 0);
+                if (bitmap != null)
+                {
+                    allocate(glyph);
+                    for (int row = 0; row < glyph.height; row++)
+                    {
+                        MemoryUtil.memCopy(MemoryUtil.memAddress(bitmap, row * glyph.width), MemoryUtil.memAddress(this.pixels, (glyph.y + row) * this.width + glyph.x), glyph.width);
+                    }
+                    stbtt_FreeSDF(bitmap);
+                }
+            }
+            else
+            {
+                IntBuffer x0 = stack.mallocInt(1);
+                IntBuffer y0 = stack.mallocInt(1);
+                IntBuffer x1 = stack.mallocInt(1);
+                IntBuffer y1 = stack.mallocInt(1);
+                
+                stbtt_GetGlyphBitmapBox(font.info(), index, scale, scale, x0, y0, x1, y1);
+                
+                glyph = new Glyph(key, codepoint, x0.get(0), y0.get(0), x1.get(0) - x0.get(0), y1.get(0) - y0.get(0));
+                if (glyph.width > 0 && glyph.height > 0)
+                {
+                    allocate(glyph);
+                    
+                    // The region is written with the atlas's stride, so the last row can end before out_h * out_stride.
+                    long region = MemoryUtil.memAddress(this.pixels, glyph.y * this.width + glyph.x);
+                    nstbtt_MakeGlyphBitmap(font.info().address(), region, glyph.width, glyph.height, this.width, scale, scale, index);
+                }
+            }
+        }
+        return glyph;
+    }
+    
+    /**
+     * Finds a place for a glyph and marks its rows to be uploaded.
+     */
+    private void allocate(Glyph glyph)
+    {
+        if (!this.packer.pack(glyph.width + GlyphAtlas.PADDING, glyph.height + GlyphAtlas.PADDING)) makeRoom(glyph);
+        place(glyph, this.packer.x(), this.packer.y());
+        
+        this.dirtyMin = Math.min(this.dirtyMin, glyph.y);
+        this.dirtyMax = Math.max(this.dirtyMax, glyph.y + glyph.height);
+    }
+    
+    /**
+     * Grows the atlas, or evicts the least recently used glyphs, and packs the glyphs again so that the glyph fits. The
+     * packer's position is set to the glyph's place.
+     */
+    private void makeRoom(Glyph glyph)
+    {
+        ArrayList<Glyph> kept = new ArrayList<>(this.glyphCount);
+        for (int i = 0; i < this.glyphCount; i++) kept.add(this.glyphs[i]);
+        
+        int width = this.width, height = this.height;
+        while (width < this.maxSize || height < this.maxSize)
+        {
+            if (width <= height)
+            {
+                width <<= 1;
+            }
+            else
+            {
+                height <<= 1;
+            }
+            
+            GlyphAtlas.LOGGER.fine("%s: Growing to %sx%s", this, width, height);
+            
+            if (repack(width, height, kept, glyph)) return;
+        }
+        
+        // The most recently used glyphs are kept until they cover half of the atlas. Glyphs that were used since the last
+        // call to advance are always kept.
+        kept.sort(Comparator.comparingLong((Glyph g) -> g.lastUsed).reversed());
+        
+        long area = 0, maxArea = (long) width * height / 2;
+        int  keep = 0;
+        for (Glyph g : kept)
+        {
+            area += (long) (g.width + GlyphAtlas.PADDING) * (g.height + GlyphAtlas.PADDING);
+            if (area > maxArea && g.lastUsed != this.tick) break;
+            keep++;
+        }
+        
+        int evicted = kept.size() - keep;
+        GlyphAtlas.LOGGER.fine("%s: Evicting %s glyphs", this, evicted);
+        
+        for (int i = keep; i < kept.size(); i++) kept.get(i).evicted = true;
+        this.evictions += evicted;
+        
+        if (repack(width, height, kept.subList(0, keep), glyph)) return;
+        
+        throw new RuntimeException(this + ": Glyph does not fit: " + glyph.width + "x" + glyph.height);
+    }
+    
+    /**
+     * Packs the glyphs, tallest first, and then the new glyph into an empty atlas of the size provided. Nothing is
+     * changed if they do not fit.
+     */
+    private boolean repack(int width, int height, List<Glyph> glyphs, Glyph glyph)
+    {
+        ArrayList<Glyph> sorted = new ArrayList<>(glyphs);
+        sorted.sort(Comparator.comparingInt((Glyph g) -> g.height).reversed());
+        
+        SkylinePacker packer = new SkylinePacker(width, height);
+        
+        int[] positions = new int[sorted.size() * 2];
+        for (int i = 0, n = sorted.size(); i < n; i++)
+        {
+            Glyph g = sorted.get(i);
+            if (g.width <= 0 || g.height <= 0) continue;
+            if (!packer.pack(g.width + GlyphAtlas.PADDING, g.height + GlyphAtlas.PADDING)) return false;
+            positions[i * 2]     = packer.x();
+            positions[i * 2 + 1] = packer.y();
+        }
+        if (!packer.pack(glyph.width + GlyphAtlas.PADDING, glyph.height + GlyphAtlas.PADDING)) return false;
+        
+        ByteBuffer old = this.pixels;
+        int        oldWidth = this.width;
+        
+        this.pixels = MemoryUtil.memCalloc(width * height);
+        for (int i = 0, n = sorted.size(); i < n; i++)
+        {
+            Glyph g = sorted.get(i);
+            if (g.width <= 0 || g.height <= 0) continue;
+            int x = positions[i * 2], y = positions[i * 2 + 1];
+            for (int row = 0; row < g.height; row++)
+            {
+                MemoryUtil.memCopy(MemoryUtil.memAddress(old, (g.y + row) * oldWidth + g.x), MemoryUtil.memAddress(this.pixels, (y + row) * width + x), g.width);
+            }
+            g.x = x;
+            g.y = y;
+        }
+        MemoryUtil.memFree(old);
+        
+        if (width != this.width || height != this.height)
+        {
+            this.texture.destroy();
+            this.width   = width;
+            this.height  = height;
+            this.texture = createTexture(width, height);
+        }
+        this.packer = packer;
+        
+        for (Glyph g : sorted) place(g, g.x, g.y);
+        
+        Arrays.fill(this.table, null);
+        Arrays.fill(this.glyphs, null);
+        this.glyphCount = 0;
+        for (Glyph g : sorted) add(g);
+        
+        this.dirtyMin = 0;
+        this.dirtyMax = this.height;
+        
+        this.generation++;
+        
+        return true;
+    }
+    
+    private void resize(int width, int height)
+    {
+        this.width  = width;
+        this.height = height;
+        this.pixels = MemoryUtil.memCalloc(width * height);
+        
+        this.texture = createTexture(width, height);
+        this.packer  = new SkylinePacker(width, height);
+        
+        this.dirtyMin = 0;
+        this.dirtyMax = height;
+    }
+    
+    private Texture createTexture(int width, int height)
+    {
+        Texture texture = new Texture(width, height, 1);
+        if (this.sdf) texture.bind().filterMode(GL.LINEAR, GL.LINEAR);
+        return texture;
+    }
+    
+    private void place(Glyph glyph, int x, int y)
+    {
+        glyph.x  = x;
+        glyph.y  = y;
+        glyph.u0 = (float) x / this.width;
+        glyph.v0 = (float) y / this.height;
+        glyph.u1 = (float) (x + glyph.width) / this.width;
+        glyph.v1 = (float) (y + glyph.height) / this.height;
+    }
+    
+    private void add(Glyph glyph)
+    {
+        if ((this.glyphCount + 1) * 2 > this.table.length)
+        {
+            this.table = new Glyph[this.table.length << 1];
+            for (int i = 0; i < this.glyphCount; i++) insert(this.glyphs[i]);
+        }
+        if (this.glyphCount == this.glyphs.length) this.glyphs = Arrays.copyOf(this.glyphs, this.glyphCount << 1);
+        
+        this.glyphs[this.glyphCount++] = glyph;
+        insert(glyph);
+    }
+    
+    private void insert(Glyph glyph)
+    {
+        int mask = this.table.length - 1;
+        int i    = hash(glyph.key) & mask;
+        while (this.table[i] != null) i = (i + 1) & mask;
+        this.table[i] = glyph;
+    }
+    
+    private static long key(Font font, int size, int codepoint)
+    {
+        if (size <= 0 || size >= 1 << 19) throw new RuntimeException("Invalid font size: " + size);
+        return ((long) font.index() << 40) | ((long) size << 21) | (codepoint & 0x1FFFFF);
+    }
+    
+    private static int hash(long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32);
+    }
+    
+    /**
+     * A glyph in the atlas. The position in the atlas is only valid until the {@link #generation()} of the atlas changes.
+     */
+    public static final class Glyph
+    {
+        private final long key;
+        
+        public final int codepoint;
+        
+        /**
+         * The offset from the origin of the character to the top left corner of the bitmap, in pixels.
+         */
+        public final int xOffset, yOffset;
+        
+        /**
+         * The size of the bitmap in pixels.
+         */
+        public final int width, height;
+        
+        private int   x, y;
+        private float u0, v0, u1, v1;
+        private long  lastUsed;
+        private boolean evicted;
+        
+        private Glyph(long key, int codepoint, int xOffset, int yOffset, int width, int height)
+        {
+            this.key       = key;
+            this.codepoint = codepoint;
+            this.xOffset   = xOffset;
+            this.yOffset   = yOffset;
+            this.width     = width;
+            this.height    = height;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "Glyph{" + "codepoint=" + this.codepoint + ", size=" + this.width + "x" + this.height + ", pos=[" + this.x + ", " + this.y + "]" + (this.evicted ? ", evicted" : "") + '}';
+        }
+        
+        /**
+         * @return true if the glyph was removed from the atlas.
+         */
+        public boolean evicted()
+        {
+            return this.evicted;
+        }
+        
+        /**
+         * Gets the quad to render the glyph at a particular location. The values are stored as {@code x0, y0, x1, y1, u0, v0, u1, v1}.
+         *
+         * @param x      The x coordinate of the origin of the character
+         * @param y      The y coordinate of the origin of the character
+         * @param quad   The array that the quad is stored in.
+         * @param offset The index in the array of the first value.
+         */
+        public void quad(float x, float y, float[] quad, int offset)
+        {
+            quad(x, y, 1F, quad, offset);
+        }
+        
+        /**
+         * Gets the quad to render the glyph scaled around its origin. The values are stored as {@code x0, y0, x1, y1, u0, v0, u1, v1}.
+         *
+         * @param x      The x coordinate of the origin of the character
+         * @param y      The y coordinate of the origin of the character
+         * @param scale  The scale of the quad.
+         * @param quad   The array that the quad is stored in.
+         * @param offset The index in the array of the first value.
+         */
+        public void quad(float x, float y, float scale, float[] quad, int offset)
+        {
+            quad[offset]     = x + this.xOffset * scale;
+            quad[offset + 1] = y + this.yOffset * scale;
+            quad[offset + 2] = x + (this.xOffset + this.width) * scale;
+            quad[offset + 3] = y + (this.yOffset + this.height) * scale;
+            quad[offset + 4] = this.u0;
+            quad[offset + 5] = this.v0;
+            quad[offset + 6] = this.u1;
+            quad[offset + 7] = this.v1;
+        }
+    }
+}
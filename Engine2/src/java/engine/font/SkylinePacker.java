@@ -0,0 +1,212 @@
+package engine.font;
+
+import java.util.Arrays;
+
+/**
+ * Packs rectangles into a bin with the skyline bottom-left heuristic.
+ * <p>
+ * The top edge of the packed rectangles is stored as a list of horizontal segments. Each rectangle is placed on the
+ * segment where its top edge would be the lowest. Space under the skyline is never reused, so rectangles can only be
+ * removed by calling {@link #clear()} and packing them again.
+ */
+@SuppressWarnings("unused")
+public class SkylinePacker
+{
+    private final int width, height;
+    
+    private int[] nodeX, nodeY, nodeWidth;
+    private int   nodeCount;
+    
+    private int x, y;
+    private int usedArea;
+    
+    /**
+     * Creates a new empty packer.
+     *
+     * @param width  The width of the bin.
+     * @param height The height of the bin.
+     */
+    public SkylinePacker(int width, int height)
+    {
+        this.width  = width;
+        this.height = height;
+        
+        this.nodeX     = new int[16];
+        this.nodeY     = new int[16];
+        this.nodeWidth = new int[16];
+        
+        clear();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "SkylinePacker{" + this.width + "x" + this.height + ", nodes=" + this.nodeCount + ", occupancy=" + occupancy() + '}';
+    }
+    
+    /**
+     * @return The width of the bin.
+     */
+    public int width()
+    {
+        return this.width;
+    }
+    
+    /**
+     * @return The height of the bin.
+     */
+    public int height()
+    {
+        return this.height;
+    }
+    
+    /**
+     * @return The x coordinate of the last packed rectangle.
+     */
+    public int x()
+    {
+        return this.x;
+    }
+    
+    /**
+     * @return The y coordinate of the last packed rectangle.
+     */
+    public int y()
+    {
+        return this.y;
+    }
+    
+    /**
+     * @return The fraction of the bin that is covered by packed rectangles.
+     */
+    public double occupancy()
+    {
+        return (double) this.usedArea / ((double) this.width * this.height);
+    }
+    
+    /**
+     * Removes all rectangles.
+     */
+    public void clear()
+    {
+        this.nodeX[0]     = 0;
+        this.nodeY[0]     = 0;
+        this.nodeWidth[0] = this.width;
+        this.nodeCount    = 1;
+        
+        this.usedArea = 0;
+    }
+    
+    /**
+     * Finds a place for a rectangle. If one is found, its position can be read with {@link #x()} and {@link #y()}.
+     *
+     * @param width  The width of the rectangle.
+     * @param height The height of the rectangle.
+     * @return true if the rectangle fit in the bin.
+     */
+    public boolean pack(int width, int height)
+    {
+        if (width <= 0 || height <= 0) throw new RuntimeException(String.format("Invalid rectangle size: %sx%s", width, height));
+        
+        int bestIndex = -1, bestX = 0, bestY = 0, bestTop = Integer.MAX_VALUE, bestWidth = Integer.MAX_VALUE;
+        for (int i = 0; i < this.nodeCount; i++)
+        {
+            int y = fit(i, width, height);
+            if (y < 0) continue;
+            
+            int top = y + height;
+            if (top < bestTop || (top == bestTop && this.nodeWidth[i] < bestWidth))
+            {
+                bestIndex = i;
+                bestX     = this.nodeX[i];
+                bestY     = y;
+                bestTop   = top;
+                bestWidth = this.nodeWidth[i];
+            }
+        }
+        if (bestIndex < 0) return false;
+        
+        insert(bestIndex, bestX, bestY + height, width);
+        
+        this.x = bestX;
+        this.y = bestY;
+        
+        this.usedArea += width * height;
+        
+        return true;
+    }
+    
+    /**
+     * @return The lowest y coordinate that the rectangle can be placed at on the node, or -1 if it does not fit.
+     */
+    private int fit(int index, int width, int height)
+    {
+        if (this.nodeX[index] + width > this.width) return -1;
+        
+        int y = 0;
+        for (int i = index, remaining = width; remaining > 0; i++)
+        {
+            y = Math.max(y, this.nodeY[i]);
+            if (y + height > this.height) return -1;
+            remaining -= this.nodeWidth[i];
+        }
+        return y;
+    }
+    
+    private void insert(int index, int x, int y, int width)
+    {
+        if (this.nodeCount == this.nodeX.length)
+        {
+            int capacity = this.nodeCount << 1;
+            this.nodeX     = Arrays.copyOf(this.nodeX, capacity);
+            this.nodeY     = Arrays.copyOf(this.nodeY, capacity);
+            this.nodeWidth = Arrays.copyOf(this.nodeWidth, capacity);
+        }
+        System.arraycopy(this.nodeX, index, this.nodeX, index + 1, this.nodeCount - index);
+        System.arraycopy(this.nodeY, index, this.nodeY, index + 1, this.nodeCount - index);
+        System.arraycopy(this.nodeWidth, index, this.nodeWidth, index + 1, this.nodeCount - index);
+        this.nodeCount++;
+        
+        this.nodeX[index]     = x;
+        this.nodeY[index]     = y;
+        this.nodeWidth[index] = width;
+        
+        // Shrink or remove the nodes that are now under the new node.
+        int end = x + width;
+        for (int i = index + 1; i < this.nodeCount; )
+        {
+            if (this.nodeX[i] >= end) break;
+            
+            int shrink = end - this.nodeX[i];
+            if (shrink < this.nodeWidth[i])
+            {
+                this.nodeX[i] += shrink;
+                this.nodeWidth[i] -= shrink;
+                break;
+            }
+            remove(i);
+        }
+        
+        // Merge neighbouring nodes at the same height.
+        for (int i = 0; i + 1 < this.nodeCount; )
+        {
+            if (this.nodeY[i] == this.nodeY[i + 1])
+            {
+                this.nodeWidth[i] += this.nodeWidth[i + 1];
+                remove(i + 1);
+            }
+            else
+            {
+                i++;
+            }
+        }
+    }
+    
+    private void remove(int index)
+    {
+        this.nodeCount--;
+        System.arraycopy(this.nodeX, index + 1, this.nodeX, index, this.nodeCount - index);
+        System.arraycopy(this.nodeY, index + 1, this.nodeY, index, this.nodeCount - index);
+        System.arraycopy(this.nodeWidth, index + 1, this.nodeWidth, index, this.nodeCount - index);
+    }
+}
@@ -0,0 +1,681 @@
+package engine.render;
+
+import engine.color.Colorc;
+import org.joml.Matrix4dc;
+import org.lwjgl.BufferUtils;
+import rutils.Logger;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A growing CPU-side stream of colored triangles that the {@link Renderer} accumulates primitives into when batching is enabled.
+ * <p>
+ * Primitives are tessellated the same way the geometry shaders do it, but the vertices are stored already transformed by the
+ * view matrix and each one carries its own color and tint. This means that changes to the view, fill, stroke, tint or weight
+ * do not break the batch, only changes that require different GL state do.
+ */
+@SuppressWarnings("unused")
+public class Batch
+{
+    private static final Logger LOGGER = new Logger();
+    
+    /**
+     * The number of floats in a vertex: position(2), color(4), tint(4)
+     */
+    public static final int VERTEX_SIZE = 10;
+    
+    private static final int INITIAL_VERTICES = 1024;
+    
+    private static final double EPSILON = 0.000001;
+    
+    private FloatBuffer data = BufferUtils.createFloatBuffer(Batch.INITIAL_VERTICES * Batch.VERTEX_SIZE);
+    private int         vertexCount;
+    
+    private double m00, m01, m10, m11, m30, m31;
+    private double viewportX, viewportY;
+    
+    private float r, g, b, a;
+    private float tr, tg, tb, ta;
+    
+    private int primitiveCount;
+    private int batchCount;
+    
+    private final int[] flushCounts = new int[FlushReason.values().length];
+    
+    private double[] points = new double[0];
+    
+    @Override
+    public String toString()
+    {
+        return "Batch{" + "vertices=" + this.vertexCount + ", primitives=" + this.primitiveCount + ", capacity=" + this.data.capacity() / Batch.VERTEX_SIZE + '}';
+    }
+    
+    /**
+     * @return If there are no vertices waiting to be drawn.
+     */
+    public boolean isEmpty()
+    {
+        return this.vertexCount == 0;
+    }
+    
+    /**
+     * @return The number of vertices waiting to be drawn.
+     */
+    public int vertexCount()
+    {
+        return this.vertexCount;
+    }
+    
+    /**
+     * @return The number of primitives waiting to be drawn.
+     */
+    public int primitiveCount()
+    {
+        return this.primitiveCount;
+    }
+    
+    /**
+     * @return The number of batches that have been drawn since the stats were reset.
+     */
+    public int batchCount()
+    {
+        return this.batchCount;
+    }
+    
+    /**
+     * Gets the number of times the batch was drawn for the reason provided since the stats were reset.
+     *
+     * @param reason The flush reason.
+     * @return The number of flushes.
+     */
+    public int flushCount(FlushReason reason)
+    {
+        return this.flushCounts[reason.ordinal()];
+    }
+    
+    /**
+     * Resets the batch count and flush reason counts.
+     */
+    public void resetStats()
+    {
+        this.batchCount = 0;
+        for (int i = 0; i < this.flushCounts.length; i++) this.flushCounts[i] = 0;
+    }
+    
+    /**
+     * Gets the vertex data ready to be uploaded to a buffer and records the flush. {@link #clear()} must be called after the data is used.
+     *
+     * @param reason The reason the batch is being drawn.
+     * @return The vertex data.
+     */
+    public FloatBuffer flush(FlushReason reason)
+    {
+        Batch.LOGGER.finer("Flushing %s: %s", this, reason);
+        
+        this.batchCount++;
+        this.flushCounts[reason.ordinal()]++;
+        
+        return this.data.clear().limit(this.vertexCount * Batch.VERTEX_SIZE);
+    }
+    
+    /**
+     * Removes all vertices from the batch.
+     */
+    public void clear()
+    {
+        this.data.clear();
+        this.vertexCount    = 0;
+        this.primitiveCount = 0;
+    }
+    
+    /**
+     * Sets the state that will be applied to every vertex added after this call.
+     *
+     * @param view   The view matrix.
+     * @param width  The width of the render target.
+     * @param height The height of the render target.
+     * @param color  The color of the vertices.
+     * @param tint   The tint of the vertices.
+     */
+    public void state(Matrix4dc view, int width, int height, Colorc color, Colorc tint)
+    {
+        this.m00 = view.m00();
+        this.m01 = view.m01();
+        this.m10 = view.m10();
+        this.m11 = view.m11();
+        this.m30 = view.m30();
+        this.m31 = view.m31();
+        
+        this.viewportX = width;
+        this.viewportY = height;
+        
+        this.r = color.rf();
+        this.g = color.gf();
+        this.b = color.bf();
+        this.a = color.af();
+        
+        this.tr = tint.rf();
+        this.tg = tint.gf();
+        this.tb = tint.bf();
+        this.ta = tint.af();
+    }
+    
+    /**
+     * Adds a point that is {@code thickness} pixels in radius. Mirrors {@code point.geom}
+     *
+     * @param x         The x coordinate of the point.
+     * @param y         The y coordinate of the point.
+     * @param thickness The radius of the point.
+     */
+    public void point(double x, double y, double thickness)
+    {
+        double px = screenX(x, y), py = screenY(x, y);
+        
+        ring(px, py, thickness, thickness, 16, true);
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a line that is {@code thickness} pixels thick. Mirrors {@code line.geom}
+     *
+     * @param x1        The start x coordinate.
+     * @param y1        The start y coordinate.
+     * @param x2        The end x coordinate.
+     * @param y2        The end y coordinate.
+     * @param thickness The thickness of the line.
+     */
+    public void line(double x1, double y1, double x2, double y2, double thickness)
+    {
+        double p0x = screenX(x1, y1), p0y = screenY(x1, y1);
+        double p1x = screenX(x2, y2), p1y = screenY(x2, y2);
+        
+        double dx = p1x - p0x, dy = p1y - p0y;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        double nx = -thickness * dy / length, ny = thickness * dx / length;
+        
+        strip(p0x + nx, p0y + ny, p0x - nx, p0y - ny, p1x + nx, p1y + ny, p1x - nx, p1y - ny);
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a line through the points provided that is {@code thickness} pixels thick with beveled joints. Mirrors {@code lines.geom}
+     *
+     * @param thickness The thickness of the line.
+     * @param closed    If the last point should connect to the first.
+     * @param points    The points of the line.
+     */
+    public void polyline(double thickness, boolean closed, double... points)
+    {
+        int n = points.length >> 1;
+        for (int p1 = 0, p0, p2, p3; p1 < n; p1++)
+        {
+            if (closed)
+            {
+                p0 = (p1 - 1 + n) % n;
+                p2 = (p1 + 1) % n;
+                p3 = (p1 + 2) % n;
+            }
+            else
+            {
+                p0 = Math.max(p1 - 1, 0);
+                p2 = Math.min(p1 + 1, n - 1);
+                p3 = Math.min(p1 + 2, n - 1);
+                
+                if (p1 == p2) continue;
+            }
+            segment(screenX(points[2 * p0], points[2 * p0 + 1]), screenY(points[2 * p0], points[2 * p0 + 1]),
+                    screenX(points[2 * p1], points[2 * p1 + 1]), screenY(points[2 * p1], points[2 * p1 + 1]),
+                    screenX(points[2 * p2], points[2 * p2 + 1]), screenY(points[2 * p2], points[2 * p2 + 1]),
+                    screenX(points[2 * p3], points[2 * p3 + 1]), screenY(points[2 * p3], points[2 * p3 + 1]),
+                    thickness);
+        }
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a filled triangle.
+     *
+     * @param x1 The first x coordinate.
+     * @param y1 The first y coordinate.
+     * @param x2 The second x coordinate.
+     * @param y2 The second y coordinate.
+     * @param x3 The third x coordinate.
+     * @param y3 The third y coordinate.
+     */
+    public void triangle(double x1, double y1, double x2, double y2, double x3, double y3)
+    {
+        vertex(viewX(x1, y1), viewY(x1, y1));
+        vertex(viewX(x2, y2), viewY(x2, y2));
+        vertex(viewX(x3, y3), viewY(x3, y3));
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a filled quad.
+     *
+     * @param x1 The first x coordinate.
+     * @param y1 The first y coordinate.
+     * @param x2 The second x coordinate.
+     * @param y2 The second y coordinate.
+     * @param x3 The third x coordinate.
+     * @param y3 The third y coordinate.
+     * @param x4 The fourth x coordinate.
+     * @param y4 The fourth y coordinate.
+     */
+    public void quad(double x1, double y1, double x2, double y2, double x3, double y3, double x4, double y4)
+    {
+        double v1x = viewX(x1, y1), v1y = viewY(x1, y1);
+        double v3x = viewX(x3, y3), v3y = viewY(x3, y3);
+        
+        vertex(v1x, v1y);
+        vertex(viewX(x2, y2), viewY(x2, y2));
+        vertex(v3x, v3y);
+        
+        vertex(v1x, v1y);
+        vertex(v3x, v3y);
+        vertex(viewX(x4, y4), viewY(x4, y4));
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a filled ellipse. Mirrors {@code ellipse.geom}
+     *
+     * @param x  The center x coordinate.
+     * @param y  The center y coordinate.
+     * @param rx The radius along the x axis.
+     * @param ry The radius along the y axis.
+     */
+    public void ellipse(double x, double y, double rx, double ry)
+    {
+        int segments = Math.max(16, Math.min((int) Math.max(rx, ry) >> 1, 48));
+        
+        ring(x, y, rx, ry, segments, false);
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds the outline of an ellipse that is {@code thickness} pixels thick. Mirrors {@code ellipseOutline.geom}
+     *
+     * @param x         The center x coordinate.
+     * @param y         The center y coordinate.
+     * @param rx        The radius along the x axis.
+     * @param ry        The radius along the y axis.
+     * @param thickness The thickness of the outline.
+     */
+    public void ellipseOutline(double x, double y, double rx, double ry, double thickness)
+    {
+        int    segments = Math.max(16, Math.min((int) Math.max(rx, ry) >> 1, 35));
+        double step     = 2 * Math.PI / segments;
+        double cosStep  = Math.cos(step), sinStep = Math.sin(step);
+        
+        // Walks four points around the ellipse at a time. The point before the first one is at angle -step.
+        double c0 = cosStep, s0 = -sinStep;
+        double c1 = 1.0, s1 = 0.0;
+        double c2 = cosStep, s2 = sinStep;
+        double c3 = cosStep * cosStep - sinStep * sinStep, s3 = 2 * sinStep * cosStep;
+        for (int i = 0; i < segments; i++)
+        {
+            double x0 = x + rx * c0, y0 = y + ry * s0;
+            double x1 = x + rx * c1, y1 = y + ry * s1;
+            double x2 = x + rx * c2, y2 = y + ry * s2;
+            double x3 = x + rx * c3, y3 = y + ry * s3;
+            
+            segment(screenX(x0, y0), screenY(x0, y0),
+                    screenX(x1, y1), screenY(x1, y1),
+                    screenX(x2, y2), screenY(x2, y2),
+                    screenX(x3, y3), screenY(x3, y3),
+                    thickness);
+            
+            c0 = c1;
+            s0 = s1;
+            c1 = c2;
+            s1 = s2;
+            c2 = c3;
+            s2 = s3;
+            c3 = c2 * cosStep - s2 * sinStep;
+            s3 = s2 * cosStep + c2 * sinStep;
+        }
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a filled arc. {@link ArcMode#DEFAULT} and {@link ArcMode#PIE} are filled from the center, the other modes are filled from the first point.
+     *
+     * @param x     The center x coordinate.
+     * @param y     The center y coordinate.
+     * @param rx    The radius along the x axis.
+     * @param ry    The radius along the y axis.
+     * @param start The start angle in radians.
+     * @param stop  The stop angle in radians.
+     * @param mode  The arc mode.
+     */
+    public void arc(double x, double y, double rx, double ry, double start, double stop, ArcMode mode)
+    {
+        double range    = stop - start;
+        int    segments = Math.max(2, (int) (Math.min((int) Math.max(rx, ry) >> 1, 48) * range / (2 * Math.PI)));
+        double step     = range / segments;
+        double cosStep  = Math.cos(step), sinStep = Math.sin(step);
+        
+        double c = Math.cos(start), s = Math.sin(start), temp;
+        
+        double prevX = viewX(x + rx * c, y + ry * s), prevY = viewY(x + rx * c, y + ry * s), currX, currY, px, py;
+        
+        boolean pie     = mode == ArcMode.DEFAULT || mode == ArcMode.PIE;
+        double  originX = pie ? viewX(x, y) : prevX;
+        double  originY = pie ? viewY(x, y) : prevY;
+        for (int i = 1; i <= segments; i++)
+        {
+            temp = c * cosStep - s * sinStep;
+            s    = s * cosStep + c * sinStep;
+            c    = temp;
+            
+            px    = x + rx * c;
+            py    = y + ry * s;
+            currX = viewX(px, py);
+            currY = viewY(px, py);
+            
+            if (pie || i > 1)
+            {
+                vertex(originX, originY);
+                vertex(prevX, prevY);
+                vertex(currX, currY);
+            }
+            prevX = currX;
+            prevY = currY;
+        }
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds the outline of an arc that is {@code thickness} pixels thick. Mirrors {@code arcOutline.geom}
+     *
+     * @param x         The center x coordinate.
+     * @param y         The center y coordinate.
+     * @param rx        The radius along the x axis.
+     * @param ry        The radius along the y axis.
+     * @param start     The start angle in radians.
+     * @param stop      The stop angle in radians.
+     * @param thickness The thickness of the outline.
+     * @param mode      The arc mode.
+     */
+    public void arcOutline(double x, double y, double rx, double ry, double start, double stop, double thickness, ArcMode mode)
+    {
+        double range    = stop - start;
+        int    segments = Math.max(2, Math.min((int) (Math.max(rx, ry) * range / (4 * Math.PI)), 34));
+        double step     = range / segments;
+        double cosStep  = Math.cos(step), sinStep = Math.sin(step);
+        
+        boolean connected = mode == ArcMode.CHORD || mode == ArcMode.PIE;
+        int     total     = segments + 1;
+        
+        if (this.points.length < (total + 1) << 1) this.points = new double[(total + 1) << 1];
+        
+        double c = Math.cos(start), s = Math.sin(start), temp;
+        for (int i = 0; i <= segments; i++)
+        {
+            double px = x + rx * c, py = y + ry * s;
+            this.points[(i << 1)]     = screenX(px, py);
+            this.points[(i << 1) + 1] = screenY(px, py);
+            
+            temp = c * cosStep - s * sinStep;
+            s    = s * cosStep + c * sinStep;
+            c    = temp;
+        }
+        if (mode == ArcMode.DEFAULT || mode == ArcMode.PIE)
+        {
+            this.points[(total << 1)]     = screenX(x, y);
+            this.points[(total << 1) + 1] = screenY(x, y);
+            total++;
+        }
+        
+        for (int i = 0; i < total; i++)
+        {
+            if (i >= segments && !connected) break;
+            
+            int p0 = i == 0 && !connected ? 0 : (i + total - 1) % total;
+            int p1 = i;
+            int p2 = (i + 1) % total;
+            int p3 = i + 1 == segments && !connected ? i + 1 : (i + 2) % total;
+            
+            segment(this.points[(p0 << 1)], this.points[(p0 << 1) + 1],
+                    this.points[(p1 << 1)], this.points[(p1 << 1) + 1],
+                    this.points[(p2 << 1)], this.points[(p2 << 1) + 1],
+                    this.points[(p3 << 1)], this.points[(p3 << 1) + 1],
+                    thickness);
+        }
+        
+        this.primitiveCount++;
+    }
+    
+    /**
+     * Adds a triangle fan around the center. If {@code screen} is true, then center and radii are in screen space.
+     */
+    private void ring(double x, double y, double rx, double ry, int segments, boolean screen)
+    {
+        double step    = 2 * Math.PI / segments;
+        double cosStep = Math.cos(step), sinStep = Math.sin(step);
+        
+        double c = 1.0, s = 0.0, temp;
+        
+        double firstX = 0, firstY = 0, prevX = 0, prevY = 0, currX, currY, px, py;
+        for (int i = 0; i < segments; i++)
+        {
+            px = x + rx * c;
+            py = y + ry * s;
+            if (screen)
+            {
+                currX = px / this.viewportX;
+                currY = py / this.viewportY;
+            }
+            else
+            {
+                currX = viewX(px, py);
+                currY = viewY(px, py);
+            }
+            
+            if (i == 0)
+            {
+                firstX = currX;
+                firstY = currY;
+            }
+            else if (i > 1)
+            {
+                vertex(firstX, firstY);
+                vertex(prevX, prevY);
+                vertex(currX, currY);
+            }
+            prevX = currX;
+            prevY = currY;
+            
+            temp = c * cosStep - s * sinStep;
+            s    = s * cosStep + c * sinStep;
+            c    = temp;
+        }
+    }
+    
+    /**
+     * Adds one segment of a line list with adjacency in screen space. This is a port of {@code lines.geom}
+     */
+    private void segment(double p0x, double p0y, double p1x, double p1y, double p2x, double p2y, double p3x, double p3y, double thickness)
+    {
+        // Perform Naive Culling
+        double areaX = this.viewportX * 4, areaY = this.viewportY * 4;
+        if (p1x < -areaX || p1x > areaX || p1y < -areaY || p1y > areaY) return;
+        if (p2x < -areaX || p2x > areaX || p2y < -areaY || p2y > areaY) return;
+        
+        // Determines the normals for the first two line segments
+        double v0x = p1x - p0x, v0y = p1y - p0y;
+        double v1x = p2x - p1x, v1y = p2y - p1y;
+        double v2x = p3x - p2x, v2y = p3y - p2y;
+        
+        double l1 = Math.sqrt(v1x * v1x + v1y * v1y);
+        double l0 = Math.sqrt(v0x * v0x + v0y * v0y);
+        double l2 = Math.sqrt(v2x * v2x + v2y * v2y);
+        
+        if (l1 < Batch.EPSILON) return;
+        if (l0 < Batch.EPSILON)
+        {
+            v0x = v1x;
+            v0y = v1y;
+            l0  = l1;
+        }
+        if (l2 < Batch.EPSILON)
+        {
+            v2x = v1x;
+            v2y = v1y;
+            l2  = l1;
+        }
+        
+        double v0ux = v0x / l0, v0uy = v0y / l0;
+        double v1ux = v1x / l1, v1uy = v1y / l1;
+        double v2ux = v2x / l2, v2uy = v2y / l2;
+        
+        double n0ux = -v0uy, n0uy = v0ux;
+        double n1ux = -v1uy, n1uy = v1ux;
+        double n2ux = -v2uy, n2uy = v2ux;
+        
+        double n0x = thickness * n0ux, n0y = thickness * n0uy;
+        double n1x = thickness * n1ux, n1y = thickness * n1uy;
+        
+        double t1x = v0ux + v1ux, t1y = v0uy + v1uy, t1l = Math.sqrt(t1x * t1x + t1y * t1y);
+        double t2x = v1ux + v2ux, t2y = v1uy + v2uy, t2l = Math.sqrt(t2x * t2x + t2y * t2y);
+        
+        double m1x = -t1y / t1l, m1y = t1x / t1l;
+        double m2x = -t2y / t2l, m2y = t2x / t2l;
+        
+        double m1s = Math.min(thickness / (m1x * n1ux + m1y * n1uy), Math.min(l0, l1));
+        double m2s = Math.min(thickness / (m2x * n2ux + m2y * n2uy), Math.min(l1, l2));
+        m1x *= m1s;
+        m1y *= m1s;
+        m2x *= m2s;
+        m2y *= m2s;
+        
+        // Determines location of bevel
+        boolean side1 = v0ux * n1ux + v0uy * n1uy > 0;
+        boolean side2 = v1ux * n2ux + v1uy * n2uy > 0;
+        
+        double bevelP11x, bevelP11y, bevelP12x, bevelP12y, bevelP21x, bevelP21y, miterP1x, miterP1y, miterP2x, miterP2y;
+        if (side1)
+        {
+            bevelP11x = p1x + n0x;
+            bevelP11y = p1y + n0y;
+            bevelP12x = p1x + n1x;
+            bevelP12y = p1y + n1y;
+            miterP1x  = p1x - m1x;
+            miterP1y  = p1y - m1y;
+        }
+        else
+        {
+            bevelP11x = p1x - n0x;
+            bevelP11y = p1y - n0y;
+            bevelP12x = p1x - n1x;
+            bevelP12y = p1y - n1y;
+            miterP1x  = p1x + m1x;
+            miterP1y  = p1y + m1y;
+        }
+        if (side2)
+        {
+            bevelP21x = p2x + n1x;
+            bevelP21y = p2y + n1y;
+            miterP2x  = p2x - m2x;
+            miterP2y  = p2y - m2y;
+        }
+        else
+        {
+            bevelP21x = p2x - n1x;
+            bevelP21y = p2y - n1y;
+            miterP2x  = p2x + m2x;
+            miterP2y  = p2y + m2y;
+        }
+        
+        // Generates Bevel at Joint
+        vertex(bevelP11x / this.viewportX, bevelP11y / this.viewportY);
+        vertex(bevelP12x / this.viewportX, bevelP12y / this.viewportY);
+        vertex(miterP1x / this.viewportX, miterP1y / this.viewportY);
+        
+        // Generates Line Strip
+        if (side1 ^ side2)
+        {
+            strip(bevelP12x, bevelP12y, miterP1x, miterP1y, miterP2x, miterP2y, bevelP21x, bevelP21y);
+        }
+        else
+        {
+            strip(bevelP12x, bevelP12y, miterP1x, miterP1y, bevelP21x, bevelP21y, miterP2x, miterP2y);
+        }
+    }
+    
+    /**
+     * Adds a four vertex triangle strip in screen space.
+     */
+    private void strip(double x1, double y1, double x2, double y2, double x3, double y3, double x4, double y4)
+    {
+        x1 /= this.viewportX;
+        y1 /= this.viewportY;
+        x2 /= this.viewportX;
+        y2 /= this.viewportY;
+        x3 /= this.viewportX;
+        y3 /= this.viewportY;
+        
+        vertex(x1, y1);
+        vertex(x2, y2);
+        vertex(x3, y3);
+        
+        vertex(x2, y2);
+        vertex(x3, y3);
+        vertex(x4 / this.viewportX, y4 / this.viewportY);
+    }
+    
+    private double viewX(double x, double y)
+    {
+        return this.m00 * x + this.m10 * y + this.m30;
+    }
+    
+    private double viewY(double x, double y)
+    {
+        return this.m01 * x + this.m11 * y + this.m31;
+    }
+    
+    private double screenX(double x, double y)
+    {
+        return viewX(x, y) * this.viewportX;
+    }
+    
+    private double screenY(double x, double y)
+    {
+        return viewY(x, y) * this.viewportY;
+    }
+    
+    private void vertex(double x, double y)
+    {
+        int index = this.vertexCount * Batch.VERTEX_SIZE;
+        if (index + Batch.VERTEX_SIZE > this.data.capacity())
+        {
+            FloatBuffer newData = BufferUtils.createFloatBuffer(this.data.capacity() << 1);
+            newData.put(this.data.clear().limit(index)).clear();
+            this.data = newData;
+            
+            Batch.LOGGER.finest("Growing %s", this);
+        }
+        
+        this.data.put(index++, (float) x);
+        this.data.put(index++, (float) y);
+        this.data.put(index++, this.r);
+        this.data.put(index++, this.g);
+        this.data.put(index++, this.b);
+        this.data.put(index++, this.a);
+        this.data.put(index++, this.tr);
+        this.data.put(index++, this.tg);
+        this.data.put(index++, this.tb);
+        this.data.put(index, this.ta);
+        
+        this.vertexCount++;
+    }
+}
@@ -0,0 +1,603 @@
+package engine.render;
+
+import engine.color.Color;
+import engine.color.Colorc;
+import engine.font.Font;
+import rutils.Logger;
+
+import java.util.Arrays;
+
+/**
+ * A list of {@link Renderer} calls that is recorded on any thread and replayed later on the thread that owns the OpenGL
+ * context.
+ * <p>
+ * A buffer belongs to the first thread that records into it. When it is done, it can be
+ * {@link Renderer#submit(CommandBuffer) submitted} by that thread or by any thread that waited for it to finish. It must
+ * not be recorded into until the renderer has {@link Renderer#replay() replayed} it, which also clears it so that any
+ * thread can record into it again.
+ * <p>
+ * Calls are stored as op codes with their arguments packed into arrays, so recording does not allocate once the arrays
+ * are large enough. The renderer's state is pushed before a buffer is replayed and popped after, so the state that a
+ * buffer changes does not leak into the rest of the frame.
+ */
+@SuppressWarnings("unused")
+public class CommandBuffer
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private static final byte FILL         = 0;
+    private static final byte NO_FILL      = 1;
+    private static final byte STROKE       = 2;
+    private static final byte NO_STROKE    = 3;
+    private static final byte TINT         = 4;
+    private static final byte NO_TINT      = 5;
+    private static final byte WEIGHT       = 6;
+    private static final byte RECT_MODE    = 7;
+    private static final byte ELLIPSE_MODE = 8;
+    private static final byte ARC_MODE     = 9;
+    private static final byte TEXT_FONT    = 10;
+    private static final byte TEXT_SIZE    = 11;
+    private static final byte TEXT_ALIGN   = 12;
+    private static final byte TARGET       = 13;
+    private static final byte IDENTITY     = 14;
+    private static final byte TRANSLATE    = 15;
+    private static final byte ROTATE       = 16;
+    private static final byte SCALE        = 17;
+    private static final byte PUSH         = 18;
+    private static final byte POP          = 19;
+    private static final byte CLEAR        = 20;
+    private static final byte POINT        = 21;
+    private static final byte LINE         = 22;
+    private static final byte BEZIER       = 23;
+    private static final byte TRIANGLE     = 24;
+    private static final byte SQUARE       = 25;
+    private static final byte RECT         = 26;
+    private static final byte QUAD         = 27;
+    private static final byte POLYGON      = 28;
+    private static final byte CIRCLE       = 29;
+    private static final byte ELLIPSE      = 30;
+    private static final byte ARC          = 31;
+    private static final byte TEXTURE      = 32;
+    private static final byte TEXT         = 33;
+    
+    private byte[]   ops  = new byte[64];
+    private double[] args = new double[256];
+    private Object[] refs = new Object[16];
+    private int      opCount, argCount, refCount;
+    
+    private int depth;
+    
+    private          Thread  owner;
+    private volatile boolean submitted;
+    
+    private final Color color = new Color();
+    
+    @Override
+    public String toString()
+    {
+        return "CommandBuffer{" + "ops=" + this.opCount + ", args=" + this.argCount + ", refs=" + this.refCount + ", submitted=" + this.submitted + '}';
+    }
+    
+    /**
+     * @return The number of calls that were recorded.
+     */
+    public int size()
+    {
+        return this.opCount;
+    }
+    
+    /**
+     * @return If the buffer was submitted and has not been replayed yet.
+     */
+    public boolean submitted()
+    {
+        return this.submitted;
+    }
+    
+    /**
+     * Removes every recorded call. Must be called by the thread that recorded them.
+     */
+    public void clear()
+    {
+        check();
+        reset();
+    }
+    
+    // ------------------------
+    // -- Property Recording --
+    // ------------------------
+    
+    /**
+     * See {@link Renderer#fill(Colorc)}
+     */
+    public void fill(Colorc fill)
+    {
+        op(CommandBuffer.FILL);
+        arg(fill.toInt());
+    }
+    
+    /**
+     * See {@link Renderer#noFill()}
+     */
+    public void noFill()
+    {
+        op(CommandBuffer.NO_FILL);
+    }
+    
+    /**
+     * See {@link Renderer#stroke(Colorc)}
+     */
+    public void stroke(Colorc stroke)
+    {
+        op(CommandBuffer.STROKE);
+        arg(stroke.toInt());
+    }
+    
+    /**
+     * See {@link Renderer#noStroke()}
+     */
+    public void noStroke()
+    {
+        op(CommandBuffer.NO_STROKE);
+    }
+    
+    /**
+     * See {@link Renderer#tint(Colorc)}
+     */
+    public void tint(Colorc tint)
+    {
+        op(CommandBuffer.TINT);
+        arg(tint.toInt());
+    }
+    
+    /**
+     * See {@link Renderer#noTint()}
+     */
+    public void noTint()
+    {
+        op(CommandBuffer.NO_TINT);
+    }
+    
+    /**
+     * See {@link Renderer#weight(double)}
+     */
+    public void weight(double weight)
+    {
+        op(CommandBuffer.WEIGHT);
+        arg(weight);
+    }
+    
+    /**
+     * See {@link Renderer#rectMode(RectMode)}
+     */
+    public void rectMode(RectMode rectMode)
+    {
+        op(CommandBuffer.RECT_MODE);
+        ref(rectMode);
+    }
+    
+    /**
+     * See {@link Renderer#ellipseMode(EllipseMode)}
+     */
+    public void ellipseMode(EllipseMode ellipseMode)
+    {
+        op(CommandBuffer.ELLIPSE_MODE);
+        ref(ellipseMode);
+    }
+    
+    /**
+     * See {@link Renderer#arcMode(ArcMode)}
+     */
+    public void arcMode(ArcMode arcMode)
+    {
+        op(CommandBuffer.ARC_MODE);
+        ref(arcMode);
+    }
+    
+    /**
+     * See {@link Renderer#textFont(Font)}
+     */
+    public void textFont(Font font)
+    {
+        op(CommandBuffer.TEXT_FONT);
+        ref(font);
+    }
+    
+    /**
+     * See {@link Renderer#textSize(int)}
+     */
+    public void textSize(int textSize)
+    {
+        op(CommandBuffer.TEXT_SIZE);
+        arg(textSize);
+    }
+    
+    /**
+     * See {@link Renderer#textAlign(TextAlign)}
+     */
+    public void textAlign(TextAlign textAlign)
+    {
+        op(CommandBuffer.TEXT_ALIGN);
+        ref(textAlign);
+    }
+    
+    /**
+     * See {@link Renderer#target(Texture)}
+     */
+    public void target(Texture target)
+    {
+        op(CommandBuffer.TARGET);
+        ref(target);
+    }
+    
+    // ------------------------------
+    // -- Transformation Recording --
+    // ------------------------------
+    
+    /**
+     * See {@link Renderer#identity()}
+     */
+    public void identity()
+    {
+        op(CommandBuffer.IDENTITY);
+    }
+    
+    /**
+     * See {@link Renderer#translate(double, double)}
+     */
+    public void translate(double x, double y)
+    {
+        op(CommandBuffer.TRANSLATE);
+        arg(x);
+        arg(y);
+    }
+    
+    /**
+     * See {@link Renderer#rotate(double)}
+     */
+    public void rotate(double angle)
+    {
+        op(CommandBuffer.ROTATE);
+        arg(angle);
+    }
+    
+    /**
+     * See {@link Renderer#scale(double, double)}
+     */
+    public void scale(double x, double y)
+    {
+        op(CommandBuffer.SCALE);
+        arg(x);
+        arg(y);
+    }
+    
+    /**
+     * See {@link Renderer#push()}
+     */
+    public void push()
+    {
+        op(CommandBuffer.PUSH);
+        this.depth++;
+    }
+    
+    /**
+     * See {@link Renderer#pop()}
+     */
+    public void pop()
+    {
+        if (this.depth == 0) throw new RuntimeException("pop was called more times than push");
+        
+        op(CommandBuffer.POP);
+        this.depth--;
+    }
+    
+    // -----------------------
+    // -- Drawing Recording --
+    // -----------------------
+    
+    /**
+     * See {@link Renderer#clear(Colorc)}
+     */
+    public void clear(Colorc color)
+    {
+        op(CommandBuffer.CLEAR);
+        arg(color.toInt());
+    }
+    
+    /**
+     * See {@link Renderer#point(double, double)}
+     */
+    public void point(double x, double y)
+    {
+        op(CommandBuffer.POINT);
+        arg(x);
+        arg(y);
+    }
+    
+    /**
+     * See {@link Renderer#line(double, double, double, double)}
+     */
+    public void line(double x1, double y1, double x2, double y2)
+    {
+        op(CommandBuffer.LINE);
+        arg(x1);
+        arg(y1);
+        arg(x2);
+        arg(y2);
+    }
+    
+    /**
+     * See {@link Renderer#bezier(double...)}
+     */
+    public void bezier(double... points)
+    {
+        op(CommandBuffer.BEZIER);
+        args(points);
+    }
+    
+    /**
+     * See {@link Renderer#triangle(double, double, double, double, double, double)}
+     */
+    public void triangle(double x1, double y1, double x2, double y2, double x3, double y3)
+    {
+        op(CommandBuffer.TRIANGLE);
+        arg(x1);
+        arg(y1);
+        arg(x2);
+        arg(y2);
+        arg(x3);
+        arg(y3);
+    }
+    
+    /**
+     * See {@link Renderer#square(double, double, double)}
+     */
+    public void square(double a, double b, double c)
+    {
+        op(CommandBuffer.SQUARE);
+        arg(a);
+        arg(b);
+        arg(c);
+    }
+    
+    /**
+     * See {@link Renderer#rect(double, double, double, double)}
+     */
+    public void rect(double a, double b, double c, double d)
+    {
+        op(CommandBuffer.RECT);
+        arg(a);
+        arg(b);
+        arg(c);
+        arg(d);
+    }
+    
+    /**
+     * See {@link Renderer#quad(double, double, double, double, double, double, double, double)}
+     */
+    public void quad(double x1, double y1, double x2, double y2, double x3, double y3, double x4, double y4)
+    {
+        op(CommandBuffer.QUAD);
+        arg(x1);
+        arg(y1);
+        arg(x2);
+        arg(y2);
+        arg(x3);
+        arg(y3);
+        arg(x4);
+        arg(y4);
+    }
+    
+    /**
+     * See {@link Renderer#polygon(double...)}
+     */
+    public void polygon(double... points)
+    {
+        op(CommandBuffer.POLYGON);
+        args(points);
+    }
+    
+    /**
+     * See {@link Renderer#circle(double, double, double)}
+     */
+    public void circle(double a, double b, double c)
+    {
+        op(CommandBuffer.CIRCLE);
+        arg(a);
+        arg(b);
+        arg(c);
+    }
+    
+    /**
+     * See {@link Renderer#ellipse(double, double, double, double)}
+     */
+    public void ellipse(double a, double b, double c, double d)
+    {
+        op(CommandBuffer.ELLIPSE);
+        arg(a);
+        arg(b);
+        arg(c);
+        arg(d);
+    }
+    
+    /**
+     * See {@link Renderer#arc(double, double, double, double, double, double)}
+     */
+    public void arc(double a, double b, double c, double d, double start, double stop)
+    {
+        op(CommandBuffer.ARC);
+        arg(a);
+        arg(b);
+        arg(c);
+        arg(d);
+        arg(start);
+        arg(stop);
+    }
+    
+    /**
+     * See {@link Renderer#texture(Texture, double, double, double, double, double, double, double, double)}
+     */
+    public void texture(Texture texture, double a, double b, double c, double d, double u1, double v1, double v2, double u2)
+    {
+        op(CommandBuffer.TEXTURE);
+        ref(texture);
+        arg(a);
+        arg(b);
+        arg(c);
+        arg(d);
+        arg(u1);
+        arg(v1);
+        arg(v2);
+        arg(u2);
+    }
+    
+    /**
+     * See {@link Renderer#text(String, double, double)}
+     */
+    public void text(String text, double x, double y)
+    {
+        op(CommandBuffer.TEXT);
+        ref(text);
+        arg(x);
+        arg(y);
+    }
+    
+    // ----------------
+    // -- Submission --
+    // ----------------
+    
+    /**
+     * Hands the buffer over to the render thread. Called by {@link Renderer#submit(CommandBuffer)}.
+     */
+    void submit()
+    {
+        if (this.submitted) throw new RuntimeException("CommandBuffer was already submitted");
+        
+        CommandBuffer.LOGGER.finest("Submitting", this);
+        
+        this.submitted = true;
+    }
+    
+    /**
+     * Calls every recorded method on the renderer and then clears the buffer. Must be called on the render thread.
+     *
+     * @param renderer The renderer to replay the calls on.
+     */
+    void replay(Renderer renderer)
+    {
+        CommandBuffer.LOGGER.finest("Replaying", this);
+        
+        renderer.push();
+        
+        double[] args = this.args;
+        Object[] refs = this.refs;
+        for (int i = 0, a = 0, r = 0; i < this.opCount; i++)
+        {
+            switch (this.ops[i])
+            {
+                case CommandBuffer.FILL -> renderer.fill(this.color.fromInt((int) args[a++]));
+                case CommandBuffer.NO_FILL -> renderer.noFill();
+                case CommandBuffer.STROKE -> renderer.stroke(this.color.fromInt((int) args[a++]));
+                case CommandBuffer.NO_STROKE -> renderer.noStroke();
+                case CommandBuffer.TINT -> renderer.tint(this.color.fromInt((int) args[a++]));
+                case CommandBuffer.NO_TINT -> renderer.noTint();
+                case CommandBuffer.WEIGHT -> renderer.weight(args[a++]);
+                case CommandBuffer.RECT_MODE -> renderer.rectMode((RectMode) refs[r++]);
+                case CommandBuffer.ELLIPSE_MODE -> renderer.ellipseMode((EllipseMode) refs[r++]);
+                case CommandBuffer.ARC_MODE -> renderer.arcMode((ArcMode) refs[r++]);
+                case CommandBuffer.TEXT_FONT -> renderer.textFont((Font) refs[r++]);
+                case CommandBuffer.TEXT_SIZE -> renderer.textSize((int) args[a++]);
+                case CommandBuffer.TEXT_ALIGN -> renderer.textAlign((TextAlign) refs[r++]);
+                case CommandBuffer.TARGET -> renderer.target((Texture) refs[r++]);
+                case CommandBuffer.IDENTITY -> renderer.identity();
+                case CommandBuffer.TRANSLATE -> renderer.translate(args[a++], args[a++]);
+                case CommandBuffer.ROTATE -> renderer.rotate(args[a++]);
+                case CommandBuffer.SCALE -> renderer.scale(args[a++], args[a++]);
+                case CommandBuffer.PUSH -> renderer.push();
+                case CommandBuffer.POP -> renderer.pop();
+                case CommandBuffer.CLEAR -> renderer.clear(this.color.fromInt((int) args[a++]));
+                case CommandBuffer.POINT -> renderer.point(args[a++], args[a++]);
+                case CommandBuffer.LINE -> renderer.line(args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.BEZIER -> {
+                    int n = (int) args[a++];
+                    renderer.bezier(Arrays.copyOfRange(args, a, a + n));
+                    a += n;
+                }
+                case CommandBuffer.TRIANGLE -> renderer.triangle(args[a++], args[a++], args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.SQUARE -> renderer.square(args[a++], args[a++], args[a++]);
+                case CommandBuffer.RECT -> renderer.rect(args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.QUAD -> renderer.quad(args[a++], args[a++], args[a++], args[a++], args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.POLYGON -> {
+                    int n = (int) args[a++];
+                    renderer.polygon(Arrays.copyOfRange(args, a, a + n));
+                    a += n;
+                }
+                case CommandBuffer.CIRCLE -> renderer.circle(args[a++], args[a++], args[a++]);
+                case CommandBuffer.ELLIPSE -> renderer.ellipse(args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.ARC -> renderer.arc(args[a++], args[a++], args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.TEXTURE -> renderer.texture((Texture) refs[r++], args[a++], args[a++], args[a++], args[a++], args[a++], args[a++], args[a++], args[a++]);
+                case CommandBuffer.TEXT -> renderer.text((String) refs[r++], args[a++], args[a++]);
+                default -> throw new RuntimeException("Unknown op code: " + this.ops[i]);
+            }
+        }
+        for (int i = 0; i < this.depth; i++) renderer.pop();
+        
+        renderer.pop();
+        
+        reset();
+        this.submitted = false;
+    }
+    
+    private void check()
+    {
+        if (this.submitted) throw new RuntimeException("CommandBuffer was submitted and has not been replayed");
+        
+        Thread thread = Thread.currentThread();
+        if (this.owner == null)
+        {
+            this.owner = thread;
+        }
+        else if (this.owner != thread)
+        {
+            throw new RuntimeException("CommandBuffer is owned by thread \"" + this.owner.getName() + "\", not \"" + thread.getName() + '"');
+        }
+    }
+    
+    private void reset()
+    {
+        Arrays.fill(this.refs, 0, this.refCount, null);
+        
+        this.opCount  = 0;
+        this.argCount = 0;
+        this.refCount = 0;
+        this.depth    = 0;
+        this.owner    = null;
+    }
+    
+    private void op(byte op)
+    {
+        check();
+        if (this.opCount == this.ops.length) this.ops = Arrays.copyOf(this.ops, this.ops.length << 1);
+        this.ops[this.opCount++] = op;
+    }
+    
+    private void arg(double arg)
+    {
+        if (this.argCount == this.args.length) this.args = Arrays.copyOf(this.args, this.args.length << 1);
+        this.args[this.argCount++] = arg;
+    }
+    
+    private void args(double[] args)
+    {
+        if (this.argCount + args.length + 1 > this.args.length) this.args = Arrays.copyOf(this.args, Math.max(this.args.length << 1, this.argCount + args.length + 1));
+        this.args[this.argCount++] = args.length;
+        System.arraycopy(args, 0, this.args, this.argCount, args.length);
+        this.argCount += args.length;
+    }
+    
+    private void ref(Object ref)
+    {
+        if (this.refCount == this.refs.length) this.refs = Arrays.copyOf(this.refs, this.refs.length << 1);
+        this.refs[this.refCount++] = ref;
+    }
+}
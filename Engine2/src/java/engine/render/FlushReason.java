@@ -0,0 +1,28 @@
+package engine.render;
+
+/**
+ * The reason a {@link Renderer} flushed its {@link Batch} to the render target.
+ * <p>
+ * <p>
+ * {@link FlushReason#TARGET} <p>
+ * -- The render target was changed <p>
+ * <p>
+ * {@link FlushReason#IMMEDIATE} <p>
+ * -- A primitive that cannot be batched was drawn <p>
+ * <p>
+ * {@link FlushReason#CLEAR} <p>
+ * -- The render target was cleared <p>
+ * <p>
+ * {@link FlushReason#PIXELS} <p>
+ * -- The pixels of the render target were loaded or updated <p>
+ * <p>
+ * {@link FlushReason#MODE} <p>
+ * -- Batching was disabled <p>
+ * <p>
+ * {@link FlushReason#FINISH} <p>
+ * -- The render was finished <p>
+ */
+public enum FlushReason
+{
+    TARGET, IMMEDIATE, CLEAR, PIXELS, MODE, FINISH
+}
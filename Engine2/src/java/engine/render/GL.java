@@ -5,7 +5,8 @@ import rutils.Logger;
 
 import java.util.HashMap;
 
-import static org.lwjgl.opengl.GL43.glDebugMessageCallback;
+import static engine.render.OpenGL.glDebugMessageCallback;
+import static engine.render.OpenGL.glEnable;
 import static org.lwjgl.opengl.GL46.*;
 
 /**
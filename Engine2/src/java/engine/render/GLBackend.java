@@ -0,0 +1,271 @@
+package engine.render;
+
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GLDebugMessageCallbackI;
+
+import java.nio.*;
+
+/**
+ * The OpenGL entry points that the classes in {@code engine.render} call into.
+ * <p>
+ * Each method has the same name and parameters as its LWJGL counterpart. The backend that is used is selected with {@link OpenGL#backend(GLBackend)}
+ * <p>
+ * {@link LWJGLBackend} <p>
+ * -- Forwards every call to the current OpenGL context <p>
+ * <p>
+ * {@link RecordingBackend} <p>
+ * -- Does not need a context and records the calls into an inspectable log <p>
+ */
+@SuppressWarnings("unused")
+public interface GLBackend
+{
+    // -------------
+    // -- Buffers --
+    // -------------
+    
+    int glGenBuffers();
+    
+    void glBindBuffer(int target, int buffer);
+    
+    void glBindBufferBase(int target, int index, int buffer);
+    
+    void glDeleteBuffers(int buffer);
+    
+    void glBindBufferRange(int target, int index, int buffer, long offset, long size);
+    
+    void glBufferStorage(int target, long size, int flags);
+    
+    @Nullable ByteBuffer glMapBufferRange(int target, long offset, long length, int access);
+    
+    boolean glUnmapBuffer(int target);
+    
+    void glBufferData(int target, long size, int usage);
+    
+    void glBufferData(int target, short[] data, int usage);
+    
+    void glBufferData(int target, int[] data, int usage);
+    
+    void glBufferData(int target, long[] data, int usage);
+    
+    void glBufferData(int target, float[] data, int usage);
+    
+    void glBufferData(int target, double[] data, int usage);
+    
+    void glBufferData(int target, ByteBuffer data, int usage);
+    
+    void glBufferData(int target, ShortBuffer data, int usage);
+    
+    void glBufferData(int target, IntBuffer data, int usage);
+    
+    void glBufferData(int target, LongBuffer data, int usage);
+    
+    void glBufferData(int target, FloatBuffer data, int usage);
+    
+    void glBufferData(int target, DoubleBuffer data, int usage);
+    
+    void glBufferSubData(int target, long offset, short[] data);
+    
+    void glBufferSubData(int target, long offset, int[] data);
+    
+    void glBufferSubData(int target, long offset, long[] data);
+    
+    void glBufferSubData(int target, long offset, float[] data);
+    
+    void glBufferSubData(int target, long offset, double[] data);
+    
+    void glBufferSubData(int target, long offset, ByteBuffer data);
+    
+    void glBufferSubData(int target, long offset, ShortBuffer data);
+    
+    void glBufferSubData(int target, long offset, IntBuffer data);
+    
+    void glBufferSubData(int target, long offset, LongBuffer data);
+    
+    void glBufferSubData(int target, long offset, FloatBuffer data);
+    
+    void glBufferSubData(int target, long offset, DoubleBuffer data);
+    
+    void glGetBufferSubData(int target, long offset, short[] data);
+    
+    void glGetBufferSubData(int target, long offset, int[] data);
+    
+    void glGetBufferSubData(int target, long offset, long[] data);
+    
+    void glGetBufferSubData(int target, long offset, float[] data);
+    
+    void glGetBufferSubData(int target, long offset, double[] data);
+    
+    void glGetBufferSubData(int target, long offset, ByteBuffer data);
+    
+    void glGetBufferSubData(int target, long offset, ShortBuffer data);
+    
+    void glGetBufferSubData(int target, long offset, IntBuffer data);
+    
+    void glGetBufferSubData(int target, long offset, LongBuffer data);
+    
+    void glGetBufferSubData(int target, long offset, FloatBuffer data);
+    
+    void glGetBufferSubData(int target, long offset, DoubleBuffer data);
+    
+    // -------------------
+    // -- Vertex Arrays --
+    // -------------------
+    
+    int glGenVertexArrays();
+    
+    void glBindVertexArray(int array);
+    
+    void glDeleteVertexArrays(int array);
+    
+    void glEnableVertexAttribArray(int index);
+    
+    void glDisableVertexAttribArray(int index);
+    
+    void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer);
+    
+    void glDrawArrays(int mode, int first, int count);
+    
+    void glDrawElements(int mode, int count, int type, long indices);
+    
+    // -------------
+    // -- Shaders --
+    // -------------
+    
+    int glCreateProgram();
+    
+    void glLinkProgram(int program);
+    
+    void glValidateProgram(int program);
+    
+    int glGetProgrami(int program, int pname);
+    
+    String glGetProgramInfoLog(int program);
+    
+    void glUseProgram(int program);
+    
+    void glDetachShader(int program, int shader);
+    
+    void glDeleteProgram(int program);
+    
+    int glCreateShader(int type);
+    
+    void glShaderSource(int shader, CharSequence string);
+    
+    void glCompileShader(int shader);
+    
+    int glGetShaderi(int shader, int pname);
+    
+    String glGetShaderInfoLog(int shader);
+    
+    void glAttachShader(int program, int shader);
+    
+    void glDeleteShader(int shader);
+    
+    int glGetUniformLocation(int program, CharSequence name);
+    
+    void glUniform1i(int location, int v0);
+    
+    void glUniform2i(int location, int v0, int v1);
+    
+    void glUniform3i(int location, int v0, int v1, int v2);
+    
+    void glUniform4i(int location, int v0, int v1, int v2, int v3);
+    
+    void glUniform1f(int location, float v0);
+    
+    void glUniform2f(int location, float v0, float v1);
+    
+    void glUniform3f(int location, float v0, float v1, float v2);
+    
+    void glUniform4f(int location, float v0, float v1, float v2, float v3);
+    
+    void glUniformMatrix2fv(int location, boolean transpose, float[] value);
+    
+    void glUniformMatrix2fv(int location, boolean transpose, FloatBuffer value);
+    
+    void glUniformMatrix3fv(int location, boolean transpose, FloatBuffer value);
+    
+    void glUniformMatrix4fv(int location, boolean transpose, FloatBuffer value);
+    
+    // --------------
+    // -- Textures --
+    // --------------
+    
+    int glGenTextures();
+    
+    void glBindTexture(int target, int texture);
+    
+    void glActiveTexture(int texture);
+    
+    void glDeleteTextures(int texture);
+    
+    void glTexParameteri(int target, int pname, int param);
+    
+    void glPixelStorei(int pname, int param);
+    
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, long pixels);
+    
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, @Nullable ByteBuffer pixels);
+    
+    void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels);
+    
+    void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, ByteBuffer pixels);
+    
+    void glGetTexImage(int target, int level, int format, int type, long pixels);
+    
+    void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels);
+    
+    void glGenerateMipmap(int target);
+    
+    void glCopyImageSubData(int srcName, int srcTarget, int srcLevel, int srcX, int srcY, int srcZ, int dstName, int dstTarget, int dstLevel, int dstX, int dstY, int dstZ, int srcWidth, int srcHeight, int srcDepth);
+    
+    // ------------------
+    // -- Framebuffers --
+    // ------------------
+    
+    int glGenFramebuffers();
+    
+    void glBindFramebuffer(int target, int framebuffer);
+    
+    void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level);
+    
+    int glCheckFramebufferStatus(int target);
+    
+    // ----------
+    // -- Sync --
+    // ----------
+    
+    long glFenceSync(int condition, int flags);
+    
+    int glClientWaitSync(long sync, int flags, long timeout);
+    
+    void glDeleteSync(long sync);
+    
+    // -------------
+    // -- Compute --
+    // -------------
+    
+    void glDispatchCompute(int num_groups_x, int num_groups_y, int num_groups_z);
+    
+    void glMemoryBarrier(int barriers);
+    
+    void glBindImageTexture(int unit, int texture, int level, boolean layered, int layer, int access, int format);
+    
+    // -----------
+    // -- State --
+    // -----------
+    
+    void glViewport(int x, int y, int w, int h);
+    
+    int glGetInteger(int pname);
+    
+    void glEnable(int target);
+    
+    void glPolygonMode(int face, int mode);
+    
+    void glClearColor(float red, float green, float blue, float alpha);
+    
+    void glClear(int mask);
+    
+    void glDebugMessageCallback(@Nullable GLDebugMessageCallbackI callback, long userParam);
+}
@@ -6,7 +6,7 @@ import rutils.Logger;
 import java.nio.*;
 import java.util.Objects;
 
-import static org.lwjgl.opengl.GL45.*;
+import static engine.render.OpenGL.*;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class GLBuffer
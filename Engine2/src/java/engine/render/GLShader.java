@@ -8,27 +8,43 @@ import org.lwjgl.system.MemoryStack;
 import rutils.Logger;
 
 import java.io.IOException;
+import java.nio.FloatBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.regex.Pattern;
 
-import static org.lwjgl.opengl.GL20.*;
+import static engine.render.OpenGL.*;
+import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.opengl.GL20.GL_COMPILE_STATUS;
+import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
+import static org.lwjgl.opengl.GL20.GL_VALIDATE_STATUS;
 import static rutils.IOUtil.getPath;
 
 /**
  * A shader that can be used to render things.
+ * <p>
+ * Uniform locations are cached and the last value uploaded to each uniform is remembered, so setting a uniform to the value
+ * that it already has does not call OpenGL.
  */
 @SuppressWarnings("unused")
 public class GLShader
 {
     private static final Logger LOGGER = new Logger();
     
+    private static long totalIssued, totalSkipped;
+    
     private final int id;
     
-    private final HashMap<GL, Integer>     shaders  = new HashMap<>();
-    private final HashMap<GL, String>      sources  = new HashMap<>();
-    private final HashMap<String, Integer> uniforms = new HashMap<>();
+    private final HashMap<GL, Integer> shaders = new HashMap<>();
+    private final HashMap<GL, String>  sources = new HashMap<>();
+    
+    private int[]     uniformHashes = new int[16];
+    private Uniform[] uniforms      = new Uniform[16];
+    private int       uniformCount;
+    
+    private long issued, skipped;
     
     /**
      * Creates a new shader.
@@ -86,6 +102,8 @@ public class GLShader
         
         GLShader.LOGGER.fine("%s: Linked", this);
         
+        clearUniforms();
+        
         glValidateProgram(this.id);
         if (glGetProgrami(this.id, GL_VALIDATE_STATUS) != GL_TRUE) throw new RuntimeException(this + " Validation failure: \n" + glGetProgramInfoLog(this.id));
         
@@ -148,6 +166,48 @@ public class GLShader
         
         this.shaders.clear();
         this.sources.clear();
+        clearUniforms();
+    }
+    
+    /**
+     * @return The number of uniform uploads that were sent to OpenGL by this shader.
+     */
+    public long issuedUniforms()
+    {
+        return this.issued;
+    }
+    
+    /**
+     * @return The number of uniform uploads that were skipped by this shader because the value did not change.
+     */
+    public long skippedUniforms()
+    {
+        return this.skipped;
+    }
+    
+    /**
+     * @return The number of uniform uploads that were sent to OpenGL by all shaders since the last call to {@link #resetUniformTotals()}.
+     */
+    public static long totalIssuedUniforms()
+    {
+        return GLShader.totalIssued;
+    }
+    
+    /**
+     * @return The number of uniform uploads that were skipped by all shaders since the last call to {@link #resetUniformTotals()}.
+     */
+    public static long totalSkippedUniforms()
+    {
+        return GLShader.totalSkipped;
+    }
+    
+    /**
+     * Resets the uniform upload counts of all shaders.
+     */
+    public static void resetUniformTotals()
+    {
+        GLShader.totalIssued  = 0;
+        GLShader.totalSkipped = 0;
     }
     
     /**
@@ -160,7 +220,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting bool Uniform: %s=%s", this, name, value);
         
-        glUniform1i(getUniform(name), value ? 1 : 0);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 1, value ? 1 : 0, 0, 0, 0)) glUniform1i(uniform.location, value ? 1 : 0);
     }
     
     /**
@@ -173,7 +234,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting int Uniform: %s=%s", this, name, value);
         
-        glUniform1i(getUniform(name), (int) value);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 1, (int) value, 0, 0, 0)) glUniform1i(uniform.location, (int) value);
     }
     
     /**
@@ -186,7 +248,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting float Uniform: %s=%s", this, name, value);
         
-        glUniform1f(getUniform(name), (float) value);
+        Uniform uniform = getUniform(name);
+        if (updateFloat(uniform, 1, (float) value, 0, 0, 0)) glUniform1f(uniform.location, (float) value);
     }
     
     /**
@@ -200,7 +263,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec2 Uniform: %s=(%s, %s)", this, name, x, y);
         
-        glUniform2i(getUniform(name), x ? 1 : 0, y ? 1 : 0);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 2, x ? 1 : 0, y ? 1 : 0, 0, 0)) glUniform2i(uniform.location, x ? 1 : 0, y ? 1 : 0);
     }
     
     /**
@@ -214,7 +278,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec2 Uniform: %s=(%s, %s)", this, name, x, y);
         
-        glUniform2i(getUniform(name), (int) x, (int) y);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 2, (int) x, (int) y, 0, 0)) glUniform2i(uniform.location, (int) x, (int) y);
     }
     
     /**
@@ -228,7 +293,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec2 Uniform: %s=(%s, %s)", this, name, x, y);
         
-        glUniform2f(getUniform(name), (float) x, (float) y);
+        Uniform uniform = getUniform(name);
+        if (updateFloat(uniform, 2, (float) x, (float) y, 0, 0)) glUniform2f(uniform.location, (float) x, (float) y);
     }
     
     /**
@@ -276,7 +342,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec3 Uniform: %s=(%s, %s, %s)", this, name, x, y, z);
         
-        glUniform3i(getUniform(name), x ? 1 : 0, y ? 1 : 0, z ? 1 : 0);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 3, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, 0)) glUniform3i(uniform.location, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0);
     }
     
     /**
@@ -291,7 +358,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec3 Uniform: %s=(%s, %s, %s)", this, name, x, y, z);
         
-        glUniform3i(getUniform(name), (int) x, (int) y, (int) z);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 3, (int) x, (int) y, (int) z, 0)) glUniform3i(uniform.location, (int) x, (int) y, (int) z);
     }
     
     /**
@@ -306,7 +374,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec3 Uniform: %s=(%s, %s, %s)", this, name, x, y, z);
         
-        glUniform3f(getUniform(name), (float) x, (float) y, (float) z);
+        Uniform uniform = getUniform(name);
+        if (updateFloat(uniform, 3, (float) x, (float) y, (float) z, 0)) glUniform3f(uniform.location, (float) x, (float) y, (float) z);
     }
     
     /**
@@ -355,7 +424,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec3 Uniform: %s=(%s, %s, %s, %s)", this, name, x, y, z, w);
         
-        glUniform4i(getUniform(name), x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, w ? 1 : 0);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 4, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, w ? 1 : 0)) glUniform4i(uniform.location, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, w ? 1 : 0);
     }
     
     /**
@@ -371,7 +441,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec3 Uniform: %s=(%s, %s, %s, %s)", this, name, x, y, z, w);
         
-        glUniform4i(getUniform(name), (int) x, (int) y, (int) z, (int) w);
+        Uniform uniform = getUniform(name);
+        if (updateInt(uniform, 4, (int) x, (int) y, (int) z, (int) w)) glUniform4i(uniform.location, (int) x, (int) y, (int) z, (int) w);
     }
     
     /**
@@ -387,7 +458,8 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting vec3 Uniform: %s=(%s, %s, %s, %s)", this, name, x, y, z, w);
         
-        glUniform4f(getUniform(name), (float) x, (float) y, (float) z, (float) w);
+        Uniform uniform = getUniform(name);
+        if (updateFloat(uniform, 4, (float) x, (float) y, (float) z, (float) w)) glUniform4f(uniform.location, (float) x, (float) y, (float) z, (float) w);
     }
     
     /**
@@ -435,7 +507,9 @@ public class GLShader
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            glUniformMatrix2fv(getUniform(name), false, mat.get(stack.mallocFloat(4)));
+            Uniform     uniform = getUniform(name);
+            FloatBuffer buffer  = mat.get(stack.mallocFloat(4));
+            if (updateMatrix(uniform, buffer)) glUniformMatrix2fv(uniform.location, false, buffer);
         }
     }
     
@@ -449,13 +523,12 @@ public class GLShader
     {
         GLShader.LOGGER.finest("%s: Setting mat2 Uniform: %s=%n%s", this, name, mat);
         
-        float[] arr = {
-                (float) mat.m00(),
-                (float) mat.m01(),
-                (float) mat.m10(),
-                (float) mat.m11()
-        };
-        glUniformMatrix2fv(getUniform(name), false, arr);
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            Uniform     uniform = getUniform(name);
+            FloatBuffer buffer  = stack.floats((float) mat.m00(), (float) mat.m01(), (float) mat.m10(), (float) mat.m11());
+            if (updateMatrix(uniform, buffer)) glUniformMatrix2fv(uniform.location, false, buffer);
+        }
     }
     
     /**
@@ -470,7 +543,9 @@ public class GLShader
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            glUniformMatrix3fv(getUniform(name), false, mat.get(stack.mallocFloat(9)));
+            Uniform     uniform = getUniform(name);
+            FloatBuffer buffer  = mat.get(stack.mallocFloat(9));
+            if (updateMatrix(uniform, buffer)) glUniformMatrix3fv(uniform.location, false, buffer);
         }
     }
     
@@ -486,7 +561,9 @@ public class GLShader
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            glUniformMatrix3fv(getUniform(name), false, mat.get(stack.mallocFloat(9)));
+            Uniform     uniform = getUniform(name);
+            FloatBuffer buffer  = mat.get(stack.mallocFloat(9));
+            if (updateMatrix(uniform, buffer)) glUniformMatrix3fv(uniform.location, false, buffer);
         }
     }
     
@@ -502,7 +579,9 @@ public class GLShader
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            glUniformMatrix4fv(getUniform(name), false, mat.get(stack.mallocFloat(16)));
+            Uniform     uniform = getUniform(name);
+            FloatBuffer buffer  = mat.get(stack.mallocFloat(16));
+            if (updateMatrix(uniform, buffer)) glUniformMatrix4fv(uniform.location, false, buffer);
         }
     }
     
@@ -518,7 +597,9 @@ public class GLShader
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            glUniformMatrix4fv(getUniform(name), false, mat.get(stack.mallocFloat(16)));
+            Uniform     uniform = getUniform(name);
+            FloatBuffer buffer  = mat.get(stack.mallocFloat(16));
+            if (updateMatrix(uniform, buffer)) glUniformMatrix4fv(uniform.location, false, buffer);
         }
     }
     
@@ -532,14 +613,140 @@ public class GLShader
     {
         GLShader.LOGGER.finest("Setting Color (vec4) Uniform: %s=%s", name, color);
         
-        glUniform4f(getUniform(name), color.rf(), color.gf(), color.bf(), color.af());
+        Uniform uniform = getUniform(name);
+        if (updateFloat(uniform, 4, color.rf(), color.gf(), color.bf(), color.af())) glUniform4f(uniform.location, color.rf(), color.gf(), color.bf(), color.af());
+    }
+    
+    /**
+     * Finds the uniform with the name provided. The table is keyed by the hash of the name, so the lookup does not box or allocate
+     * once the uniform has been found the first time.
+     */
+    private Uniform getUniform(String name)
+    {
+        int hash = name.hashCode();
+        int mask = this.uniforms.length - 1;
+        for (int i = (hash ^ (hash >>> 16)) & mask; ; i = (i + 1) & mask)
+        {
+            Uniform uniform = this.uniforms[i];
+            if (uniform == null)
+            {
+                uniform = new Uniform(name, glGetUniformLocation(this.id, name));
+                if (uniform.location < 0) GLShader.LOGGER.warning("Could not find uniform '%s' in %s", name, this);
+                
+                this.uniformHashes[i] = hash;
+                this.uniforms[i]      = uniform;
+                if (++this.uniformCount * 2 > this.uniforms.length) growUniforms();
+                return uniform;
+            }
+            if (this.uniformHashes[i] == hash && (uniform.name == name || uniform.name.equals(name))) return uniform;
+        }
     }
     
-    private int getUniform(String uniform)
+    private void growUniforms()
     {
-        int value = this.uniforms.computeIfAbsent(uniform, u -> glGetUniformLocation(this.id, u));
-        if (value < 0) GLShader.LOGGER.warning("Could not find uniform '%s' in %s", uniform, this);
-        return value;
+        int[]     hashes   = this.uniformHashes;
+        Uniform[] uniforms = this.uniforms;
+        
+        this.uniformHashes = new int[hashes.length << 1];
+        this.uniforms      = new Uniform[uniforms.length << 1];
+        
+        int mask = this.uniforms.length - 1;
+        for (int j = 0; j < uniforms.length; j++)
+        {
+            if (uniforms[j] == null) continue;
+            
+            int i = (hashes[j] ^ (hashes[j] >>> 16)) & mask;
+            while (this.uniforms[i] != null) i = (i + 1) & mask;
+            this.uniformHashes[i] = hashes[j];
+            this.uniforms[i]      = uniforms[j];
+        }
+    }
+    
+    private void clearUniforms()
+    {
+        Arrays.fill(this.uniformHashes, 0);
+        Arrays.fill(this.uniforms, null);
+        this.uniformCount = 0;
+    }
+    
+    /**
+     * Stores the value as the last uploaded value of the uniform if it is different.
+     *
+     * @return If the value needs to be uploaded.
+     */
+    private boolean updateInt(Uniform uniform, int size, int x, int y, int z, int w)
+    {
+        int[] value = uniform.value;
+        if (uniform.location < 0 || uniform.type == Uniform.INT && uniform.size == size && value[0] == x && value[1] == y && value[2] == z && value[3] == w)
+        {
+            return skip();
+        }
+        uniform.type = Uniform.INT;
+        uniform.size = size;
+        value[0]     = x;
+        value[1]     = y;
+        value[2]     = z;
+        value[3]     = w;
+        return issue();
+    }
+    
+    /**
+     * Stores the value as the last uploaded value of the uniform if it is different.
+     *
+     * @return If the value needs to be uploaded.
+     */
+    private boolean updateFloat(Uniform uniform, int size, float x, float y, float z, float w)
+    {
+        int ix = Float.floatToRawIntBits(x), iy = Float.floatToRawIntBits(y), iz = Float.floatToRawIntBits(z), iw = Float.floatToRawIntBits(w);
+        
+        int[] value = uniform.value;
+        if (uniform.location < 0 || uniform.type == Uniform.FLOAT && uniform.size == size && value[0] == ix && value[1] == iy && value[2] == iz && value[3] == iw)
+        {
+            return skip();
+        }
+        uniform.type = Uniform.FLOAT;
+        uniform.size = size;
+        value[0]     = ix;
+        value[1]     = iy;
+        value[2]     = iz;
+        value[3]     = iw;
+        return issue();
+    }
+    
+    /**
+     * Stores the matrix as the last uploaded value of the uniform if it is different.
+     *
+     * @return If the value needs to be uploaded.
+     */
+    private boolean updateMatrix(Uniform uniform, FloatBuffer buffer)
+    {
+        int   size  = buffer.remaining();
+        int[] value = uniform.value;
+        if (uniform.location < 0) return skip();
+        if (uniform.type == Uniform.MATRIX && uniform.size == size)
+        {
+            int i = 0;
+            while (i < size && value[i] == Float.floatToRawIntBits(buffer.get(buffer.position() + i))) i++;
+            if (i == size) return skip();
+        }
+        uniform.type = Uniform.MATRIX;
+        uniform.size = size;
+        for (int i = 0; i < size; i++) value[i] = Float.floatToRawIntBits(buffer.get(buffer.position() + i));
+        return issue();
+    }
+    
+    private boolean issue()
+    {
+        this.issued++;
+        GLShader.totalIssued++;
+        return true;
+    }
+    
+    private boolean skip()
+    {
+        this.skipped++;
+        GLShader.totalSkipped++;
+        return false;
     }
     
     private GLShader loadImpl(GL shaderType, String source)
@@ -594,4 +801,26 @@ public class GLShader
     private static final Pattern geomPattern = Pattern.compile(".*\\.(?:geom|gs)");
     private static final Pattern fragPattern = Pattern.compile(".*\\.(?:frag|fs)");
     private static final Pattern compPattern = Pattern.compile(".*\\.(?:comp|cs)");
+    
+    /**
+     * A resolved uniform location and the last value that was uploaded to it. Values are stored as raw int bits so that every
+     * uniform type can be compared the same way.
+     */
+    private static final class Uniform
+    {
+        private static final int NONE = 0, INT = 1, FLOAT = 2, MATRIX = 3;
+        
+        private final String name;
+        private final int    location;
+        
+        private final int[] value = new int[16];
+        
+        private int type = NONE, size;
+        
+        private Uniform(String name, int location)
+        {
+            this.name     = name;
+            this.location = location;
+        }
+    }
 }
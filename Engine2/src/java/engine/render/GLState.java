@@ -0,0 +1,350 @@
+package engine.render;
+
+import rutils.Logger;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.GL_FRONT_AND_BACK;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Tracks the OpenGL state that is changed through {@link OpenGL} so that binds which would not change anything are dropped.
+ * <p>
+ * The current program, vertex array, framebuffers, 2D textures per unit, buffer bindings, polygon mode and viewport are tracked.
+ * Unbinding a program or vertex array is deferred until a call depends on it, so that unbinding one and then binding
+ * another only costs one call.
+ * <p>
+ * If OpenGL state is changed without going through {@link OpenGL}, {@link #invalidate()} must be called.
+ */
+@SuppressWarnings("unused")
+public final class GLState
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private static final int UNKNOWN = -1;
+    
+    private static final int TEXTURE_UNITS = 32;
+    private static final int BUFFER_SLOTS  = 16;
+    
+    private static int program, vertexArray;
+    private static int pendingProgram, pendingVertexArray;
+    
+    private static int drawFramebuffer, readFramebuffer;
+    
+    private static       int   activeTexture;
+    private static final int[] textures = new int[GLState.TEXTURE_UNITS];
+    
+    private static final int[] bufferTargets = new int[GLState.BUFFER_SLOTS];
+    private static final int[] buffers       = new int[GLState.BUFFER_SLOTS];
+    private static       int   bufferCount;
+    
+    private static int polygonMode;
+    
+    private static int viewportX, viewportY, viewportW, viewportH;
+    
+    private static final int[] changes = new int[Type.values().length];
+    private static final int[] avoided = new int[Type.values().length];
+    
+    static
+    {
+        invalidate();
+    }
+    
+    private GLState() {}
+    
+    /**
+     * Forgets all tracked state so that the next bind of each kind is always sent to OpenGL.
+     */
+    public static void invalidate()
+    {
+        GLState.LOGGER.finer("Invalidating State");
+        
+        GLState.program            = GLState.UNKNOWN;
+        GLState.vertexArray        = GLState.UNKNOWN;
+        GLState.pendingProgram     = GLState.UNKNOWN;
+        GLState.pendingVertexArray = GLState.UNKNOWN;
+        
+        GLState.drawFramebuffer = GLState.UNKNOWN;
+        GLState.readFramebuffer = GLState.UNKNOWN;
+        
+        GLState.activeTexture = GLState.UNKNOWN;
+        Arrays.fill(GLState.textures, GLState.UNKNOWN);
+        
+        GLState.bufferCount = 0;
+        
+        GLState.polygonMode = GLState.UNKNOWN;
+        
+        GLState.viewportX = GLState.UNKNOWN;
+    }
+    
+    /**
+     * @param type The type of state.
+     * @return The number of state changes of the type that were sent to OpenGL since the last call to {@link #resetCounts()}.
+     */
+    public static int changeCount(Type type)
+    {
+        return GLState.changes[type.ordinal()];
+    }
+    
+    /**
+     * @return The number of state changes that were sent to OpenGL since the last call to {@link #resetCounts()}.
+     */
+    public static int changeCount()
+    {
+        int count = 0;
+        for (int c : GLState.changes) count += c;
+        return count;
+    }
+    
+    /**
+     * @param type The type of state.
+     * @return The number of state changes of the type that were dropped since the last call to {@link #resetCounts()}.
+     */
+    public static int avoidedCount(Type type)
+    {
+        return GLState.avoided[type.ordinal()];
+    }
+    
+    /**
+     * @return The number of state changes that were dropped since the last call to {@link #resetCounts()}.
+     */
+    public static int avoidedCount()
+    {
+        int count = 0;
+        for (int c : GLState.avoided) count += c;
+        return count;
+    }
+    
+    /**
+     * Resets the change and avoided counts.
+     */
+    public static void resetCounts()
+    {
+        Arrays.fill(GLState.changes, 0);
+        Arrays.fill(GLState.avoided, 0);
+    }
+    
+    // -------------
+    // -- Program --
+    // -------------
+    
+    static boolean useProgram(int program)
+    {
+        if (program == 0)
+        {
+            if (GLState.program == 0 || GLState.pendingProgram == 0) return avoid(Type.PROGRAM);
+            GLState.pendingProgram = 0;
+            return false;
+        }
+        if (GLState.pendingProgram == 0)
+        {
+            GLState.pendingProgram = GLState.UNKNOWN;
+            avoid(Type.PROGRAM);
+        }
+        if (GLState.program == program) return avoid(Type.PROGRAM);
+        GLState.program = program;
+        return change(Type.PROGRAM);
+    }
+    
+    static void deleteProgram(int program)
+    {
+        if (GLState.program == program) GLState.program = GLState.UNKNOWN;
+    }
+    
+    /**
+     * Sends a deferred program unbind to OpenGL. Called before anything that uses the current program.
+     */
+    static void applyProgram(GLBackend backend)
+    {
+        if (GLState.pendingProgram == GLState.UNKNOWN) return;
+        GLState.pendingProgram = GLState.UNKNOWN;
+        GLState.program        = 0;
+        change(Type.PROGRAM);
+        backend.glUseProgram(0);
+    }
+    
+    // ------------------
+    // -- Vertex Array --
+    // ------------------
+    
+    static boolean bindVertexArray(int array)
+    {
+        if (array == 0)
+        {
+            if (GLState.vertexArray == 0 || GLState.pendingVertexArray == 0) return avoid(Type.VERTEX_ARRAY);
+            GLState.pendingVertexArray = 0;
+            return false;
+        }
+        if (GLState.pendingVertexArray == 0)
+        {
+            GLState.pendingVertexArray = GLState.UNKNOWN;
+            avoid(Type.VERTEX_ARRAY);
+        }
+        if (GLState.vertexArray == array) return avoid(Type.VERTEX_ARRAY);
+        GLState.vertexArray = array;
+        forgetBuffer(GL_ELEMENT_ARRAY_BUFFER);
+        return change(Type.VERTEX_ARRAY);
+    }
+    
+    static void deleteVertexArray(int array)
+    {
+        if (GLState.vertexArray == array) GLState.vertexArray = GLState.UNKNOWN;
+    }
+    
+    /**
+     * Sends a deferred vertex array unbind to OpenGL. Called before anything that reads or changes the current vertex array.
+     */
+    static void applyVertexArray(GLBackend backend)
+    {
+        if (GLState.pendingVertexArray == GLState.UNKNOWN) return;
+        GLState.pendingVertexArray = GLState.UNKNOWN;
+        GLState.vertexArray        = 0;
+        forgetBuffer(GL_ELEMENT_ARRAY_BUFFER);
+        change(Type.VERTEX_ARRAY);
+        backend.glBindVertexArray(0);
+    }
+    
+    // ------------------
+    // -- Framebuffers --
+    // ------------------
+    
+    static boolean bindFramebuffer(int target, int framebuffer)
+    {
+        boolean draw = target == GL_FRAMEBUFFER || target == GL_DRAW_FRAMEBUFFER;
+        boolean read = target == GL_FRAMEBUFFER || target == GL_READ_FRAMEBUFFER;
+        if (!draw && !read) return change(Type.FRAMEBUFFER);
+        if ((!draw || GLState.drawFramebuffer == framebuffer) && (!read || GLState.readFramebuffer == framebuffer)) return avoid(Type.FRAMEBUFFER);
+        if (draw) GLState.drawFramebuffer = framebuffer;
+        if (read) GLState.readFramebuffer = framebuffer;
+        return change(Type.FRAMEBUFFER);
+    }
+    
+    // --------------
+    // -- Textures --
+    // --------------
+    
+    static boolean activeTexture(int texture)
+    {
+        if (GLState.activeTexture == texture) return avoid(Type.TEXTURE);
+        GLState.activeTexture = texture;
+        return change(Type.TEXTURE);
+    }
+    
+    static boolean bindTexture(int target, int texture)
+    {
+        int unit = GLState.activeTexture - GL_TEXTURE0;
+        if (target != GL_TEXTURE_2D || unit < 0 || unit >= GLState.TEXTURE_UNITS) return change(Type.TEXTURE);
+        if (GLState.textures[unit] == texture) return avoid(Type.TEXTURE);
+        GLState.textures[unit] = texture;
+        return change(Type.TEXTURE);
+    }
+    
+    static void deleteTexture(int texture)
+    {
+        for (int i = 0; i < GLState.TEXTURE_UNITS; i++)
+        {
+            if (GLState.textures[i] == texture) GLState.textures[i] = 0;
+        }
+    }
+    
+    // -------------
+    // -- Buffers --
+    // -------------
+    
+    static boolean bindBuffer(int target, int buffer)
+    {
+        for (int i = 0; i < GLState.bufferCount; i++)
+        {
+            if (GLState.bufferTargets[i] == target)
+            {
+                if (GLState.buffers[i] == buffer) return avoid(Type.BUFFER);
+                GLState.buffers[i] = buffer;
+                return change(Type.BUFFER);
+            }
+        }
+        if (GLState.bufferCount < GLState.BUFFER_SLOTS)
+        {
+            GLState.bufferTargets[GLState.bufferCount] = target;
+            GLState.buffers[GLState.bufferCount++]     = buffer;
+        }
+        return change(Type.BUFFER);
+    }
+    
+    /**
+     * Indexed binds always reach OpenGL, but they also change the generic binding of the target.
+     */
+    static void bindBufferBase(int target, int buffer)
+    {
+        forgetBuffer(target);
+        bindBuffer(target, buffer);
+    }
+    
+    static void deleteBuffer(int buffer)
+    {
+        for (int i = 0; i < GLState.bufferCount; i++)
+        {
+            if (GLState.buffers[i] == buffer) GLState.buffers[i] = 0;
+        }
+    }
+    
+    private static void forgetBuffer(int target)
+    {
+        for (int i = 0; i < GLState.bufferCount; i++)
+        {
+            if (GLState.bufferTargets[i] == target)
+            {
+                GLState.bufferTargets[i] = GLState.bufferTargets[--GLState.bufferCount];
+                GLState.buffers[i]       = GLState.buffers[GLState.bufferCount];
+                return;
+            }
+        }
+    }
+    
+    // -----------
+    // -- State --
+    // -----------
+    
+    static boolean polygonMode(int face, int mode)
+    {
+        if (face != GL_FRONT_AND_BACK)
+        {
+            GLState.polygonMode = GLState.UNKNOWN;
+            return change(Type.POLYGON_MODE);
+        }
+        if (GLState.polygonMode == mode) return avoid(Type.POLYGON_MODE);
+        GLState.polygonMode = mode;
+        return change(Type.POLYGON_MODE);
+    }
+    
+    static boolean viewport(int x, int y, int w, int h)
+    {
+        if (GLState.viewportX == x && GLState.viewportY == y && GLState.viewportW == w && GLState.viewportH == h) return avoid(Type.VIEWPORT);
+        GLState.viewportX = x;
+        GLState.viewportY = y;
+        GLState.viewportW = w;
+        GLState.viewportH = h;
+        return change(Type.VIEWPORT);
+    }
+    
+    private static boolean change(Type type)
+    {
+        GLState.changes[type.ordinal()]++;
+        return true;
+    }
+    
+    private static boolean avoid(Type type)
+    {
+        GLState.avoided[type.ordinal()]++;
+        return false;
+    }
+    
+    /**
+     * The kinds of state that are tracked.
+     */
+    public enum Type
+    {
+        PROGRAM, VERTEX_ARRAY, FRAMEBUFFER, TEXTURE, BUFFER, POLYGON_MODE, VIEWPORT
+    }
+}
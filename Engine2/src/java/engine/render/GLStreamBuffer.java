@@ -0,0 +1,324 @@
+package engine.render;
+
+import rutils.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+import static engine.render.OpenGL.*;
+import static org.lwjgl.opengl.GL30.GL_MAP_WRITE_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_FLUSH_COMMANDS_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_GPU_COMMANDS_COMPLETE;
+import static org.lwjgl.opengl.GL32.GL_TIMEOUT_EXPIRED;
+import static org.lwjgl.opengl.GL32.GL_WAIT_FAILED;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+
+/**
+ * A buffer that is mapped once with {@code glBufferStorage} and stays mapped for its whole life, so data can be written
+ * straight into the memory that OpenGL reads from.
+ * <p>
+ * The buffer is split into segments that are used as a ring. Regions are handed out from the current segment with
+ * {@link #map(int, int)}. When a segment is full or {@link #fence()} is called, a fence is placed after the commands that
+ * used it and the next segment is used. Before a segment is written to again, the CPU waits for its fence, so data that
+ * the GPU is still reading is never overwritten.
+ * <p>
+ * The buffer can be shared by any number of {@link GLVertexArray}s. The offset of the last mapped region is used as the
+ * first vertex when drawing.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class GLStreamBuffer
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private static final int  FLAGS        = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+    private static final long WAIT_TIMEOUT = 1_000_000L;
+    
+    private final int id;
+    private final GL  type;
+    
+    private final int segmentSize, segments;
+    
+    private final ByteBuffer mapped;
+    private final long[]     fences;
+    
+    private int segment, position;
+    private int regionOffset, regionSize;
+    
+    private int waitCount;
+    
+    /**
+     * Creates a new stream buffer.
+     *
+     * @param type        The buffer type.
+     * @param segmentSize The size in bytes of each segment. This is the largest region that can be mapped.
+     * @param segments    The number of segments.
+     */
+    public GLStreamBuffer(GL type, int segmentSize, int segments)
+    {
+        if (segmentSize <= 0) throw new RuntimeException("Segment size must be positive: " + segmentSize);
+        if (segments <= 0) throw new RuntimeException("Segment count must be positive: " + segments);
+        
+        this.id          = glGenBuffers();
+        this.type        = type;
+        this.segmentSize = segmentSize;
+        this.segments    = segments;
+        
+        long size = (long) segmentSize * segments;
+        
+        glBindBuffer(type.ref(), this.id);
+        glBufferStorage(type.ref(), size, GLStreamBuffer.FLAGS);
+        ByteBuffer mapped = glMapBufferRange(type.ref(), 0, size, GLStreamBuffer.FLAGS);
+        glBindBuffer(type.ref(), 0);
+        
+        if (mapped == null) throw new RuntimeException("Could not map " + this);
+        
+        this.mapped = mapped.order(ByteOrder.nativeOrder());
+        this.fences = new long[segments];
+        
+        GLStreamBuffer.LOGGER.fine("%s: Generated", this);
+    }
+    
+    /**
+     * Creates a new triple-buffered stream buffer.
+     *
+     * @param type        The buffer type.
+     * @param segmentSize The size in bytes of each segment. This is the largest region that can be mapped.
+     */
+    public GLStreamBuffer(GL type, int segmentSize)
+    {
+        this(type, segmentSize, 3);
+    }
+    
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GLStreamBuffer that = (GLStreamBuffer) o;
+        return this.id == that.id;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(this.id);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "GLStreamBuffer{" + "id=" + this.id + ", type=" + this.type + ", segments=" + this.segments + "x" + this.segmentSize + '}';
+    }
+    
+    /**
+     * @return The buffer type.
+     */
+    public GL type()
+    {
+        return this.type;
+    }
+    
+    /**
+     * @return The size in bytes of each segment.
+     */
+    public int segmentSize()
+    {
+        return this.segmentSize;
+    }
+    
+    /**
+     * @return The number of segments.
+     */
+    public int segments()
+    {
+        return this.segments;
+    }
+    
+    /**
+     * @return The offset in bytes from the start of the buffer of the last mapped region.
+     */
+    public int offset()
+    {
+        return this.regionOffset;
+    }
+    
+    /**
+     * @return The size in bytes of the last mapped region.
+     */
+    public int size()
+    {
+        return this.regionSize;
+    }
+    
+    /**
+     * @return The number of times that the CPU had to wait for the GPU to finish with a segment.
+     */
+    public int waitCount()
+    {
+        return this.waitCount;
+    }
+    
+    /**
+     * Binds the buffer.
+     *
+     * @return This instance for call chaining.
+     */
+    public GLStreamBuffer bind()
+    {
+        GLStreamBuffer.LOGGER.finer("%s: Binding", this);
+        
+        glBindBuffer(this.type.ref(), this.id);
+        
+        return this;
+    }
+    
+    /**
+     * Unbinds the buffer.
+     *
+     * @return This instance for call chaining.
+     */
+    public GLStreamBuffer unbind()
+    {
+        GLStreamBuffer.LOGGER.finer("%s: Unbinding", this);
+        
+        glBindBuffer(this.type.ref(), 0);
+        
+        return this;
+    }
+    
+    /**
+     * Binds the last mapped region to an indexed binding point.
+     *
+     * @param index The binding point.
+     * @return This instance for call chaining.
+     */
+    public GLStreamBuffer base(int index)
+    {
+        GLStreamBuffer.LOGGER.finer("%s: Binding Range to Base: %s", this, index);
+        
+        glBindBufferRange(this.type.ref(), index, this.id, this.regionOffset, this.regionSize);
+        
+        return this;
+    }
+    
+    /**
+     * Unmaps and deletes the buffer.
+     */
+    public void delete()
+    {
+        GLStreamBuffer.LOGGER.fine("%s: Deleting", this);
+        
+        for (int i = 0; i < this.segments; i++)
+        {
+            if (this.fences[i] != 0) glDeleteSync(this.fences[i]);
+            this.fences[i] = 0;
+        }
+        
+        glBindBuffer(this.type.ref(), this.id);
+        glUnmapBuffer(this.type.ref());
+        glBindBuffer(this.type.ref(), 0);
+        glDeleteBuffers(this.id);
+    }
+    
+    /**
+     * Reserves a region in the current segment and returns the memory that it is mapped to. If the region does not fit,
+     * the next segment is used.
+     * <p>
+     * The region stays valid until the commands that use it are submitted. It must not be kept between frames.
+     *
+     * @param size      The size in bytes of the region.
+     * @param alignment The alignment in bytes of the start of the region.
+     * @return The mapped memory of the region, from position zero to its size.
+     */
+    public ByteBuffer map(int size, int alignment)
+    {
+        if (size > this.segmentSize) throw new RuntimeException(String.format("%s: Region of %s bytes is larger than a segment", this, size));
+        
+        int start = align(this.position, alignment);
+        int end   = (this.segment + 1) * this.segmentSize;
+        if (start + size > end)
+        {
+            nextSegment();
+            start = align(this.position, alignment);
+            end   = (this.segment + 1) * this.segmentSize;
+            if (start + size > end) throw new RuntimeException(String.format("%s: Region of %s bytes aligned to %s does not fit in a segment", this, size, alignment));
+        }
+        
+        this.regionOffset = start;
+        this.regionSize   = size;
+        this.position     = start + size;
+        
+        return this.mapped.slice(start, size).order(ByteOrder.nativeOrder());
+    }
+    
+    /**
+     * Reserves a region in the current segment and returns the memory that it is mapped to.
+     *
+     * @param size The size in bytes of the region.
+     * @return The mapped memory of the region, from position zero to its size.
+     */
+    public ByteBuffer map(int size)
+    {
+        return map(size, Float.BYTES);
+    }
+    
+    /**
+     * Reserves a region for a number of floats and returns the memory that it is mapped to.
+     *
+     * @param count     The number of floats.
+     * @param alignment The alignment in bytes of the start of the region.
+     * @return The mapped memory of the region.
+     */
+    public FloatBuffer mapFloats(int count, int alignment)
+    {
+        return map(count * Float.BYTES, alignment).asFloatBuffer();
+    }
+    
+    /**
+     * Finishes the current segment if anything was written to it. This should be called once a frame, after the last
+     * draw that used the buffer.
+     *
+     * @return This instance for call chaining.
+     */
+    public GLStreamBuffer fence()
+    {
+        if (this.position > this.segment * this.segmentSize) nextSegment();
+        return this;
+    }
+    
+    private void nextSegment()
+    {
+        if (this.fences[this.segment] == 0) this.fences[this.segment] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        
+        this.segment  = (this.segment + 1) % this.segments;
+        this.position = this.segment * this.segmentSize;
+        
+        long fence = this.fences[this.segment];
+        if (fence == 0) return;
+        
+        int result = glClientWaitSync(fence, 0, 0);
+        if (result == GL_TIMEOUT_EXPIRED)
+        {
+            GLStreamBuffer.LOGGER.finest("%s: Waiting for segment %s", this, this.segment);
+            
+            this.waitCount++;
+            do
+            {
+                result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, GLStreamBuffer.WAIT_TIMEOUT);
+            }
+            while (result == GL_TIMEOUT_EXPIRED);
+        }
+        if (result == GL_WAIT_FAILED) throw new RuntimeException(this + ": Waiting for fence failed");
+        
+        glDeleteSync(fence);
+        this.fences[this.segment] = 0;
+    }
+    
+    private static int align(int value, int alignment)
+    {
+        return alignment > 1 ? (value + alignment - 1) / alignment * alignment : value;
+    }
+}
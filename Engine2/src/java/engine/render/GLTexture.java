@@ -10,9 +10,15 @@ import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.Objects;
 
-import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL30.*;
-import static org.lwjgl.opengl.GL43.glCopyImageSubData;
+import static engine.render.OpenGL.*;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_T;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ALIGNMENT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
 import static org.lwjgl.stb.STBImage.*;
 import static org.lwjgl.stb.STBImageWrite.stbi_write_png;
 
@@ -390,6 +396,51 @@ public class GLTexture
         return this;
     }
     
+    /**
+     * Uploads the data in the byte buffer to a region of the texture.
+     * <p>
+     * Make sure to bind the texture first.
+     *
+     * @param x      The x coordinate of the region.
+     * @param y      The y coordinate of the region.
+     * @param width  The width of the region.
+     * @param height The height of the region.
+     * @param data   The texture data of the region.
+     * @return This instance for call chaining
+     */
+    public GLTexture set(int x, int y, int width, int height, ByteBuffer data)
+    {
+        if (x < 0 || y < 0 || x + width > this.width || y + height > this.height) throw new RuntimeException(String.format("Region out of bounds: [%s, %s, %s, %s]", x, y, width, height));
+        
+        int size = width * height * this.channels;
+        if (data.remaining() != size) throw new RuntimeException("Array size mismatch: " + data.remaining() + " != " + size);
+        
+        glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, width, height, this.format.ref(), GL_UNSIGNED_BYTE, data);
+        
+        return this;
+    }
+    
+    /**
+     * Uploads the data in the bound pixel unpack buffer to a region of the texture.
+     * <p>
+     * Make sure to bind the texture and the {@link GL#PIXEL_UNPACK_BUFFER} first.
+     *
+     * @param x      The x coordinate of the region.
+     * @param y      The y coordinate of the region.
+     * @param width  The width of the region.
+     * @param height The height of the region.
+     * @param offset The offset in bytes into the pixel unpack buffer of the texture data of the region.
+     * @return This instance for call chaining
+     */
+    public GLTexture set(int x, int y, int width, int height, long offset)
+    {
+        if (x < 0 || y < 0 || x + width > this.width || y + height > this.height) throw new RuntimeException(String.format("Region out of bounds: [%s, %s, %s, %s]", x, y, width, height));
+        
+        glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, width, height, this.format.ref(), GL_UNSIGNED_BYTE, offset);
+        
+        return this;
+    }
+    
     /**
      * Uploads the data in the byte buffer to the GPU
      * <p>
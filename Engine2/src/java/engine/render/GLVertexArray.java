@@ -7,8 +7,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Objects;
 
-import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
-import static org.lwjgl.opengl.GL30.*;
+import static engine.render.OpenGL.*;
 
 /**
  * A wrapper class for OpenGL's vertex arrays. This class adds helper functions that make it easy to send data to the buffers.
@@ -24,6 +23,9 @@ public class GLVertexArray
     
     private GLBuffer indexBuffer = null;
     
+    private GLStreamBuffer streamBuffer = null;
+    private int            streamStride;
+    
     private final ArrayList<ArrayList<Attribute>> attributes = new ArrayList<>();
     
     private int vertexCount;
@@ -61,7 +63,7 @@ public class GLVertexArray
     
     public String printArrays()
     {
-        return "[VBOs=" + this.vertexBuffers + ", EBO=" + this.indexBuffer + ']';
+        return "[VBOs=" + this.vertexBuffers + ", EBO=" + this.indexBuffer + (this.streamBuffer != null ? ", Stream=" + this.streamBuffer : "") + ']';
     }
     
     public String printVertex()
@@ -234,6 +236,7 @@ public class GLVertexArray
         for (GLBuffer vbo : this.vertexBuffers) vbo.delete();
         this.vertexBuffers.clear();
         if (this.indexBuffer != null) this.indexBuffer.delete();
+        this.streamBuffer = null;
         
         int i = 0;
         for (ArrayList<Attribute> bufferAttributes : this.attributes)
@@ -280,7 +283,13 @@ public class GLVertexArray
      */
     public GLVertexArray draw(GL mode, int size)
     {
-        if (this.indexBuffer != null)
+        if (this.streamBuffer != null)
+        {
+            GLVertexArray.LOGGER.finer("%s: Drawing Stream size=%s", this, size);
+            
+            if (size > 0) glDrawArrays(mode.ref(), this.streamBuffer.offset() / this.streamStride, size);
+        }
+        else if (this.indexBuffer != null)
         {
             GLVertexArray.LOGGER.finer("%s: Drawing Elements size=%s", this, size);
             
@@ -305,6 +314,7 @@ public class GLVertexArray
      */
     public GLVertexArray draw(GL mode)
     {
+        if (this.streamBuffer != null) return draw(mode, this.streamBuffer.size() / this.streamStride);
         return draw(mode, this.indexBuffer != null ? indexCount() : this.vertexCount);
     }
     
@@ -444,33 +454,12 @@ public class GLVertexArray
      */
     public GLVertexArray add(GLBuffer buffer, Object... formats)
     {
-        int n = formats.length;
-    
-        ArrayList<Attribute> bufferAttributes = new ArrayList<>();
-    
+        if (this.streamBuffer != null) throw new RuntimeException(this + ": Buffers cannot be added to a GLVertexArray that uses a GLStreamBuffer");
+        
+        ArrayList<Attribute> bufferAttributes = getAttributes(formats);
+        
         int stride = 0;
-    
-        GL      format     = null;
-        Integer count      = null;
-        Boolean normalized = null;
-        for (int i = 0; i < n; i++)
-        {
-            Object currVal = formats[i];
-            if (currVal instanceof GL) format = (GL) currVal;
-            if (currVal instanceof Integer) count = (int) currVal;
-            if (currVal instanceof Boolean) normalized = (boolean) currVal;
-    
-            if (i + 1 >= n || formats[i + 1] instanceof GL)
-            {
-                Attribute attribute = getAttribute(format, count, normalized);
-                bufferAttributes.add(attribute);
-                stride += attribute.size;
-    
-                format     = null;
-                count      = null;
-                normalized = null;
-            }
-        }
+        for (Attribute attribute : bufferAttributes) stride += attribute.size;
         
         GLVertexArray.LOGGER.finest("%s: Adding VBO %s of structure %s", this, buffer, bufferAttributes);
         
@@ -490,6 +479,61 @@ public class GLVertexArray
         return this;
     }
     
+    /**
+     * Adds a stream buffer with any number of attributes to the Vertex Array. The stream buffer is not managed by the
+     * GLVertexArray, so it can be shared with other vertex arrays.
+     * <p>
+     * A vertex array that uses a stream buffer cannot have other vertex buffers. Vertices are written with {@link #stream(int)}
+     * and drawn from the last region that was written.
+     * <p>
+     * Make sure to bind the vertex array first.
+     *
+     * @param buffer  The stream buffer.
+     * @param formats The type, size, normalized values for how the buffer is organized.
+     * @return This instance for call chaining.
+     */
+    public GLVertexArray add(GLStreamBuffer buffer, Object... formats)
+    {
+        if (!this.vertexBuffers.isEmpty() || this.streamBuffer != null) throw new RuntimeException(this + ": A GLStreamBuffer must be the only buffer of a GLVertexArray");
+        
+        ArrayList<Attribute> bufferAttributes = getAttributes(formats);
+        
+        int stride = 0;
+        for (Attribute attribute : bufferAttributes) stride += attribute.size;
+        
+        GLVertexArray.LOGGER.finest("%s: Adding Stream %s of structure %s", this, buffer, bufferAttributes);
+        
+        buffer.bind();
+        for (int i = 0, size = bufferAttributes.size(), offset = 0; i < size; i++)
+        {
+            Attribute attribute = bufferAttributes.get(i);
+            glVertexAttribPointer(i, attribute.count, attribute.type.ref(), attribute.normalize, stride, offset);
+            glEnableVertexAttribArray(i);
+            offset += attribute.size;
+        }
+        buffer.unbind();
+        
+        this.streamBuffer = buffer;
+        this.streamStride = stride;
+        this.attributes.add(bufferAttributes);
+        
+        return this;
+    }
+    
+    /**
+     * Reserves space for vertices in the stream buffer and returns the memory to write them into. The next call to
+     * {@link #draw(GL)} will draw these vertices.
+     *
+     * @param vertices The number of vertices.
+     * @return The mapped memory of the vertices.
+     */
+    public FloatBuffer stream(int vertices)
+    {
+        if (this.streamBuffer == null) throw new RuntimeException(this + ": Does not have a GLStreamBuffer");
+        
+        return this.streamBuffer.mapFloats(vertices * this.streamStride / Float.BYTES, this.streamStride);
+    }
+    
     /**
      * Allocates a buffer with a certain size with any number of attributes to the Vertex Array.
      * <p>
@@ -1384,6 +1428,34 @@ public class GLVertexArray
     
     private static final HashMap<Integer, Attribute> ATTRIBUTE_CACHE = new HashMap<>();
     
+    private static ArrayList<Attribute> getAttributes(Object... formats)
+    {
+        int n = formats.length;
+        
+        ArrayList<Attribute> bufferAttributes = new ArrayList<>();
+        
+        GL      format     = null;
+        Integer count      = null;
+        Boolean normalized = null;
+        for (int i = 0; i < n; i++)
+        {
+            Object currVal = formats[i];
+            if (currVal instanceof GL) format = (GL) currVal;
+            if (currVal instanceof Integer) count = (int) currVal;
+            if (currVal instanceof Boolean) normalized = (boolean) currVal;
+            
+            if (i + 1 >= n || formats[i + 1] instanceof GL)
+            {
+                bufferAttributes.add(getAttribute(format, count, normalized));
+                
+                format     = null;
+                count      = null;
+                normalized = null;
+            }
+        }
+        return bufferAttributes;
+    }
+    
     private static Attribute getAttribute(GL format, Integer c, Boolean n)
     {
         if (format == null) throw new RuntimeException("Invalid vertex format: GL type not provided");
@@ -0,0 +1,706 @@
+package engine.render;
+
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL46;
+import org.lwjgl.opengl.GLDebugMessageCallbackI;
+
+import java.nio.*;
+
+/**
+ * A {@link GLBackend} that forwards every call to LWJGL. This requires a current OpenGL context on the calling thread.
+ */
+@SuppressWarnings("unused")
+public class LWJGLBackend implements GLBackend
+{
+    @Override
+    public String toString()
+    {
+        return "LWJGLBackend{}";
+    }
+    
+    // -------------
+    // -- Buffers --
+    // -------------
+    
+    @Override
+    public int glGenBuffers()
+    {
+        return GL46.glGenBuffers();
+    }
+    
+    @Override
+    public void glBindBuffer(int target, int buffer)
+    {
+        GL46.glBindBuffer(target, buffer);
+    }
+    
+    @Override
+    public void glBindBufferBase(int target, int index, int buffer)
+    {
+        GL46.glBindBufferBase(target, index, buffer);
+    }
+    
+    @Override
+    public void glDeleteBuffers(int buffer)
+    {
+        GL46.glDeleteBuffers(buffer);
+    }
+    
+    @Override
+    public void glBindBufferRange(int target, int index, int buffer, long offset, long size)
+    {
+        GL46.glBindBufferRange(target, index, buffer, offset, size);
+    }
+    
+    @Override
+    public void glBufferStorage(int target, long size, int flags)
+    {
+        GL46.glBufferStorage(target, size, flags);
+    }
+    
+    @Override
+    public @Nullable ByteBuffer glMapBufferRange(int target, long offset, long length, int access)
+    {
+        return GL46.glMapBufferRange(target, offset, length, access);
+    }
+    
+    @Override
+    public boolean glUnmapBuffer(int target)
+    {
+        return GL46.glUnmapBuffer(target);
+    }
+    
+    @Override
+    public void glBufferData(int target, long size, int usage)
+    {
+        GL46.glBufferData(target, size, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, short[] data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, int[] data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, long[] data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, float[] data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, double[] data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, ByteBuffer data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, ShortBuffer data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, IntBuffer data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, LongBuffer data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, FloatBuffer data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, DoubleBuffer data, int usage)
+    {
+        GL46.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, short[] data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, int[] data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, long[] data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, float[] data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, double[] data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, ByteBuffer data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, ShortBuffer data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, IntBuffer data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, LongBuffer data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, FloatBuffer data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, DoubleBuffer data)
+    {
+        GL46.glBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, short[] data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, int[] data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, long[] data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, float[] data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, double[] data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, ByteBuffer data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, ShortBuffer data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, IntBuffer data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, LongBuffer data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, FloatBuffer data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, DoubleBuffer data)
+    {
+        GL46.glGetBufferSubData(target, offset, data);
+    }
+    
+    // -------------------
+    // -- Vertex Arrays --
+    // -------------------
+    
+    @Override
+    public int glGenVertexArrays()
+    {
+        return GL46.glGenVertexArrays();
+    }
+    
+    @Override
+    public void glBindVertexArray(int array)
+    {
+        GL46.glBindVertexArray(array);
+    }
+    
+    @Override
+    public void glDeleteVertexArrays(int array)
+    {
+        GL46.glDeleteVertexArrays(array);
+    }
+    
+    @Override
+    public void glEnableVertexAttribArray(int index)
+    {
+        GL46.glEnableVertexAttribArray(index);
+    }
+    
+    @Override
+    public void glDisableVertexAttribArray(int index)
+    {
+        GL46.glDisableVertexAttribArray(index);
+    }
+    
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer)
+    {
+        GL46.glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+    }
+    
+    @Override
+    public void glDrawArrays(int mode, int first, int count)
+    {
+        GL46.glDrawArrays(mode, first, count);
+    }
+    
+    @Override
+    public void glDrawElements(int mode, int count, int type, long indices)
+    {
+        GL46.glDrawElements(mode, count, type, indices);
+    }
+    
+    // -------------
+    // -- Shaders --
+    // -------------
+    
+    @Override
+    public int glCreateProgram()
+    {
+        return GL46.glCreateProgram();
+    }
+    
+    @Override
+    public void glLinkProgram(int program)
+    {
+        GL46.glLinkProgram(program);
+    }
+    
+    @Override
+    public void glValidateProgram(int program)
+    {
+        GL46.glValidateProgram(program);
+    }
+    
+    @Override
+    public int glGetProgrami(int program, int pname)
+    {
+        return GL46.glGetProgrami(program, pname);
+    }
+    
+    @Override
+    public String glGetProgramInfoLog(int program)
+    {
+        return GL46.glGetProgramInfoLog(program);
+    }
+    
+    @Override
+    public void glUseProgram(int program)
+    {
+        GL46.glUseProgram(program);
+    }
+    
+    @Override
+    public void glDetachShader(int program, int shader)
+    {
+        GL46.glDetachShader(program, shader);
+    }
+    
+    @Override
+    public void glDeleteProgram(int program)
+    {
+        GL46.glDeleteProgram(program);
+    }
+    
+    @Override
+    public int glCreateShader(int type)
+    {
+        return GL46.glCreateShader(type);
+    }
+    
+    @Override
+    public void glShaderSource(int shader, CharSequence string)
+    {
+        GL46.glShaderSource(shader, string);
+    }
+    
+    @Override
+    public void glCompileShader(int shader)
+    {
+        GL46.glCompileShader(shader);
+    }
+    
+    @Override
+    public int glGetShaderi(int shader, int pname)
+    {
+        return GL46.glGetShaderi(shader, pname);
+    }
+    
+    @Override
+    public String glGetShaderInfoLog(int shader)
+    {
+        return GL46.glGetShaderInfoLog(shader);
+    }
+    
+    @Override
+    public void glAttachShader(int program, int shader)
+    {
+        GL46.glAttachShader(program, shader);
+    }
+    
+    @Override
+    public void glDeleteShader(int shader)
+    {
+        GL46.glDeleteShader(shader);
+    }
+    
+    @Override
+    public int glGetUniformLocation(int program, CharSequence name)
+    {
+        return GL46.glGetUniformLocation(program, name);
+    }
+    
+    @Override
+    public void glUniform1i(int location, int v0)
+    {
+        GL46.glUniform1i(location, v0);
+    }
+    
+    @Override
+    public void glUniform2i(int location, int v0, int v1)
+    {
+        GL46.glUniform2i(location, v0, v1);
+    }
+    
+    @Override
+    public void glUniform3i(int location, int v0, int v1, int v2)
+    {
+        GL46.glUniform3i(location, v0, v1, v2);
+    }
+    
+    @Override
+    public void glUniform4i(int location, int v0, int v1, int v2, int v3)
+    {
+        GL46.glUniform4i(location, v0, v1, v2, v3);
+    }
+    
+    @Override
+    public void glUniform1f(int location, float v0)
+    {
+        GL46.glUniform1f(location, v0);
+    }
+    
+    @Override
+    public void glUniform2f(int location, float v0, float v1)
+    {
+        GL46.glUniform2f(location, v0, v1);
+    }
+    
+    @Override
+    public void glUniform3f(int location, float v0, float v1, float v2)
+    {
+        GL46.glUniform3f(location, v0, v1, v2);
+    }
+    
+    @Override
+    public void glUniform4f(int location, float v0, float v1, float v2, float v3)
+    {
+        GL46.glUniform4f(location, v0, v1, v2, v3);
+    }
+    
+    @Override
+    public void glUniformMatrix2fv(int location, boolean transpose, float[] value)
+    {
+        GL46.glUniformMatrix2fv(location, transpose, value);
+    }
+    
+    @Override
+    public void glUniformMatrix2fv(int location, boolean transpose, FloatBuffer value)
+    {
+        GL46.glUniformMatrix2fv(location, transpose, value);
+    }
+    
+    @Override
+    public void glUniformMatrix3fv(int location, boolean transpose, FloatBuffer value)
+    {
+        GL46.glUniformMatrix3fv(location, transpose, value);
+    }
+    
+    @Override
+    public void glUniformMatrix4fv(int location, boolean transpose, FloatBuffer value)
+    {
+        GL46.glUniformMatrix4fv(location, transpose, value);
+    }
+    
+    // --------------
+    // -- Textures --
+    // --------------
+    
+    @Override
+    public int glGenTextures()
+    {
+        return GL46.glGenTextures();
+    }
+    
+    @Override
+    public void glBindTexture(int target, int texture)
+    {
+        GL46.glBindTexture(target, texture);
+    }
+    
+    @Override
+    public void glActiveTexture(int texture)
+    {
+        GL46.glActiveTexture(texture);
+    }
+    
+    @Override
+    public void glDeleteTextures(int texture)
+    {
+        GL46.glDeleteTextures(texture);
+    }
+    
+    @Override
+    public void glTexParameteri(int target, int pname, int param)
+    {
+        GL46.glTexParameteri(target, pname, param);
+    }
+    
+    @Override
+    public void glPixelStorei(int pname, int param)
+    {
+        GL46.glPixelStorei(pname, param);
+    }
+    
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, long pixels)
+    {
+        GL46.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+    
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, @Nullable ByteBuffer pixels)
+    {
+        GL46.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+    
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels)
+    {
+        GL46.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, ByteBuffer pixels)
+    {
+        GL46.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, long pixels)
+    {
+        GL46.glGetTexImage(target, level, format, type, pixels);
+    }
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels)
+    {
+        GL46.glGetTexImage(target, level, format, type, pixels);
+    }
+    
+    @Override
+    public void glGenerateMipmap(int target)
+    {
+        GL46.glGenerateMipmap(target);
+    }
+    
+    @Override
+    public void glCopyImageSubData(int srcName, int srcTarget, int srcLevel, int srcX, int srcY, int srcZ, int dstName, int dstTarget, int dstLevel, int dstX, int dstY, int dstZ, int srcWidth, int srcHeight, int srcDepth)
+    {
+        GL46.glCopyImageSubData(srcName, srcTarget, srcLevel, srcX, srcY, srcZ, dstName, dstTarget, dstLevel, dstX, dstY, dstZ, srcWidth, srcHeight, srcDepth);
+    }
+    
+    // ------------------
+    // -- Framebuffers --
+    // ------------------
+    
+    @Override
+    public int glGenFramebuffers()
+    {
+        return GL46.glGenFramebuffers();
+    }
+    
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer)
+    {
+        GL46.glBindFramebuffer(target, framebuffer);
+    }
+    
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level)
+    {
+        GL46.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+    
+    @Override
+    public int glCheckFramebufferStatus(int target)
+    {
+        return GL46.glCheckFramebufferStatus(target);
+    }
+    
+    // ----------
+    // -- Sync --
+    // ----------
+    
+    @Override
+    public long glFenceSync(int condition, int flags)
+    {
+        return GL46.glFenceSync(condition, flags);
+    }
+    
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout)
+    {
+        return GL46.glClientWaitSync(sync, flags, timeout);
+    }
+    
+    @Override
+    public void glDeleteSync(long sync)
+    {
+        GL46.glDeleteSync(sync);
+    }
+    
+    // -------------
+    // -- Compute --
+    // -------------
+    
+    @Override
+    public void glDispatchCompute(int num_groups_x, int num_groups_y, int num_groups_z)
+    {
+        GL46.glDispatchCompute(num_groups_x, num_groups_y, num_groups_z);
+    }
+    
+    @Override
+    public void glMemoryBarrier(int barriers)
+    {
+        GL46.glMemoryBarrier(barriers);
+    }
+    
+    @Override
+    public void glBindImageTexture(int unit, int texture, int level, boolean layered, int layer, int access, int format)
+    {
+        GL46.glBindImageTexture(unit, texture, level, layered, layer, access, format);
+    }
+    
+    // -----------
+    // -- State --
+    // -----------
+    
+    @Override
+    public void glViewport(int x, int y, int w, int h)
+    {
+        GL46.glViewport(x, y, w, h);
+    }
+    
+    @Override
+    public int glGetInteger(int pname)
+    {
+        return GL46.glGetInteger(pname);
+    }
+    
+    @Override
+    public void glEnable(int target)
+    {
+        GL46.glEnable(target);
+    }
+    
+    @Override
+    public void glPolygonMode(int face, int mode)
+    {
+        GL46.glPolygonMode(face, mode);
+    }
+    
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha)
+    {
+        GL46.glClearColor(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void glClear(int mask)
+    {
+        GL46.glClear(mask);
+    }
+    
+    @Override
+    public void glDebugMessageCallback(@Nullable GLDebugMessageCallbackI callback, long userParam)
+    {
+        GL46.glDebugMessageCallback(callback, userParam);
+    }
+}
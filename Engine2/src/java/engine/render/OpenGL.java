@@ -0,0 +1,655 @@
+package engine.render;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GLDebugMessageCallbackI;
+import rutils.Logger;
+
+import java.nio.*;
+
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+
+/**
+ * The OpenGL functions used by the classes in {@code engine.render}.
+ * <p>
+ * Every function is forwarded to the current {@link GLBackend}, which is a {@link LWJGLBackend} by default.
+ * To run without an OpenGL context, the backend must be changed before any other class in {@code engine.render} is used.
+ * <p>
+ * Binds and other tracked state changes are filtered by {@link GLState} before they reach the backend.
+ */
+@SuppressWarnings("unused")
+public final class OpenGL
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private static GLBackend backend = new LWJGLBackend();
+    
+    private OpenGL() {}
+    
+    /**
+     * @return The backend that the OpenGL functions are forwarded to.
+     */
+    public static @NotNull GLBackend backend()
+    {
+        return OpenGL.backend;
+    }
+    
+    /**
+     * Sets the backend that the OpenGL functions are forwarded to.
+     *
+     * @param backend The new backend.
+     */
+    public static void backend(@NotNull GLBackend backend)
+    {
+        OpenGL.LOGGER.fine("Setting Backend:", backend);
+        
+        OpenGL.backend = backend;
+        
+        GLState.invalidate();
+    }
+    
+    // -------------
+    // -- Buffers --
+    // -------------
+    
+    public static int glGenBuffers()
+    {
+        return OpenGL.backend.glGenBuffers();
+    }
+    
+    public static void glBindBuffer(int target, int buffer)
+    {
+        if (target == GL_ELEMENT_ARRAY_BUFFER) GLState.applyVertexArray(OpenGL.backend);
+        if (GLState.bindBuffer(target, buffer)) OpenGL.backend.glBindBuffer(target, buffer);
+    }
+    
+    public static void glBindBufferBase(int target, int index, int buffer)
+    {
+        GLState.bindBufferBase(target, buffer);
+        OpenGL.backend.glBindBufferBase(target, index, buffer);
+    }
+    
+    public static void glDeleteBuffers(int buffer)
+    {
+        GLState.deleteBuffer(buffer);
+        OpenGL.backend.glDeleteBuffers(buffer);
+    }
+    
+    public static void glBindBufferRange(int target, int index, int buffer, long offset, long size)
+    {
+        GLState.bindBufferBase(target, buffer);
+        OpenGL.backend.glBindBufferRange(target, index, buffer, offset, size);
+    }
+    
+    public static void glBufferStorage(int target, long size, int flags)
+    {
+        OpenGL.backend.glBufferStorage(target, size, flags);
+    }
+    
+    public static @Nullable ByteBuffer glMapBufferRange(int target, long offset, long length, int access)
+    {
+        return OpenGL.backend.glMapBufferRange(target, offset, length, access);
+    }
+    
+    public static boolean glUnmapBuffer(int target)
+    {
+        return OpenGL.backend.glUnmapBuffer(target);
+    }
+    
+    public static void glBufferData(int target, long size, int usage)
+    {
+        OpenGL.backend.glBufferData(target, size, usage);
+    }
+    
+    public static void glBufferData(int target, short[] data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, int[] data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, long[] data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, float[] data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, double[] data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, ByteBuffer data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, ShortBuffer data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, IntBuffer data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, LongBuffer data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, FloatBuffer data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferData(int target, DoubleBuffer data, int usage)
+    {
+        OpenGL.backend.glBufferData(target, data, usage);
+    }
+    
+    public static void glBufferSubData(int target, long offset, short[] data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, int[] data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, long[] data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, float[] data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, double[] data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, ByteBuffer data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, ShortBuffer data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, IntBuffer data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, LongBuffer data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, FloatBuffer data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glBufferSubData(int target, long offset, DoubleBuffer data)
+    {
+        OpenGL.backend.glBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, short[] data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, int[] data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, long[] data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, float[] data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, double[] data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, ByteBuffer data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, ShortBuffer data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, IntBuffer data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, LongBuffer data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, FloatBuffer data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    public static void glGetBufferSubData(int target, long offset, DoubleBuffer data)
+    {
+        OpenGL.backend.glGetBufferSubData(target, offset, data);
+    }
+    
+    // -------------------
+    // -- Vertex Arrays --
+    // -------------------
+    
+    public static int glGenVertexArrays()
+    {
+        return OpenGL.backend.glGenVertexArrays();
+    }
+    
+    public static void glBindVertexArray(int array)
+    {
+        if (GLState.bindVertexArray(array)) OpenGL.backend.glBindVertexArray(array);
+    }
+    
+    public static void glDeleteVertexArrays(int array)
+    {
+        GLState.applyVertexArray(OpenGL.backend);
+        GLState.deleteVertexArray(array);
+        OpenGL.backend.glDeleteVertexArrays(array);
+    }
+    
+    public static void glEnableVertexAttribArray(int index)
+    {
+        GLState.applyVertexArray(OpenGL.backend);
+        OpenGL.backend.glEnableVertexAttribArray(index);
+    }
+    
+    public static void glDisableVertexAttribArray(int index)
+    {
+        GLState.applyVertexArray(OpenGL.backend);
+        OpenGL.backend.glDisableVertexAttribArray(index);
+    }
+    
+    public static void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer)
+    {
+        GLState.applyVertexArray(OpenGL.backend);
+        OpenGL.backend.glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+    }
+    
+    public static void glDrawArrays(int mode, int first, int count)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        GLState.applyVertexArray(OpenGL.backend);
+        OpenGL.backend.glDrawArrays(mode, first, count);
+    }
+    
+    public static void glDrawElements(int mode, int count, int type, long indices)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        GLState.applyVertexArray(OpenGL.backend);
+        OpenGL.backend.glDrawElements(mode, count, type, indices);
+    }
+    
+    // -------------
+    // -- Shaders --
+    // -------------
+    
+    public static int glCreateProgram()
+    {
+        return OpenGL.backend.glCreateProgram();
+    }
+    
+    public static void glLinkProgram(int program)
+    {
+        OpenGL.backend.glLinkProgram(program);
+    }
+    
+    public static void glValidateProgram(int program)
+    {
+        OpenGL.backend.glValidateProgram(program);
+    }
+    
+    public static int glGetProgrami(int program, int pname)
+    {
+        return OpenGL.backend.glGetProgrami(program, pname);
+    }
+    
+    public static String glGetProgramInfoLog(int program)
+    {
+        return OpenGL.backend.glGetProgramInfoLog(program);
+    }
+    
+    public static void glUseProgram(int program)
+    {
+        if (GLState.useProgram(program)) OpenGL.backend.glUseProgram(program);
+    }
+    
+    public static void glDetachShader(int program, int shader)
+    {
+        OpenGL.backend.glDetachShader(program, shader);
+    }
+    
+    public static void glDeleteProgram(int program)
+    {
+        GLState.deleteProgram(program);
+        OpenGL.backend.glDeleteProgram(program);
+    }
+    
+    public static int glCreateShader(int type)
+    {
+        return OpenGL.backend.glCreateShader(type);
+    }
+    
+    public static void glShaderSource(int shader, CharSequence string)
+    {
+        OpenGL.backend.glShaderSource(shader, string);
+    }
+    
+    public static void glCompileShader(int shader)
+    {
+        OpenGL.backend.glCompileShader(shader);
+    }
+    
+    public static int glGetShaderi(int shader, int pname)
+    {
+        return OpenGL.backend.glGetShaderi(shader, pname);
+    }
+    
+    public static String glGetShaderInfoLog(int shader)
+    {
+        return OpenGL.backend.glGetShaderInfoLog(shader);
+    }
+    
+    public static void glAttachShader(int program, int shader)
+    {
+        OpenGL.backend.glAttachShader(program, shader);
+    }
+    
+    public static void glDeleteShader(int shader)
+    {
+        OpenGL.backend.glDeleteShader(shader);
+    }
+    
+    public static int glGetUniformLocation(int program, CharSequence name)
+    {
+        return OpenGL.backend.glGetUniformLocation(program, name);
+    }
+    
+    public static void glUniform1i(int location, int v0)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform1i(location, v0);
+    }
+    
+    public static void glUniform2i(int location, int v0, int v1)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform2i(location, v0, v1);
+    }
+    
+    public static void glUniform3i(int location, int v0, int v1, int v2)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform3i(location, v0, v1, v2);
+    }
+    
+    public static void glUniform4i(int location, int v0, int v1, int v2, int v3)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform4i(location, v0, v1, v2, v3);
+    }
+    
+    public static void glUniform1f(int location, float v0)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform1f(location, v0);
+    }
+    
+    public static void glUniform2f(int location, float v0, float v1)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform2f(location, v0, v1);
+    }
+    
+    public static void glUniform3f(int location, float v0, float v1, float v2)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform3f(location, v0, v1, v2);
+    }
+    
+    public static void glUniform4f(int location, float v0, float v1, float v2, float v3)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniform4f(location, v0, v1, v2, v3);
+    }
+    
+    public static void glUniformMatrix2fv(int location, boolean transpose, float[] value)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniformMatrix2fv(location, transpose, value);
+    }
+    
+    public static void glUniformMatrix2fv(int location, boolean transpose, FloatBuffer value)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniformMatrix2fv(location, transpose, value);
+    }
+    
+    public static void glUniformMatrix3fv(int location, boolean transpose, FloatBuffer value)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniformMatrix3fv(location, transpose, value);
+    }
+    
+    public static void glUniformMatrix4fv(int location, boolean transpose, FloatBuffer value)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glUniformMatrix4fv(location, transpose, value);
+    }
+    
+    // --------------
+    // -- Textures --
+    // --------------
+    
+    public static int glGenTextures()
+    {
+        return OpenGL.backend.glGenTextures();
+    }
+    
+    public static void glBindTexture(int target, int texture)
+    {
+        if (GLState.bindTexture(target, texture)) OpenGL.backend.glBindTexture(target, texture);
+    }
+    
+    public static void glActiveTexture(int texture)
+    {
+        if (GLState.activeTexture(texture)) OpenGL.backend.glActiveTexture(texture);
+    }
+    
+    public static void glDeleteTextures(int texture)
+    {
+        GLState.deleteTexture(texture);
+        OpenGL.backend.glDeleteTextures(texture);
+    }
+    
+    public static void glTexParameteri(int target, int pname, int param)
+    {
+        OpenGL.backend.glTexParameteri(target, pname, param);
+    }
+    
+    public static void glPixelStorei(int pname, int param)
+    {
+        OpenGL.backend.glPixelStorei(pname, param);
+    }
+    
+    public static void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, long pixels)
+    {
+        OpenGL.backend.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+    
+    public static void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, @Nullable ByteBuffer pixels)
+    {
+        OpenGL.backend.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+    
+    public static void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels)
+    {
+        OpenGL.backend.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+    
+    public static void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, ByteBuffer pixels)
+    {
+        OpenGL.backend.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+    
+    public static void glGetTexImage(int target, int level, int format, int type, long pixels)
+    {
+        OpenGL.backend.glGetTexImage(target, level, format, type, pixels);
+    }
+    
+    public static void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels)
+    {
+        OpenGL.backend.glGetTexImage(target, level, format, type, pixels);
+    }
+    
+    public static void glGenerateMipmap(int target)
+    {
+        OpenGL.backend.glGenerateMipmap(target);
+    }
+    
+    public static void glCopyImageSubData(int srcName, int srcTarget, int srcLevel, int srcX, int srcY, int srcZ, int dstName, int dstTarget, int dstLevel, int dstX, int dstY, int dstZ, int srcWidth, int srcHeight, int srcDepth)
+    {
+        OpenGL.backend.glCopyImageSubData(srcName, srcTarget, srcLevel, srcX, srcY, srcZ, dstName, dstTarget, dstLevel, dstX, dstY, dstZ, srcWidth, srcHeight, srcDepth);
+    }
+    
+    // ------------------
+    // -- Framebuffers --
+    // ------------------
+    
+    public static int glGenFramebuffers()
+    {
+        return OpenGL.backend.glGenFramebuffers();
+    }
+    
+    public static void glBindFramebuffer(int target, int framebuffer)
+    {
+        if (GLState.bindFramebuffer(target, framebuffer)) OpenGL.backend.glBindFramebuffer(target, framebuffer);
+    }
+    
+    public static void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level)
+    {
+        OpenGL.backend.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+    
+    public static int glCheckFramebufferStatus(int target)
+    {
+        return OpenGL.backend.glCheckFramebufferStatus(target);
+    }
+    
+    // ----------
+    // -- Sync --
+    // ----------
+    
+    public static long glFenceSync(int condition, int flags)
+    {
+        return OpenGL.backend.glFenceSync(condition, flags);
+    }
+    
+    public static int glClientWaitSync(long sync, int flags, long timeout)
+    {
+        return OpenGL.backend.glClientWaitSync(sync, flags, timeout);
+    }
+    
+    public static void glDeleteSync(long sync)
+    {
+        OpenGL.backend.glDeleteSync(sync);
+    }
+    
+    // -------------
+    // -- Compute --
+    // -------------
+    
+    public static void glDispatchCompute(int num_groups_x, int num_groups_y, int num_groups_z)
+    {
+        GLState.applyProgram(OpenGL.backend);
+        OpenGL.backend.glDispatchCompute(num_groups_x, num_groups_y, num_groups_z);
+    }
+    
+    public static void glMemoryBarrier(int barriers)
+    {
+        OpenGL.backend.glMemoryBarrier(barriers);
+    }
+    
+    public static void glBindImageTexture(int unit, int texture, int level, boolean layered, int layer, int access, int format)
+    {
+        OpenGL.backend.glBindImageTexture(unit, texture, level, layered, layer, access, format);
+    }
+    
+    // -----------
+    // -- State --
+    // -----------
+    
+    public static void glViewport(int x, int y, int w, int h)
+    {
+        if (GLState.viewport(x, y, w, h)) OpenGL.backend.glViewport(x, y, w, h);
+    }
+    
+    public static int glGetInteger(int pname)
+    {
+        return OpenGL.backend.glGetInteger(pname);
+    }
+    
+    public static void glEnable(int target)
+    {
+        OpenGL.backend.glEnable(target);
+    }
+    
+    public static void glPolygonMode(int face, int mode)
+    {
+        if (GLState.polygonMode(face, mode)) OpenGL.backend.glPolygonMode(face, mode);
+    }
+    
+    public static void glClearColor(float red, float green, float blue, float alpha)
+    {
+        OpenGL.backend.glClearColor(red, green, blue, alpha);
+    }
+    
+    public static void glClear(int mask)
+    {
+        OpenGL.backend.glClear(mask);
+    }
+    
+    public static void glDebugMessageCallback(@Nullable GLDebugMessageCallbackI callback, long userParam)
+    {
+        OpenGL.backend.glDebugMessageCallback(callback, userParam);
+    }
+}
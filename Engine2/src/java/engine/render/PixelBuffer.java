@@ -0,0 +1,356 @@
+package engine.render;
+
+import engine.color.Colorc;
+import rutils.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+import static engine.render.OpenGL.*;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ROW_LENGTH;
+import static org.lwjgl.opengl.GL12.GL_BGRA;
+import static org.lwjgl.opengl.GL12.GL_UNSIGNED_INT_8_8_8_8_REV;
+import static org.lwjgl.opengl.GL30.GL_MAP_READ_BIT;
+import static org.lwjgl.opengl.GL30.GL_MAP_WRITE_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_FLUSH_COMMANDS_BIT;
+import static org.lwjgl.opengl.GL32.GL_SYNC_GPU_COMMANDS_COMPLETE;
+import static org.lwjgl.opengl.GL32.GL_TIMEOUT_EXPIRED;
+import static org.lwjgl.opengl.GL32.GL_WAIT_FAILED;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+
+/**
+ * The pixels of a texture in a buffer that is mapped once with {@code glBufferStorage}, so they can be read and written
+ * without copying them into another array.
+ * <p>
+ * Each pixel is one packed {@code argb} int, the same as {@link Colorc#toInt()}. {@link #read()} copies the texture into
+ * the buffer on the GPU and returns right away. {@link #upload()} copies only the {@link #markDirty(int, int, int, int)
+ * dirty} region of the buffer back into the texture. Both place a fence after their commands, and the pixels are not
+ * given to the CPU until the GPU is done with them.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class PixelBuffer
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private static final int  FLAGS        = GL_MAP_READ_BIT | GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+    private static final long WAIT_TIMEOUT = 1_000_000L;
+    
+    private final int     id;
+    private final Texture texture;
+    private final int     width, height;
+    
+    private final ByteBuffer buffer;
+    private final IntBuffer  pixels;
+    
+    private long fence;
+    
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+    
+    private int waitCount;
+    
+    /**
+     * Creates a new pixel buffer for a texture. The buffer is not read from the texture until {@link #read()} is called.
+     *
+     * @param texture The texture.
+     */
+    public PixelBuffer(Texture texture)
+    {
+        this.id      = glGenBuffers();
+        this.texture = texture;
+        this.width   = texture.width();
+        this.height  = texture.height();
+        
+        long size = (long) this.width * this.height * Integer.BYTES;
+        
+        glBindBuffer(GL.PIXEL_UNPACK_BUFFER.ref(), this.id);
+        glBufferStorage(GL.PIXEL_UNPACK_BUFFER.ref(), size, PixelBuffer.FLAGS);
+        ByteBuffer mapped = glMapBufferRange(GL.PIXEL_UNPACK_BUFFER.ref(), 0, size, PixelBuffer.FLAGS);
+        glBindBuffer(GL.PIXEL_UNPACK_BUFFER.ref(), 0);
+        
+        if (mapped == null) throw new RuntimeException("Could not map " + this);
+        
+        this.buffer = mapped.order(ByteOrder.nativeOrder());
+        this.pixels = this.buffer.asIntBuffer();
+        
+        clean();
+        
+        PixelBuffer.LOGGER.fine("%s: Generated", this);
+    }
+    
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PixelBuffer that = (PixelBuffer) o;
+        return this.id == that.id;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(this.id);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "PixelBuffer{" + "id=" + this.id + ", texture=" + this.texture.id() + ", width=" + this.width + ", height=" + this.height + '}';
+    }
+    
+    /**
+     * @return The texture that the pixels are read from and uploaded to.
+     */
+    public Texture texture()
+    {
+        return this.texture;
+    }
+    
+    /**
+     * @return The width in pixels.
+     */
+    public int width()
+    {
+        return this.width;
+    }
+    
+    /**
+     * @return The height in pixels.
+     */
+    public int height()
+    {
+        return this.height;
+    }
+    
+    /**
+     * @return The number of times that the CPU had to wait for the GPU to finish with the buffer.
+     */
+    public int waitCount()
+    {
+        return this.waitCount;
+    }
+    
+    /**
+     * @return If the GPU is done with the buffer, so getting the pixels will not wait.
+     */
+    public boolean isReady()
+    {
+        if (this.fence == 0) return true;
+        
+        int result = glClientWaitSync(this.fence, 0, 0);
+        if (result == GL_TIMEOUT_EXPIRED) return false;
+        if (result == GL_WAIT_FAILED) throw new RuntimeException(this + ": Waiting for fence failed");
+        
+        glDeleteSync(this.fence);
+        this.fence = 0;
+        return true;
+    }
+    
+    /**
+     * Gets the pixels, waiting for the GPU if it is still reading or writing them. Each int is one {@code argb} pixel,
+     * starting at the top left and going row by row.
+     * <p>
+     * Changes must be marked with {@link #markDirty(int, int, int, int)} to be uploaded.
+     *
+     * @return The pixels.
+     */
+    public IntBuffer pixels()
+    {
+        sync();
+        return this.pixels;
+    }
+    
+    /**
+     * Gets the bytes of the pixels, waiting for the GPU if it is still reading or writing them. The bytes of each pixel
+     * are in the native order of the packed int.
+     *
+     * @return The bytes of the pixels.
+     */
+    public ByteBuffer buffer()
+    {
+        sync();
+        return this.buffer;
+    }
+    
+    /**
+     * Gets a pixel, waiting for the GPU if it is still reading or writing the buffer.
+     *
+     * @param x The x coordinate of the pixel.
+     * @param y The y coordinate of the pixel.
+     * @return The {@code argb} value of the pixel.
+     */
+    public int get(int x, int y)
+    {
+        sync();
+        return this.pixels.get(y * this.width + x);
+    }
+    
+    /**
+     * Sets a pixel and marks it dirty, waiting for the GPU if it is still reading or writing the buffer.
+     *
+     * @param x    The x coordinate of the pixel.
+     * @param y    The y coordinate of the pixel.
+     * @param argb The {@code argb} value of the pixel.
+     * @return This instance for call chaining.
+     */
+    public PixelBuffer set(int x, int y, int argb)
+    {
+        sync();
+        this.pixels.put(y * this.width + x, argb);
+        return markDirty(x, y, 1, 1);
+    }
+    
+    /**
+     * Sets a pixel and marks it dirty, waiting for the GPU if it is still reading or writing the buffer.
+     *
+     * @param x     The x coordinate of the pixel.
+     * @param y     The y coordinate of the pixel.
+     * @param color The color of the pixel.
+     * @return This instance for call chaining.
+     */
+    public PixelBuffer set(int x, int y, Colorc color)
+    {
+        return set(x, y, color.toInt());
+    }
+    
+    /**
+     * Marks a region of the pixels as changed, so that it is uploaded by the next call to {@link #upload()}. Regions are
+     * merged into the smallest rectangle that holds all of them.
+     *
+     * @param x      The x coordinate of the region.
+     * @param y      The y coordinate of the region.
+     * @param width  The width of the region.
+     * @param height The height of the region.
+     * @return This instance for call chaining.
+     */
+    public PixelBuffer markDirty(int x, int y, int width, int height)
+    {
+        this.dirtyMinX = Math.max(Math.min(this.dirtyMinX, x), 0);
+        this.dirtyMinY = Math.max(Math.min(this.dirtyMinY, y), 0);
+        this.dirtyMaxX = Math.min(Math.max(this.dirtyMaxX, x + width), this.width);
+        this.dirtyMaxY = Math.min(Math.max(this.dirtyMaxY, y + height), this.height);
+        return this;
+    }
+    
+    /**
+     * Marks all the pixels as changed.
+     *
+     * @return This instance for call chaining.
+     */
+    public PixelBuffer markDirty()
+    {
+        return markDirty(0, 0, this.width, this.height);
+    }
+    
+    /**
+     * @return If any pixels were marked as changed since the last upload.
+     */
+    public boolean isDirty()
+    {
+        return this.dirtyMinX < this.dirtyMaxX && this.dirtyMinY < this.dirtyMaxY;
+    }
+    
+    /**
+     * Starts copying the texture into the buffer. Returns right away, and the pixels wait for the copy when they are
+     * next accessed. Changes that were not uploaded are lost.
+     *
+     * @return This instance for call chaining.
+     */
+    public PixelBuffer read()
+    {
+        PixelBuffer.LOGGER.finer("%s: Reading", this);
+        
+        glBindBuffer(GL.PIXEL_PACK_BUFFER.ref(), this.id);
+        this.texture.bind();
+        glGetTexImage(GL_TEXTURE_2D, 0, GL_BGRA, GL_UNSIGNED_INT_8_8_8_8_REV, 0L);
+        this.texture.unbind();
+        glBindBuffer(GL.PIXEL_PACK_BUFFER.ref(), 0);
+        
+        if (this.fence != 0) glDeleteSync(this.fence);
+        this.fence = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        
+        clean();
+        
+        return this;
+    }
+    
+    /**
+     * Copies the dirty region of the buffer into the texture. Does nothing if no pixels were marked as changed.
+     *
+     * @return This instance for call chaining.
+     */
+    public PixelBuffer upload()
+    {
+        if (!isDirty()) return this;
+        
+        int x      = this.dirtyMinX;
+        int y      = this.dirtyMinY;
+        int width  = this.dirtyMaxX - this.dirtyMinX;
+        int height = this.dirtyMaxY - this.dirtyMinY;
+        
+        PixelBuffer.LOGGER.finer("%s: Uploading [%s, %s, %s, %s]", this, x, y, width, height);
+        
+        glBindBuffer(GL.PIXEL_UNPACK_BUFFER.ref(), this.id);
+        this.texture.bind();
+        glPixelStorei(GL_UNPACK_ROW_LENGTH, this.width);
+        glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, width, height, GL_BGRA, GL_UNSIGNED_INT_8_8_8_8_REV, ((long) y * this.width + x) * Integer.BYTES);
+        glPixelStorei(GL_UNPACK_ROW_LENGTH, 0);
+        this.texture.unbind();
+        glBindBuffer(GL.PIXEL_UNPACK_BUFFER.ref(), 0);
+        
+        if (this.fence != 0) glDeleteSync(this.fence);
+        this.fence = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        
+        clean();
+        
+        return this;
+    }
+    
+    /**
+     * Unmaps and deletes the buffer.
+     */
+    public void delete()
+    {
+        PixelBuffer.LOGGER.fine("%s: Deleting", this);
+        
+        if (this.fence != 0) glDeleteSync(this.fence);
+        this.fence = 0;
+        
+        glBindBuffer(GL.PIXEL_UNPACK_BUFFER.ref(), this.id);
+        glUnmapBuffer(GL.PIXEL_UNPACK_BUFFER.ref());
+        glBindBuffer(GL.PIXEL_UNPACK_BUFFER.ref(), 0);
+        glDeleteBuffers(this.id);
+    }
+    
+    private void sync()
+    {
+        if (this.fence == 0) return;
+        
+        int result = glClientWaitSync(this.fence, 0, 0);
+        if (result == GL_TIMEOUT_EXPIRED)
+        {
+            PixelBuffer.LOGGER.finest("%s: Waiting for GPU", this);
+            
+            this.waitCount++;
+            do
+            {
+                result = glClientWaitSync(this.fence, GL_SYNC_FLUSH_COMMANDS_BIT, PixelBuffer.WAIT_TIMEOUT);
+            }
+            while (result == GL_TIMEOUT_EXPIRED);
+        }
+        if (result == GL_WAIT_FAILED) throw new RuntimeException(this + ": Waiting for fence failed");
+        
+        glDeleteSync(this.fence);
+        this.fence = 0;
+    }
+    
+    private void clean()
+    {
+        this.dirtyMinX = this.dirtyMinY = Integer.MAX_VALUE;
+        this.dirtyMaxX = this.dirtyMaxY = 0;
+    }
+}
@@ -0,0 +1,430 @@
+package engine.render;
+
+import engine.color.Colorc;
+import rutils.Logger;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Draws primitives into a {@link Pixels} buffer on the CPU.
+ * <p>
+ * Pixels are sampled at their centers, edges shared between triangles are only drawn once, and colors are blended with
+ * {@code (SRC_ALPHA, ONE_MINUS_SRC_ALPHA)} like the engine's OpenGL state.
+ * <p>
+ * Work is split into horizontal bands that are drawn in parallel. Each band draws every primitive in order,
+ * so the result does not depend on the number of threads.
+ */
+@SuppressWarnings("unused")
+public class Rasterizer
+{
+    private static final Logger LOGGER = new Logger();
+    
+    /**
+     * The number of primitives below which everything is drawn on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+    
+    private static final int MIN_BAND_HEIGHT = 8;
+    
+    private final int          threads;
+    private final ForkJoinPool pool;
+    
+    private float[] bounds = new float[0];
+    
+    /**
+     * Creates a new rasterizer that uses the number of threads provided.
+     *
+     * @param threads The number of threads. If less than two, everything is drawn on the calling thread.
+     */
+    public Rasterizer(int threads)
+    {
+        this.threads = Math.max(1, threads);
+        this.pool    = this.threads > 1 ? new ForkJoinPool(this.threads) : null;
+        
+        Rasterizer.LOGGER.fine("Created", this);
+    }
+    
+    /**
+     * Creates a new rasterizer that uses all available processors.
+     */
+    public Rasterizer()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "Rasterizer{" + "threads=" + this.threads + '}';
+    }
+    
+    /**
+     * @return The number of threads used to draw.
+     */
+    public int threads()
+    {
+        return this.threads;
+    }
+    
+    /**
+     * Stops the threads used by the rasterizer.
+     */
+    public void destroy()
+    {
+        Rasterizer.LOGGER.fine("Destroying", this);
+        
+        if (this.pool != null) this.pool.shutdown();
+    }
+    
+    /**
+     * Sets every pixel to the color provided.
+     *
+     * @param target The pixels to clear.
+     * @param color  The clear color.
+     */
+    public void clear(Pixels target, Colorc color)
+    {
+        int[] components = {color.r(), color.g(), color.b(), color.a()};
+        for (int i = 0, n = target.data.length; i < n; i++) target.data[i] = components[i % target.channels];
+    }
+    
+    /**
+     * Draws a list of colored triangles in the {@link Batch} vertex format. Each triangle uses the color of its first vertex.
+     *
+     * @param target      The pixels to draw into.
+     * @param vertices    The vertex data, starting at index zero.
+     * @param vertexCount The number of vertices.
+     */
+    public void triangles(Pixels target, FloatBuffer vertices, int vertexCount)
+    {
+        int triangles = vertexCount / 3;
+        
+        Rasterizer.LOGGER.finest("Drawing %s triangles into %s", triangles, target);
+        
+        float hw = target.width * 0.5F, hh = target.height * 0.5F;
+        
+        if (this.bounds.length < triangles << 1) this.bounds = new float[triangles << 1];
+        
+        float[] bounds = this.bounds;
+        for (int t = 0, stride = Batch.VERTEX_SIZE; t < triangles; t++)
+        {
+            int   i  = t * 3 * stride;
+            float y0 = vertices.get(i + 1), y1 = vertices.get(i + stride + 1), y2 = vertices.get(i + 2 * stride + 1);
+            
+            bounds[(t << 1)]     = (Math.min(y0, Math.min(y1, y2)) + 1) * hh;
+            bounds[(t << 1) + 1] = (Math.max(y0, Math.max(y1, y2)) + 1) * hh;
+        }
+        
+        run(target.height, triangles, (bandStart, bandEnd) -> {
+            for (int t = 0, stride = Batch.VERTEX_SIZE; t < triangles; t++)
+            {
+                if (bounds[(t << 1) + 1] < bandStart || bounds[(t << 1)] > bandEnd) continue;
+                
+                int i = t * 3 * stride;
+                
+                float a = vertices.get(i + 5) * vertices.get(i + 9);
+                if (a <= 0) continue;
+                
+                float r = vertices.get(i + 2) * vertices.get(i + 6);
+                float g = vertices.get(i + 3) * vertices.get(i + 7);
+                float b = vertices.get(i + 4) * vertices.get(i + 8);
+                
+                fillTriangle(target, bandStart, bandEnd,
+                             (vertices.get(i) + 1) * hw, (vertices.get(i + 1) + 1) * hh,
+                             (vertices.get(i + stride) + 1) * hw, (vertices.get(i + stride + 1) + 1) * hh,
+                             (vertices.get(i + 2 * stride) + 1) * hw, (vertices.get(i + 2 * stride + 1) + 1) * hh,
+                             r, g, b, a);
+            }
+        });
+    }
+    
+    /**
+     * Fills a polygon using the even-odd rule.
+     *
+     * @param target The pixels to draw into.
+     * @param points The points of the polygon in normalized device coordinates.
+     * @param color  The fill color.
+     * @param tint   The tint color.
+     */
+    public void polygon(Pixels target, double[] points, Colorc color, Colorc tint)
+    {
+        float a = color.af() * tint.af();
+        if (a <= 0) return;
+        
+        float r = color.rf() * tint.rf();
+        float g = color.gf() * tint.gf();
+        float b = color.bf() * tint.bf();
+        
+        int      n     = points.length >> 1;
+        double[] edges = new double[points.length];
+        double   minY  = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++)
+        {
+            edges[(i << 1)]     = (points[(i << 1)] + 1) * 0.5 * target.width;
+            edges[(i << 1) + 1] = (points[(i << 1) + 1] + 1) * 0.5 * target.height;
+            
+            minY = Math.min(minY, edges[(i << 1) + 1]);
+            maxY = Math.max(maxY, edges[(i << 1) + 1]);
+        }
+        
+        int rowStart = Math.max(0, (int) Math.ceil(minY - 0.5));
+        int rowEnd   = Math.min(target.height, (int) Math.floor(maxY - 0.5) + 1);
+        
+        Rasterizer.LOGGER.finest("Filling %s point polygon into %s", n, target);
+        
+        run(target.height, rowEnd - rowStart, (bandStart, bandEnd) -> {
+            double[] crossings = new double[n];
+            for (int y = Math.max(rowStart, bandStart), end = Math.min(rowEnd, bandEnd); y < end; y++)
+            {
+                double py    = y + 0.5;
+                int    count = 0;
+                for (int i = 0, j = n - 1; i < n; j = i++)
+                {
+                    double xi = edges[(i << 1)], yi = edges[(i << 1) + 1];
+                    double xj = edges[(j << 1)], yj = edges[(j << 1) + 1];
+                    if ((yi <= py && py < yj) || (yj <= py && py < yi)) crossings[count++] = xi + (py - yi) * (xj - xi) / (yj - yi);
+                }
+                Arrays.sort(crossings, 0, count);
+                
+                for (int i = 0; i + 1 < count; i += 2)
+                {
+                    int x0 = Math.max(0, (int) Math.ceil(crossings[i] - 0.5));
+                    int x1 = Math.min(target.width, (int) Math.ceil(crossings[i + 1] - 0.5));
+                    for (int x = x0; x < x1; x++) blend(target, (y * target.width + x) * target.channels, r, g, b, a);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Draws a textured quad. If {@code tex2} is not null, then the two textures are mixed by {@code amount}
+     *
+     * @param target The pixels to draw into.
+     * @param tex1   The first texture.
+     * @param tex2   The second texture, or null.
+     * @param amount The amount to mix the second texture into the first.
+     * @param quad   The four corners of the quad in normalized device coordinates.
+     * @param uv     The texture coordinates of the four corners.
+     * @param tint   The tint color.
+     */
+    public void texture(Pixels target, Pixels tex1, Pixels tex2, double amount, double[] quad, double[] uv, Colorc tint)
+    {
+        if (tint.a() <= 0) return;
+        
+        Rasterizer.LOGGER.finest("Drawing %s into %s", tex1, target);
+        
+        double[] points = new double[8];
+        for (int i = 0; i < 4; i++)
+        {
+            points[(i << 1)]     = (quad[(i << 1)] + 1) * 0.5 * target.width;
+            points[(i << 1) + 1] = (quad[(i << 1) + 1] + 1) * 0.5 * target.height;
+        }
+        
+        float[] sampler = {tint.rf(), tint.gf(), tint.bf(), tint.af(), (float) amount};
+        
+        run(target.height, 2, (bandStart, bandEnd) -> {
+            float[] texel = new float[8];
+            textureTriangle(target, bandStart, bandEnd, tex1, tex2, sampler, texel, points, uv, 0, 1, 2);
+            textureTriangle(target, bandStart, bandEnd, tex1, tex2, sampler, texel, points, uv, 0, 2, 3);
+        });
+    }
+    
+    private void run(int height, int work, Band band)
+    {
+        if (this.pool == null || work < Rasterizer.PARALLEL_THRESHOLD)
+        {
+            band.draw(0, height);
+            return;
+        }
+        int bandHeight = Math.max(Rasterizer.MIN_BAND_HEIGHT, (height + this.threads * 4 - 1) / (this.threads * 4));
+        int bands      = (height + bandHeight - 1) / bandHeight;
+        this.pool.submit(() -> IntStream.range(0, bands).parallel().forEach(i -> band.draw(i * bandHeight, Math.min(height, (i + 1) * bandHeight)))).join();
+    }
+    
+    private static void fillTriangle(Pixels target, int bandStart, int bandEnd,
+                                     double x0, double y0, double x1, double y1, double x2, double y2,
+                                     float r, float g, float b, float a)
+    {
+        double area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        if (area == 0) return;
+        if (area < 0)
+        {
+            double temp;
+            temp = x1;
+            x1   = x2;
+            x2   = temp;
+            temp = y1;
+            y1   = y2;
+            y2   = temp;
+        }
+        
+        int minX = Math.max(0, (int) Math.ceil(Math.min(x0, Math.min(x1, x2)) - 0.5));
+        int maxX = Math.min(target.width - 1, (int) Math.floor(Math.max(x0, Math.max(x1, x2)) - 0.5));
+        int minY = Math.max(bandStart, (int) Math.ceil(Math.min(y0, Math.min(y1, y2)) - 0.5));
+        int maxY = Math.min(bandEnd - 1, (int) Math.floor(Math.max(y0, Math.max(y1, y2)) - 0.5));
+        if (minX > maxX || minY > maxY) return;
+        
+        double dx0 = x2 - x1, dy0 = y2 - y1;
+        double dx1 = x0 - x2, dy1 = y0 - y2;
+        double dx2 = x1 - x0, dy2 = y1 - y0;
+        
+        boolean tie0 = dy0 > 0 || (dy0 == 0 && dx0 < 0);
+        boolean tie1 = dy1 > 0 || (dy1 == 0 && dx1 < 0);
+        boolean tie2 = dy2 > 0 || (dy2 == 0 && dx2 < 0);
+        
+        double px = minX + 0.5;
+        for (int y = minY; y <= maxY; y++)
+        {
+            double py = y + 0.5;
+            
+            double w0 = dx0 * (py - y1) - dy0 * (px - x1);
+            double w1 = dx1 * (py - y2) - dy1 * (px - x2);
+            double w2 = dx2 * (py - y0) - dy2 * (px - x0);
+            
+            for (int x = minX, index = (y * target.width + x) * target.channels; x <= maxX; x++, index += target.channels)
+            {
+                if ((w0 > 0 || (w0 == 0 && tie0)) && (w1 > 0 || (w1 == 0 && tie1)) && (w2 > 0 || (w2 == 0 && tie2)))
+                {
+                    blend(target, index, r, g, b, a);
+                }
+                w0 -= dy0;
+                w1 -= dy1;
+                w2 -= dy2;
+            }
+        }
+    }
+    
+    private static void textureTriangle(Pixels target, int bandStart, int bandEnd, Pixels tex1, Pixels tex2, float[] sampler, float[] texel,
+                                        double[] points, double[] uv, int i0, int i1, int i2)
+    {
+        double x0 = points[(i0 << 1)], y0 = points[(i0 << 1) + 1];
+        double x1 = points[(i1 << 1)], y1 = points[(i1 << 1) + 1];
+        double x2 = points[(i2 << 1)], y2 = points[(i2 << 1) + 1];
+        
+        double area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        if (area == 0) return;
+        if (area < 0)
+        {
+            textureTriangle(target, bandStart, bandEnd, tex1, tex2, sampler, texel, points, uv, i0, i2, i1);
+            return;
+        }
+        
+        int minX = Math.max(0, (int) Math.ceil(Math.min(x0, Math.min(x1, x2)) - 0.5));
+        int maxX = Math.min(target.width - 1, (int) Math.floor(Math.max(x0, Math.max(x1, x2)) - 0.5));
+        int minY = Math.max(bandStart, (int) Math.ceil(Math.min(y0, Math.min(y1, y2)) - 0.5));
+        int maxY = Math.min(bandEnd - 1, (int) Math.floor(Math.max(y0, Math.max(y1, y2)) - 0.5));
+        if (minX > maxX || minY > maxY) return;
+        
+        double u0 = uv[(i0 << 1)], v0 = uv[(i0 << 1) + 1];
+        double u1 = uv[(i1 << 1)], v1 = uv[(i1 << 1) + 1];
+        double u2 = uv[(i2 << 1)], v2 = uv[(i2 << 1) + 1];
+        
+        double dx0 = x2 - x1, dy0 = y2 - y1;
+        double dx1 = x0 - x2, dy1 = y0 - y2;
+        double dx2 = x1 - x0, dy2 = y1 - y0;
+        
+        boolean tie0 = dy0 > 0 || (dy0 == 0 && dx0 < 0);
+        boolean tie1 = dy1 > 0 || (dy1 == 0 && dx1 < 0);
+        boolean tie2 = dy2 > 0 || (dy2 == 0 && dx2 < 0);
+        
+        double px = minX + 0.5;
+        for (int y = minY; y <= maxY; y++)
+        {
+            double py = y + 0.5;
+            
+            double w0 = dx0 * (py - y1) - dy0 * (px - x1);
+            double w1 = dx1 * (py - y2) - dy1 * (px - x2);
+            double w2 = dx2 * (py - y0) - dy2 * (px - x0);
+            
+            for (int x = minX, index = (y * target.width + x) * target.channels; x <= maxX; x++, index += target.channels)
+            {
+                if ((w0 > 0 || (w0 == 0 && tie0)) && (w1 > 0 || (w1 == 0 && tie1)) && (w2 > 0 || (w2 == 0 && tie2)))
+                {
+                    double u = (w0 * u0 + w1 * u1 + w2 * u2) / area;
+                    double v = (w0 * v0 + w1 * v1 + w2 * v2) / area;
+                    
+                    sample(tex1, u, v, texel, 0);
+                    if (tex2 != null)
+                    {
+                        sample(tex2, u, v, texel, 4);
+                        float amount = sampler[4], inv = 1 - amount;
+                        for (int i = 0; i < 4; i++) texel[i] = texel[i] * inv + texel[i + 4] * amount;
+                    }
+                    float a = texel[3] * sampler[3];
+                    if (a > 0) blend(target, index, texel[0] * sampler[0], texel[1] * sampler[1], texel[2] * sampler[2], a);
+                }
+                w0 -= dy0;
+                w1 -= dy1;
+                w2 -= dy2;
+            }
+        }
+    }
+    
+    /**
+     * Samples the nearest texel, clamped to the edge. Missing channels are expanded the same way OpenGL does.
+     */
+    private static void sample(Pixels texture, double u, double v, float[] texel, int offset)
+    {
+        int tx = Math.max(0, Math.min(texture.width - 1, (int) Math.floor(u * texture.width)));
+        int ty = Math.max(0, Math.min(texture.height - 1, (int) Math.floor(v * texture.height)));
+        
+        int index = (ty * texture.width + tx) * texture.channels;
+        
+        texel[offset]     = texture.data[index] / 255F;
+        texel[offset + 1] = texture.channels > 1 ? texture.data[index + 1] / 255F : 0F;
+        texel[offset + 2] = texture.channels > 2 ? texture.data[index + 2] / 255F : 0F;
+        texel[offset + 3] = texture.channels > 3 ? texture.data[index + 3] / 255F : 1F;
+    }
+    
+    private static void blend(Pixels target, int index, float r, float g, float b, float a)
+    {
+        int[] data = target.data;
+        
+        float inv = 1 - a;
+        data[index] = Math.round(r * a * 255 + data[index] * inv);
+        if (target.channels > 1) data[index + 1] = Math.round(g * a * 255 + data[index + 1] * inv);
+        if (target.channels > 2) data[index + 2] = Math.round(b * a * 255 + data[index + 2] * inv);
+        if (target.channels > 3) data[index + 3] = Math.round(a * a * 255 + data[index + 3] * inv);
+    }
+    
+    @FunctionalInterface
+    private interface Band
+    {
+        void draw(int start, int end);
+    }
+    
+    /**
+     * A block of pixels with the same layout as {@link GLTexture#get(int[])}: {@code width * height * channels} values from 0-255, row by row.
+     */
+    public static final class Pixels
+    {
+        public final int   width;
+        public final int   height;
+        public final int   channels;
+        public final int[] data;
+        
+        public Pixels(int width, int height, int channels, int[] data)
+        {
+            if (data.length != width * height * channels) throw new RuntimeException("Array size mismatch: " + data.length + " != " + width * height * channels);
+            
+            this.width    = width;
+            this.height   = height;
+            this.channels = channels;
+            this.data     = data;
+        }
+        
+        public Pixels(int width, int height, int channels)
+        {
+            this(width, height, channels, new int[width * height * channels]);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "Pixels{" + "width=" + this.width + ", height=" + this.height + ", channels=" + this.channels + '}';
+        }
+    }
+}
@@ -0,0 +1,960 @@
+package engine.render;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GLDebugMessageCallbackI;
+import org.lwjgl.system.MemoryUtil;
+import rutils.Logger;
+
+import java.nio.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+import static org.lwjgl.opengl.GL32.GL_ALREADY_SIGNALED;
+
+/**
+ * A {@link GLBackend} that does not need an OpenGL context. Every call is counted by its {@link Command.Type} and,
+ * if recording is enabled, is added to a log of {@link Command}s.
+ * <p>
+ * Object names are handed out in increasing order, status queries always succeed, fences are always signaled,
+ * integer queries return 256, mapped buffers are backed by plain direct memory and texture downloads are filled with zeros. Buffer and texture uploads are logged with their size in bytes in place of the data.
+ */
+@SuppressWarnings("unused")
+public class RecordingBackend implements GLBackend
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private final ArrayList<Command> commands = new ArrayList<>();
+    private final int[]              counts   = new int[Command.Type.values().length];
+    
+    private long uploaded, downloaded;
+    
+    private boolean recording = true;
+    
+    private       int                      nextID           = 1;
+    private final HashMap<String, Integer> uniformLocations = new HashMap<>();
+    
+    @Override
+    public String toString()
+    {
+        return "RecordingBackend{" + "commands=" + this.commands.size() + ", counts=" + Arrays.toString(this.counts) + ", uploaded=" + this.uploaded + ", downloaded=" + this.downloaded + '}';
+    }
+    
+    /**
+     * @return If calls are added to the command log.
+     */
+    public boolean recording()
+    {
+        return this.recording;
+    }
+    
+    /**
+     * Sets if calls are added to the command log. Calls are always counted.
+     * <p>
+     * Disable this to run the backend as a no-op without the log growing, like when benchmarking.
+     *
+     * @param recording If calls should be added to the command log.
+     * @return This instance for call chaining.
+     */
+    public RecordingBackend recording(boolean recording)
+    {
+        RecordingBackend.LOGGER.finest("Setting Recording State:", recording);
+        
+        this.recording = recording;
+        return this;
+    }
+    
+    /**
+     * @return A read-only view of the command log.
+     */
+    public @NotNull List<Command> commands()
+    {
+        return Collections.unmodifiableList(this.commands);
+    }
+    
+    /**
+     * Gets the number of calls of the type provided since the last {@link #reset()}
+     *
+     * @param type The command type.
+     * @return The number of calls.
+     */
+    public int commandCount(@NotNull Command.Type type)
+    {
+        return this.counts[type.ordinal()];
+    }
+    
+    /**
+     * Gets the number of logged calls to the function provided since the last {@link #reset()}
+     *
+     * @param name The function name. Example: {@code "glDrawArrays"}
+     * @return The number of calls.
+     */
+    public int commandCount(@NotNull String name)
+    {
+        int count = 0;
+        for (Command command : this.commands) if (command.name.equals(name)) count++;
+        return count;
+    }
+    
+    /**
+     * @return The number of bytes uploaded to buffers and textures since the last {@link #reset()}
+     */
+    public long uploadedBytes()
+    {
+        return this.uploaded;
+    }
+    
+    /**
+     * @return The number of bytes downloaded from buffers and textures since the last {@link #reset()}
+     */
+    public long downloadedBytes()
+    {
+        return this.downloaded;
+    }
+    
+    /**
+     * Clears the command log and all counters. Generated object names and uniform locations are kept.
+     *
+     * @return This instance for call chaining.
+     */
+    public RecordingBackend reset()
+    {
+        RecordingBackend.LOGGER.finer("Resetting", this);
+        
+        this.commands.clear();
+        Arrays.fill(this.counts, 0);
+        this.uploaded   = 0;
+        this.downloaded = 0;
+        return this;
+    }
+    
+    private boolean count(Command.Type type)
+    {
+        this.counts[type.ordinal()]++;
+        return this.recording;
+    }
+    
+    private void record(Command.Type type, String name, Object... args)
+    {
+        this.commands.add(new Command(type, name, args));
+    }
+    
+    private int id()
+    {
+        return this.nextID++;
+    }
+    
+    private int uniformLocation(int program, CharSequence name)
+    {
+        return this.uniformLocations.computeIfAbsent(program + ":" + name, k -> this.uniformLocations.size());
+    }
+    
+    // -------------
+    // -- Buffers --
+    // -------------
+    
+    @Override
+    public int glGenBuffers()
+    {
+        int result = id();
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glGenBuffers", result);
+        return result;
+    }
+    
+    @Override
+    public void glBindBuffer(int target, int buffer)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindBuffer", target, buffer);
+    }
+    
+    @Override
+    public void glBindBufferBase(int target, int index, int buffer)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindBufferBase", target, index, buffer);
+    }
+    
+    @Override
+    public void glDeleteBuffers(int buffer)
+    {
+        if (count(Command.Type.DELETE)) record(Command.Type.DELETE, "glDeleteBuffers", buffer);
+    }
+    
+    @Override
+    public void glBindBufferRange(int target, int index, int buffer, long offset, long size)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindBufferRange", target, index, buffer, offset, size);
+    }
+    
+    @Override
+    public void glBufferStorage(int target, long size, int flags)
+    {
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferStorage", target, size, flags);
+    }
+    
+    @Override
+    public @Nullable ByteBuffer glMapBufferRange(int target, long offset, long length, int access)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glMapBufferRange", target, offset, length, access);
+        return ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+    }
+    
+    @Override
+    public boolean glUnmapBuffer(int target)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glUnmapBuffer", target);
+        return true;
+    }
+    
+    @Override
+    public void glBufferData(int target, long size, int usage)
+    {
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, size, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, short[] data, int usage)
+    {
+        this.uploaded += (long) data.length * Short.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.length * Short.BYTES, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, int[] data, int usage)
+    {
+        this.uploaded += (long) data.length * Integer.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.length * Integer.BYTES, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, long[] data, int usage)
+    {
+        this.uploaded += (long) data.length * Long.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.length * Long.BYTES, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, float[] data, int usage)
+    {
+        this.uploaded += (long) data.length * Float.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.length * Float.BYTES, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, double[] data, int usage)
+    {
+        this.uploaded += (long) data.length * Double.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.length * Double.BYTES, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, ByteBuffer data, int usage)
+    {
+        this.uploaded += (long) data.remaining();
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.remaining(), usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, ShortBuffer data, int usage)
+    {
+        this.uploaded += (long) data.remaining() << 1;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.remaining() << 1, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, IntBuffer data, int usage)
+    {
+        this.uploaded += (long) data.remaining() << 2;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.remaining() << 2, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, LongBuffer data, int usage)
+    {
+        this.uploaded += (long) data.remaining() << 3;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.remaining() << 3, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, FloatBuffer data, int usage)
+    {
+        this.uploaded += (long) data.remaining() << 2;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.remaining() << 2, usage);
+    }
+    
+    @Override
+    public void glBufferData(int target, DoubleBuffer data, int usage)
+    {
+        this.uploaded += (long) data.remaining() << 3;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferData", target, (long) data.remaining() << 3, usage);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, short[] data)
+    {
+        this.uploaded += (long) data.length * Short.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.length * Short.BYTES);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, int[] data)
+    {
+        this.uploaded += (long) data.length * Integer.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.length * Integer.BYTES);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, long[] data)
+    {
+        this.uploaded += (long) data.length * Long.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.length * Long.BYTES);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, float[] data)
+    {
+        this.uploaded += (long) data.length * Float.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.length * Float.BYTES);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, double[] data)
+    {
+        this.uploaded += (long) data.length * Double.BYTES;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.length * Double.BYTES);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, ByteBuffer data)
+    {
+        this.uploaded += (long) data.remaining();
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.remaining());
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, ShortBuffer data)
+    {
+        this.uploaded += (long) data.remaining() << 1;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.remaining() << 1);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, IntBuffer data)
+    {
+        this.uploaded += (long) data.remaining() << 2;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.remaining() << 2);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, LongBuffer data)
+    {
+        this.uploaded += (long) data.remaining() << 3;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.remaining() << 3);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, FloatBuffer data)
+    {
+        this.uploaded += (long) data.remaining() << 2;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.remaining() << 2);
+    }
+    
+    @Override
+    public void glBufferSubData(int target, long offset, DoubleBuffer data)
+    {
+        this.uploaded += (long) data.remaining() << 3;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glBufferSubData", target, offset, (long) data.remaining() << 3);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, short[] data)
+    {
+        this.downloaded += (long) data.length * Short.BYTES;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.length * Short.BYTES);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, int[] data)
+    {
+        this.downloaded += (long) data.length * Integer.BYTES;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.length * Integer.BYTES);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, long[] data)
+    {
+        this.downloaded += (long) data.length * Long.BYTES;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.length * Long.BYTES);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, float[] data)
+    {
+        this.downloaded += (long) data.length * Float.BYTES;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.length * Float.BYTES);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, double[] data)
+    {
+        this.downloaded += (long) data.length * Double.BYTES;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.length * Double.BYTES);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, ByteBuffer data)
+    {
+        this.downloaded += (long) data.remaining();
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.remaining());
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, ShortBuffer data)
+    {
+        this.downloaded += (long) data.remaining() << 1;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.remaining() << 1);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, IntBuffer data)
+    {
+        this.downloaded += (long) data.remaining() << 2;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.remaining() << 2);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, LongBuffer data)
+    {
+        this.downloaded += (long) data.remaining() << 3;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.remaining() << 3);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, FloatBuffer data)
+    {
+        this.downloaded += (long) data.remaining() << 2;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.remaining() << 2);
+    }
+    
+    @Override
+    public void glGetBufferSubData(int target, long offset, DoubleBuffer data)
+    {
+        this.downloaded += (long) data.remaining() << 3;
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetBufferSubData", target, offset, (long) data.remaining() << 3);
+    }
+    
+    // -------------------
+    // -- Vertex Arrays --
+    // -------------------
+    
+    @Override
+    public int glGenVertexArrays()
+    {
+        int result = id();
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glGenVertexArrays", result);
+        return result;
+    }
+    
+    @Override
+    public void glBindVertexArray(int array)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindVertexArray", array);
+    }
+    
+    @Override
+    public void glDeleteVertexArrays(int array)
+    {
+        if (count(Command.Type.DELETE)) record(Command.Type.DELETE, "glDeleteVertexArrays", array);
+    }
+    
+    @Override
+    public void glEnableVertexAttribArray(int index)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glEnableVertexAttribArray", index);
+    }
+    
+    @Override
+    public void glDisableVertexAttribArray(int index)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glDisableVertexAttribArray", index);
+    }
+    
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glVertexAttribPointer", index, size, type, normalized, stride, pointer);
+    }
+    
+    @Override
+    public void glDrawArrays(int mode, int first, int count)
+    {
+        if (count(Command.Type.DRAW)) record(Command.Type.DRAW, "glDrawArrays", mode, first, count);
+    }
+    
+    @Override
+    public void glDrawElements(int mode, int count, int type, long indices)
+    {
+        if (count(Command.Type.DRAW)) record(Command.Type.DRAW, "glDrawElements", mode, count, type, indices);
+    }
+    
+    // -------------
+    // -- Shaders --
+    // -------------
+    
+    @Override
+    public int glCreateProgram()
+    {
+        int result = id();
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glCreateProgram", result);
+        return result;
+    }
+    
+    @Override
+    public void glLinkProgram(int program)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glLinkProgram", program);
+    }
+    
+    @Override
+    public void glValidateProgram(int program)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glValidateProgram", program);
+    }
+    
+    @Override
+    public int glGetProgrami(int program, int pname)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glGetProgrami", program, pname);
+        return GL_TRUE;
+    }
+    
+    @Override
+    public String glGetProgramInfoLog(int program)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glGetProgramInfoLog", program);
+        return "";
+    }
+    
+    @Override
+    public void glUseProgram(int program)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glUseProgram", program);
+    }
+    
+    @Override
+    public void glDetachShader(int program, int shader)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glDetachShader", program, shader);
+    }
+    
+    @Override
+    public void glDeleteProgram(int program)
+    {
+        if (count(Command.Type.DELETE)) record(Command.Type.DELETE, "glDeleteProgram", program);
+    }
+    
+    @Override
+    public int glCreateShader(int type)
+    {
+        int result = id();
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glCreateShader", type, result);
+        return result;
+    }
+    
+    @Override
+    public void glShaderSource(int shader, CharSequence string)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glShaderSource", shader, string.length());
+    }
+    
+    @Override
+    public void glCompileShader(int shader)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glCompileShader", shader);
+    }
+    
+    @Override
+    public int glGetShaderi(int shader, int pname)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glGetShaderi", shader, pname);
+        return GL_TRUE;
+    }
+    
+    @Override
+    public String glGetShaderInfoLog(int shader)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glGetShaderInfoLog", shader);
+        return "";
+    }
+    
+    @Override
+    public void glAttachShader(int program, int shader)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glAttachShader", program, shader);
+    }
+    
+    @Override
+    public void glDeleteShader(int shader)
+    {
+        if (count(Command.Type.DELETE)) record(Command.Type.DELETE, "glDeleteShader", shader);
+    }
+    
+    @Override
+    public int glGetUniformLocation(int program, CharSequence name)
+    {
+        int result = uniformLocation(program, name);
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glGetUniformLocation", program, name, result);
+        return result;
+    }
+    
+    @Override
+    public void glUniform1i(int location, int v0)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform1i", location, v0);
+    }
+    
+    @Override
+    public void glUniform2i(int location, int v0, int v1)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform2i", location, v0, v1);
+    }
+    
+    @Override
+    public void glUniform3i(int location, int v0, int v1, int v2)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform3i", location, v0, v1, v2);
+    }
+    
+    @Override
+    public void glUniform4i(int location, int v0, int v1, int v2, int v3)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform4i", location, v0, v1, v2, v3);
+    }
+    
+    @Override
+    public void glUniform1f(int location, float v0)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform1f", location, v0);
+    }
+    
+    @Override
+    public void glUniform2f(int location, float v0, float v1)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform2f", location, v0, v1);
+    }
+    
+    @Override
+    public void glUniform3f(int location, float v0, float v1, float v2)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform3f", location, v0, v1, v2);
+    }
+    
+    @Override
+    public void glUniform4f(int location, float v0, float v1, float v2, float v3)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniform4f", location, v0, v1, v2, v3);
+    }
+    
+    @Override
+    public void glUniformMatrix2fv(int location, boolean transpose, float[] value)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniformMatrix2fv", location, transpose, value.length);
+    }
+    
+    @Override
+    public void glUniformMatrix2fv(int location, boolean transpose, FloatBuffer value)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniformMatrix2fv", location, transpose, value.remaining());
+    }
+    
+    @Override
+    public void glUniformMatrix3fv(int location, boolean transpose, FloatBuffer value)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniformMatrix3fv", location, transpose, value.remaining());
+    }
+    
+    @Override
+    public void glUniformMatrix4fv(int location, boolean transpose, FloatBuffer value)
+    {
+        if (count(Command.Type.UNIFORM)) record(Command.Type.UNIFORM, "glUniformMatrix4fv", location, transpose, value.remaining());
+    }
+    
+    // --------------
+    // -- Textures --
+    // --------------
+    
+    @Override
+    public int glGenTextures()
+    {
+        int result = id();
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glGenTextures", result);
+        return result;
+    }
+    
+    @Override
+    public void glBindTexture(int target, int texture)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindTexture", target, texture);
+    }
+    
+    @Override
+    public void glActiveTexture(int texture)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glActiveTexture", texture);
+    }
+    
+    @Override
+    public void glDeleteTextures(int texture)
+    {
+        if (count(Command.Type.DELETE)) record(Command.Type.DELETE, "glDeleteTextures", texture);
+    }
+    
+    @Override
+    public void glTexParameteri(int target, int pname, int param)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glTexParameteri", target, pname, param);
+    }
+    
+    @Override
+    public void glPixelStorei(int pname, int param)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glPixelStorei", pname, param);
+    }
+    
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, long pixels)
+    {
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glTexImage2D", target, level, internalformat, width, height, border, format, type, pixels);
+    }
+    
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, @Nullable ByteBuffer pixels)
+    {
+        this.uploaded += pixels != null ? pixels.remaining() : 0;
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glTexImage2D", target, level, internalformat, width, height, border, format, type, pixels != null ? pixels.remaining() : 0);
+    }
+    
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels)
+    {
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glTexSubImage2D", target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, ByteBuffer pixels)
+    {
+        this.uploaded += pixels.remaining();
+        if (count(Command.Type.UPLOAD)) record(Command.Type.UPLOAD, "glTexSubImage2D", target, level, xoffset, yoffset, width, height, format, type, pixels.remaining());
+    }
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, long pixels)
+    {
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetTexImage", target, level, format, type, pixels);
+    }
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels)
+    {
+        this.downloaded += pixels.remaining();
+        MemoryUtil.memSet(pixels, 0);
+        if (count(Command.Type.DOWNLOAD)) record(Command.Type.DOWNLOAD, "glGetTexImage", target, level, format, type, pixels.remaining());
+    }
+    
+    @Override
+    public void glGenerateMipmap(int target)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glGenerateMipmap", target);
+    }
+    
+    @Override
+    public void glCopyImageSubData(int srcName, int srcTarget, int srcLevel, int srcX, int srcY, int srcZ, int dstName, int dstTarget, int dstLevel, int dstX, int dstY, int dstZ, int srcWidth, int srcHeight, int srcDepth)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glCopyImageSubData", srcName, srcTarget, srcLevel, srcX, srcY, srcZ, dstName, dstTarget, dstLevel, dstX, dstY, dstZ, srcWidth, srcHeight, srcDepth);
+    }
+    
+    // ------------------
+    // -- Framebuffers --
+    // ------------------
+    
+    @Override
+    public int glGenFramebuffers()
+    {
+        int result = id();
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glGenFramebuffers", result);
+        return result;
+    }
+    
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindFramebuffer", target, framebuffer);
+    }
+    
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glFramebufferTexture2D", target, attachment, textarget, texture, level);
+    }
+    
+    @Override
+    public int glCheckFramebufferStatus(int target)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glCheckFramebufferStatus", target);
+        return GL_FRAMEBUFFER_COMPLETE;
+    }
+    
+    // ----------
+    // -- Sync --
+    // ----------
+    
+    @Override
+    public long glFenceSync(int condition, int flags)
+    {
+        if (count(Command.Type.CREATE)) record(Command.Type.CREATE, "glFenceSync", condition, flags);
+        return this.nextID++;
+    }
+    
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glClientWaitSync", sync, flags, timeout);
+        return GL_ALREADY_SIGNALED;
+    }
+    
+    @Override
+    public void glDeleteSync(long sync)
+    {
+        if (count(Command.Type.DELETE)) record(Command.Type.DELETE, "glDeleteSync", sync);
+    }
+    
+    // -------------
+    // -- Compute --
+    // -------------
+    
+    @Override
+    public void glDispatchCompute(int num_groups_x, int num_groups_y, int num_groups_z)
+    {
+        if (count(Command.Type.DRAW)) record(Command.Type.DRAW, "glDispatchCompute", num_groups_x, num_groups_y, num_groups_z);
+    }
+    
+    @Override
+    public void glMemoryBarrier(int barriers)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glMemoryBarrier", barriers);
+    }
+    
+    @Override
+    public void glBindImageTexture(int unit, int texture, int level, boolean layered, int layer, int access, int format)
+    {
+        if (count(Command.Type.BIND)) record(Command.Type.BIND, "glBindImageTexture", unit, texture, level, layered, layer, access, format);
+    }
+    
+    // -----------
+    // -- State --
+    // -----------
+    
+    @Override
+    public void glViewport(int x, int y, int w, int h)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glViewport", x, y, w, h);
+    }
+    
+    @Override
+    public int glGetInteger(int pname)
+    {
+        if (count(Command.Type.QUERY)) record(Command.Type.QUERY, "glGetInteger", pname);
+        return 256;
+    }
+    
+    @Override
+    public void glEnable(int target)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glEnable", target);
+    }
+    
+    @Override
+    public void glPolygonMode(int face, int mode)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glPolygonMode", face, mode);
+    }
+    
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glClearColor", red, green, blue, alpha);
+    }
+    
+    @Override
+    public void glClear(int mask)
+    {
+        if (count(Command.Type.CLEAR)) record(Command.Type.CLEAR, "glClear", mask);
+    }
+    
+    @Override
+    public void glDebugMessageCallback(@Nullable GLDebugMessageCallbackI callback, long userParam)
+    {
+        if (count(Command.Type.STATE)) record(Command.Type.STATE, "glDebugMessageCallback", userParam);
+    }
+    
+    /**
+     * A single call that was made to a {@link RecordingBackend}
+     */
+    public static final class Command
+    {
+        public final Type   type;
+        public final String name;
+        
+        private final Object[] args;
+        
+        private Command(Type type, String name, Object[] args)
+        {
+            this.type = type;
+            this.name = name;
+            this.args = args;
+        }
+        
+        @Override
+        public String toString()
+        {
+            StringBuilder builder = new StringBuilder(this.name).append('(');
+            for (int i = 0; i < this.args.length; i++)
+            {
+                if (i > 0) builder.append(", ");
+                builder.append(this.args[i]);
+            }
+            return builder.append(')').toString();
+        }
+        
+        /**
+         * @return The number of arguments that were recorded.
+         */
+        public int argCount()
+        {
+            return this.args.length;
+        }
+        
+        /**
+         * Gets an argument of the call. Array and buffer arguments are recorded as their size and generated names are appended as the last argument.
+         *
+         * @param index The argument index.
+         * @return The argument.
+         */
+        public Object arg(int index)
+        {
+            return this.args[index];
+        }
+        
+        /**
+         * The category of a call.
+         */
+        public enum Type
+        {
+            CREATE, DELETE, BIND, STATE, UNIFORM, UPLOAD, DOWNLOAD, DRAW, CLEAR, QUERY
+        }
+    }
+}
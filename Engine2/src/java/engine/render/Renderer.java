@@ -9,14 +9,17 @@ import org.lwjgl.system.MemoryStack;
 import rutils.Logger;
 
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Queue;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import static org.lwjgl.opengl.GL11.glClear;
-import static org.lwjgl.opengl.GL11.glClearColor;
-import static org.lwjgl.opengl.GL43.glPolygonMode;
+import static engine.render.OpenGL.glClear;
+import static engine.render.OpenGL.glClearColor;
+import static engine.render.OpenGL.glGetInteger;
+import static engine.render.OpenGL.glPolygonMode;
+import static org.lwjgl.opengl.GL43.GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT;
 import static rutils.NumUtil.getDecimal;
 
 /**
@@ -41,6 +44,15 @@ public class Renderer
     
     protected static final Color CLEAR = new Color();
     
+    protected static final int VERTEX_SEGMENT_SIZE  = 1 << 22;
+    protected static final int POLYGON_SEGMENT_SIZE = 1 << 16;
+    protected static final int TEXT_CACHE_SIZE      = 1024;
+    
+    protected static GLStreamBuffer vertexStream;
+    protected static int            ssboAlignment;
+    
+    protected static TextCache textCache;
+    
     protected static GLShader      pointShader;
     protected static GLVertexArray pointVAO;
     
@@ -60,10 +72,10 @@ public class Renderer
     protected static GLShader      quadShader;
     protected static GLVertexArray quadVAO;
     
-    protected static GLVertexArray polygonLinesVAO;
-    protected static GLShader      polygonShader;
-    protected static GLVertexArray polygonVAO;
-    protected static GLBuffer      polygonSSBO;
+    protected static GLVertexArray  polygonLinesVAO;
+    protected static GLShader       polygonShader;
+    protected static GLVertexArray  polygonVAO;
+    protected static GLStreamBuffer polygonSSBO;
     
     protected static GLShader      ellipseOutlineShader;
     protected static GLVertexArray ellipseOutlineVAO;
@@ -81,55 +93,78 @@ public class Renderer
     protected static GLVertexArray textureVAO;
     
     protected static GLShader      textShader;
+    protected static GLShader      textSDFShader;
     protected static GLVertexArray textVAO;
     
+    protected static GLShader      batchShader;
+    protected static GLVertexArray batchVAO;
+    
     public static void init()
     {
+        Renderer.vertexStream  = new GLStreamBuffer(GL.ARRAY_BUFFER, Renderer.VERTEX_SEGMENT_SIZE);
+        Renderer.ssboAlignment = glGetInteger(GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT);
+        Renderer.textCache     = new TextCache(Renderer.TEXT_CACHE_SIZE);
+        
         Renderer.pointShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/point.geom").loadFile("shaders/shared.frag").validate();
-        Renderer.pointVAO    = new GLVertexArray().bind().add(Float.BYTES * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.pointVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
         Renderer.lineShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/line.geom").loadFile("shaders/shared.frag").validate();
-        Renderer.lineVAO    = new GLVertexArray().bind().add((Float.BYTES * 2) * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.lineVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
         Renderer.linesShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/lines.geom").loadFile("shaders/shared.frag").validate();
         
-        Renderer.bezier3VAO = new GLVertexArray().bind().add((Float.BYTES * 2) * 3, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
-        Renderer.bezier4VAO = new GLVertexArray().bind().add((Float.BYTES * 2) * 4, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.bezier3VAO = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
+        Renderer.bezier4VAO = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
-        Renderer.triangleLinesVAO = new GLVertexArray().bind().add((Float.BYTES * 2) * 24, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.triangleLinesVAO = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         Renderer.triangleShader   = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/shared.frag").validate();
-        Renderer.triangleVAO      = new GLVertexArray().bind().add((Float.BYTES * 2) * 6, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.triangleVAO      = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
-        Renderer.quadLinesVAO = new GLVertexArray().bind().add((Float.BYTES * 2) * 32, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.quadLinesVAO = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         Renderer.quadShader   = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/shared.frag").validate();
-        Renderer.quadVAO      = new GLVertexArray().bind().add((Float.BYTES * 2) * 8, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.quadVAO      = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
-        Renderer.polygonLinesVAO = new GLVertexArray().bind().add(new GLBuffer(GL.ARRAY_BUFFER).usage(GL.DYNAMIC_DRAW), GL.FLOAT, 2).unbind();
+        Renderer.polygonLinesVAO = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         Renderer.polygonShader   = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/poly.geom").loadFile("shaders/shared.frag").validate();
         Renderer.polygonVAO      = new GLVertexArray().bind().add(Float.BYTES * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
-        Renderer.polygonSSBO     = new GLBuffer(GL.SHADER_STORAGE_BUFFER).usage(GL.STREAM_DRAW).bind().base(1).unbind();
+        Renderer.polygonSSBO     = new GLStreamBuffer(GL.SHADER_STORAGE_BUFFER, Renderer.POLYGON_SEGMENT_SIZE);
         
         Renderer.ellipseOutlineShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/ellipseOutline.geom").loadFile("shaders/shared.frag").validate();
-        Renderer.ellipseOutlineVAO    = new GLVertexArray().bind().add(Float.BYTES * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.ellipseOutlineVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
         Renderer.ellipseShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/ellipse.geom").loadFile("shaders/shared.frag").validate();
-        Renderer.ellipseVAO    = new GLVertexArray().bind().add(Float.BYTES * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.ellipseVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
         Renderer.arcOutlineShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/arcOutline.geom").loadFile("shaders/shared.frag").validate();
-        Renderer.arcOutlineVAO    = new GLVertexArray().bind().add(Float.BYTES * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.arcOutlineVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
         Renderer.arcShader = new GLShader().loadFile("shaders/shared.vert").loadFile("shaders/arc.geom").loadFile("shaders/shared.frag").validate();
-        Renderer.arcVAO    = new GLVertexArray().bind().add(Float.BYTES * 2, GL.DYNAMIC_DRAW, GL.FLOAT, 2).unbind();
+        Renderer.arcVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2).unbind();
         
         Renderer.textureShader = new GLShader().loadFile("shaders/texture.vert").loadFile("shaders/texture.frag").validate();
-        Renderer.textureVAO    = new GLVertexArray().bind().add((Float.BYTES * 2 + Float.BYTES * 2) * 16, GL.DYNAMIC_DRAW, GL.FLOAT, 2, GL.FLOAT, 2).unbind();
+        Renderer.textureVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2, GL.FLOAT, 2).unbind();
+        
+        Renderer.textShader    = new GLShader().loadFile("shaders/texture.vert").loadFile("shaders/text.frag").validate();
+        Renderer.textSDFShader = new GLShader().loadFile("shaders/texture.vert").loadFile("shaders/textSDF.frag").validate();
+        Renderer.textVAO       = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2, GL.FLOAT, 2).unbind();
         
-        Renderer.textShader = new GLShader().loadFile("shaders/texture.vert").loadFile("shaders/text.frag").validate();
-        Renderer.textVAO    = new GLVertexArray().bind().add(new GLBuffer(GL.ARRAY_BUFFER).usage(GL.DYNAMIC_DRAW), GL.FLOAT, 2, GL.FLOAT, 2).unbind();
+        Renderer.batchShader = new GLShader().loadFile("shaders/batch.vert").loadFile("shaders/batch.frag").validate();
+        Renderer.batchVAO    = new GLVertexArray().bind().add(Renderer.vertexStream, GL.FLOAT, 2, GL.FLOAT, 4, GL.FLOAT, 4).unbind();
+    }
+    
+    /**
+     * @return The cache of text layouts that is shared by all renderers.
+     */
+    public static TextCache textCache()
+    {
+        return Renderer.textCache;
     }
     
     protected boolean debug = false;
     
+    protected       boolean batching = false;
+    protected final Batch   batch    = new Batch();
+    
     protected final Texture        defaultTarget;
     protected       Texture        target;
     protected final Stack<Texture> targets = new Stack<>();
@@ -167,7 +202,10 @@ public class Renderer
     protected final Matrix4d        view  = new Matrix4d();
     protected final Stack<Matrix4f> views = new Stack<>();
     
-    protected int[] pixels;
+    protected       int[]                         pixels;
+    protected final HashMap<Texture, PixelBuffer> pixelBuffers = new HashMap<>();
+    
+    protected final Queue<CommandBuffer> commandBuffers = new ConcurrentLinkedQueue<>();
     
     protected boolean drawing = false;
     
@@ -214,6 +252,57 @@ public class Renderer
         debug(!this.debug);
     }
     
+    /**
+     * @return If primitives are collected into a batch instead of being drawn immediately.
+     */
+    public boolean batching()
+    {
+        return this.batching;
+    }
+    
+    /**
+     * Sets if the renderer collects primitives into a batch instead of drawing them immediately.
+     * <p>
+     * Points, lines, beziers, triangles, quads, polygon outlines, ellipses and arcs are batched. Everything else will flush the batch before being drawn.
+     *
+     * @param enableBatching If batching is enabled.
+     */
+    public void batching(boolean enableBatching)
+    {
+        Renderer.LOGGER.finest("Setting Batching State:", enableBatching);
+        
+        if (!enableBatching) flush(FlushReason.MODE);
+        
+        this.batching = enableBatching;
+    }
+    
+    /**
+     * Toggles if the renderer collects primitives into a batch.
+     */
+    public void toggleBatching()
+    {
+        batching(!this.batching);
+    }
+    
+    /**
+     * @return The number of batches drawn since the last call to {@link #start}
+     */
+    public int batchCount()
+    {
+        return this.batch.batchCount();
+    }
+    
+    /**
+     * Gets the number of times the batch was drawn for the reason provided since the last call to {@link #start}
+     *
+     * @param reason The flush reason.
+     * @return The number of flushes.
+     */
+    public int flushCount(FlushReason reason)
+    {
+        return this.batch.flushCount(reason);
+    }
+    
     /**
      * @return Gets the current render target.
      */
@@ -229,6 +318,8 @@ public class Renderer
      */
     public void target(Texture target)
     {
+        if (this.target != target) flush(FlushReason.TARGET);
+        
         this.target = target;
         
         identity();
@@ -740,6 +831,9 @@ public class Renderer
         
         this.drawing = true;
         
+        this.batch.clear();
+        this.batch.resetStats();
+        
         this.target = this.defaultTarget;
         this.targets.clear();
         
@@ -792,6 +886,11 @@ public class Renderer
         
         if (!this.drawing) throw new RuntimeException("Renderer was never started");
         
+        flush(FlushReason.FINISH);
+        
+        Renderer.vertexStream.fence();
+        Renderer.polygonSSBO.fence();
+        
         this.drawing = false;
         
         this.target.unbindFramebuffer();
@@ -827,7 +926,10 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Popping Renderer State");
     
-        this.target = this.targets.pop();
+        Texture target = this.targets.pop();
+        if (this.target != target) flush(FlushReason.TARGET);
+        
+        this.target = target;
         this.fill.fromInt(this.fills.pop());
         this.stroke.fromInt(this.strokes.pop());
         this.tint.fromInt(this.tints.pop());
@@ -843,6 +945,32 @@ public class Renderer
         this.updateViewBuffer = true;
     }
     
+    // ----------------------------
+    // -- Command Buffer Methods --
+    // ----------------------------
+    
+    /**
+     * Submits a command buffer to be replayed by the next call to {@link #replay()}. Buffers are replayed in the order that
+     * they were submitted. This can be called from any thread once the buffer is done being recorded.
+     *
+     * @param buffer The buffer to submit.
+     */
+    public void submit(CommandBuffer buffer)
+    {
+        buffer.submit();
+        this.commandBuffers.offer(buffer);
+    }
+    
+    /**
+     * Replays every command buffer that was submitted, in the order that they were submitted, and clears them. This must
+     * be called on the thread that owns the OpenGL context.
+     */
+    public void replay()
+    {
+        CommandBuffer buffer;
+        while ((buffer = this.commandBuffers.poll()) != null) buffer.replay(this);
+    }
+    
     // -------------------
     // -- Clear Methods --
     // -------------------
@@ -910,6 +1038,8 @@ public class Renderer
     {
         Renderer.LOGGER.finest("Clearing Render Target to", color);
         
+        flush(FlushReason.CLEAR);
+        
         this.target.bindFramebuffer();
     
         glClearColor(color.rf(), color.gf(), color.bf(), color.af());
@@ -932,6 +1062,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Point:", x, y);
     
+        if (this.batching)
+        {
+            batch(this.stroke).point(x, y, this.weight);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -942,7 +1078,8 @@ public class Renderer
         Renderer.pointShader.setUniform("viewport", this.target.width(), this.target.height());
         Renderer.pointShader.setUniform("thickness", this.weight);
     
-        Renderer.pointVAO.bind().set((float) x, (float) y).draw(GL.POINTS).unbind();
+        Renderer.pointVAO.bind().stream(1).put((float) x).put((float) y);
+        Renderer.pointVAO.draw(GL.POINTS).unbind();
     }
     
     /**
@@ -978,6 +1115,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Line:", x1, y1, x2, y2);
     
+        if (this.batching)
+        {
+            batch(this.stroke).line(x1, y1, x2, y2, this.weight);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -988,8 +1131,9 @@ public class Renderer
         Renderer.lineShader.setUniform("viewport", this.target.width(), this.target.height());
         Renderer.lineShader.setUniform("thickness", this.weight);
     
-        Renderer.lineVAO.bind().set((float) x1, (float) y1,
-                                    (float) x2, (float) y2).draw(GL.LINES).unbind();
+        Renderer.lineVAO.bind().stream(2).put((float) x1).put((float) y1)
+                                   .put((float) x2).put((float) y2);
+        Renderer.lineVAO.draw(GL.LINES).unbind();
     }
     
     /**
@@ -1024,16 +1168,6 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Bezier:", points);
     
-        this.target.bindFramebuffer();
-    
-        updateViewMatrix();
-    
-        Renderer.linesShader.bind();
-        Renderer.linesShader.setUniform("color", this.stroke);
-        Renderer.linesShader.setUniform("tint", this.tint);
-        Renderer.linesShader.setUniform("viewport", this.target.width(), this.target.height());
-        Renderer.linesShader.setUniform("thickness", this.weight);
-    
         int order = (points.length >> 1) - 1;
     
         double dx = points[points.length - 2] - points[0];
@@ -1059,25 +1193,41 @@ public class Renderer
             newPoints[index++] = x;
             newPoints[index++] = y;
         }
+    
+        if (this.batching)
+        {
+            batch(this.stroke).polyline(this.weight, false, newPoints);
+            return;
+        }
+    
+        this.target.bindFramebuffer();
+    
+        updateViewMatrix();
+    
+        Renderer.linesShader.bind();
+        Renderer.linesShader.setUniform("color", this.stroke);
+        Renderer.linesShader.setUniform("tint", this.tint);
+        Renderer.linesShader.setUniform("viewport", this.target.width(), this.target.height());
+        Renderer.linesShader.setUniform("thickness", this.weight);
         
-        float[] array = new float[newPoints.length * 4];
-        for (int p1 = 0, index = 0; p1 <= segments; p1++)
+        FloatBuffer array = Renderer.bezier4VAO.bind().stream((segments + 1) * 4);
+        for (int p1 = 0; p1 <= segments; p1++)
         {
             int p0 = Math.max(p1 - 1, 0);
             int p2 = Math.min(p1 + 1, segments);
             int p3 = Math.min(p1 + 2, segments);
     
-            array[index++] = (float) newPoints[(2 * p0)];
-            array[index++] = (float) newPoints[(2 * p0) + 1];
-            array[index++] = (float) newPoints[(2 * p1)];
-            array[index++] = (float) newPoints[(2 * p1) + 1];
-            array[index++] = (float) newPoints[(2 * p2)];
-            array[index++] = (float) newPoints[(2 * p2) + 1];
-            array[index++] = (float) newPoints[(2 * p3)];
-            array[index++] = (float) newPoints[(2 * p3) + 1];
+            array.put((float) newPoints[(2 * p0)]);
+            array.put((float) newPoints[(2 * p0) + 1]);
+            array.put((float) newPoints[(2 * p1)]);
+            array.put((float) newPoints[(2 * p1) + 1]);
+            array.put((float) newPoints[(2 * p2)]);
+            array.put((float) newPoints[(2 * p2) + 1]);
+            array.put((float) newPoints[(2 * p3)]);
+            array.put((float) newPoints[(2 * p3) + 1]);
         }
     
-        Renderer.bezier4VAO.bind().set(array).resize().draw(GL.LINES_ADJACENCY).unbind();
+        Renderer.bezier4VAO.draw(GL.LINES_ADJACENCY).unbind();
     }
     
     /**
@@ -1114,6 +1264,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Triangle:", x1, y1, x2, y2, x3, y3);
     
+        if (this.batching)
+        {
+            batch(this.stroke).polyline(this.weight, true, x1, y1, x2, y2, x3, y3);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1124,9 +1280,10 @@ public class Renderer
         Renderer.linesShader.setUniform("viewport", this.target.width(), this.target.height());
         Renderer.linesShader.setUniform("thickness", this.weight);
     
-        Renderer.triangleLinesVAO.bind().set((float) x3, (float) y3, (float) x1, (float) y1, (float) x2, (float) y2, (float) x3, (float) y3,
-                                             (float) x1, (float) y1, (float) x2, (float) y2, (float) x3, (float) y3, (float) x1, (float) y1,
-                                             (float) x2, (float) y2, (float) x3, (float) y3, (float) x1, (float) y1, (float) x2, (float) y2).draw(GL.LINES_ADJACENCY).unbind();
+        Renderer.triangleLinesVAO.bind().stream(12).put((float) x3).put((float) y3).put((float) x1).put((float) y1).put((float) x2).put((float) y2).put((float) x3).put((float) y3)
+                                                   .put((float) x1).put((float) y1).put((float) x2).put((float) y2).put((float) x3).put((float) y3).put((float) x1).put((float) y1)
+                                                   .put((float) x2).put((float) y2).put((float) x3).put((float) y3).put((float) x1).put((float) y1).put((float) x2).put((float) y2);
+        Renderer.triangleLinesVAO.draw(GL.LINES_ADJACENCY).unbind();
     }
     
     /**
@@ -1145,6 +1302,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Filling Triangle:", x1, y1, x2, y2, x3, y3);
     
+        if (this.batching)
+        {
+            batch(this.fill).triangle(x1, y1, x2, y2, x3, y3);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1153,9 +1316,10 @@ public class Renderer
         Renderer.triangleShader.setUniform("color", this.fill);
         Renderer.triangleShader.setUniform("tint", this.tint);
     
-        Renderer.triangleVAO.bind().set((float) x1, (float) y1,
-                                        (float) x2, (float) y2,
-                                        (float) x3, (float) y3).draw(GL.TRIANGLES).unbind();
+        Renderer.triangleVAO.bind().stream(3).put((float) x1).put((float) y1)
+                                       .put((float) x2).put((float) y2)
+                                       .put((float) x3).put((float) y3);
+        Renderer.triangleVAO.draw(GL.TRIANGLES).unbind();
     }
     
     /**
@@ -1351,6 +1515,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Quad:", x1, y1, x2, y2, x3, y3, x4, y4);
     
+        if (this.batching)
+        {
+            batch(this.stroke).polyline(this.weight, true, x1, y1, x2, y2, x3, y3, x4, y4);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1361,10 +1531,11 @@ public class Renderer
         Renderer.linesShader.setUniform("viewport", this.target.width(), this.target.height());
         Renderer.linesShader.setUniform("thickness", this.weight);
     
-        Renderer.quadLinesVAO.bind().set((float) x4, (float) y4, (float) x1, (float) y1, (float) x2, (float) y2, (float) x3, (float) y3,
-                                         (float) x1, (float) y1, (float) x2, (float) y2, (float) x3, (float) y3, (float) x4, (float) y4,
-                                         (float) x2, (float) y2, (float) x3, (float) y3, (float) x4, (float) y4, (float) x1, (float) y1,
-                                         (float) x3, (float) y3, (float) x4, (float) y4, (float) x1, (float) y1, (float) x2, (float) y2).draw(GL.LINES_ADJACENCY).unbind();
+        Renderer.quadLinesVAO.bind().stream(16).put((float) x4).put((float) y4).put((float) x1).put((float) y1).put((float) x2).put((float) y2).put((float) x3).put((float) y3)
+                                               .put((float) x1).put((float) y1).put((float) x2).put((float) y2).put((float) x3).put((float) y3).put((float) x4).put((float) y4)
+                                               .put((float) x2).put((float) y2).put((float) x3).put((float) y3).put((float) x4).put((float) y4).put((float) x1).put((float) y1)
+                                               .put((float) x3).put((float) y3).put((float) x4).put((float) y4).put((float) x1).put((float) y1).put((float) x2).put((float) y2);
+        Renderer.quadLinesVAO.draw(GL.LINES_ADJACENCY).unbind();
     }
     
     /**
@@ -1387,6 +1558,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Filling Quad:", x1, y1, x2, y2, x3, y3, x4, y4);
     
+        if (this.batching)
+        {
+            batch(this.fill).quad(x1, y1, x2, y2, x3, y3, x4, y4);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1395,10 +1572,11 @@ public class Renderer
         Renderer.quadShader.setUniform("color", this.fill);
         Renderer.quadShader.setUniform("tint", this.tint);
     
-        Renderer.quadVAO.bind().set((float) x1, (float) y1,
-                                    (float) x2, (float) y2,
-                                    (float) x3, (float) y3,
-                                    (float) x4, (float) y4).draw(GL.QUADS).unbind();
+        Renderer.quadVAO.bind().stream(4).put((float) x1).put((float) y1)
+                                   .put((float) x2).put((float) y2)
+                                   .put((float) x3).put((float) y3)
+                                   .put((float) x4).put((float) y4);
+        Renderer.quadVAO.draw(GL.QUADS).unbind();
     }
     
     /**
@@ -1446,6 +1624,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Polygon:", Arrays.toString(points));
     
+        if (this.batching)
+        {
+            batch(this.stroke).polyline(this.weight, true, points);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1456,24 +1640,24 @@ public class Renderer
         Renderer.linesShader.setUniform("viewport", this.target.width(), this.target.height());
         Renderer.linesShader.setUniform("thickness", this.weight);
     
-        float[] array = new float[points.length << 2];
-        for (int p1 = 0, index = 0, n = points.length >> 1; p1 < n; p1++)
+        FloatBuffer array = Renderer.polygonLinesVAO.bind().stream((points.length >> 1) << 2);
+        for (int p1 = 0, n = points.length >> 1; p1 < n; p1++)
         {
             int p0 = (p1 - 1 + n) % n;
             int p2 = (p1 + 1 + n) % n;
             int p3 = (p1 + 2 + n) % n;
     
-            array[index++] = (float) points[(2 * p0)];
-            array[index++] = (float) points[(2 * p0) + 1];
-            array[index++] = (float) points[(2 * p1)];
-            array[index++] = (float) points[(2 * p1) + 1];
-            array[index++] = (float) points[(2 * p2)];
-            array[index++] = (float) points[(2 * p2) + 1];
-            array[index++] = (float) points[(2 * p3)];
-            array[index++] = (float) points[(2 * p3) + 1];
+            array.put((float) points[(2 * p0)]);
+            array.put((float) points[(2 * p0) + 1]);
+            array.put((float) points[(2 * p1)]);
+            array.put((float) points[(2 * p1) + 1]);
+            array.put((float) points[(2 * p2)]);
+            array.put((float) points[(2 * p2) + 1]);
+            array.put((float) points[(2 * p3)]);
+            array.put((float) points[(2 * p3) + 1]);
         }
     
-        Renderer.polygonLinesVAO.bind().set(array).resize().draw(GL.LINES_ADJACENCY).unbind();
+        Renderer.polygonLinesVAO.draw(GL.LINES_ADJACENCY).unbind();
     }
     
     /**
@@ -1491,6 +1675,8 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Filling Polygon:", Arrays.toString(points));
     
+        flush(FlushReason.IMMEDIATE);
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1499,9 +1685,9 @@ public class Renderer
         Renderer.polygonShader.setUniform("color", this.fill);
         Renderer.polygonShader.setUniform("tint", this.tint);
     
-        float[] array = new float[points.length];
-        for (int i = 0, n = points.length; i < n; i++) array[i] = (float) points[i];
-        Renderer.polygonSSBO.bind().set(array).unbind();
+        FloatBuffer array = Renderer.polygonSSBO.mapFloats(points.length, Renderer.ssboAlignment);
+        for (double point : points) array.put((float) point);
+        Renderer.polygonSSBO.base(1);
         Renderer.polygonVAO.bind().draw(GL.POINTS).unbind();
     }
     
@@ -1616,6 +1802,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Ellipse:", x, y, rx, ry);
     
+        if (this.batching)
+        {
+            batch(this.stroke).ellipseOutline(x, y, rx, ry, this.weight);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1627,7 +1819,8 @@ public class Renderer
         Renderer.ellipseOutlineShader.setUniform("viewport", this.target.width(), this.target.height());
         Renderer.ellipseOutlineShader.setUniform("thickness", this.weight);
     
-        Renderer.ellipseOutlineVAO.bind().set((float) x, (float) y).draw(GL.POINTS).unbind();
+        Renderer.ellipseOutlineVAO.bind().stream(1).put((float) x).put((float) y);
+        Renderer.ellipseOutlineVAO.draw(GL.POINTS).unbind();
     }
     
     /**
@@ -1644,6 +1837,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Filling Ellipse:", x, y, rx, ry);
     
+        if (this.batching)
+        {
+            batch(this.fill).ellipse(x, y, rx, ry);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1653,7 +1852,8 @@ public class Renderer
         Renderer.ellipseShader.setUniform("tint", this.tint);
         Renderer.ellipseShader.setUniform("radius", rx, ry);
     
-        Renderer.ellipseVAO.bind().set((float) x, (float) y).draw(GL.POINTS).unbind();
+        Renderer.ellipseVAO.bind().stream(1).put((float) x).put((float) y);
+        Renderer.ellipseVAO.draw(GL.POINTS).unbind();
     }
     
     /**
@@ -1719,6 +1919,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Arc:", x, y, rx, ry, start, stop);
     
+        if (this.batching)
+        {
+            batch(this.stroke).arcOutline(x, y, rx, ry, start, stop, this.weight, this.arcMode);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1732,7 +1938,8 @@ public class Renderer
         Renderer.arcOutlineShader.setUniform("bounds", start, stop);
         Renderer.arcOutlineShader.setUniform("mode", this.arcMode.ordinal());
     
-        Renderer.arcOutlineVAO.bind().set((float) x, (float) y).draw(GL.POINTS).unbind();
+        Renderer.arcOutlineVAO.bind().stream(1).put((float) x).put((float) y);
+        Renderer.arcOutlineVAO.draw(GL.POINTS).unbind();
     }
     
     /**
@@ -1751,6 +1958,12 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Filling Arc:", x, y, rx, ry, start, stop);
     
+        if (this.batching)
+        {
+            batch(this.fill).arc(x, y, rx, ry, start, stop, this.arcMode);
+            return;
+        }
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1762,7 +1975,8 @@ public class Renderer
         Renderer.arcShader.setUniform("bounds", start, stop);
         Renderer.arcShader.setUniform("mode", this.arcMode.ordinal());
     
-        Renderer.arcVAO.bind().set((float) x, (float) y).draw(GL.POINTS).unbind();
+        Renderer.arcVAO.bind().stream(1).put((float) x).put((float) y);
+        Renderer.arcVAO.draw(GL.POINTS).unbind();
     }
     
     /**
@@ -1848,6 +2062,8 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Texture:", x1, y1, x2, y2, u1, v1, u2, v2);
     
+        flush(FlushReason.IMMEDIATE);
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1860,10 +2076,11 @@ public class Renderer
     
         texture.bind(0);
     
-        Renderer.textureVAO.bind().set((float) x1, (float) y1, (float) u1, (float) v1,
-                                       (float) x1, (float) y2, (float) u1, (float) v2,
-                                       (float) x2, (float) y2, (float) u2, (float) v2,
-                                       (float) x2, (float) y1, (float) u2, (float) v1).draw(GL.QUADS).unbind();
+        Renderer.textureVAO.bind().stream(4).put((float) x1).put((float) y1).put((float) u1).put((float) v1)
+                                      .put((float) x1).put((float) y2).put((float) u1).put((float) v2)
+                                      .put((float) x2).put((float) y2).put((float) u2).put((float) v2)
+                                      .put((float) x2).put((float) y1).put((float) u2).put((float) v1);
+        Renderer.textureVAO.draw(GL.QUADS).unbind();
     }
     
     /**
@@ -1971,6 +2188,8 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Drawing Interpolated Texture:", amount, x1, y1, x2, y2, u1, v1, u2, v2);
     
+        flush(FlushReason.IMMEDIATE);
+    
         this.target.bindFramebuffer();
     
         updateViewMatrix();
@@ -1984,10 +2203,11 @@ public class Renderer
         texture1.bind(0);
         texture2.bind(1);
     
-        Renderer.textureVAO.bind().set((float) x1, (float) y1, (float) u1, (float) v1,
-                                       (float) x1, (float) y2, (float) u1, (float) v2,
-                                       (float) x2, (float) y2, (float) u2, (float) v2,
-                                       (float) x2, (float) y1, (float) u2, (float) v1).draw(GL.QUADS).unbind();
+        Renderer.textureVAO.bind().stream(4).put((float) x1).put((float) y1).put((float) u1).put((float) v1)
+                                      .put((float) x1).put((float) y2).put((float) u1).put((float) v2)
+                                      .put((float) x2).put((float) y2).put((float) u2).put((float) v2)
+                                      .put((float) x2).put((float) y1).put((float) u2).put((float) v1);
+        Renderer.textureVAO.draw(GL.QUADS).unbind();
     }
     
     /**
@@ -2098,79 +2318,54 @@ public class Renderer
      */
     public void drawText(String text, double x, double y)
     {
-        Renderer.LOGGER.finer("Drawing Text:", text, x, y);
+        drawText(Renderer.textCache.get(this.textFont, this.textSize, text, 0, 0, TextAlign.TOP_LEFT), x, y);
+    }
     
+    /**
+     * Draws text that was already laid out. The coordinate specified will be the top left of the layout's box.
+     * <p>
+     * The glyph quads of the layout are copied into the vertex stream and drawn with one draw call. If the glyph atlas
+     * moved glyphs since the layout was made, the text is laid out again.
+     * <p>
+     * The coordinates passed in will be transformed by the view matrix
+     *
+     * @param layout The layout to render.
+     * @param x      The x coordinate of the layout.
+     * @param y      The y coordinate of the layout.
+     */
+    public void drawText(TextLayout layout, double x, double y)
+    {
+        Renderer.LOGGER.finer("Drawing Text:", layout, x, y);
+        
+        if (layout.stale()) layout = Renderer.textCache.get(layout.font(), layout.size(), layout.text(), layout.width(), layout.height(), layout.align());
+        if (layout.glyphs() == 0) return;
+        
+        layout.touch();
+        
+        flush(FlushReason.IMMEDIATE);
+        
         this.target.bindFramebuffer();
-    
+        
         updateViewMatrix();
-    
-        Renderer.textShader.bind();
-        Renderer.textShader.setUniform("color", this.fill);
-        Renderer.textShader.setUniform("tint", this.tint);
-        Renderer.textShader.setUniform("tex", 0);
-    
-        this.textFont.texture(this.textSize).bind(0);
-    
-        int lineLength = text.length();
-    
-        float[] data = new float[lineLength * Renderer.textVAO.attributeSize()];
-    
-        Font.SizeData sizeData = this.textFont.getSizeData(this.textSize);
-    
-        Font.CharData prevChar = null, currChar;
-    
-        try (MemoryStack stack = MemoryStack.stackPush())
+        
+        GLShader shader = layout.sdf() ? Renderer.textSDFShader : Renderer.textShader;
+        shader.bind();
+        shader.setUniform("color", this.fill);
+        shader.setUniform("tint", this.tint);
+        shader.setUniform("tex", 0);
+        
+        layout.atlas().texture().bind(0);
+        
+        FloatBuffer data     = Renderer.textVAO.bind().stream(layout.glyphs() * 4);
+        float[]     vertices = layout.vertices();
+        
+        float fx = (float) x, fy = (float) y;
+        for (int i = 0, n = vertices.length; i < n; i += TextLayout.VERTEX_SIZE)
         {
-            FloatBuffer xBuf = stack.mallocFloat(1);
-            FloatBuffer yBuf = stack.mallocFloat(1);
-    
-            FloatBuffer quad = stack.mallocFloat(8);
-    
-            float x0, y0, x1, y1, u0, v0, u1, v1;
-    
-            for (int i = 0, index = 0; i < lineLength; i++)
-            {
-                char character = text.charAt(i);
-    
-                currChar = this.textFont.getCharData(character);
-    
-                x += this.textFont.getKernAdvance(prevChar, currChar) * sizeData.scale;
-    
-                this.textFont.buildCharQuad(currChar, sizeData, xBuf.put(0, (float) x), yBuf.put(0, (float) y), quad.clear());
-    
-                x0 = quad.get();
-                y0 = quad.get() + sizeData.ascent;
-                x1 = quad.get();
-                y1 = quad.get() + sizeData.ascent;
-                u0 = quad.get();
-                v0 = quad.get();
-                u1 = quad.get();
-                v1 = quad.get();
-    
-                data[index++] = x0;
-                data[index++] = y0;
-                data[index++] = u0;
-                data[index++] = v0;
-                data[index++] = x0;
-                data[index++] = y1;
-                data[index++] = u0;
-                data[index++] = v1;
-                data[index++] = x1;
-                data[index++] = y1;
-                data[index++] = u1;
-                data[index++] = v1;
-                data[index++] = x1;
-                data[index++] = y0;
-                data[index++] = u1;
-                data[index++] = v0;
-    
-                x += currChar.advanceWidthUnscaled * sizeData.scale;
-    
-                prevChar = currChar;
-            }
+            data.put(vertices[i] + fx).put(vertices[i + 1] + fy).put(vertices[i + 2]).put(vertices[i + 3]);
         }
-    
-        Renderer.textVAO.bind().set(data).resize().draw(GL.QUADS).unbind();
+        
+        Renderer.textVAO.draw(GL.QUADS).unbind();
     }
     
     /**
@@ -2195,8 +2390,6 @@ public class Renderer
     {
         if (this.fill.a() > 0)
         {
-            List<String> lines;
-            
             double x = a, y = b;
             double w = 0, h = 0;
             
@@ -2225,58 +2418,9 @@ public class Renderer
                         h = d * 2.0;
                     }
                 }
-                lines = new ArrayList<>();
-                for (String line : text.split("\n"))
-                {
-                    if (this.textFont.getTextWidth(line, this.textSize) > w)
-                    {
-                        String[]      subLines = line.split(" ");
-                        StringBuilder builder  = new StringBuilder(subLines[0]);
-                        for (int j = 1, n = subLines.length; j < n; j++)
-                        {
-                            if (this.textFont.getTextWidth(builder.toString() + " " + subLines[j], this.textSize) > w)
-                            {
-                                if (this.textFont.getTextWidth(builder.toString(), this.textSize) > w) break;
-                                if ((lines.size() + 1) * this.textSize > h) break;
-                                lines.add(builder.toString());
-                                builder.setLength(0);
-                                builder.append(subLines[j]);
-                                continue;
-                            }
-                            builder.append(" ").append(subLines[j]);
-                        }
-                        if (this.textFont.getTextWidth(builder.toString(), this.textSize) > w) break;
-                        if ((lines.size() + 1) * this.textSize > h) break;
-                        lines.add(builder.toString());
-                    }
-                    else
-                    {
-                        if ((lines.size() + 1) * this.textSize > h) break;
-                        lines.add(line);
-                    }
-                }
-            }
-            else
-            {
-                lines = Arrays.asList(text.split("\n"));
-            }
-    
-            double actualHeight = this.textFont.getTextHeight(text, this.textSize);
-    
-            int hPos = this.textAlign.getHorizontal(), vPos = this.textAlign.getVertical();
-    
-            double yOffset = vPos == -1 ? 0 : vPos == 0 ? 0.5 * (h - actualHeight) : h - actualHeight;
-            for (String line : lines)
-            {
-                double lineWidth  = Math.ceil(this.textFont.getTextWidth(line, this.textSize));
-                double lineHeight = Math.ceil(this.textFont.getTextHeight(line, this.textSize));
-    
-                double xOffset = hPos == -1 ? 0 : hPos == 0 ? 0.5 * (w - lineWidth) : w - lineWidth;
-    
-                drawText(line, x + xOffset, y + yOffset);
-    
-                yOffset += lineHeight;
             }
+            
+            drawText(Renderer.textCache.get(this.textFont, this.textSize, text, w, h, this.textAlign), x, y);
         }
     }
     
@@ -2319,6 +2463,8 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Loading Pixels");
     
+        flush(FlushReason.PIXELS);
+    
         int size = this.target.width() * this.target.height() * this.target.channels();
         if (this.pixels == null || this.pixels.length != size) this.pixels = new int[size];
     
@@ -2335,9 +2481,98 @@ public class Renderer
     {
         Renderer.LOGGER.finer("Updating Pixels");
     
+        flush(FlushReason.PIXELS);
+    
         this.target.bind().set(this.pixels);
     }
     
+    /**
+     * Gets the {@link PixelBuffer} of the target without reading the target into it. The pixels are what was last read or
+     * written, which is faster when every pixel is written anyway.
+     * <p>
+     * If you modify the pixels, you must mark them dirty and call {@link #updatePixelBuffer()} to show the changes.
+     *
+     * @return The pixel buffer of the target.
+     */
+    public PixelBuffer pixelBuffer()
+    {
+        PixelBuffer buffer = this.pixelBuffers.get(this.target);
+        if (buffer == null || buffer.width() != this.target.width() || buffer.height() != this.target.height())
+        {
+            if (buffer != null) buffer.delete();
+            this.pixelBuffers.put(this.target, buffer = new PixelBuffer(this.target));
+        }
+        return buffer;
+    }
+    
+    /**
+     * Starts reading the pixels of the target into its {@link PixelBuffer}. This does not wait for the GPU, which only
+     * happens when the pixels are first accessed.
+     * <p>
+     * Unlike {@link #loadPixels()}, the pixels are packed into one {@code argb} int each and are not copied into an array.
+     *
+     * @return The pixel buffer of the target.
+     */
+    public PixelBuffer loadPixelBuffer()
+    {
+        Renderer.LOGGER.finer("Loading Pixel Buffer");
+        
+        flush(FlushReason.PIXELS);
+        
+        return pixelBuffer().read();
+    }
+    
+    /**
+     * Uploads the dirty region of the target's {@link PixelBuffer} to the target.
+     * <p>
+     * This will do nothing if no pixels were marked dirty.
+     */
+    public void updatePixelBuffer()
+    {
+        Renderer.LOGGER.finer("Updating Pixel Buffer");
+        
+        flush(FlushReason.PIXELS);
+        
+        pixelBuffer().upload();
+    }
+    
+    /**
+     * Draws all primitives that were collected into the batch to the render target.
+     *
+     * @param reason The reason that the batch is being drawn.
+     */
+    protected void flush(FlushReason reason)
+    {
+        if (this.batch.isEmpty()) return;
+        
+        this.target.bindFramebuffer();
+        
+        Renderer.batchShader.bind();
+        Renderer.batchVAO.bind();
+        
+        // Batches can be larger than a segment of the stream, so they are copied in pieces of whole triangles.
+        FloatBuffer data  = this.batch.flush(reason);
+        int         limit = data.limit();
+        int         chunk = Renderer.VERTEX_SEGMENT_SIZE / (Batch.VERTEX_SIZE * Float.BYTES) / 3 * 3 * Batch.VERTEX_SIZE;
+        for (int start = 0; start < limit; start += chunk)
+        {
+            int end = Math.min(start + chunk, limit);
+            Renderer.batchVAO.stream((end - start) / Batch.VERTEX_SIZE).put(data.limit(end).position(start));
+            Renderer.batchVAO.draw(GL.TRIANGLES);
+        }
+        data.limit(limit);
+        
+        Renderer.batchVAO.unbind();
+        
+        this.batch.clear();
+    }
+    
+    private Batch batch(Colorc color)
+    {
+        this.batch.state(this.view, this.target.width(), this.target.height(), color, this.tint);
+        return this.batch;
+    }
+    
     private void updateViewMatrix()
     {
         if (this.updateViewBuffer)
@@ -0,0 +1,273 @@
+package engine.render;
+
+import engine.color.Colorc;
+import rutils.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A {@link Renderer} that draws on the CPU with a {@link Rasterizer} instead of with OpenGL.
+ * <p>
+ * Each render target has a software copy of its pixels which is read back from the texture the first time that it is used.
+ * Everything is drawn into the copy and the copies that changed are uploaded to their textures when {@link #finish()} is called.
+ * Textures that are drawn with {@link #drawTexture} are read the same way.
+ * <p>
+ * Primitives are always batched. Text is not supported.
+ * <p>
+ * To render without a GPU, set a {@link RecordingBackend} with {@link OpenGL#backend(GLBackend)} before creating any textures.
+ */
+@SuppressWarnings("unused")
+public class SoftwareRenderer extends Renderer
+{
+    private static final Logger LOGGER = new Logger();
+    
+    protected final Rasterizer rasterizer;
+    
+    protected final HashMap<Texture, Rasterizer.Pixels> buffers = new HashMap<>();
+    protected final HashSet<Texture>                    dirty   = new HashSet<>();
+    
+    /**
+     * Creates a software renderer that draws with the number of threads provided.
+     *
+     * @param target  The default render target.
+     * @param threads The number of threads used to draw.
+     */
+    public SoftwareRenderer(Texture target, int threads)
+    {
+        super(target);
+        
+        this.rasterizer = new Rasterizer(threads);
+        this.batching   = true;
+    }
+    
+    /**
+     * Creates a software renderer that draws with all available processors.
+     *
+     * @param target The default render target.
+     */
+    public SoftwareRenderer(Texture target)
+    {
+        this(target, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * The software renderer always batches primitives, so this does nothing.
+     *
+     * @param enableBatching Ignored.
+     */
+    @Override
+    public void batching(boolean enableBatching)
+    {
+        SoftwareRenderer.LOGGER.finest("Ignoring Batching State:", enableBatching);
+    }
+    
+    /**
+     * Gets the software copy of the texture's pixels. The copy is read from the texture if it does not exist yet.
+     * <p>
+     * Changing the values of the copy changes what will be drawn when the texture is used.
+     *
+     * @param texture The texture.
+     * @return The pixels.
+     */
+    public Rasterizer.Pixels pixels(Texture texture)
+    {
+        return this.buffers.computeIfAbsent(texture, t -> {
+            SoftwareRenderer.LOGGER.finer("Reading Pixels of", t);
+            
+            return new Rasterizer.Pixels(t.width(), t.height(), t.channels(), t.bind().get());
+        });
+    }
+    
+    /**
+     * Stops the threads used to draw and releases the software copies of the textures.
+     */
+    public void destroy()
+    {
+        SoftwareRenderer.LOGGER.fine("Destroying Software Renderer");
+        
+        this.rasterizer.destroy();
+        this.buffers.clear();
+        this.dirty.clear();
+    }
+    
+    // --------------------
+    // -- Render Methods --
+    // --------------------
+    
+    /**
+     * Finishes the render and uploads the pixels that changed to their textures.
+     * <p>
+     * This must be called after {@link #start}
+     */
+    @Override
+    public void finish()
+    {
+        super.finish();
+        
+        for (Texture texture : this.dirty)
+        {
+            SoftwareRenderer.LOGGER.finer("Uploading Pixels to", texture);
+            
+            texture.bind().set(this.buffers.get(texture).data);
+        }
+        this.dirty.clear();
+    }
+    
+    /**
+     * Clears the render target to the color provided.
+     *
+     * @param color The color to set the target to.
+     */
+    @Override
+    public void clear(Colorc color)
+    {
+        SoftwareRenderer.LOGGER.finest("Clearing Render Target to", color);
+        
+        flush(FlushReason.CLEAR);
+        
+        this.rasterizer.clear(pixels(this.target), color);
+        this.dirty.add(this.target);
+    }
+    
+    /**
+     * Fills a polygon from the points provided that is {@link #fill()} in color. Self-intersecting polygons are filled with the even-odd rule.
+     * <p>
+     * The coordinates passed in will be transformed by the view matrix
+     *
+     * @param points The points.
+     */
+    @Override
+    public void fillPolygon(double... points)
+    {
+        SoftwareRenderer.LOGGER.finer("Filling Polygon:", Arrays.toString(points));
+        
+        flush(FlushReason.IMMEDIATE);
+        
+        this.rasterizer.polygon(pixels(this.target), transform(points.clone()), this.fill, this.tint);
+        this.dirty.add(this.target);
+    }
+    
+    @Override
+    public void drawTexture(Texture texture, double x1, double y1, double x2, double y2, double u1, double v1, double u2, double v2)
+    {
+        SoftwareRenderer.LOGGER.finer("Drawing Texture:", x1, y1, x2, y2, u1, v1, u2, v2);
+        
+        flush(FlushReason.IMMEDIATE);
+        
+        drawQuad(pixels(texture), null, 0, x1, y1, x2, y2, u1, v1, u2, v2);
+    }
+    
+    @Override
+    public void drawInterpolatedTexture(Texture texture1, Texture texture2, double amount, double x1, double y1, double x2, double y2, double u1, double v1, double u2, double v2)
+    {
+        SoftwareRenderer.LOGGER.finer("Drawing Interpolated Texture:", amount, x1, y1, x2, y2, u1, v1, u2, v2);
+        
+        flush(FlushReason.IMMEDIATE);
+        
+        if (amount <= 0)
+        {
+            drawQuad(pixels(texture1), null, 0, x1, y1, x2, y2, u1, v1, u2, v2);
+        }
+        else if (amount >= 1)
+        {
+            drawQuad(pixels(texture2), null, 0, x1, y1, x2, y2, u1, v1, u2, v2);
+        }
+        else
+        {
+            drawQuad(pixels(texture1), pixels(texture2), amount, x1, y1, x2, y2, u1, v1, u2, v2);
+        }
+    }
+    
+    /**
+     * Text is not supported by the software renderer.
+     */
+    @Override
+    public void drawText(TextLayout layout, double x, double y)
+    {
+        throw new RuntimeException("Text is not supported by SoftwareRenderer");
+    }
+    
+    // -------------------
+    // -- Pixel Methods --
+    // -------------------
+    
+    @Override
+    public int[] loadPixels()
+    {
+        SoftwareRenderer.LOGGER.finer("Loading Pixels");
+        
+        flush(FlushReason.PIXELS);
+        
+        int[] data = pixels(this.target).data;
+        if (this.pixels == null || this.pixels.length != data.length) this.pixels = new int[data.length];
+        
+        System.arraycopy(data, 0, this.pixels, 0, data.length);
+        return this.pixels;
+    }
+    
+    @Override
+    public void updatePixels()
+    {
+        SoftwareRenderer.LOGGER.finer("Updating Pixels");
+        
+        flush(FlushReason.PIXELS);
+        
+        int[] data = pixels(this.target).data;
+        if (this.pixels == null || this.pixels.length != data.length) return;
+        
+        System.arraycopy(this.pixels, 0, data, 0, data.length);
+        this.dirty.add(this.target);
+    }
+    
+    /**
+     * Pixel buffers are not supported by the software renderer.
+     */
+    @Override
+    public PixelBuffer pixelBuffer()
+    {
+        throw new RuntimeException("Pixel buffers are not supported by SoftwareRenderer");
+    }
+    
+    /**
+     * Draws all primitives that were collected into the batch into the software copy of the render target.
+     *
+     * @param reason The reason that the batch is being drawn.
+     */
+    @Override
+    protected void flush(FlushReason reason)
+    {
+        if (this.batch.isEmpty()) return;
+        
+        int vertexCount = this.batch.vertexCount();
+        
+        this.rasterizer.triangles(pixels(this.target), this.batch.flush(reason), vertexCount);
+        this.dirty.add(this.target);
+        
+        this.batch.clear();
+    }
+    
+    private void drawQuad(Rasterizer.Pixels tex1, Rasterizer.Pixels tex2, double amount, double x1, double y1, double x2, double y2, double u1, double v1, double u2, double v2)
+    {
+        double[] quad = transform(new double[] {x1, y1, x1, y2, x2, y2, x2, y1});
+        double[] uv   = {u1, v1, u1, v2, u2, v2, u2, v1};
+        
+        this.rasterizer.texture(pixels(this.target), tex1, tex2, amount, quad, uv, this.tint);
+        this.dirty.add(this.target);
+    }
+    
+    /**
+     * Transforms the points by the view matrix in place.
+     */
+    private double[] transform(double[] points)
+    {
+        for (int i = 0; i + 1 < points.length; i += 2)
+        {
+            double x = points[i], y = points[i + 1];
+            points[i]     = this.view.m00() * x + this.view.m10() * y + this.view.m30();
+            points[i + 1] = this.view.m01() * x + this.view.m11() * y + this.view.m31();
+        }
+        return points;
+    }
+}
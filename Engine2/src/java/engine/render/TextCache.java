@@ -0,0 +1,183 @@
+package engine.render;
+
+import engine.font.Font;
+import rutils.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@link TextLayout}s that were used most recently, keyed by font, size, text, box and alignment.
+ * <p>
+ * Looking up a layout that is in the cache does not allocate anything. When the cache is full, the layout that was used
+ * least recently is dropped. Layouts that are {@link TextLayout#stale() stale} are laid out again.
+ */
+@SuppressWarnings("unused")
+public class TextCache
+{
+    private static final Logger LOGGER = new Logger();
+    
+    private final int capacity;
+    
+    private final LinkedHashMap<Key, TextLayout> layouts;
+    
+    private final Key lookup = new Key();
+    
+    private int hits, misses;
+    
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity The maximum number of layouts that are kept.
+     */
+    public TextCache(int capacity)
+    {
+        if (capacity <= 0) throw new RuntimeException("Capacity must be positive: " + capacity);
+        
+        this.capacity = capacity;
+        this.layouts  = new LinkedHashMap<>(capacity, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TextLayout> eldest)
+            {
+                return size() > TextCache.this.capacity;
+            }
+        };
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "TextCache{" + "size=" + this.layouts.size() + '/' + this.capacity + ", hits=" + this.hits + ", misses=" + this.misses + '}';
+    }
+    
+    /**
+     * @return The maximum number of layouts that are kept.
+     */
+    public int capacity()
+    {
+        return this.capacity;
+    }
+    
+    /**
+     * @return The number of layouts that are in the cache.
+     */
+    public int size()
+    {
+        return this.layouts.size();
+    }
+    
+    /**
+     * @return The number of lookups that found a layout since the last call to {@link #resetCounts()}.
+     */
+    public int hits()
+    {
+        return this.hits;
+    }
+    
+    /**
+     * @return The number of lookups that had to lay out the text since the last call to {@link #resetCounts()}.
+     */
+    public int misses()
+    {
+        return this.misses;
+    }
+    
+    /**
+     * Resets the hit and miss counts.
+     */
+    public void resetCounts()
+    {
+        this.hits   = 0;
+        this.misses = 0;
+    }
+    
+    /**
+     * Removes all layouts from the cache.
+     */
+    public void clear()
+    {
+        TextCache.LOGGER.finer("Clearing Text Cache");
+        
+        this.layouts.clear();
+    }
+    
+    /**
+     * Gets the layout of the text, laying it out if it is not in the cache.
+     *
+     * @param font   The font.
+     * @param size   The size of the text in pixels.
+     * @param text   The text.
+     * @param width  The width of the box, or zero.
+     * @param height The height of the box, or zero.
+     * @param align  How the text is aligned in the box.
+     * @return The layout.
+     */
+    public TextLayout get(Font font, int size, String text, double width, double height, TextAlign align)
+    {
+        TextLayout layout = this.layouts.get(this.lookup.set(font, size, text, width, height, align));
+        if (layout != null && !layout.stale())
+        {
+            this.hits++;
+            return layout;
+        }
+        this.misses++;
+        
+        layout = new TextLayout(font, size, text, width, height, align);
+        this.layouts.put(new Key().set(font, size, text, width, height, align), layout);
+        return layout;
+    }
+    
+    private static final class Key
+    {
+        private Font      font;
+        private int       size;
+        private String    text;
+        private double    width, height;
+        private TextAlign align;
+        
+        private int hash;
+        
+        private Key set(Font font, int size, String text, double width, double height, TextAlign align)
+        {
+            this.font   = font;
+            this.size   = size;
+            this.text   = text;
+            this.width  = width;
+            this.height = height;
+            this.align  = align;
+            
+            // Fonts are only created when registered, so they are compared by identity.
+            int hash = System.identityHashCode(font);
+            hash = 31 * hash + size;
+            hash = 31 * hash + text.hashCode();
+            hash = 31 * hash + Double.hashCode(width);
+            hash = 31 * hash + Double.hashCode(height);
+            hash = 31 * hash + align.ordinal();
+            this.hash = hash;
+            
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return this.hash == key.hash &&
+                   this.size == key.size &&
+                   Double.compare(key.width, this.width) == 0 &&
+                   Double.compare(key.height, this.height) == 0 &&
+                   this.align == key.align &&
+                   this.font == key.font &&
+                   this.text.equals(key.text);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package engine.render;
+
+import engine.font.Font;
+import engine.font.GlyphAtlas;
+import rutils.Logger;
+
+import java.util.Arrays;
+
+/**
+ * The glyph quads of a string of text, laid out with a font, size, box and {@link TextAlign}. Building a layout does all the
+ * work of splitting, wrapping and aligning the text and looking up the glyphs, so a layout can be drawn any number of
+ * times with a single buffer upload.
+ * <p>
+ * The vertices are relative to the top left corner of the box and are stored as {@code x, y, u, v}, four per glyph.
+ * <p>
+ * If the box has a width and height, then lines are wrapped at spaces to fit in it, and lines that would not fit are not
+ * laid out. Otherwise the text is only split at line breaks.
+ * <p>
+ * The texture coordinates point into the font's {@link Font#glyphAtlas() glyph atlas}. When the atlas moves its glyphs,
+ * or the font is switched between bitmap and signed distance field glyphs, the layout is {@link #stale()} and must be
+ * laid out again.
+ * <p>
+ * Layouts are immutable. {@link TextCache} keeps the layouts that were used recently.
+ */
+@SuppressWarnings("unused")
+public class TextLayout
+{
+    private static final Logger LOGGER = new Logger();
+    
+    public static final int VERTEX_SIZE = 4;
+    public static final int GLYPH_SIZE  = TextLayout.VERTEX_SIZE * 4;
+    
+    private final Font      font;
+    private final int       size;
+    private final String    text;
+    private final double    width, height;
+    private final TextAlign align;
+    
+    private final float[]            vertices;
+    private final GlyphAtlas.Glyph[] glyphRefs;
+    private final int                glyphs;
+    private final int                lines;
+    private final int                generation;
+    private final boolean            sdf;
+    
+    /**
+     * Lays out text.
+     *
+     * @param font   The font.
+     * @param size   The size of the text in pixels.
+     * @param text   The text.
+     * @param width  The width of the box, or zero.
+     * @param height The height of the box, or zero.
+     * @param align  How the text is aligned in the box.
+     */
+    public TextLayout(Font font, int size, String text, double width, double height, TextAlign align)
+    {
+        TextLayout.LOGGER.finest("Laying out text \"%s\" with font \"%s\" of size \"%s\" in [%s, %s] aligned %s", text, font, size, width, height, align);
+        
+        this.font   = font;
+        this.size   = size;
+        this.text   = text;
+        this.width  = width;
+        this.height = height;
+        this.align  = align;
+        
+        Font.SizeData sizeData = font.getSizeData(size);
+        
+        boolean wrap = width > 0 && height > 0;
+        
+        // Each line is stored as its start and end index in the text.
+        int[] ranges = new int[8];
+        int   lines  = 0;
+        
+        // Empty lines at the end are dropped, the same as Font.getLineCount.
+        int textEnd = text.length();
+        while (textEnd > 0 && text.charAt(textEnd - 1) == '\n') textEnd--;
+        
+        int lineStart = textEnd == 0 && !text.isEmpty() ? 1 : 0, lineEnd;
+        layout:
+        while (lineStart <= textEnd)
+        {
+            lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd > textEnd) lineEnd = textEnd;
+            
+            int start = lineStart, end = lineEnd;
+            
+            lineStart = lineEnd + 1;
+            
+            if (!wrap)
+            {
+                ranges = addLine(ranges, lines++, start, end);
+                continue;
+            }
+            
+            if (font.getTextWidthUnscaled(text, start, end) * sizeData.scale <= width)
+            {
+                if ((lines + 1) * size > height) break;
+                ranges = addLine(ranges, lines++, start, end);
+                continue;
+            }
+            
+            // Spaces at the end of a wrapped line are dropped.
+            while (end > start && text.charAt(end - 1) == ' ') end--;
+            
+            Font.CharData space = font.getCharData(' ');
+            
+            int wordEnd = wordEnd(text, start, end);
+            int current = font.getTextWidthUnscaled(text, start, wordEnd);
+            while (wordEnd < end)
+            {
+                int nextEnd = wordEnd(text, wordEnd + 1, end);
+                int next    = current + font.getTextWidthUnscaled(text, wordEnd, nextEnd);
+                if (wordEnd > start) next += font.getKernAdvance(font.getCharData(text.charAt(wordEnd - 1)), space);
+                if (next * sizeData.scale > width)
+                {
+                    if (current * sizeData.scale > width) break;
+                    if ((lines + 1) * size > height) break;
+                    ranges  = addLine(ranges, lines++, start, wordEnd);
+                    start   = wordEnd + 1;
+                    wordEnd = nextEnd;
+                    current = font.getTextWidthUnscaled(text, start, wordEnd);
+                    continue;
+                }
+                wordEnd = nextEnd;
+                current = next;
+            }
+            if (current * sizeData.scale > width) break layout;
+            if ((lines + 1) * size > height) break layout;
+            ranges = addLine(ranges, lines++, start, wordEnd);
+        }
+        this.lines = lines;
+        
+        GlyphAtlas atlas      = font.glyphAtlas();
+        float      glyphScale = atlas.scale(size);
+        
+        float[]            vertices  = new float[text.length() * TextLayout.GLYPH_SIZE];
+        GlyphAtlas.Glyph[] glyphRefs = new GlyphAtlas.Glyph[text.length()];
+        float[]            quad      = new float[8];
+        int                glyphs, generation;
+        
+        int hPos = align.getHorizontal(), vPos = align.getVertical();
+        
+        // Rasterizing a glyph can move the glyphs that were already placed, so the quads are built again until the atlas
+        // does not change.
+        atlas.advance();
+        do
+        {
+            generation = atlas.generation();
+            glyphs     = 0;
+            
+            double textHeight = lines * size;
+            double yOffset    = vPos == -1 ? 0 : vPos == 0 ? 0.5 * (height - textHeight) : height - textHeight;
+            for (int l = 0; l < lines; l++)
+            {
+                int start = ranges[l * 2], end = ranges[l * 2 + 1];
+                
+                double lineWidth = Math.ceil(font.getTextWidthUnscaled(text, start, end) * sizeData.scale);
+                double xOffset   = hPos == -1 ? 0 : hPos == 0 ? 0.5 * (width - lineWidth) : width - lineWidth;
+                
+                Font.CharData prevChar = null, currChar;
+                for (int i = start; i < end; i++)
+                {
+                    currChar = font.getCharData(text.charAt(i));
+                    
+                    xOffset += font.getKernAdvance(prevChar, currChar) * sizeData.scale;
+                    
+                    GlyphAtlas.Glyph glyph = atlas.glyph(font, size, currChar.character);
+                    glyph.quad((float) xOffset, (float) yOffset, glyphScale, quad, 0);
+                    
+                    float x0 = quad[0], y0 = quad[1] + sizeData.ascent, x1 = quad[2], y1 = quad[3] + sizeData.ascent;
+                    float u0 = quad[4], v0 = quad[5], u1 = quad[6], v1 = quad[7];
+                    
+                    glyphRefs[glyphs] = glyph;
+                    
+                    int index = glyphs++ * TextLayout.GLYPH_SIZE;
+                    vertices[index++] = x0;
+                    vertices[index++] = y0;
+                    vertices[index++] = u0;
+                    vertices[index++] = v0;
+                    vertices[index++] = x0;
+                    vertices[index++] = y1;
+                    vertices[index++] = u0;
+                    vertices[index++] = v1;
+                    vertices[index++] = x1;
+                    vertices[index++] = y1;
+                    vertices[index++] = u1;
+                    vertices[index++] = v1;
+                    vertices[index++] = x1;
+                    vertices[index++] = y0;
+                    vertices[index++] = u1;
+                    vertices[index]   = v0;
+                    
+                    xOffset += currChar.advanceWidthUnscaled * sizeData.scale;
+                    
+                    prevChar = currChar;
+                }
+                
+                yOffset += size;
+            }
+        }
+        while (generation != atlas.generation());
+        
+        this.vertices   = glyphs * TextLayout.GLYPH_SIZE == vertices.length ? vertices : Arrays.copyOf(vertices, glyphs * TextLayout.GLYPH_SIZE);
+        this.glyphRefs  = glyphs == glyphRefs.length ? glyphRefs : Arrays.copyOf(glyphRefs, glyphs);
+        this.glyphs     = glyphs;
+        this.generation = generation;
+        this.sdf        = atlas.sdf();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "TextLayout{" + "text='" + this.text + '\'' + ", font=" + this.font + ", size=" + this.size + ", glyphs=" + this.glyphs + ", lines=" + this.lines + '}';
+    }
+    
+    /**
+     * @return The font.
+     */
+    public Font font()
+    {
+        return this.font;
+    }
+    
+    /**
+     * @return The size of the text in pixels.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+    
+    /**
+     * @return The text.
+     */
+    public String text()
+    {
+        return this.text;
+    }
+    
+    /**
+     * @return The width of the box, or zero.
+     */
+    public double width()
+    {
+        return this.width;
+    }
+    
+    /**
+     * @return The height of the box, or zero.
+     */
+    public double height()
+    {
+        return this.height;
+    }
+    
+    /**
+     * @return How the text is aligned in the box.
+     */
+    public TextAlign align()
+    {
+        return this.align;
+    }
+    
+    /**
+     * @return The number of glyphs that were laid out.
+     */
+    public int glyphs()
+    {
+        return this.glyphs;
+    }
+    
+    /**
+     * @return The number of lines that were laid out.
+     */
+    public int lines()
+    {
+        return this.lines;
+    }
+    
+    /**
+     * Gets the vertex data of the glyph quads. The array is shared, so it must not be modified.
+     *
+     * @return The vertices.
+     */
+    public float[] vertices()
+    {
+        return this.vertices;
+    }
+    
+    /**
+     * @return The generation of the glyph atlas that the texture coordinates are from.
+     */
+    public int generation()
+    {
+        return this.generation;
+    }
+    
+    /**
+     * @return true if the glyphs are signed distance fields.
+     */
+    public boolean sdf()
+    {
+        return this.sdf;
+    }
+    
+    /**
+     * @return The glyph atlas that the texture coordinates point into.
+     */
+    public GlyphAtlas atlas()
+    {
+        return this.sdf ? Font.sdfAtlas() : Font.atlas();
+    }
+    
+    /**
+     * @return true if the glyph atlas moved glyphs or the font changed its mode since the layout was made, so the texture coordinates are wrong.
+     */
+    public boolean stale()
+    {
+        return this.sdf != this.font.sdf() || this.generation != atlas().generation();
+    }
+    
+    /**
+     * Marks the glyphs of the layout as used in the glyph atlas, so that they are evicted after glyphs that were not used.
+     */
+    public void touch()
+    {
+        GlyphAtlas atlas = atlas();
+        atlas.advance();
+        for (GlyphAtlas.Glyph glyph : this.glyphRefs) atlas.touch(glyph);
+    }
+    
+    private static int[] addLine(int[] ranges, int line, int start, int end)
+    {
+        if (line * 2 + 2 > ranges.length) ranges = Arrays.copyOf(ranges, ranges.length * 2);
+        ranges[line * 2]     = start;
+        ranges[line * 2 + 1] = end;
+        return ranges;
+    }
+    
+    private static int wordEnd(String text, int start, int end)
+    {
+        int index = text.indexOf(' ', start);
+        return index < 0 || index > end ? end : index;
+    }
+}
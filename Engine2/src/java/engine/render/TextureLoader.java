@@ -0,0 +1,484 @@
+package engine.render;
+
+import engine.color.Color;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import rutils.IOUtil;
+import rutils.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.lwjgl.stb.STBImage.stbi_failure_reason;
+import static org.lwjgl.stb.STBImage.stbi_image_free;
+import static org.lwjgl.stb.STBImage.stbi_load;
+
+/**
+ * Loads images from disk into textures without stalling the render thread.
+ * <p>
+ * Images are decoded on a pool of worker threads. The decoded pixels are then copied into a {@link GLStreamBuffer pixel
+ * unpack buffer} and uploaded a slice of rows at a time by {@link #upload(long)}, which the engine calls once a frame
+ * with what is left of the task budget, so a large image is spread over as many frames as it needs.
+ * <p>
+ * {@link #load(String, boolean)} returns a {@link Handle} right away. Until the texture is uploaded, the handle gives a
+ * one pixel placeholder texture. Images are cached by path, so loading the same image again shares the texture, which is
+ * destroyed when the last handle is {@link Handle#release() released}.
+ */
+@SuppressWarnings("unused")
+public final class TextureLoader
+{
+    private static final Logger LOGGER = new Logger();
+    
+    /**
+     * The most bytes that are uploaded in one slice. This is also the segment size of the pixel unpack buffer.
+     */
+    public static final int SLICE_SIZE = 1 << 20;
+    
+    private static final AtomicInteger   THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService DECODERS     = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+        Thread thread = new Thread(r, "TextureLoader-" + TextureLoader.THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Guarded by itself.
+    private static final HashMap<String, Entry> CACHE = new HashMap<>();
+    
+    private static final Queue<Entry> UPLOADS  = new ConcurrentLinkedQueue<>();
+    private static final Queue<Entry> RELEASED = new ConcurrentLinkedQueue<>();
+    
+    // Only used by the render thread.
+    private static GLStreamBuffer unpackBuffer;
+    private static int            sliceCount;
+    
+    private static volatile Texture placeholder;
+    
+    private TextureLoader() { }
+    
+    /**
+     * Starts loading an image. Can be called from any thread.
+     * <p>
+     * If the image is already loaded or loading, the texture is shared with the other handles.
+     *
+     * @param filePath The path to the file.
+     * @param flip     If the image should be flipped vertically.
+     * @return A handle to the texture that must be {@link Handle#release() released} when it is no longer used.
+     */
+    public static Handle load(String filePath, boolean flip)
+    {
+        String key = flip + ":" + filePath;
+        
+        Entry entry;
+        synchronized (TextureLoader.CACHE)
+        {
+            entry = TextureLoader.CACHE.get(key);
+            if (entry == null)
+            {
+                TextureLoader.LOGGER.finer("Loading image:", filePath);
+                
+                entry = new Entry(key, filePath, flip);
+                TextureLoader.CACHE.put(key, entry);
+                
+                Entry decode = entry;
+                TextureLoader.DECODERS.execute(() -> decode(decode));
+            }
+            else
+            {
+                TextureLoader.LOGGER.finest("Image already loaded:", filePath);
+            }
+            entry.references++;
+        }
+        return new Handle(entry);
+    }
+    
+    /**
+     * Starts loading an image. Can be called from any thread.
+     *
+     * @param filePath The path to the file.
+     * @return A handle to the texture that must be {@link Handle#release() released} when it is no longer used.
+     */
+    public static Handle load(String filePath)
+    {
+        return load(filePath, false);
+    }
+    
+    /**
+     * @return The number of images that are cached.
+     */
+    public static int cached()
+    {
+        synchronized (TextureLoader.CACHE)
+        {
+            return TextureLoader.CACHE.size();
+        }
+    }
+    
+    /**
+     * @return The number of images that are decoded and waiting to be uploaded.
+     */
+    public static int pending()
+    {
+        return TextureLoader.UPLOADS.size();
+    }
+    
+    /**
+     * @return The number of slices that were uploaded since the last call to {@link #resetCounts()}.
+     */
+    public static int sliceCount()
+    {
+        return TextureLoader.sliceCount;
+    }
+    
+    /**
+     * Resets the counts.
+     */
+    public static void resetCounts()
+    {
+        TextureLoader.sliceCount = 0;
+    }
+    
+    /**
+     * The texture that handles give until their texture is uploaded. Must be called on a thread with the OpenGL context.
+     *
+     * @return The placeholder texture.
+     */
+    public static Texture placeholder()
+    {
+        Texture placeholder = TextureLoader.placeholder;
+        if (placeholder == null)
+        {
+            synchronized (TextureLoader.class)
+            {
+                placeholder = TextureLoader.placeholder;
+                if (placeholder == null) TextureLoader.placeholder = placeholder = new Texture(1, 1, Color.WHITE);
+            }
+        }
+        return placeholder;
+    }
+    
+    /**
+     * Destroys the textures of released handles and uploads slices of the decoded images until the budget is used up. At
+     * least one slice is uploaded if one is waiting, so loading always makes progress. Must only be called by the render
+     * thread.
+     *
+     * @param budget The time in nanoseconds to stop starting new slices after, or a negative number for no limit.
+     * @return The number of slices that were uploaded.
+     */
+    public static int upload(long budget)
+    {
+        Entry entry;
+        while ((entry = TextureLoader.RELEASED.poll()) != null)
+        {
+            if (entry.texture == null) continue;
+            
+            TextureLoader.LOGGER.finer("Destroying image:", entry.path);
+            
+            entry.texture.destroy();
+            entry.texture = null;
+        }
+        
+        if (TextureLoader.UPLOADS.isEmpty()) return 0;
+        
+        if (TextureLoader.unpackBuffer == null) TextureLoader.unpackBuffer = new GLStreamBuffer(GL.PIXEL_UNPACK_BUFFER, TextureLoader.SLICE_SIZE);
+        
+        long start = System.nanoTime();
+        int  count = 0;
+        
+        while ((entry = TextureLoader.UPLOADS.peek()) != null)
+        {
+            if (entry.released)
+            {
+                TextureLoader.UPLOADS.poll();
+                entry.free();
+                if (entry.texture != null) entry.texture.destroy();
+                entry.texture = null;
+                continue;
+            }
+            
+            if (entry.texture == null) entry.texture = new Texture(entry.width, entry.height, entry.channels);
+            
+            uploadSlice(entry);
+            count++;
+            
+            if (entry.row == entry.height)
+            {
+                TextureLoader.UPLOADS.poll();
+                entry.free();
+                
+                TextureLoader.LOGGER.finer("Loaded image:", entry.path);
+                
+                entry.ready = true;
+                if (entry.released)
+                {
+                    entry.texture.destroy();
+                    entry.texture = null;
+                }
+                else
+                {
+                    entry.future.complete(entry.texture);
+                }
+            }
+            
+            if (budget >= 0 && System.nanoTime() - start >= budget) break;
+        }
+        TextureLoader.unpackBuffer.fence();
+        
+        TextureLoader.sliceCount += count;
+        return count;
+    }
+    
+    /**
+     * Frees the pixel unpack buffer, the placeholder and the images that are waiting to be uploaded. Must only be called
+     * by the render thread.
+     */
+    public static void destroy()
+    {
+        Entry entry;
+        while ((entry = TextureLoader.UPLOADS.poll()) != null)
+        {
+            entry.free();
+            if (entry.texture != null) entry.texture.destroy();
+            entry.texture = null;
+            entry.future.completeExceptionally(new RuntimeException("Texture loader destroyed"));
+        }
+        TextureLoader.RELEASED.clear();
+        
+        if (TextureLoader.unpackBuffer != null) TextureLoader.unpackBuffer.delete();
+        TextureLoader.unpackBuffer = null;
+        
+        if (TextureLoader.placeholder != null) TextureLoader.placeholder.destroy();
+        TextureLoader.placeholder = null;
+    }
+    
+    private static void decode(Entry entry)
+    {
+        if (entry.released) return;
+        
+        String actualPath = IOUtil.getPath(entry.path).toString();
+        
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            IntBuffer width    = stack.mallocInt(1);
+            IntBuffer height   = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+            
+            ByteBuffer data = stbi_load(actualPath, width, height, channels, 0);
+            if (data == null)
+            {
+                TextureLoader.LOGGER.severe("Failed to load Texture:", entry.path, stbi_failure_reason());
+                
+                forget(entry);
+                entry.future.completeExceptionally(new RuntimeException("Failed to load Texture: " + entry.path));
+                return;
+            }
+            
+            entry.width    = width.get(0);
+            entry.height   = height.get(0);
+            entry.channels = channels.get(0);
+            entry.data     = data;
+        }
+        catch (Throwable throwable)
+        {
+            TextureLoader.LOGGER.severe("Failed to load Texture:", entry.path, throwable);
+            
+            forget(entry);
+            entry.future.completeExceptionally(throwable);
+            return;
+        }
+        
+        TextureLoader.UPLOADS.offer(entry);
+    }
+    
+    /**
+     * Copies the next rows of the image into the pixel unpack buffer and uploads them from there. The rows are copied in
+     * reverse order if the image is flipped, so stb's global flip flag is never touched by the worker threads.
+     */
+    private static void uploadSlice(Entry entry)
+    {
+        int rowSize = entry.width * entry.channels;
+        int rows    = Math.min(entry.height - entry.row, Math.max(1, TextureLoader.SLICE_SIZE / rowSize));
+        
+        entry.texture.bind();
+        if (rowSize > TextureLoader.SLICE_SIZE)
+        {
+            int y = entry.flip ? entry.height - 1 - entry.row : entry.row;
+            entry.texture.set(0, entry.row, entry.width, 1, entry.data.slice(y * rowSize, rowSize));
+        }
+        else
+        {
+            ByteBuffer mapped = TextureLoader.unpackBuffer.map(rows * rowSize, 4);
+            for (int i = 0; i < rows; i++)
+            {
+                int y = entry.row + i;
+                if (entry.flip) y = entry.height - 1 - y;
+                MemoryUtil.memCopy(MemoryUtil.memAddress(entry.data, y * rowSize), MemoryUtil.memAddress(mapped, i * rowSize), rowSize);
+            }
+            
+            TextureLoader.unpackBuffer.bind();
+            entry.texture.set(0, entry.row, entry.width, rows, TextureLoader.unpackBuffer.offset());
+            TextureLoader.unpackBuffer.unbind();
+        }
+        entry.texture.unbind();
+        
+        entry.row += rows;
+    }
+    
+    /**
+     * Removes an image that failed to load from the cache, so that loading it again tries again.
+     */
+    private static void forget(Entry entry)
+    {
+        synchronized (TextureLoader.CACHE)
+        {
+            TextureLoader.CACHE.remove(entry.key, entry);
+        }
+    }
+    
+    private static void release(Entry entry)
+    {
+        synchronized (TextureLoader.CACHE)
+        {
+            if (--entry.references > 0) return;
+            
+            TextureLoader.CACHE.remove(entry.key, entry);
+            entry.released = true;
+        }
+        
+        TextureLoader.LOGGER.finer("Releasing image:", entry.path);
+        
+        // Images that are decoding or uploading are dropped when they are reached. Uploaded textures are destroyed next frame.
+        if (entry.ready) TextureLoader.RELEASED.offer(entry);
+        entry.future.cancel(false);
+    }
+    
+    private static final class Entry
+    {
+        private final String  key;
+        private final String  path;
+        private final boolean flip;
+        
+        private final CompletableFuture<Texture> future = new CompletableFuture<>();
+        
+        // Guarded by the cache.
+        private int references;
+        
+        private volatile boolean released;
+        private volatile boolean ready;
+        
+        // Written by the decoding thread before the entry is queued for upload.
+        private int        width, height, channels;
+        private ByteBuffer data;
+        
+        // Only written by the render thread.
+        private volatile Texture texture;
+        private          int     row;
+        
+        private Entry(String key, String path, boolean flip)
+        {
+            this.key  = key;
+            this.path = path;
+            this.flip = flip;
+        }
+        
+        private void free()
+        {
+            if (this.data != null) stbi_image_free(this.data);
+            this.data = null;
+        }
+    }
+    
+    /**
+     * A reference to a texture that is loading or loaded by the {@link TextureLoader}.
+     */
+    public static final class Handle
+    {
+        private final Entry entry;
+        
+        private boolean released;
+        
+        private Handle(Entry entry)
+        {
+            this.entry = entry;
+        }
+        
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Handle handle = (Handle) o;
+            return this.entry == handle.entry;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.entry.key);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "Handle{" + "path='" + this.entry.path + '\'' + ", ready=" + this.entry.ready + ", released=" + this.released + '}';
+        }
+        
+        /**
+         * @return The path to the file.
+         */
+        public String path()
+        {
+            return this.entry.path;
+        }
+        
+        /**
+         * @return If the texture is uploaded.
+         */
+        public boolean isReady()
+        {
+            return this.entry.ready && !this.released;
+        }
+        
+        /**
+         * Gets the texture, or the {@link #placeholder() placeholder} if it is not uploaded yet. Must be called on a thread
+         * with the OpenGL context.
+         *
+         * @return The texture.
+         */
+        public Texture texture()
+        {
+            if (this.released) throw new RuntimeException(this + ": Handle was released");
+            return this.entry.ready ? this.entry.texture : placeholder();
+        }
+        
+        /**
+         * The future is completed on the render thread when the texture is uploaded, or completed exceptionally if the
+         * image could not be loaded.
+         *
+         * @return The future of the texture.
+         */
+        public CompletableFuture<Texture> future()
+        {
+            return this.entry.future;
+        }
+        
+        /**
+         * Releases this reference to the texture. The texture is destroyed when every handle to it is released. Calling
+         * this more than once does nothing.
+         */
+        public void release()
+        {
+            if (this.released) return;
+            this.released = true;
+            
+            TextureLoader.release(this.entry);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package engine.util;
+
+import engine.render.GL;
+import engine.render.GLBuffer;
+import engine.render.GLShader;
+import engine.render.Texture;
+import org.lwjgl.system.MemoryUtil;
+import rutils.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+import static engine.render.OpenGL.*;
+import static rutils.IOUtil.getPath;
+
+/**
+ * Fills textures with noise on the GPU with a compute shader, so a large or animated noise field never has to be made
+ * on the CPU and uploaded.
+ * <p>
+ * {@link ValueNoise}, {@link PerlinNoise}, {@link SimplexNoise} and {@link WorleyNoise} are supported. The permutation
+ * table and the other tables of the noise are copied from the CPU implementation, so the texture has the same values as
+ * {@link Noise#noise(float[], double, double, double, int, int)} within float precision. The tables are copied again
+ * when the seed of the noise changes.
+ * <p>
+ * The texel at {@code (i, j)} gets the noise at {@code (x + i * step, y + j * step)}, mapped from {@code [-1, 1]} to
+ * {@code [0, 1]}, in every color channel, with an alpha of one. The texture must have 1, 2 or 4 channels.
+ * <p>
+ * Must be used on the render thread.
+ */
+@SuppressWarnings("unused")
+public class ComputeNoise
+{
+    private static final Logger LOGGER = new Logger();
+    
+    /**
+     * The width and height of a work group. Must match the local size in {@code shaders/noise/noise.comp}.
+     */
+    public static final int GROUP_SIZE = 16;
+    
+    private final Noise  noise;
+    private final String file;
+    
+    private final HashMap<GL, GLShader> shaders = new HashMap<>();
+    private final GLBuffer              tables  = new GLBuffer(GL.SHADER_STORAGE_BUFFER);
+    
+    private boolean uploaded;
+    private long    uploadedSeed;
+    
+    /**
+     * @param noise The noise to generate.
+     */
+    public ComputeNoise(Noise noise)
+    {
+        if (noise instanceof ValueNoise)
+        {
+            this.file = "shaders/noise/value.glsl";
+        }
+        else if (noise instanceof PerlinNoise)
+        {
+            this.file = "shaders/noise/perlin.glsl";
+        }
+        else if (noise instanceof SimplexNoise)
+        {
+            this.file = "shaders/noise/simplex.glsl";
+        }
+        else if (noise instanceof WorleyNoise)
+        {
+            this.file = "shaders/noise/worley.glsl";
+        }
+        else
+        {
+            throw new RuntimeException("Noise cannot be generated on the GPU: " + noise.getClass().getSimpleName());
+        }
+        this.noise = noise;
+        
+        ComputeNoise.LOGGER.fine("Generated:", this);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "ComputeNoise{" + "noise=" + this.noise.getClass().getSimpleName() + '}';
+    }
+    
+    /**
+     * @return The noise that is generated.
+     */
+    public Noise noise()
+    {
+        return this.noise;
+    }
+    
+    /**
+     * Fills a texture with 2D noise.
+     *
+     * @param texture The texture to fill.
+     * @param x       The x coordinate of the first texel.
+     * @param y       The y coordinate of the first texel.
+     * @param step    The distance between neighbouring texels.
+     * @return The texture.
+     */
+    public Texture noise(Texture texture, double x, double y, double step)
+    {
+        fill(texture, x, y, 0.0, step, false);
+        return texture;
+    }
+    
+    /**
+     * Fills a texture with a slice of 3D noise.
+     *
+     * @param texture The texture to fill.
+     * @param x       The x coordinate of the first texel.
+     * @param y       The y coordinate of the first texel.
+     * @param z       The z coordinate of the slice.
+     * @param step    The distance between neighbouring texels.
+     * @return The texture.
+     */
+    public Texture noise(Texture texture, double x, double y, double z, double step)
+    {
+        fill(texture, x, y, z, step, true);
+        return texture;
+    }
+    
+    /**
+     * Deletes the shaders and the table buffer.
+     */
+    public void delete()
+    {
+        ComputeNoise.LOGGER.fine("Deleting:", this);
+        
+        for (GLShader shader : this.shaders.values()) shader.delete();
+        this.shaders.clear();
+        this.tables.delete();
+        this.uploaded = false;
+    }
+    
+    private void fill(Texture texture, double x, double y, double z, double step, boolean is3D)
+    {
+        GL format = switch (texture.channels())
+                {
+                    case 1 -> GL.R8;
+                    case 2 -> GL.RG8;
+                    case 4 -> GL.RGBA8;
+                    default -> throw new RuntimeException("Texture must have 1, 2 or 4 channels: " + texture.channels());
+                };
+        int combiner = this.noise instanceof WorleyNoise ? combiner((WorleyNoise) this.noise) : 0;
+        
+        upload();
+        
+        GLShader shader = this.shaders.computeIfAbsent(format, this::load);
+        shader.bind();
+        shader.setUniform("size", texture.width(), texture.height());
+        shader.setUniform("origin", x, y, z);
+        shader.setUniform("spacing", step);
+        shader.setUniform("octaves", this.noise.octaves);
+        shader.setUniform("persistence", this.noise.persistence);
+        shader.setUniform("is3D", is3D);
+        if (this.noise instanceof WorleyNoise)
+        {
+            shader.setUniform("metric", ((WorleyNoise) this.noise).metric.ordinal());
+            shader.setUniform("combiner", combiner);
+        }
+        
+        this.tables.base(0);
+        glBindImageTexture(0, texture.id(), 0, false, 0, GL.WRITE_ONLY.ref(), format.ref());
+        glDispatchCompute((texture.width() + ComputeNoise.GROUP_SIZE - 1) / ComputeNoise.GROUP_SIZE, (texture.height() + ComputeNoise.GROUP_SIZE - 1) / ComputeNoise.GROUP_SIZE, 1);
+        
+        // The texture can be drawn, drawn into or downloaded next.
+        glMemoryBarrier(GL.TEXTURE_FETCH_BARRIER_BIT.ref() | GL.SHADER_IMAGE_ACCESS_BARRIER_BIT.ref() | GL.TEXTURE_UPDATE_BARRIER_BIT.ref() | GL.FRAMEBUFFER_BARRIER_BIT.ref());
+        
+        shader.unbind();
+    }
+    
+    private GLShader load(GL format)
+    {
+        try
+        {
+            String main  = Files.readString(getPath("shaders/noise/noise.comp"));
+            String noise = Files.readString(getPath(this.file));
+            
+            // The version has to be the first line, so the format is defined after it.
+            int line = main.indexOf('\n') + 1;
+            
+            String source = main.substring(0, line) + "#define FORMAT " + format.name().toLowerCase() + "\n" + main.substring(line) + "\n" + noise;
+            return new GLShader().load(GL.COMPUTE_SHADER, source).validate();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Noise shader could not be read: " + this.file, e);
+        }
+    }
+    
+    /**
+     * Copies the tables of the noise into the storage buffer if they were not copied for the current seed. The
+     * permutation table comes first as 512 ints, followed by the floats of the tables of the noise.
+     */
+    private void upload()
+    {
+        if (this.uploaded && this.uploadedSeed == this.noise.seed) return;
+        
+        this.noise.ensureInitialized();
+        
+        double[][] tables;
+        if (this.noise instanceof ValueNoise)
+        {
+            ValueNoise value = (ValueNoise) this.noise;
+            tables = new double[][] {value.r};
+        }
+        else if (this.noise instanceof PerlinNoise)
+        {
+            PerlinNoise perlin = (PerlinNoise) this.noise;
+            tables = new double[][] {flatten(perlin.grad2), flatten(perlin.grad3)};
+        }
+        else if (this.noise instanceof WorleyNoise)
+        {
+            WorleyNoise worley = (WorleyNoise) this.noise;
+            tables = new double[][] {flatten(worley.points2), flatten(worley.points3)};
+        }
+        else
+        {
+            tables = new double[0][];
+        }
+        
+        int size = this.noise.perm.length * Integer.BYTES;
+        for (double[] table : tables) size += table.length * Float.BYTES;
+        
+        ByteBuffer data = MemoryUtil.memAlloc(size);
+        for (short value : this.noise.perm) data.putInt(value);
+        for (double[] table : tables)
+        {
+            for (double value : table) data.putFloat((float) value);
+        }
+        data.flip();
+        
+        this.tables.bind().set(data).unbind();
+        
+        MemoryUtil.memFree(data);
+        
+        this.uploaded     = true;
+        this.uploadedSeed = this.noise.seed;
+        
+        ComputeNoise.LOGGER.finer("%s: Uploaded tables for seed %s", this, this.uploadedSeed);
+    }
+    
+    private static double[] flatten(double[][] table)
+    {
+        int      width = table[0].length;
+        double[] flat  = new double[table.length * width];
+        for (int i = 0; i < table.length; i++) System.arraycopy(table[i], 0, flat, i * width, width);
+        return flat;
+    }
+    
+    private static int combiner(WorleyNoise worley)
+    {
+        if (worley.distanceFunction != null) throw new RuntimeException("A distance function cannot be used on the GPU");
+        if (worley.combiner == WorleyNoise.F1) return 0;
+        if (worley.combiner == WorleyNoise.F2) return 1;
+        if (worley.combiner == WorleyNoise.F2_MINUS_F1) return 2;
+        throw new RuntimeException("Only the WorleyNoise combiners F1, F2 and F2_MINUS_F1 can be used on the GPU");
+    }
+}
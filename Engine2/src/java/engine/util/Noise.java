@@ -1,7 +1,17 @@
 package engine.util;
 
+import java.nio.FloatBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
 import static rutils.NumUtil.clamp;
 
+/**
+ * The base of the noise implementations.
+ * <p>
+ * The tables are made the first time that a value is asked for, after which they are only read. Any number of threads
+ * can ask for values at the same time, as long as the seed, octaves, persistence and properties are not changed while
+ * they do.
+ */
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public abstract class Noise
 {
@@ -14,26 +24,38 @@ public abstract class Noise
     protected static final int TABLE_SIZE      = 1 << 8;
     protected static final int TABLE_SIZE_MASK = Noise.TABLE_SIZE - 1;
     
-    protected final Random random = new Random();
+    protected       long   seed   = ThreadLocalRandom.current().nextLong();
+    protected final Random random = new Random(this.seed);
     
     protected short[] perm;
     
     protected int    octaves     = 1;
     protected double persistence = 0.5;
     
-    protected boolean initialized = false;
+    protected volatile boolean initialized = false;
     
     /**
      * Sets the seed of the random instance. Will cause the re-rolling of the permutation tables.
      *
      * @param seed The new seed.
      */
-    public void setSeed(long seed)
+    public synchronized void setSeed(long seed)
     {
+        this.seed = seed;
         this.random.setSeed(seed);
         this.initialized = false;
     }
     
+    /**
+     * Gets the seed that the permutation tables are made from. A random seed is picked if one was not set.
+     *
+     * @return The seed.
+     */
+    public long seed()
+    {
+        return this.seed;
+    }
+    
     /**
      * Gets the number of iterations to calculate the noise. Each additional iteration will be
      * {@code Noise.persistence} the amplitude of the previous one.
@@ -107,8 +129,25 @@ public abstract class Noise
             
             this.perm[i + Noise.TABLE_SIZE] = this.perm[i];
         }
-        
-        this.initialized = true;
+    }
+    
+    /**
+     * Makes the tables if they have not been made yet. Only one thread runs {@link #init()} and the others wait for it,
+     * so no thread can see the tables half made.
+     */
+    protected final void ensureInitialized()
+    {
+        if (!this.initialized)
+        {
+            synchronized (this)
+            {
+                if (!this.initialized)
+                {
+                    init();
+                    this.initialized = true;
+                }
+            }
+        }
     }
     
     /**
@@ -130,7 +169,7 @@ public abstract class Noise
         
         double[] transformedCoord = new double[dimension];
         
-        if (!this.initialized) init();
+        ensureInitialized();
         for (int i = 0; i < this.octaves; i++)
         {
             for (int j = 0; j < dimension; j++) transformedCoord[j] = coord[j] * frequency + coord[j];
@@ -144,6 +183,230 @@ public abstract class Noise
         return clamp(value / maxValue, -1.0, 1.0);
     }
     
+    /**
+     * Calculates the 2D noise values of a grid of coordinates. The values are the same as calling {@link #noise(double...)}
+     * for each coordinate, without allocating anything per coordinate.
+     * <p>
+     * The values are stored row by row, so the value of {@code (x + i * step, y + j * step)} is at {@code j * width + i}.
+     *
+     * @param out    The array to store the values in.
+     * @param x      The x coordinate of the first value.
+     * @param y      The y coordinate of the first value.
+     * @param step   The distance between neighbouring coordinates.
+     * @param width  The number of values along the x axis.
+     * @param height The number of values along the y axis.
+     * @return The array.
+     */
+    public double[] noise(double[] out, double x, double y, double step, int width, int height)
+    {
+        checkSize(out.length, width, height, 1);
+        
+        fill(Noise.sink(out), this.octaves, this.persistence, x, y, 0.0, step, width, height, 0, 0, 0, width, height, 1, false);
+        return out;
+    }
+    
+    /**
+     * Calculates the 3D noise values of a grid of coordinates. The values are the same as calling {@link #noise(double...)}
+     * for each coordinate, without allocating anything per coordinate.
+     * <p>
+     * The values are stored row by row and then layer by layer, so the value of
+     * {@code (x + i * step, y + j * step, z + k * step)} is at {@code (k * height + j) * width + i}.
+     *
+     * @param out    The array to store the values in.
+     * @param x      The x coordinate of the first value.
+     * @param y      The y coordinate of the first value.
+     * @param z      The z coordinate of the first value.
+     * @param step   The distance between neighbouring coordinates.
+     * @param width  The number of values along the x axis.
+     * @param height The number of values along the y axis.
+     * @param depth  The number of values along the z axis.
+     * @return The array.
+     */
+    public double[] noise(double[] out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        checkSize(out.length, width, height, depth);
+        
+        fill(Noise.sink(out), this.octaves, this.persistence, x, y, z, step, width, height, 0, 0, 0, width, height, depth, true);
+        return out;
+    }
+    
+    /**
+     * Calculates the 2D noise values of a grid of coordinates into a float array.
+     *
+     * @see #noise(double[], double, double, double, int, int)
+     */
+    public float[] noise(float[] out, double x, double y, double step, int width, int height)
+    {
+        checkSize(out.length, width, height, 1);
+        
+        fill(Noise.sink(out), this.octaves, this.persistence, x, y, 0.0, step, width, height, 0, 0, 0, width, height, 1, false);
+        return out;
+    }
+    
+    /**
+     * Calculates the 3D noise values of a grid of coordinates into a float array.
+     *
+     * @see #noise(double[], double, double, double, double, int, int, int)
+     */
+    public float[] noise(float[] out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        checkSize(out.length, width, height, depth);
+        
+        fill(Noise.sink(out), this.octaves, this.persistence, x, y, z, step, width, height, 0, 0, 0, width, height, depth, true);
+        return out;
+    }
+    
+    /**
+     * Calculates the 2D noise values of a grid of coordinates into a float buffer, starting at its position. The position
+     * of the buffer is not changed, so it can be a direct buffer that is uploaded right after.
+     *
+     * @see #noise(double[], double, double, double, int, int)
+     */
+    public FloatBuffer noise(FloatBuffer out, double x, double y, double step, int width, int height)
+    {
+        checkSize(out.remaining(), width, height, 1);
+        
+        fill(Noise.sink(out), this.octaves, this.persistence, x, y, 0.0, step, width, height, 0, 0, 0, width, height, 1, false);
+        return out;
+    }
+    
+    /**
+     * Calculates the 3D noise values of a grid of coordinates into a float buffer, starting at its position. The position
+     * of the buffer is not changed, so it can be a direct buffer that is uploaded right after.
+     *
+     * @see #noise(double[], double, double, double, double, int, int, int)
+     */
+    public FloatBuffer noise(FloatBuffer out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        checkSize(out.remaining(), width, height, depth);
+        
+        fill(Noise.sink(out), this.octaves, this.persistence, x, y, z, step, width, height, 0, 0, 0, width, height, depth, true);
+        return out;
+    }
+    
+    /**
+     * Calculates the noise values of a box inside a grid. The value of a cell only depends on its index in the grid and
+     * not on the box, so a grid that is filled one box at a time is the same as a grid that is filled all at once.
+     *
+     * @param sink        Where to store the rows.
+     * @param octaves     The number of octaves.
+     * @param persistence The persistence.
+     * @param x           The x coordinate of the first value in the grid.
+     * @param y           The y coordinate of the first value in the grid.
+     * @param z           The z coordinate of the first value in the grid. Ignored for 2D grids.
+     * @param step        The distance between neighbouring coordinates.
+     * @param width       The width of the grid.
+     * @param height      The height of the grid.
+     * @param i0          The first x index of the box.
+     * @param j0          The first y index of the box.
+     * @param k0          The first z index of the box.
+     * @param i1          The x index after the box.
+     * @param j1          The y index after the box.
+     * @param k1          The z index after the box.
+     * @param is3D        If the grid is 3D.
+     */
+    void fill(Sink sink, int octaves, double persistence, double x, double y, double z, double step, int width, int height, int i0, int j0, int k0, int i1, int j1, int k1, boolean is3D)
+    {
+        ensureInitialized();
+        
+        int[]    frequencies = new int[octaves];
+        double[] amplitudes  = new double[octaves];
+        double   maxValue    = 0.0;
+        
+        int    frequency = 1;
+        double amplitude = 1.0;
+        for (int o = 0; o < octaves; o++)
+        {
+            frequencies[o] = frequency;
+            amplitudes[o]  = amplitude;
+            maxValue += amplitude;
+            frequency <<= 1;
+            amplitude *= persistence;
+        }
+        
+        // The octaves are the inner loop, the same as noise(double...), so that the values are added up in the same
+        // order. Going through the row once per octave instead was measured to be slower.
+        int      count = i1 - i0;
+        double[] row   = new double[count];
+        double[] rowY  = new double[octaves];
+        double[] rowZ  = new double[octaves];
+        for (int k = k0; k < k1; k++)
+        {
+            for (int j = j0; j < j1; j++)
+            {
+                double sy = y + j * step;
+                double sz = z + k * step;
+                for (int o = 0; o < octaves; o++)
+                {
+                    rowY[o] = sy * frequencies[o] + sy;
+                    rowZ[o] = sz * frequencies[o] + sz;
+                }
+                
+                for (int i = 0; i < count; i++)
+                {
+                    double sx = x + (i0 + i) * step;
+                    
+                    double value = 0.0;
+                    for (int o = 0; o < octaves; o++)
+                    {
+                        double ox = sx * frequencies[o] + sx;
+                        if (is3D)
+                        {
+                            value += noise3D(o, frequencies[o], amplitudes[o], ox, rowY[o], rowZ[o]) * amplitudes[o];
+                        }
+                        else
+                        {
+                            value += noise2D(o, frequencies[o], amplitudes[o], ox, rowY[o]) * amplitudes[o];
+                        }
+                    }
+                    row[i] = clamp(value / maxValue, -1.0, 1.0);
+                }
+                
+                sink.store((k * height + j) * width + i0, row, count);
+            }
+        }
+    }
+    
+    static void checkSize(int size, int width, int height, int depth)
+    {
+        if (width < 0 || height < 0 || depth < 0) throw new RuntimeException(String.format("Invalid grid size: [%s, %s, %s]", width, height, depth));
+        if ((long) width * height * depth > size) throw new RuntimeException("Array size mismatch: " + size + " < " + (long) width * height * depth);
+    }
+    
+    static Sink sink(double[] out)
+    {
+        return (index, row, count) -> System.arraycopy(row, 0, out, index, count);
+    }
+    
+    static Sink sink(float[] out)
+    {
+        return (index, row, count) -> {
+            for (int i = 0; i < count; i++) out[index + i] = (float) row[i];
+        };
+    }
+    
+    static Sink sink(FloatBuffer out)
+    {
+        int position = out.position();
+        return (index, row, count) -> {
+            for (int i = 0; i < count; i++) out.put(position + index + i, (float) row[i]);
+        };
+    }
+    
+    /**
+     * Stores a row of finished noise values. Rows from different threads never overlap.
+     */
+    @FunctionalInterface
+    interface Sink
+    {
+        /**
+         * @param index The index of the first value in the grid.
+         * @param row   The values.
+         * @param count The number of values.
+         */
+        void store(int index, double[] row, int count);
+    }
+    
     /**
      * Determines the correct dimensional noise function for the data and calls it.
      *
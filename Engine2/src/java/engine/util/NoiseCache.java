@@ -0,0 +1,453 @@
+package engine.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps tiles of noise so that a scrolling world does not make the same values again every frame.
+ * <p>
+ * The plane is cut into square tiles of {@code tileSize} by {@code tileSize} cells that are {@code step} units wide.
+ * The noise is made at the corners of the cells, including the far edges of the tile, so a value anywhere in the tile
+ * is blended from the four corners around it without looking at the tiles next to it. The values are stored as floats.
+ * <p>
+ * Tiles are keyed by the seed, octaves and persistence of the noise and the coordinates of the tile, so changing the
+ * seed or octaves does not give back old values. Other properties, like the metric of {@link WorleyNoise}, are not part
+ * of the key, so the cache has to be {@link #clear() cleared} when they are changed.
+ * <p>
+ * When the tiles take up more than the memory cap, the tile that was used the longest time ago is dropped. With
+ * prefetching on, moving into a new tile starts making the eight tiles around it on a background thread, so the cap
+ * should fit at least nine tiles. A tile that is waited for before the background thread gets to it is made on the
+ * thread that needs it.
+ * <p>
+ * The last tile that was used is kept outside of the lock, so samples that stay in the same tile do not lock or
+ * allocate.
+ * <p>
+ * Can be used from any number of threads.
+ */
+@SuppressWarnings("unused")
+public class NoiseCache
+{
+    public static final int  DEFAULT_TILE_SIZE = 64;
+    public static final long DEFAULT_MAX_BYTES = 16L << 20;
+    
+    private static final AtomicInteger   THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService PREFETCHER   = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "NoiseCache-" + NoiseCache.THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Noise   noise;
+    private final double  step;
+    private final int     tileSize;
+    private final long    maxBytes;
+    private final long    tileBytes;
+    private final boolean prefetch;
+    
+    // Guarded by this.
+    private final LinkedHashMap<Key, Tile> tiles   = new LinkedHashMap<>(16, 0.75F, true);
+    private final HashMap<Key, Pending>    pending = new HashMap<>();
+    private final Key                      lookup  = new Key();
+    private final Key                      probe   = new Key();
+    
+    private long misses, evictions;
+    
+    private volatile Tile recent;
+    
+    private final LongAdder hits = new LongAdder();
+    
+    /**
+     * Creates a cache with the default tile size and memory cap that does not prefetch.
+     *
+     * @param noise The noise to cache.
+     * @param step  The distance between the cells of a tile.
+     */
+    public NoiseCache(Noise noise, double step)
+    {
+        this(noise, step, NoiseCache.DEFAULT_TILE_SIZE, NoiseCache.DEFAULT_MAX_BYTES, false);
+    }
+    
+    /**
+     * @param noise    The noise to cache.
+     * @param step     The distance between the cells of a tile.
+     * @param tileSize The number of cells along each side of a tile.
+     * @param maxBytes The most memory that the tiles can take up. At least one tile is always kept.
+     * @param prefetch If the tiles around the last used tile should be made on a background thread.
+     */
+    public NoiseCache(Noise noise, double step, int tileSize, long maxBytes, boolean prefetch)
+    {
+        if (!(step > 0.0)) throw new RuntimeException("Invalid step: " + step);
+        if (tileSize <= 0) throw new RuntimeException("Invalid tile size: " + tileSize);
+        if (maxBytes <= 0) throw new RuntimeException("Invalid memory cap: " + maxBytes);
+        
+        this.noise     = noise;
+        this.step      = step;
+        this.tileSize  = tileSize;
+        this.maxBytes  = maxBytes;
+        this.tileBytes = (long) (tileSize + 1) * (tileSize + 1) * Float.BYTES;
+        this.prefetch  = prefetch;
+    }
+    
+    @Override
+    public synchronized String toString()
+    {
+        return "NoiseCache{" + "noise=" + this.noise.getClass().getSimpleName() + ", tiles=" + this.tiles.size() + ", hits=" + this.hits.sum() + ", misses=" + this.misses + '}';
+    }
+    
+    /**
+     * @return The noise that is cached.
+     */
+    public Noise noise()
+    {
+        return this.noise;
+    }
+    
+    /**
+     * @return The distance between the cells of a tile.
+     */
+    public double step()
+    {
+        return this.step;
+    }
+    
+    /**
+     * @return The number of cells along each side of a tile.
+     */
+    public int tileSize()
+    {
+        return this.tileSize;
+    }
+    
+    /**
+     * @return The most memory that the tiles can take up.
+     */
+    public long maxBytes()
+    {
+        return this.maxBytes;
+    }
+    
+    /**
+     * @return If the tiles around the last used tile are made on a background thread.
+     */
+    public boolean prefetch()
+    {
+        return this.prefetch;
+    }
+    
+    /**
+     * @return The number of tiles in the cache.
+     */
+    public synchronized int size()
+    {
+        return this.tiles.size();
+    }
+    
+    /**
+     * @return The memory that the tiles in the cache take up.
+     */
+    public synchronized long bytes()
+    {
+        return this.tiles.size() * this.tileBytes;
+    }
+    
+    /**
+     * @return The number of lookups that found their tile in the cache.
+     */
+    public long hits()
+    {
+        return this.hits.sum();
+    }
+    
+    /**
+     * @return The number of lookups that had to make or wait for their tile.
+     */
+    public synchronized long misses()
+    {
+        return this.misses;
+    }
+    
+    /**
+     * @return The number of tiles that were dropped to stay under the memory cap.
+     */
+    public synchronized long evictions()
+    {
+        return this.evictions;
+    }
+    
+    /**
+     * Drops all tiles. Tiles that are being made on the background thread are still added when they are done.
+     */
+    public synchronized void clear()
+    {
+        this.tiles.clear();
+        this.recent = null;
+    }
+    
+    /**
+     * Samples the 2D noise, blended between the corners of the cell that the coordinate is in.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The noise value.
+     */
+    public double sample(double x, double y)
+    {
+        return sample(x, y, 0.0, false);
+    }
+    
+    /**
+     * Samples the 3D noise on the plane at {@code z}, blended between the corners of the cell that the coordinate is in.
+     * Each plane has its own tiles, so {@code z} should only take a few values, like the layers of a world.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate of the plane.
+     * @return The noise value.
+     */
+    public double sample(double x, double y, double z)
+    {
+        return sample(x, y, z, true);
+    }
+    
+    private double sample(double x, double y, double z, boolean is3D)
+    {
+        double cellX = x / this.step;
+        double cellY = y / this.step;
+        
+        int i = (int) Math.floor(cellX);
+        int j = (int) Math.floor(cellY);
+        
+        int tileX = Math.floorDiv(i, this.tileSize);
+        int tileY = Math.floorDiv(j, this.tileSize);
+        
+        long   seed        = this.noise.seed;
+        int    octaves     = this.noise.octaves;
+        double persistence = this.noise.persistence;
+        
+        Tile tile = this.recent;
+        if (tile != null && tile.key.matches(seed, octaves, persistence, z, is3D, tileX, tileY))
+        {
+            this.hits.increment();
+        }
+        else
+        {
+            this.recent = tile = tile(seed, octaves, persistence, z, is3D, tileX, tileY);
+        }
+        float[] values = tile.values;
+        
+        int stride = this.tileSize + 1;
+        int index  = (j - tileY * this.tileSize) * stride + i - tileX * this.tileSize;
+        
+        double fx = cellX - i;
+        double fy = cellY - j;
+        
+        double top    = values[index] + (values[index + 1] - values[index]) * fx;
+        double bottom = values[index + stride] + (values[index + stride + 1] - values[index + stride]) * fx;
+        return top + (bottom - top) * fy;
+    }
+    
+    private Tile tile(long seed, int octaves, double persistence, double z, boolean is3D, int tileX, int tileY)
+    {
+        Tile    tile;
+        Pending pending = null;
+        boolean owner   = false;
+        
+        ArrayList<Pending> prefetches = null;
+        synchronized (this)
+        {
+            Key key = this.lookup.set(seed, octaves, persistence, z, is3D, tileX, tileY);
+            
+            tile = this.tiles.get(key);
+            if (tile != null)
+            {
+                this.hits.increment();
+            }
+            else
+            {
+                this.misses++;
+                pending = this.pending.get(key);
+                if (pending == null)
+                {
+                    pending = new Pending(key.copy());
+                    this.pending.put(pending.key, pending);
+                }
+                // A prefetch that has not started would make this wait behind the other tiles in the queue.
+                owner           = !pending.started;
+                pending.started = true;
+            }
+            
+            if (this.prefetch)
+            {
+                for (int j = -1; j <= 1; j++)
+                {
+                    for (int i = -1; i <= 1; i++)
+                    {
+                        Key neighbour = this.probe.set(seed, octaves, persistence, z, is3D, tileX + i, tileY + j);
+                        if ((i != 0 || j != 0) && !this.tiles.containsKey(neighbour) && !this.pending.containsKey(neighbour))
+                        {
+                            if (prefetches == null) prefetches = new ArrayList<>();
+                            Pending prefetched = new Pending(neighbour.copy());
+                            this.pending.put(prefetched.key, prefetched);
+                            prefetches.add(prefetched);
+                        }
+                    }
+                }
+            }
+        }
+        
+        if (prefetches != null)
+        {
+            for (Pending prefetched : prefetches) NoiseCache.PREFETCHER.execute(() -> prefetch(prefetched));
+        }
+        
+        if (tile != null) return tile;
+        return owner ? make(pending) : pending.future.join();
+    }
+    
+    private void prefetch(Pending pending)
+    {
+        synchronized (this)
+        {
+            if (pending.started) return;
+            pending.started = true;
+        }
+        make(pending);
+    }
+    
+    private Tile make(Pending pending)
+    {
+        Key key = pending.key;
+        try
+        {
+            int     size   = this.tileSize + 1;
+            double  span   = this.tileSize * this.step;
+            float[] values = new float[size * size];
+            
+            this.noise.fill(Noise.sink(values), key.octaves, key.persistence, key.tileX * span, key.tileY * span, key.z, this.step, size, size, 0, 0, 0, size, size, 1, key.is3D);
+            
+            Tile tile = new Tile(key, values);
+            synchronized (this)
+            {
+                this.pending.remove(key);
+                this.tiles.put(key, tile);
+                
+                Iterator<Tile> iterator = this.tiles.values().iterator();
+                while (this.tiles.size() > 1 && this.tiles.size() * this.tileBytes > this.maxBytes && iterator.hasNext())
+                {
+                    // Samples in the most recent tile do not reach the map, so its place in the order is not up to date.
+                    if (iterator.next() == this.recent) continue;
+                    iterator.remove();
+                    this.evictions++;
+                }
+            }
+            pending.future.complete(tile);
+            return tile;
+        }
+        catch (RuntimeException e)
+        {
+            synchronized (this)
+            {
+                this.pending.remove(key);
+            }
+            pending.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private static final class Tile
+    {
+        private final Key     key;
+        private final float[] values;
+        
+        private Tile(Key key, float[] values)
+        {
+            this.key    = key;
+            this.values = values;
+        }
+    }
+    
+    private static final class Pending
+    {
+        private final Key                     key;
+        private final CompletableFuture<Tile> future = new CompletableFuture<>();
+        
+        // Guarded by the cache.
+        private boolean started;
+        
+        private Pending(Key key)
+        {
+            this.key = key;
+        }
+    }
+    
+    /**
+     * Keys in the maps are never changed. The lookup and probe keys are set in place so that a lookup does not allocate.
+     */
+    private static final class Key
+    {
+        private long    seed;
+        private int     octaves;
+        private double  persistence;
+        private double  z;
+        private boolean is3D;
+        private int     tileX, tileY;
+        
+        private Key set(long seed, int octaves, double persistence, double z, boolean is3D, int tileX, int tileY)
+        {
+            this.seed        = seed;
+            this.octaves     = octaves;
+            this.persistence = persistence;
+            this.z           = z;
+            this.is3D        = is3D;
+            this.tileX       = tileX;
+            this.tileY       = tileY;
+            return this;
+        }
+        
+        private Key copy()
+        {
+            return new Key().set(this.seed, this.octaves, this.persistence, this.z, this.is3D, this.tileX, this.tileY);
+        }
+        
+        private boolean matches(long seed, int octaves, double persistence, double z, boolean is3D, int tileX, int tileY)
+        {
+            return this.seed == seed &&
+                   this.octaves == octaves &&
+                   Double.compare(this.persistence, persistence) == 0 &&
+                   Double.compare(this.z, z) == 0 &&
+                   this.is3D == is3D &&
+                   this.tileX == tileX &&
+                   this.tileY == tileY;
+        }
+        
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return matches(key.seed, key.octaves, key.persistence, key.z, key.is3D, key.tileX, key.tileY);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            // Written out because Objects.hash would box every field on every lookup.
+            int result = Long.hashCode(this.seed);
+            result = 31 * result + this.octaves;
+            result = 31 * result + Double.hashCode(this.persistence);
+            result = 31 * result + Double.hashCode(this.z);
+            result = 31 * result + Boolean.hashCode(this.is3D);
+            result = 31 * result + this.tileX;
+            result = 31 * result + this.tileY;
+            return result;
+        }
+    }
+}
@@ -33,8 +33,6 @@ public class OpenSimplexNoise extends Noise
             this.permGrad3D[i] = (short) ((this.perm[i] % (OpenSimplexNoise.gradients3D.length / 3)) * 3);
             source[r]          = source[i];
         }
-        
-        this.initialized = true;
     }
     
     /**
@@ -2539,7 +2537,7 @@ public class OpenSimplexNoise extends Noise
     {
         int index = this.perm[xsb & Noise.TABLE_SIZE_MASK];
         index = this.perm[(index + ysb) & Noise.TABLE_SIZE_MASK];
-        index = this.perm[(index + zsb) & Noise.TABLE_SIZE_MASK];
+        index = this.perm[(index + zsb) & Noise.TABLE_SIZE_MASK] % (OpenSimplexNoise.gradients3D.length / 3) * 3;
         return OpenSimplexNoise.gradients3D[index] * dx +
                OpenSimplexNoise.gradients3D[index + 1] * dy +
                OpenSimplexNoise.gradients3D[index + 2] * dz;
@@ -0,0 +1,229 @@
+package engine.util;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fills large grids of noise on a {@link ForkJoinPool}. The grid is cut into square tiles, and the tiles are shared out
+ * between the threads of the pool.
+ * <p>
+ * A tile is one task. It should be big enough that handing out the task and setting up the fill cost little next to
+ * making its values, and small enough that there are many more tiles than threads, so that no thread is left with
+ * most of the work at the end.
+ * <p>
+ * The value of a cell only depends on its index in the grid, so the grid is the same as the one that
+ * {@link Noise#noise(double[], double, double, double, int, int)} makes, no matter how many threads there are or which
+ * thread did which tile. The octaves and persistence are read once when the fill starts.
+ */
+@SuppressWarnings("unused")
+public class ParallelNoise
+{
+    public static final int DEFAULT_TILE_SIZE = 64;
+    
+    private final Noise        noise;
+    private final ForkJoinPool pool;
+    private final int          tileSize;
+    
+    /**
+     * Creates a generator that uses the common pool and the default tile size.
+     *
+     * @param noise The noise to generate.
+     */
+    public ParallelNoise(Noise noise)
+    {
+        this(noise, ForkJoinPool.commonPool(), ParallelNoise.DEFAULT_TILE_SIZE);
+    }
+    
+    /**
+     * @param noise    The noise to generate.
+     * @param pool     The pool to run the tiles on.
+     * @param tileSize The width and height of a tile.
+     */
+    public ParallelNoise(Noise noise, ForkJoinPool pool, int tileSize)
+    {
+        if (tileSize <= 0) throw new RuntimeException("Invalid tile size: " + tileSize);
+        
+        this.noise    = noise;
+        this.pool     = pool;
+        this.tileSize = tileSize;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "ParallelNoise{" + "noise=" + this.noise.getClass().getSimpleName() + ", tileSize=" + this.tileSize + '}';
+    }
+    
+    /**
+     * @return The noise that is generated.
+     */
+    public Noise noise()
+    {
+        return this.noise;
+    }
+    
+    /**
+     * Fills a 2D grid of noise values.
+     *
+     * @see Noise#noise(double[], double, double, double, int, int)
+     */
+    public double[] noise(double[] out, double x, double y, double step, int width, int height)
+    {
+        Noise.checkSize(out.length, width, height, 1);
+        
+        fill(Noise.sink(out), x, y, 0.0, step, width, height, 1, false);
+        return out;
+    }
+    
+    /**
+     * Fills a 3D grid of noise values.
+     *
+     * @see Noise#noise(double[], double, double, double, double, int, int, int)
+     */
+    public double[] noise(double[] out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        Noise.checkSize(out.length, width, height, depth);
+        
+        fill(Noise.sink(out), x, y, z, step, width, height, depth, true);
+        return out;
+    }
+    
+    /**
+     * Fills a 2D grid of noise values into a float array.
+     *
+     * @see Noise#noise(float[], double, double, double, int, int)
+     */
+    public float[] noise(float[] out, double x, double y, double step, int width, int height)
+    {
+        Noise.checkSize(out.length, width, height, 1);
+        
+        fill(Noise.sink(out), x, y, 0.0, step, width, height, 1, false);
+        return out;
+    }
+    
+    /**
+     * Fills a 3D grid of noise values into a float array.
+     *
+     * @see Noise#noise(float[], double, double, double, double, int, int, int)
+     */
+    public float[] noise(float[] out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        Noise.checkSize(out.length, width, height, depth);
+        
+        fill(Noise.sink(out), x, y, z, step, width, height, depth, true);
+        return out;
+    }
+    
+    /**
+     * Fills a 2D grid of noise values into a float buffer, starting at its position.
+     *
+     * @see Noise#noise(FloatBuffer, double, double, double, int, int)
+     */
+    public FloatBuffer noise(FloatBuffer out, double x, double y, double step, int width, int height)
+    {
+        Noise.checkSize(out.remaining(), width, height, 1);
+        
+        fill(Noise.sink(out), x, y, 0.0, step, width, height, 1, false);
+        return out;
+    }
+    
+    /**
+     * Fills a 3D grid of noise values into a float buffer, starting at its position.
+     *
+     * @see Noise#noise(FloatBuffer, double, double, double, double, int, int, int)
+     */
+    public FloatBuffer noise(FloatBuffer out, double x, double y, double z, double step, int width, int height, int depth)
+    {
+        Noise.checkSize(out.remaining(), width, height, depth);
+        
+        fill(Noise.sink(out), x, y, z, step, width, height, depth, true);
+        return out;
+    }
+    
+    private void fill(Noise.Sink sink, double x, double y, double z, double step, int width, int height, int depth, boolean is3D)
+    {
+        int tilesX = (width + this.tileSize - 1) / this.tileSize;
+        int tilesY = (height + this.tileSize - 1) / this.tileSize;
+        if (tilesX == 0 || tilesY == 0 || depth == 0) return;
+        
+        Grid grid = new Grid(sink, this.noise.octaves, this.noise.persistence, x, y, z, step, width, height, tilesX, tilesY, is3D);
+        
+        // Done up front so that the workers do not all wait on the same lock.
+        this.noise.ensureInitialized();
+        this.pool.invoke(new Tiles(grid, 0, tilesX * tilesY * depth));
+    }
+    
+    private final class Grid
+    {
+        private final Noise.Sink sink;
+        private final int        octaves;
+        private final double     persistence;
+        private final double     x, y, z, step;
+        private final int        width, height;
+        private final int        tilesX, tilesY;
+        private final boolean    is3D;
+        
+        private Grid(Noise.Sink sink, int octaves, double persistence, double x, double y, double z, double step, int width, int height, int tilesX, int tilesY, boolean is3D)
+        {
+            this.sink        = sink;
+            this.octaves     = octaves;
+            this.persistence = persistence;
+            this.x           = x;
+            this.y           = y;
+            this.z           = z;
+            this.step        = step;
+            this.width       = width;
+            this.height      = height;
+            this.tilesX      = tilesX;
+            this.tilesY      = tilesY;
+            this.is3D        = is3D;
+        }
+        
+        private void fill(int tile)
+        {
+            int tileX = tile % this.tilesX;
+            int tileY = (tile / this.tilesX) % this.tilesY;
+            int k     = tile / (this.tilesX * this.tilesY);
+            
+            int i0 = tileX * ParallelNoise.this.tileSize;
+            int j0 = tileY * ParallelNoise.this.tileSize;
+            int i1 = Math.min(i0 + ParallelNoise.this.tileSize, this.width);
+            int j1 = Math.min(j0 + ParallelNoise.this.tileSize, this.height);
+            
+            ParallelNoise.this.noise.fill(this.sink, this.octaves, this.persistence, this.x, this.y, this.z, this.step, this.width, this.height, i0, j0, k, i1, j1, k + 1, this.is3D);
+        }
+    }
+    
+    /**
+     * A range of tiles, numbered along x, then y, then z. Split in half until it is one tile.
+     */
+    private static final class Tiles extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final Grid grid;
+        private final int  from, to;
+        
+        private Tiles(Grid grid, int from, int to)
+        {
+            this.grid = grid;
+            this.from = from;
+            this.to   = to;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            if (this.to - this.from == 1)
+            {
+                this.grid.fill(this.from);
+            }
+            else
+            {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new Tiles(this.grid, this.from, middle), new Tiles(this.grid, middle, this.to));
+            }
+        }
+    }
+}
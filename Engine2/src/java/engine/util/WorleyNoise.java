@@ -1,6 +1,7 @@
 package engine.util;
 
 import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
 
 import static rutils.NumUtil.fastFloor;
@@ -13,12 +14,73 @@ public class WorleyNoise extends Noise
     private static final double MAX_3D = 2 * Math.sqrt(4);
     private static final double MAX_4D = 4;
     
+    /**
+     * The distance to the nearest point.
+     */
+    public static final DoubleBinaryOperator F1 = (f1, f2) -> f1;
+    
+    /**
+     * The distance to the second nearest point.
+     */
+    public static final DoubleBinaryOperator F2 = (f1, f2) -> f2;
+    
+    /**
+     * The difference between the distances to the two nearest points, which draws the edges of the cells.
+     */
+    public static final DoubleBinaryOperator F2_MINUS_F1 = (f1, f2) -> f2 - f1;
+    
     protected double[][] points1;
     protected double[][] points2;
     protected double[][] points3;
     protected double[][] points4;
     
-    protected Function<double[], Double> distanceFunction = arr -> arr[0];
+    protected Metric               metric   = Metric.EUCLIDEAN;
+    protected DoubleBinaryOperator combiner = WorleyNoise.F1;
+    
+    /**
+     * If set, the distances to all the nearby points are sorted and passed to this function instead of using
+     * {@link #metric} and {@link #combiner}. Slower, but the function can use any of the distances.
+     */
+    protected Function<double[], Double> distanceFunction = null;
+    
+    /**
+     * @return The way that the distance to a point is measured.
+     */
+    public Metric metric()
+    {
+        return this.metric;
+    }
+    
+    /**
+     * Sets the way that the distance to a point is measured. Stops using the distance function.
+     *
+     * @param metric The metric.
+     */
+    public void metric(Metric metric)
+    {
+        this.metric           = metric;
+        this.distanceFunction = null;
+    }
+    
+    /**
+     * @return The function that makes the noise value from the distances to the two nearest points.
+     */
+    public DoubleBinaryOperator combiner()
+    {
+        return this.combiner;
+    }
+    
+    /**
+     * Sets the function that makes the noise value from the distances to the two nearest points, like {@link #F1},
+     * {@link #F2} or {@link #F2_MINUS_F1}. Stops using the distance function.
+     *
+     * @param combiner The combiner.
+     */
+    public void combiner(DoubleBinaryOperator combiner)
+    {
+        this.combiner         = combiner;
+        this.distanceFunction = null;
+    }
     
     /**
      * Sets a property of the Noise Implementation. This should be handles directly by each implementation to set a property without casting the object.
@@ -31,9 +93,17 @@ public class WorleyNoise extends Noise
     @Override
     public void setProperty(String property, Object object)
     {
-        if (property.equals("distanceFunction"))
+        switch (property)
         {
-            if (object instanceof Function) this.distanceFunction = (Function<double[], Double>) object;
+            case "distanceFunction" -> {
+                if (object instanceof Function) this.distanceFunction = (Function<double[], Double>) object;
+            }
+            case "metric" -> {
+                if (object instanceof Metric) metric((Metric) object);
+            }
+            case "combiner" -> {
+                if (object instanceof DoubleBinaryOperator) combiner((DoubleBinaryOperator) object);
+            }
         }
     }
     
@@ -83,6 +153,8 @@ public class WorleyNoise extends Noise
     @Override
     public double noise1D(int octave, int frequency, double amplitude, double x)
     {
+        if (this.distanceFunction == null) return nearest1D(x);
+        
         int xi = fastFloor(x);
         
         double[] distances = new double[3];
@@ -119,6 +191,8 @@ public class WorleyNoise extends Noise
     @Override
     public double noise2D(int octave, int frequency, double amplitude, double x, double y)
     {
+        if (this.distanceFunction == null) return nearest2D(x, y);
+        
         int xi = fastFloor(x);
         int yi = fastFloor(y);
         
@@ -162,6 +236,8 @@ public class WorleyNoise extends Noise
     @Override
     public double noise3D(int octave, int frequency, double amplitude, double x, double y, double z)
     {
+        if (this.distanceFunction == null) return nearest3D(x, y, z);
+        
         int xi = fastFloor(x);
         int yi = fastFloor(y);
         int zi = fastFloor(z);
@@ -212,6 +288,8 @@ public class WorleyNoise extends Noise
     @Override
     public double noise4D(int octave, int frequency, double amplitude, double x, double y, double z, double w)
     {
+        if (this.distanceFunction == null) return nearest4D(x, y, z, w);
+        
         int xi = fastFloor(x);
         int yi = fastFloor(y);
         int zi = fastFloor(z);
@@ -252,4 +330,251 @@ public class WorleyNoise extends Noise
     
         return this.distanceFunction.apply(distances) / WorleyNoise.MAX_4D * 2.0 - 1.0;
     }
+    
+    // The nearest points are found by keeping the two smallest distances while going through the neighbouring cells,
+    // instead of storing and sorting all of them. The metric's distance only has to keep the order, so it can skip the
+    // square root until the two distances are known.
+    private double nearest1D(double x)
+    {
+        int xi = fastFloor(x);
+        
+        double f1 = Double.MAX_VALUE, f2 = Double.MAX_VALUE;
+        for (int i = -1; i <= 1; i++)
+        {
+            double[] point = this.points1[this.perm[(xi + i) & Noise.TABLE_SIZE_MASK]];
+            
+            double distance = this.metric.distance(x - (xi + i + point[0]));
+            if (distance < f1)
+            {
+                f2 = f1;
+                f1 = distance;
+            }
+            else if (distance < f2)
+            {
+                f2 = distance;
+            }
+        }
+        
+        return this.combiner.applyAsDouble(this.metric.finish(f1), this.metric.finish(f2)) / WorleyNoise.MAX_1D * 2.0 - 1.0;
+    }
+    
+    private double nearest2D(double x, double y)
+    {
+        int xi = fastFloor(x);
+        int yi = fastFloor(y);
+        
+        double f1 = Double.MAX_VALUE, f2 = Double.MAX_VALUE;
+        for (int j = -1; j <= 1; j++)
+        {
+            int gy = (yi + j) & Noise.TABLE_SIZE_MASK;
+            for (int i = -1; i <= 1; i++)
+            {
+                double[] point = this.points2[this.perm[this.perm[(xi + i) & Noise.TABLE_SIZE_MASK] + gy]];
+                
+                double distance = this.metric.distance(x - (xi + i + point[0]), y - (yi + j + point[1]));
+                if (distance < f1)
+                {
+                    f2 = f1;
+                    f1 = distance;
+                }
+                else if (distance < f2)
+                {
+                    f2 = distance;
+                }
+            }
+        }
+        
+        return this.combiner.applyAsDouble(this.metric.finish(f1), this.metric.finish(f2)) / WorleyNoise.MAX_2D * 2.0 - 1.0;
+    }
+    
+    private double nearest3D(double x, double y, double z)
+    {
+        int xi = fastFloor(x);
+        int yi = fastFloor(y);
+        int zi = fastFloor(z);
+        
+        double f1 = Double.MAX_VALUE, f2 = Double.MAX_VALUE;
+        for (int k = -1; k <= 1; k++)
+        {
+            int gz = (zi + k) & Noise.TABLE_SIZE_MASK;
+            for (int j = -1; j <= 1; j++)
+            {
+                int gy = (yi + j) & Noise.TABLE_SIZE_MASK;
+                for (int i = -1; i <= 1; i++)
+                {
+                    double[] point = this.points3[this.perm[this.perm[this.perm[(xi + i) & Noise.TABLE_SIZE_MASK] + gy] + gz]];
+                    
+                    double distance = this.metric.distance(x - (xi + i + point[0]), y - (yi + j + point[1]), z - (zi + k + point[2]));
+                    if (distance < f1)
+                    {
+                        f2 = f1;
+                        f1 = distance;
+                    }
+                    else if (distance < f2)
+                    {
+                        f2 = distance;
+                    }
+                }
+            }
+        }
+        
+        return this.combiner.applyAsDouble(this.metric.finish(f1), this.metric.finish(f2)) / WorleyNoise.MAX_3D * 2.0 - 1.0;
+    }
+    
+    private double nearest4D(double x, double y, double z, double w)
+    {
+        int xi = fastFloor(x);
+        int yi = fastFloor(y);
+        int zi = fastFloor(z);
+        int wi = fastFloor(w);
+        
+        double f1 = Double.MAX_VALUE, f2 = Double.MAX_VALUE;
+        for (int l = -1; l <= 1; l++)
+        {
+            int gw = (wi + l) & Noise.TABLE_SIZE_MASK;
+            for (int k = -1; k <= 1; k++)
+            {
+                int gz = (zi + k) & Noise.TABLE_SIZE_MASK;
+                for (int j = -1; j <= 1; j++)
+                {
+                    int gy = (yi + j) & Noise.TABLE_SIZE_MASK;
+                    for (int i = -1; i <= 1; i++)
+                    {
+                        double[] point = this.points4[this.perm[this.perm[this.perm[this.perm[(xi + i) & Noise.TABLE_SIZE_MASK] + gy] + gz] + gw]];
+                        
+                        double distance = this.metric.distance(x - (xi + i + point[0]), y - (yi + j + point[1]), z - (zi + k + point[2]), w - (wi + l + point[3]));
+                        if (distance < f1)
+                        {
+                            f2 = f1;
+                            f1 = distance;
+                        }
+                        else if (distance < f2)
+                        {
+                            f2 = distance;
+                        }
+                    }
+                }
+            }
+        }
+        
+        return this.combiner.applyAsDouble(this.metric.finish(f1), this.metric.finish(f2)) / WorleyNoise.MAX_4D * 2.0 - 1.0;
+    }
+    
+    /**
+     * The ways that the distance from a coordinate to a point can be measured.
+     */
+    public enum Metric
+    {
+        /**
+         * The straight line distance. Compared squared, so the square root is only taken for the two nearest points.
+         */
+        EUCLIDEAN
+                {
+                    @Override
+                    public double distance(double dx)
+                    {
+                        return dx * dx;
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy)
+                    {
+                        return dx * dx + dy * dy;
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy, double dz)
+                    {
+                        return dx * dx + dy * dy + dz * dz;
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy, double dz, double dw)
+                    {
+                        return dx * dx + dy * dy + dz * dz + dw * dw;
+                    }
+                    
+                    @Override
+                    public double finish(double distance)
+                    {
+                        return Math.sqrt(distance);
+                    }
+                },
+        
+        /**
+         * The sum of the distances along each axis.
+         */
+        MANHATTAN
+                {
+                    @Override
+                    public double distance(double dx)
+                    {
+                        return Math.abs(dx);
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy)
+                    {
+                        return Math.abs(dx) + Math.abs(dy);
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy, double dz)
+                    {
+                        return Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy, double dz, double dw)
+                    {
+                        return Math.abs(dx) + Math.abs(dy) + Math.abs(dz) + Math.abs(dw);
+                    }
+                },
+        
+        /**
+         * The largest of the distances along each axis.
+         */
+        CHEBYSHEV
+                {
+                    @Override
+                    public double distance(double dx)
+                    {
+                        return Math.abs(dx);
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy)
+                    {
+                        return Math.max(Math.abs(dx), Math.abs(dy));
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy, double dz)
+                    {
+                        return Math.max(Math.max(Math.abs(dx), Math.abs(dy)), Math.abs(dz));
+                    }
+                    
+                    @Override
+                    public double distance(double dx, double dy, double dz, double dw)
+                    {
+                        return Math.max(Math.max(Math.abs(dx), Math.abs(dy)), Math.max(Math.abs(dz), Math.abs(dw)));
+                    }
+                };
+        
+        public abstract double distance(double dx);
+        
+        public abstract double distance(double dx, double dy);
+        
+        public abstract double distance(double dx, double dy, double dz);
+        
+        public abstract double distance(double dx, double dy, double dz, double dw);
+        
+        /**
+         * Turns a value from {@code distance} into the real distance.
+         */
+        public double finish(double distance)
+        {
+            return distance;
+        }
+    }
 }
@@ -0,0 +1,13 @@
+#version 460 core
+
+layout(location = 0) in vec2 aPosition;
+layout(location = 1) in vec4 aColor;
+layout(location = 2) in vec4 aTint;
+
+out vec4 color;
+
+void main(void)
+{
+    color = aColor * aTint;
+    gl_Position = vec4(aPosition, 0.0, 1.0);
+}
@@ -0,0 +1,64 @@
+// PerlinNoise. The table is grad2[256][2] followed by grad3[256][3].
+
+vec2 grad2(int index)
+{
+    int i = perm[index] * 2;
+    return vec2(table[i], table[i + 1]);
+}
+
+vec3 grad3(int index)
+{
+    int i = 512 + perm[index] * 3;
+    return vec3(table[i], table[i + 1], table[i + 2]);
+}
+
+float noise2D(vec2 p)
+{
+    ivec2 i0 = ivec2(floor(p));
+
+    int gx0 = i0.x & 255;
+    int gy0 = i0.y & 255;
+    int gx1 = (i0.x + 1) & 255;
+    int gy1 = (i0.y + 1) & 255;
+
+    vec2 d0 = p - vec2(i0);
+    vec2 d1 = d0 - 1.0;
+
+    float x0 = dot(grad2(perm[gx0] + gy0), vec2(d0.x, d0.y));
+    float x1 = dot(grad2(perm[gx1] + gy0), vec2(d1.x, d0.y));
+    float x2 = dot(grad2(perm[gx0] + gy1), vec2(d0.x, d1.y));
+    float x3 = dot(grad2(perm[gx1] + gy1), vec2(d1.x, d1.y));
+
+    return smoothMix(smoothMix(x0, x1, d0.x), smoothMix(x2, x3, d0.x), d0.y);
+}
+
+float noise3D(vec3 p)
+{
+    ivec3 i0 = ivec3(floor(p));
+
+    int gx0 = i0.x & 255;
+    int gy0 = i0.y & 255;
+    int gz0 = i0.z & 255;
+    int gx1 = (i0.x + 1) & 255;
+    int gy1 = (i0.y + 1) & 255;
+    int gz1 = (i0.z + 1) & 255;
+
+    vec3 d0 = p - vec3(i0);
+    vec3 d1 = d0 - 1.0;
+
+    float x0 = dot(grad3(perm[perm[gx0] + gy0] + gz0), vec3(d0.x, d0.y, d0.z));
+    float x1 = dot(grad3(perm[perm[gx1] + gy0] + gz0), vec3(d1.x, d0.y, d0.z));
+    float x2 = dot(grad3(perm[perm[gx0] + gy1] + gz0), vec3(d0.x, d1.y, d0.z));
+    float x3 = dot(grad3(perm[perm[gx1] + gy1] + gz0), vec3(d1.x, d1.y, d0.z));
+    float x4 = dot(grad3(perm[perm[gx0] + gy0] + gz1), vec3(d0.x, d0.y, d1.z));
+    float x5 = dot(grad3(perm[perm[gx1] + gy0] + gz1), vec3(d1.x, d0.y, d1.z));
+    float x6 = dot(grad3(perm[perm[gx0] + gy1] + gz1), vec3(d0.x, d1.y, d1.z));
+    float x7 = dot(grad3(perm[perm[gx1] + gy1] + gz1), vec3(d1.x, d1.y, d1.z));
+
+    float y0 = smoothMix(x0, x1, d0.x);
+    float y1 = smoothMix(x2, x3, d0.x);
+    float y2 = smoothMix(x4, x5, d0.x);
+    float y3 = smoothMix(x6, x7, d0.x);
+
+    return smoothMix(smoothMix(y0, y1, d0.y), smoothMix(y2, y3, d0.y), d0.z);
+}
@@ -0,0 +1,109 @@
+// SimplexNoise. Only uses the permutation table.
+
+const float F2 = 0.36602540378443865; // 0.5 * (sqrt(3.0) - 1.0)
+const float G2 = 0.21132486540518713; // (3.0 - sqrt(3.0)) / 6.0
+const float F3 = 1.0 / 3.0;
+const float G3 = 1.0 / 6.0;
+
+const vec3 GRAD3[12] = vec3[](
+    vec3(1, 1, 0), vec3(-1, 1, 0), vec3(1, -1, 0), vec3(-1, -1, 0),
+    vec3(1, 0, 1), vec3(-1, 0, 1), vec3(1, 0, -1), vec3(-1, 0, -1),
+    vec3(0, 1, 1), vec3(0, -1, 1), vec3(0, 1, -1), vec3(0, -1, -1)
+);
+
+float corner2D(vec2 d, int index)
+{
+    float t = 0.5 - dot(d, d);
+    if (t < 0.0) return 0.0;
+    t *= t;
+    return t * t * dot(d, GRAD3[perm[index] % 12].xy);
+}
+
+float corner3D(vec3 d, int index)
+{
+    float t = 0.6 - dot(d, d);
+    if (t < 0.0) return 0.0;
+    t *= t;
+    return t * t * dot(d, GRAD3[perm[index] % 12]);
+}
+
+float noise2D(vec2 p)
+{
+    // Skew the input space to find the simplex cell.
+    ivec2 i  = ivec2(floor(p + (p.x + p.y) * F2));
+    vec2  d0 = p - (vec2(i) - float(i.x + i.y) * G2);
+
+    ivec2 i1 = d0.x > d0.y ? ivec2(1, 0) : ivec2(0, 1);
+
+    vec2 d1 = d0 - vec2(i1) + G2;
+    vec2 d2 = d0 - 1.0 + 2.0 * G2;
+
+    int ii = i.x & 255;
+    int jj = i.y & 255;
+
+    float n0 = corner2D(d0, ii + perm[jj]);
+    float n1 = corner2D(d1, ii + i1.x + perm[jj + i1.y]);
+    float n2 = corner2D(d2, ii + 1 + perm[jj + 1]);
+
+    return 70.0 * (n0 + n1 + n2);
+}
+
+float noise3D(vec3 p)
+{
+    // Skew the input space to find the simplex cell.
+    ivec3 i  = ivec3(floor(p + (p.x + p.y + p.z) * F3));
+    vec3  d0 = p - (vec3(i) - float(i.x + i.y + i.z) * G3);
+
+    ivec3 i1, i2;
+    if (d0.x >= d0.y)
+    {
+        if (d0.y >= d0.z)
+        {
+            i1 = ivec3(1, 0, 0);
+            i2 = ivec3(1, 1, 0);
+        }
+        else if (d0.x >= d0.z)
+        {
+            i1 = ivec3(1, 0, 0);
+            i2 = ivec3(1, 0, 1);
+        }
+        else
+        {
+            i1 = ivec3(0, 0, 1);
+            i2 = ivec3(1, 0, 1);
+        }
+    }
+    else
+    {
+        if (d0.y < d0.z)
+        {
+            i1 = ivec3(0, 0, 1);
+            i2 = ivec3(0, 1, 1);
+        }
+        else if (d0.x < d0.z)
+        {
+            i1 = ivec3(0, 1, 0);
+            i2 = ivec3(0, 1, 1);
+        }
+        else
+        {
+            i1 = ivec3(0, 1, 0);
+            i2 = ivec3(1, 1, 0);
+        }
+    }
+
+    vec3 d1 = d0 - vec3(i1) + G3;
+    vec3 d2 = d0 - vec3(i2) + 2.0 * G3;
+    vec3 d3 = d0 - 1.0 + 3.0 * G3;
+
+    int ii = i.x & 255;
+    int jj = i.y & 255;
+    int kk = i.z & 255;
+
+    float n0 = corner3D(d0, ii + perm[jj + perm[kk]]);
+    float n1 = corner3D(d1, ii + i1.x + perm[jj + i1.y + perm[kk + i1.z]]);
+    float n2 = corner3D(d2, ii + i2.x + perm[jj + i2.y + perm[kk + i2.z]]);
+    float n3 = corner3D(d3, ii + 1 + perm[jj + 1 + perm[kk + 1]]);
+
+    return 32.0 * (n0 + n1 + n2 + n3);
+}
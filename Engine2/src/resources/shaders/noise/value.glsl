@@ -0,0 +1,53 @@
+// ValueNoise. The table is r[256].
+
+float value(int index)
+{
+    return table[perm[index]];
+}
+
+float noise2D(vec2 p)
+{
+    ivec2 i = ivec2(floor(p));
+    vec2  f = p - vec2(i);
+
+    int rx0 = i.x & 255;
+    int rx1 = (rx0 + 1) & 255;
+    int ry0 = i.y & 255;
+    int ry1 = (ry0 + 1) & 255;
+
+    float x0 = value(perm[rx0] + ry0);
+    float x1 = value(perm[rx1] + ry0);
+    float x2 = value(perm[rx0] + ry1);
+    float x3 = value(perm[rx1] + ry1);
+
+    return smoothMix(smoothMix(x0, x1, f.x), smoothMix(x2, x3, f.x), f.y);
+}
+
+float noise3D(vec3 p)
+{
+    ivec3 i = ivec3(floor(p));
+    vec3  f = p - vec3(i);
+
+    int rx0 = i.x & 255;
+    int rx1 = (rx0 + 1) & 255;
+    int ry0 = i.y & 255;
+    int ry1 = (ry0 + 1) & 255;
+    int rz0 = i.z & 255;
+    int rz1 = (rz0 + 1) & 255;
+
+    float x0 = value(perm[perm[rx0] + ry0] + rz0);
+    float x1 = value(perm[perm[rx1] + ry0] + rz0);
+    float x2 = value(perm[perm[rx0] + ry1] + rz0);
+    float x3 = value(perm[perm[rx1] + ry1] + rz0);
+    float x4 = value(perm[perm[rx0] + ry0] + rz1);
+    float x5 = value(perm[perm[rx1] + ry0] + rz1);
+    float x6 = value(perm[perm[rx0] + ry1] + rz1);
+    float x7 = value(perm[perm[rx1] + ry1] + rz1);
+
+    float y0 = smoothMix(x0, x1, f.x);
+    float y1 = smoothMix(x2, x3, f.x);
+    float y2 = smoothMix(x4, x5, f.x);
+    float y3 = smoothMix(x6, x7, f.x);
+
+    return smoothMix(smoothMix(y0, y1, f.y), smoothMix(y2, y3, f.y), f.z);
+}
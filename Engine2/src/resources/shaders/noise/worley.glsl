@@ -0,0 +1,108 @@
+// WorleyNoise. The table is points2[256][2] followed by points3[256][3].
+
+const float MAX_2D = 2.8284271247461903; // 2 * sqrt(2)
+const float MAX_3D = 4.0;
+
+uniform int metric;   // WorleyNoise.Metric ordinal
+uniform int combiner; // 0 = F1, 1 = F2, 2 = F2_MINUS_F1
+
+vec2 point2(int index)
+{
+    int i = perm[index] * 2;
+    return vec2(table[i], table[i + 1]);
+}
+
+vec3 point3(int index)
+{
+    int i = 512 + perm[index] * 3;
+    return vec3(table[i], table[i + 1], table[i + 2]);
+}
+
+// Euclidean distances are kept squared until the two nearest are known, the same as the CPU.
+float distance2D(vec2 d)
+{
+    if (metric == 0) return dot(d, d);
+    d = abs(d);
+    if (metric == 1) return d.x + d.y;
+    return max(d.x, d.y);
+}
+
+float distance3D(vec3 d)
+{
+    if (metric == 0) return dot(d, d);
+    d = abs(d);
+    if (metric == 1) return d.x + d.y + d.z;
+    return max(max(d.x, d.y), d.z);
+}
+
+float combine(float f1, float f2)
+{
+    if (metric == 0)
+    {
+        f1 = sqrt(f1);
+        f2 = sqrt(f2);
+    }
+    if (combiner == 0) return f1;
+    if (combiner == 1) return f2;
+    return f2 - f1;
+}
+
+float noise2D(vec2 p)
+{
+    ivec2 c = ivec2(floor(p));
+
+    float f1 = 3.4028235e38, f2 = 3.4028235e38;
+    for (int j = -1; j <= 1; j++)
+    {
+        int gy = (c.y + j) & 255;
+        for (int i = -1; i <= 1; i++)
+        {
+            ivec2 cell = c + ivec2(i, j);
+
+            float d = distance2D(p - (vec2(cell) + point2(perm[cell.x & 255] + gy)));
+            if (d < f1)
+            {
+                f2 = f1;
+                f1 = d;
+            }
+            else if (d < f2)
+            {
+                f2 = d;
+            }
+        }
+    }
+
+    return combine(f1, f2) / MAX_2D * 2.0 - 1.0;
+}
+
+float noise3D(vec3 p)
+{
+    ivec3 c = ivec3(floor(p));
+
+    float f1 = 3.4028235e38, f2 = 3.4028235e38;
+    for (int k = -1; k <= 1; k++)
+    {
+        int gz = (c.z + k) & 255;
+        for (int j = -1; j <= 1; j++)
+        {
+            int gy = (c.y + j) & 255;
+            for (int i = -1; i <= 1; i++)
+            {
+                ivec3 cell = c + ivec3(i, j, k);
+
+                float d = distance3D(p - (vec3(cell) + point3(perm[perm[cell.x & 255] + gy] + gz)));
+                if (d < f1)
+                {
+                    f2 = f1;
+                    f1 = d;
+                }
+                else if (d < f2)
+                {
+                    f2 = d;
+                }
+            }
+        }
+    }
+
+    return combine(f1, f2) / MAX_3D * 2.0 - 1.0;
+}
@@ -0,0 +1,21 @@
+#version 460 core
+
+uniform vec4 color;
+uniform vec4 tint;
+uniform sampler2D tex;
+
+in vec2 position;
+in vec2 texCord;
+
+out vec4 FragColor;
+
+void main(void)
+{
+    // The edge of the glyph is at 0.5. The width of the transition is one screen pixel at any scale.
+    float dist = texture(tex, texCord).r;
+    float width = max(fwidth(dist), 0.0001);
+    float alpha = smoothstep(0.5 - width, 0.5 + width, dist);
+    if (alpha == 0) discard;
+    FragColor = color * tint;
+    FragColor.a *= alpha;
+}
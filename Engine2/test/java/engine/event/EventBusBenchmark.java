@@ -0,0 +1,135 @@
+package engine.event;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of posting one event to {@link EventBus} compared to calling the listeners through reflection, the
+ * way that listeners were called before they were generated with {@code LambdaMetafactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark
+{
+    @Param({"1", "10", "100"})
+    public int listeners;
+    
+    Listener[] targets;
+    Event      event;
+    
+    Set<IEventListener> reflection;
+    
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchMethodException
+    {
+        EventBus.start();
+        
+        this.targets = new Listener[this.listeners];
+        for (int i = 0; i < this.listeners; i++)
+        {
+            this.targets[i] = new Listener();
+            EventBus.register(this.targets[i]);
+        }
+        this.event = new BenchmarkEventImpl();
+        
+        // The old dispatch path: a set with a priority marker in front of the listeners that call Method.invoke.
+        Method method = Listener.class.getMethod("onEvent", BenchmarkEvent.class);
+        this.reflection = new LinkedHashSet<>();
+        this.reflection.add(Priority.NORMAL);
+        for (Listener target : this.targets)
+        {
+            this.reflection.add(event -> {
+                try
+                {
+                    method.invoke(target, event);
+                }
+                catch (IllegalAccessException | InvocationTargetException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        for (Listener target : this.targets) EventBus.unregister(target);
+    }
+    
+    @Benchmark
+    public void post()
+    {
+        EventBus.post(this.event);
+    }
+    
+    @Benchmark
+    public void reflection()
+    {
+        for (IEventListener listener : this.reflection)
+        {
+            if (Objects.equals(listener.getClass(), Priority.class)) continue;
+            listener.invoke(this.event);
+        }
+    }
+    
+    @Benchmark
+    public void direct()
+    {
+        for (Listener target : this.targets) target.onEvent((BenchmarkEvent) this.event);
+    }
+    
+    public interface BenchmarkEvent extends Event {}
+    
+    public static class Listener
+    {
+        public int count;
+        
+        @EventBus.Subscribe
+        public void onEvent(BenchmarkEvent event)
+        {
+            this.count++;
+        }
+    }
+    
+    private static class BenchmarkEventImpl implements BenchmarkEvent
+    {
+        private Priority phase;
+        
+        @Override
+        public double time()
+        {
+            return 0;
+        }
+        
+        @Override
+        public Priority getPhase()
+        {
+            return this.phase;
+        }
+        
+        @Override
+        public void setPhase(Priority value)
+        {
+            this.phase = value;
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EventBusBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package engine.render;
+
+import static rutils.StringUtil.println;
+
+/**
+ * Draws the same scene with batching off and on using a {@link RecordingBackend}, so it runs without an OpenGL context,
+ * and checks the number of draws, binds and uploads and the number of vertices that were drawn.
+ * <p>
+ * Throws if a count does not match.
+ */
+public class RendererBatchingTest
+{
+    static final int PRIMITIVES = 100;
+    
+    // The number of vertices streamed for each primitive in the scene, without batching and with batching. The batch
+    // vertices are whole triangles of Batch.VERTEX_SIZE floats.
+    static final int LINE_VERTICES   = 2, LINE_BATCH_VERTICES = 6;
+    static final int CIRCLE_VERTICES = 2, CIRCLE_BATCH_VERTICES = 186; // Fill and outline
+    static final int POINT_VERTICES  = 1, POINT_BATCH_VERTICES = 42;
+    static final int SQUARE_VERTICES = 4 + 16, SQUARE_BATCH_VERTICES = 6 + 36; // Fill and outline
+    
+    static void scene(Renderer renderer)
+    {
+        renderer.start();
+        renderer.clear();
+        for (int i = 0; i < RendererBatchingTest.PRIMITIVES; i++)
+        {
+            renderer.stroke(i & 255, 0, 0);
+            renderer.line(i, 0, i, 100);
+            renderer.fill(0, i & 255, 0);
+            renderer.circle(i, i, 10);
+            renderer.point(i, 2);
+            renderer.square(i, i, 5);
+        }
+        renderer.finish();
+    }
+    
+    static long vertices(RecordingBackend backend)
+    {
+        long vertices = 0;
+        for (RecordingBackend.Command command : backend.commands())
+        {
+            if (command.name.equals("glDrawArrays")) vertices += (int) command.arg(2);
+        }
+        return vertices;
+    }
+    
+    static void check(String name, long expected, long actual)
+    {
+        println(name, "expected:", expected, "actual:", actual);
+        if (expected != actual) throw new RuntimeException(name + " does not match. Expected: " + expected + " Actual: " + actual);
+    }
+    
+    public static void main(String[] args)
+    {
+        RecordingBackend backend = new RecordingBackend();
+        OpenGL.backend(backend);
+        
+        Renderer.init();
+        
+        Renderer renderer = new Renderer(new Texture(800, 600));
+        
+        int n = RendererBatchingTest.PRIMITIVES;
+        
+        // The first frame looks up uniforms and creates the fences of the vertex stream, so only the second is checked.
+        renderer.batching(false);
+        scene(renderer);
+        backend.reset();
+        scene(renderer);
+        
+        println("Batching Off:", backend);
+        // A line, a point and a fill and outline for the circle and the square. Each draw binds its shader and vertex array.
+        check("Draws", 6L * n, backend.commandCount(RecordingBackend.Command.Type.DRAW));
+        check("Binds", 12L * n + 2, backend.commandCount(RecordingBackend.Command.Type.BIND));
+        // The view matrix is uploaded once. Vertices are written into the mapped stream, which is not an upload.
+        check("Uploads", 1, backend.commandCount(RecordingBackend.Command.Type.UPLOAD));
+        check("Uploaded Bytes", 16L * Float.BYTES, backend.uploadedBytes());
+        check("Vertices", (long) (RendererBatchingTest.LINE_VERTICES + RendererBatchingTest.CIRCLE_VERTICES + RendererBatchingTest.POINT_VERTICES + RendererBatchingTest.SQUARE_VERTICES) * n, vertices(backend));
+        
+        renderer.batching(true);
+        scene(renderer);
+        backend.reset();
+        scene(renderer);
+        
+        println("Batching On:", backend);
+        // The whole scene is one draw at the end of the frame. The batch shader and vertex array are still bound from the
+        // first frame, so only the target is bound and unbound.
+        check("Batches", 1, renderer.batchCount());
+        check("Finish Flushes", 1, renderer.flushCount(FlushReason.FINISH));
+        check("Draws", 1, backend.commandCount(RecordingBackend.Command.Type.DRAW));
+        check("Binds", 2, backend.commandCount(RecordingBackend.Command.Type.BIND));
+        check("Uploads", 0, backend.commandCount(RecordingBackend.Command.Type.UPLOAD));
+        check("Uploaded Bytes", 0, backend.uploadedBytes());
+        check("Vertices", (long) (RendererBatchingTest.LINE_BATCH_VERTICES + RendererBatchingTest.CIRCLE_BATCH_VERTICES + RendererBatchingTest.POINT_BATCH_VERTICES + RendererBatchingTest.SQUARE_BATCH_VERTICES) * n, vertices(backend));
+        
+        println("Streamed Bytes:", vertices(backend) * Batch.VERTEX_SIZE * Float.BYTES);
+    }
+}
@@ -0,0 +1,81 @@
+package engine.render;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU side of {@link Renderer} without an OpenGL context by running it on a {@link RecordingBackend} that only counts calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererBenchmark
+{
+    @Param({"false", "true"})
+    public boolean batching;
+    
+    @Param({"100", "1000"})
+    public int primitives;
+    
+    RecordingBackend backend;
+    Renderer         renderer;
+    
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.backend = new RecordingBackend().recording(false);
+        OpenGL.backend(this.backend);
+        
+        Renderer.init();
+        
+        this.renderer = new Renderer(new Texture(800, 600));
+        this.renderer.batching(this.batching);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        System.out.println();
+        System.out.println(this.backend);
+    }
+    
+    @Benchmark
+    public void lines()
+    {
+        this.renderer.start();
+        this.renderer.clear();
+        for (int i = 0; i < this.primitives; i++)
+        {
+            this.renderer.stroke(i & 255, 0, 0);
+            this.renderer.line(i, 0, i, 600);
+        }
+        this.renderer.finish();
+    }
+    
+    @Benchmark
+    public void shapes()
+    {
+        this.renderer.start();
+        this.renderer.clear();
+        for (int i = 0; i < this.primitives; i++)
+        {
+            this.renderer.fill(0, i & 255, 0);
+            this.renderer.circle(i % 800, i % 600, 20);
+            this.renderer.square(i % 800, i % 600, 10);
+            this.renderer.point(i % 800, i % 600);
+        }
+        this.renderer.finish();
+    }
+    
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(RendererBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package engine.render;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.stb.STBImageWrite.stbi_write_png;
+import static rutils.StringUtil.println;
+
+public class SoftwareRendererTest
+{
+    public static void main(String[] args)
+    {
+        RecordingBackend backend = new RecordingBackend();
+        OpenGL.backend(backend);
+        
+        Renderer.init();
+        
+        Texture          target   = new Texture(400, 300);
+        SoftwareRenderer renderer = new SoftwareRenderer(target);
+        
+        long start = System.nanoTime();
+        
+        renderer.start();
+        renderer.clear(51, 51, 51);
+        
+        renderer.stroke(255, 0, 0);
+        renderer.weight(5);
+        renderer.line(10, 10, 390, 290);
+        
+        renderer.fill(0, 255, 0, 127);
+        renderer.circle(200, 150, 80);
+        renderer.arc(200, 150, 120, 120, 0, Math.PI);
+        
+        renderer.fill(0, 0, 255, 200);
+        renderer.polygon(50, 250, 150, 200, 100, 280, 60, 200);
+        
+        renderer.stroke(255, 255, 0);
+        renderer.weight(3);
+        renderer.noFill();
+        renderer.rect(20, 20, 100, 60);
+        
+        renderer.finish();
+        
+        println("Rendered in", (System.nanoTime() - start) / 1_000_000D, "ms with", renderer.rasterizer.threads(), "threads");
+        println(backend);
+        
+        Rasterizer.Pixels pixels = renderer.pixels(target);
+        
+        int        stride = pixels.width * pixels.channels;
+        ByteBuffer buffer = MemoryUtil.memAlloc(pixels.height * stride);
+        for (int j = pixels.height - 1; j >= 0; j--)
+        {
+            for (int i = 0; i < stride; i++) buffer.put((byte) pixels.data[j * stride + i]);
+        }
+        buffer.flip();
+        
+        stbi_write_png("SoftwareRendererTest.png", pixels.width, pixels.height, pixels.channels, buffer, stride);
+        
+        MemoryUtil.memFree(buffer);
+        
+        renderer.destroy();
+    }
+}
@@ -0,0 +1,93 @@
+package engine.util;
+
+import engine.Engine;
+import engine.Keyboard;
+import engine.render.Texture;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static rutils.StringUtil.println;
+
+/**
+ * Fills a texture with each {@link ComputeNoise} generator and compares it to the same area filled by {@link Noise} on the
+ * CPU. Then draws the generators animated over time. Space switches between them.
+ * <p>
+ * Throws if a pixel is more than {@link #TOLERANCE} steps of the 8-bit output away from the CPU value.
+ */
+public class ComputeNoiseTest extends Engine
+{
+    static final int    SIZE = 256;
+    static final double STEP = 0.02;
+    
+    // The texture only has 8 bits, so a value may round to the step next to the expected one.
+    static final int TOLERANCE = 1;
+    
+    ComputeNoise[] generators;
+    Texture        texture;
+    
+    int current = 0;
+    
+    @Override
+    public void setup()
+    {
+        size(ComputeNoiseTest.SIZE, ComputeNoiseTest.SIZE, 2, 2);
+        
+        Noise[] noises = {new ValueNoise(), new PerlinNoise(), new SimplexNoise(), new WorleyNoise()};
+        
+        this.generators = new ComputeNoise[noises.length];
+        this.texture    = new Texture(ComputeNoiseTest.SIZE, ComputeNoiseTest.SIZE, 4);
+        
+        ByteBuffer pixels = MemoryUtil.memAlloc(ComputeNoiseTest.SIZE * ComputeNoiseTest.SIZE * 4);
+        float[]    values = new float[ComputeNoiseTest.SIZE * ComputeNoiseTest.SIZE];
+        try
+        {
+            for (int n = 0; n < noises.length; n++)
+            {
+                noises[n].setSeed(1337);
+                noises[n].octaves(4);
+                
+                this.generators[n] = new ComputeNoise(noises[n]);
+                this.generators[n].noise(this.texture, -3.7, 5.2, 1.5, ComputeNoiseTest.STEP);
+                this.texture.bind();
+                this.texture.get(pixels);
+                this.texture.unbind();
+                
+                noises[n].noise(values, -3.7, 5.2, 1.5, ComputeNoiseTest.STEP, ComputeNoiseTest.SIZE, ComputeNoiseTest.SIZE, 1);
+                
+                int maxDifference = 0;
+                for (int i = 0; i < values.length; i++)
+                {
+                    int expected = Math.round((values[i] * 0.5F + 0.5F) * 255);
+                    maxDifference = Math.max(maxDifference, Math.abs(expected - (pixels.get(i << 2) & 0xFF)));
+                }
+                
+                String name = noises[n].getClass().getSimpleName();
+                println(name, "max difference:", maxDifference);
+                if (maxDifference > ComputeNoiseTest.TOLERANCE)
+                {
+                    throw new RuntimeException(name + " does not match. Max Difference: " + maxDifference + " Tolerance: " + ComputeNoiseTest.TOLERANCE);
+                }
+            }
+        }
+        finally
+        {
+            MemoryUtil.memFree(pixels);
+        }
+    }
+    
+    @Override
+    public void draw(double elapsedTime)
+    {
+        if (keyboard().down(Keyboard.Key.SPACE)) this.current = (this.current + 1) % this.generators.length;
+        
+        this.generators[this.current].noise(this.texture, 0, 0, seconds() * 0.5, ComputeNoiseTest.STEP);
+        
+        texture(this.texture, 0, 0);
+    }
+    
+    public static void main(String[] args)
+    {
+        start(new ComputeNoiseTest());
+    }
+}
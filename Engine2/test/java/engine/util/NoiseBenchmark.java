@@ -0,0 +1,84 @@
+package engine.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of filling a 64x64 grid with noise by calling {@link Noise#noise(double...)} once per cell compared
+ * to the bulk {@link Noise#noise(double[], double, double, double, int, int)}, which does not make the coordinate arrays
+ * or pick the dimension for each cell, and to {@link ParallelNoise}, which shares the grid out between the threads of
+ * the common pool in 16x16 tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark
+{
+    private static final int    SIZE = 64;
+    private static final double STEP = 0.05;
+    
+    @Param({Noise.VALUE, Noise.PERLIN, Noise.SIMPLEX, Noise.OPEN_SIMPLEX, Noise.WORLEY})
+    public String type;
+    
+    Noise         noise;
+    ParallelNoise parallelNoise;
+    
+    double[] out;
+    
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.noise = switch (this.type)
+                {
+                    case Noise.VALUE -> new ValueNoise();
+                    case Noise.PERLIN -> new PerlinNoise();
+                    case Noise.SIMPLEX -> new SimplexNoise();
+                    case Noise.OPEN_SIMPLEX -> new OpenSimplexNoise();
+                    default -> new WorleyNoise();
+                };
+        this.noise.setSeed(1337);
+        this.noise.octaves(4);
+        
+        this.parallelNoise = new ParallelNoise(this.noise, ForkJoinPool.commonPool(), 16);
+        
+        this.out = new double[NoiseBenchmark.SIZE * NoiseBenchmark.SIZE];
+    }
+    
+    @Benchmark
+    public double[] scalar()
+    {
+        for (int j = 0, index = 0; j < NoiseBenchmark.SIZE; j++)
+        {
+            for (int i = 0; i < NoiseBenchmark.SIZE; i++)
+            {
+                this.out[index++] = this.noise.noise(i * NoiseBenchmark.STEP, j * NoiseBenchmark.STEP);
+            }
+        }
+        return this.out;
+    }
+    
+    @Benchmark
+    public double[] bulk()
+    {
+        return this.noise.noise(this.out, 0.0, 0.0, NoiseBenchmark.STEP, NoiseBenchmark.SIZE, NoiseBenchmark.SIZE);
+    }
+    
+    @Benchmark
+    public double[] parallel()
+    {
+        return this.parallelNoise.noise(this.out, 0.0, 0.0, NoiseBenchmark.STEP, NoiseBenchmark.SIZE, NoiseBenchmark.SIZE);
+    }
+    
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(NoiseBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,76 @@
+package engine.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of sampling a 64x64 window of 4 octave Perlin noise that scrolls by one cell each frame, by calling
+ * {@link Noise#noise(double...)} for every cell compared to sampling a {@link NoiseCache} that already holds the tiles
+ * around the window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseCacheBenchmark
+{
+    private static final int    SIZE = 64;
+    private static final double STEP = 0.05;
+    
+    Noise      noise;
+    NoiseCache cache;
+    
+    double[] out;
+    int      frame;
+    
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.noise = new PerlinNoise();
+        this.noise.setSeed(1337);
+        this.noise.octaves(4);
+        
+        this.cache = new NoiseCache(this.noise, NoiseCacheBenchmark.STEP);
+        
+        this.out = new double[NoiseCacheBenchmark.SIZE * NoiseCacheBenchmark.SIZE];
+    }
+    
+    @Benchmark
+    public double[] direct()
+    {
+        int offset = this.frame++ % NoiseCacheBenchmark.SIZE;
+        for (int j = 0, index = 0; j < NoiseCacheBenchmark.SIZE; j++)
+        {
+            for (int i = 0; i < NoiseCacheBenchmark.SIZE; i++)
+            {
+                this.out[index++] = this.noise.noise((i + offset) * NoiseCacheBenchmark.STEP, j * NoiseCacheBenchmark.STEP);
+            }
+        }
+        return this.out;
+    }
+    
+    @Benchmark
+    public double[] cached()
+    {
+        int offset = this.frame++ % NoiseCacheBenchmark.SIZE;
+        for (int j = 0, index = 0; j < NoiseCacheBenchmark.SIZE; j++)
+        {
+            for (int i = 0; i < NoiseCacheBenchmark.SIZE; i++)
+            {
+                this.out[index++] = this.cache.sample((i + offset) * NoiseCacheBenchmark.STEP, j * NoiseCacheBenchmark.STEP);
+            }
+        }
+        return this.out;
+    }
+    
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(NoiseCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package engine.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Measures how many {@link WorleyNoise} samples can be made per second when the nearest points are found by sorting the
+ * distances to all of them and passing them to a distance function, compared to keeping only the two nearest distances
+ * and passing them to a combiner.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(WorleyNoiseBenchmark.SAMPLES)
+public class WorleyNoiseBenchmark
+{
+    static final int SAMPLES = 16 * 16 * 16;
+    
+    private static final double STEP = 0.1;
+    
+    @Param({"F1", "F2_MINUS_F1"})
+    public String combiner;
+    
+    WorleyNoise sorted;
+    WorleyNoise nearest;
+    
+    double[] out;
+    
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Function<double[], Double> distanceFunction;
+        DoubleBinaryOperator       combiner;
+        if (this.combiner.equals("F1"))
+        {
+            distanceFunction = arr -> arr[0];
+            combiner         = WorleyNoise.F1;
+        }
+        else
+        {
+            distanceFunction = arr -> arr[1] - arr[0];
+            combiner         = WorleyNoise.F2_MINUS_F1;
+        }
+        
+        this.sorted = new WorleyNoise();
+        this.sorted.setSeed(1337);
+        this.sorted.setProperty("distanceFunction", distanceFunction);
+        
+        this.nearest = new WorleyNoise();
+        this.nearest.setSeed(1337);
+        this.nearest.combiner(combiner);
+        
+        this.out = new double[WorleyNoiseBenchmark.SAMPLES];
+    }
+    
+    @Benchmark
+    public double[] sorted2D()
+    {
+        return this.sorted.noise(this.out, 0.0, 0.0, WorleyNoiseBenchmark.STEP, 64, 64);
+    }
+    
+    @Benchmark
+    public double[] nearest2D()
+    {
+        return this.nearest.noise(this.out, 0.0, 0.0, WorleyNoiseBenchmark.STEP, 64, 64);
+    }
+    
+    @Benchmark
+    public double[] sorted3D()
+    {
+        return this.sorted.noise(this.out, 0.0, 0.0, 0.0, WorleyNoiseBenchmark.STEP, 16, 16, 16);
+    }
+    
+    @Benchmark
+    public double[] nearest3D()
+    {
+        return this.nearest.noise(this.out, 0.0, 0.0, 0.0, WorleyNoiseBenchmark.STEP, 16, 16, 16);
+    }
+    
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(WorleyNoiseBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -7,7 +7,7 @@ import static rutils.NumUtil.map;
 
 public class CC005_MarchingSquares extends Engine
 {
-    double[][] field;
+    double[] field;
     
     final int rez = 20;
     int cols, rows;
@@ -20,7 +20,7 @@ public class CC005_MarchingSquares extends Engine
         cols = 1 + screenWidth() / rez;
         rows = 1 + screenHeight() / rez;
         
-        field = new double[cols][rows];
+        field = new double[cols * rows];
     }
     
     @Override
@@ -28,13 +28,7 @@ public class CC005_MarchingSquares extends Engine
     {
         double t = seconds() * map(mouse().x(), 0, screenWidth() - 1, 0, 1);
         
-        for (int i = 0; i < cols; i++)
-        {
-            for (int j = 0; j < rows; j++)
-            {
-                field[i][j] = noise(i * 0.1, j * 0.1, t);
-            }
-        }
+        noise(field, 0, 0, t, 0.1, cols, rows, 1);
         
         clear();
         weight(rez * 0.4);
@@ -42,7 +36,7 @@ public class CC005_MarchingSquares extends Engine
         {
             for (int j = 0; j < rows; j++)
             {
-                stroke(field[i][j]);
+                stroke(field(i, j));
                 point(i * rez, j * rez);
             }
         }
@@ -61,7 +55,7 @@ public class CC005_MarchingSquares extends Engine
                 Vector2d c = new Vector2d(x + rez * 0.5, y + rez);
                 Vector2d d = new Vector2d(x, y + rez * 0.5);
                 
-                int state = getState((int) Math.ceil(field[i][j]), (int) Math.ceil(field[i + 1][j]), (int) Math.ceil(field[i + 1][j + 1]), (int) Math.ceil(field[i][j + 1]));
+                int state = getState((int) Math.ceil(field(i, j)), (int) Math.ceil(field(i + 1, j)), (int) Math.ceil(field(i + 1, j + 1)), (int) Math.ceil(field(i, j + 1)));
                 
                 switch (state)
                 {
@@ -106,6 +100,11 @@ public class CC005_MarchingSquares extends Engine
         }
     }
     
+    double field(int i, int j)
+    {
+        return field[j * cols + i];
+    }
+    
     void line(Vector2d v1, Vector2d v2)
     {
         line(v1.x, v1.y, v2.x, v2.y);
@@ -1,13 +1,15 @@
 package engine.ct;
 
 import engine.Engine;
+import engine.color.Color;
 import engine.event.EventBus;
 import engine.event.EventMouseButtonDown;
-import engine.render.Overloads;
+import engine.render.CommandBuffer;
 import engine.render.RectMode;
 import org.joml.Vector2d;
 
 import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 import static rutils.NumUtil.sum;
 
@@ -46,25 +48,29 @@ public class CT002_MengerSponge extends Engine
             return boxes;
         }
         
-        void show()
+        void show(CommandBuffer buffer)
         {
-            push();
-            Overloads.translate(renderer(), this.pos);
-            noStroke();
-            fill(255);
-            Overloads.square(renderer(), this.pos, this.r);
-            pop();
+            buffer.push();
+            buffer.translate(this.pos.x, this.pos.y);
+            buffer.noStroke();
+            buffer.fill(Color.WHITE);
+            buffer.square(this.pos.x, this.pos.y, this.r);
+            buffer.pop();
         }
     }
     
     ArrayList<Box> sponge = new ArrayList<>();
     
+    final CommandBuffer[] buffers = new CommandBuffer[Runtime.getRuntime().availableProcessors()];
+    
     @Override
     public void setup()
     {
         size(400, 400, 1, 1);
         
         sponge.add(new Box(new Vector2d(0, 0), 300));
+        
+        for (int i = 0; i < buffers.length; i++) buffers[i] = new CommandBuffer();
     }
     
     @EventBus.Subscribe
@@ -85,10 +91,13 @@ public class CT002_MengerSponge extends Engine
         scale(0.5, 0.5);
         rectMode(RectMode.RADIUS);
         
-        for (Box box : sponge)
-        {
-            box.show();
-        }
+        // Each worker records a slice of the boxes, only the replay touches GL.
+        int n = (sponge.size() + buffers.length - 1) / buffers.length;
+        IntStream.range(0, buffers.length).parallel().forEach(i -> {
+            for (int j = i * n, end = Math.min(j + n, sponge.size()); j < end; j++) sponge.get(j).show(buffers[i]);
+        });
+        for (CommandBuffer buffer : buffers) submit(buffer);
+        replay();
     }
     
     @Override
@@ -6,10 +6,13 @@ import engine.Mouse;
 import engine.color.Color;
 import engine.color.Colorc;
 import engine.gui.EEXT_GUI;
+import engine.render.PixelBuffer;
 import engine.render.Texture;
+import engine.render.TextureLoader;
 import org.joml.Vector2d;
 import org.joml.Vector3d;
 
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -80,6 +83,9 @@ public class VoxelSpace extends Engine
     static class TextureHeightMap extends HeightMap
     {
         static final Color TEMP = new Color();
+        
+        TextureLoader.Handle colorHandle;
+        TextureLoader.Handle heightHandle;
     
         Texture colorTexture;
         Texture heightTexture;
@@ -187,10 +193,26 @@ public class VoxelSpace extends Engine
     {
         String[] files = fileNames.split(";");
         
-        map.colorTexture  = Texture.loadImage("maps/" + files[0] + ".png");
-        map.heightTexture = Texture.loadImage("maps/" + files[1] + ".png");
+        // The new images are loaded before the old ones are released, so images that the maps share stay cached.
+        TextureLoader.Handle colorHandle  = TextureLoader.load("maps/" + files[0] + ".png");
+        TextureLoader.Handle heightHandle = TextureLoader.load("maps/" + files[1] + ".png");
+        
+        if (map.colorHandle != null) map.colorHandle.release();
+        if (map.heightHandle != null) map.heightHandle.release();
+        
+        map.colorHandle  = colorHandle;
+        map.heightHandle = heightHandle;
         
-        notification("Loaded Map: " + fileNames);
+        // Completed on the render thread, so the old map is drawn until both images of the new map are uploaded.
+        colorHandle.future().thenAcceptBoth(heightHandle.future(), (color, height) -> {
+            map.colorTexture      = color;
+            map.colorTextureData  = color.bind().get();
+            map.heightTexture     = height;
+            map.heightTextureData = height.bind().get();
+            height.unbind();
+            
+            notification("Loaded Map: " + fileNames);
+        });
     }
     
     final Camera camera = new Camera();
@@ -289,6 +311,8 @@ public class VoxelSpace extends Engine
             loadMap(maps.get(selectedMap));
         }
         
+        if (map.colorTextureData == null || map.heightTextureData == null) return;
+        
         double sensitivity = 4;
         
         // Movement
@@ -432,22 +456,24 @@ public class VoxelSpace extends Engine
             camera.onGround = true;
         }
         
-        clear(background);
-        
-        int[] pixels = loadPixels();
+        // Every pixel is written, so the target does not need to be cleared or read back.
+        PixelBuffer pixels = pixelBuffer();
         
-        // ApacheDraw(pixels);
-        SteepParallax(pixels);
+        // ApacheDraw(pixels.pixels());
+        SteepParallax(pixels.pixels());
         
-        updatePixels();
+        pixels.markDirty();
+        updatePixelBuffer();
         
         drawDebugText(0, 0, "camera.pos: " + camera.pos.toString());
         drawDebugText(0, 12, "camera.vel: " + camera.vel.toString());
         drawDebugText(0, 24, "camera.look: " + camera.look.toString());
     }
     
-    void ApacheDraw(int[] pixels)
+    void ApacheDraw(IntBuffer pixels)
     {
+        for (int i = 0, n = pixels.capacity(); i < n; i++) pixels.put(i, background.toInt());
+        
         double angle   = -Math.atan2(camera.right.z, camera.right.x);
         double horizon = screenHeight() * (1 - camera.up.dot(camera.look)); // TODO - I need to think for about this math
         
@@ -487,7 +513,7 @@ public class VoxelSpace extends Engine
         }
     }
     
-    void SteepParallax(int[] pixels)
+    void SteepParallax(IntBuffer pixels)
     {
         Vector3d temp1 = new Vector3d();
         Vector3d temp2 = new Vector3d();
@@ -510,7 +536,7 @@ public class VoxelSpace extends Engine
             
             for (int i = 0; i < screenWidth(); i++)
             {
-                int index = (offset + i) * 4;
+                int index = offset + i;
                 
                 double px = (i * 2.0 - screenWidth()) / min;
                 double py = (j * 2.0 - screenHeight()) / min;
@@ -521,13 +547,21 @@ public class VoxelSpace extends Engine
                 
                 cameraRay.set(temp1).add(temp2).sub(temp3).normalize();
                 
-                if (cameraRay.y >= 0) continue;
+                if (cameraRay.y >= 0)
+                {
+                    pixels.put(index, background.toInt());
+                    continue;
+                }
                 
                 double signedDist = camera.up.dot(camera.pos);
                 
                 double d = -signedDist / cameraRay.dot(camera.up);
                 
-                if (d * 0.25 > camera.distance) continue;
+                if (d * 0.25 > camera.distance)
+                {
+                    pixels.put(index, background.toInt());
+                    continue;
+                }
                 
                 temp1.set(cameraRay).mul(d);
                 temp2.set(camera.pos).add(temp1);
@@ -549,32 +583,26 @@ public class VoxelSpace extends Engine
                 
                 Colorc color = sampleColor ? map.getColor(textCord.x, textCord.y) : map.getColorFast(textCord.x, textCord.y);
                 
-                pixels[index]     = color.r();
-                pixels[index + 1] = color.g();
-                pixels[index + 2] = color.b();
-                pixels[index + 3] = 255;
+                pixels.put(index, 0xFF000000 | (color.r() << 16) | (color.g() << 8) | color.b());
                 
-                // pixels[index]     = 255 * i / screenWidth();
-                // pixels[index + 1] = 255 * j / screenHeight();
-                // pixels[index + 2] = 0;
-                // pixels[index + 3] = 255;
+                // pixels.put(index, 0xFF000000 | (255 * i / screenWidth() << 16) | (255 * j / screenHeight() << 8));
             }
         }
     }
     
-    void DrawVerticalLine(int x, int yTop, int yBottom, Colorc col, int[] data)
+    void DrawVerticalLine(int x, int yTop, int yBottom, Colorc col, IntBuffer data)
     {
         if (yTop < 0) yTop = 0;
         if (yTop > yBottom) return;
         
+        int argb = 0xFF000000 | (col.r() << 16) | (col.g() << 8) | col.b();
+        
         // get offset on screen for the vertical line
-        int offset = ((yTop * screenWidth()) + x) * 4;
+        int offset = (yTop * screenWidth()) + x;
         for (int k = yTop; k < yBottom; k++)
         {
-            data[offset]     = col.r();
-            data[offset + 1] = col.g();
-            data[offset + 2] = col.b();
-            offset           = offset + screenWidth() * 4;
+            data.put(offset, argb);
+            offset = offset + screenWidth();
         }
     }
     